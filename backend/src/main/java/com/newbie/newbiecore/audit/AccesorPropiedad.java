@@ -0,0 +1,73 @@
+package com.newbie.newbiecore.audit;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lectura de propiedades por nombre sin reflexión en cada llamada.
+ *
+ * El accesor de cada (clase, propiedad) se resuelve una sola vez a un
+ * {@link MethodHandle} y se guarda en un {@link ClassValue}, que se libera junto
+ * con la clase.
+ */
+final class AccesorPropiedad {
+
+    private static final MethodType TIPO_GENERICO = MethodType.methodType(Object.class, Object.class);
+
+    // Marca "la clase no tiene esa propiedad" (ConcurrentHashMap no admite null)
+    private static final MethodHandle SIN_ACCESOR = MethodHandles.dropArguments(
+            MethodHandles.constant(Object.class, null), 0, Object.class);
+
+    private static final ClassValue<Map<String, MethodHandle>> ACCESORES = new ClassValue<>() {
+        @Override
+        protected Map<String, MethodHandle> computeValue(Class<?> tipo) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private AccesorPropiedad() {
+    }
+
+    /**
+     * Devuelve el valor de la propiedad, o null si el objeto es null o su clase
+     * no expone esa propiedad.
+     */
+    static Object leer(Object objeto, String propiedad) {
+        if (objeto == null) {
+            return null;
+        }
+        MethodHandle accesor = ACCESORES.get(objeto.getClass())
+                .computeIfAbsent(propiedad, p -> resolver(objeto.getClass(), p));
+        try {
+            return accesor.invokeExact(objeto);
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    private static MethodHandle resolver(Class<?> tipo, String propiedad) {
+        String sufijo = Character.toUpperCase(propiedad.charAt(0)) + propiedad.substring(1);
+        for (String nombre : new String[] { "get" + sufijo, "is" + sufijo, propiedad }) {
+            try {
+                Method metodo = tipo.getMethod(nombre);
+                if (metodo.getReturnType() == void.class || Modifier.isStatic(metodo.getModifiers())) {
+                    continue;
+                }
+                // Clases no públicas (records anidados, DTO de paquete) exponen
+                // métodos públicos que el lookup no alcanza sin esto
+                metodo.setAccessible(true);
+                return MethodHandles.lookup().unreflect(metodo).asType(TIPO_GENERICO);
+            } catch (NoSuchMethodException e) {
+                // probar el siguiente nombre
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return SIN_ACCESOR;
+            }
+        }
+        return SIN_ACCESOR;
+    }
+}
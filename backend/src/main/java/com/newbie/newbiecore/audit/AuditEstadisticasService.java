@@ -0,0 +1,240 @@
+package com.newbie.newbiecore.audit;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Estadísticas de auditoría servidas desde la tabla acumulada
+ * {@code audit_estadisticas_horarias} (hora × acción × tipo de entidad ×
+ * usuario). {@link AuditWriter} la actualiza en la misma transacción en que
+ * inserta cada lote en {@code audit_logs}, así que las consultas no dependen
+ * del volumen de auditoría.
+ */
+@Slf4j
+@Service
+public class AuditEstadisticasService {
+
+    private static final String TABLA = "audit_estadisticas_horarias";
+    // Clave usada en lugar de null (la PK no lo admite)
+    private static final String SIN_VALOR = "";
+    private static final int TOP = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttlCache;
+
+    private volatile EstadisticasCacheadas cache;
+
+    public AuditEstadisticasService(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.audit.estadisticas.cache-ttl-ms:10000}") long ttlCacheMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttlCache = Duration.ofMillis(ttlCacheMs);
+    }
+
+    @PostConstruct
+    void crearTabla() {
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS audit_estadisticas_horarias (
+                    hora TIMESTAMP NOT NULL,
+                    accion VARCHAR(100) NOT NULL,
+                    entity_type VARCHAR(100) NOT NULL,
+                    username VARCHAR(100) NOT NULL,
+                    cantidad BIGINT NOT NULL,
+                    PRIMARY KEY (hora, accion, entity_type, username)
+                )
+                """);
+    }
+
+    /*
+     * =============================
+     * LECTURA
+     * =============================
+     */
+
+    /**
+     * Totales (histórico, hoy, últimos 7 días) y desglose de la semana por
+     * acción, tipo de entidad y usuario.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> obtenerEstadisticas() {
+        EstadisticasCacheadas actual = cache;
+        if (actual != null && Instant.now().isBefore(actual.expira())) {
+            return actual.estadisticas();
+        }
+
+        Map<String, Object> estadisticas = calcular();
+        cache = new EstadisticasCacheadas(estadisticas, Instant.now().plus(ttlCache));
+        return estadisticas;
+    }
+
+    public void invalidarCache() {
+        cache = null;
+    }
+
+    private Map<String, Object> calcular() {
+        LocalDateTime inicioHoy = LocalDate.now().atStartOfDay();
+        LocalDateTime inicioSemana = inicioHoy.minusDays(7);
+
+        Map<String, Object> stats = new HashMap<>();
+        jdbcTemplate.query("""
+                SELECT COALESCE(SUM(cantidad), 0) AS total,
+                       COALESCE(SUM(cantidad) FILTER (WHERE hora >= ?), 0) AS hoy,
+                       COALESCE(SUM(cantidad) FILTER (WHERE hora >= ?), 0) AS semana
+                FROM audit_estadisticas_horarias
+                """,
+                rs -> {
+                    stats.put("totalRegistros", rs.getLong("total"));
+                    stats.put("registrosHoy", rs.getLong("hoy"));
+                    stats.put("registrosSemana", rs.getLong("semana"));
+                },
+                Timestamp.valueOf(inicioHoy), Timestamp.valueOf(inicioSemana));
+
+        // Desglose de la semana: una fila por (acción, tipo, usuario) con GROUPING SETS
+        Map<String, Long> porAccion = new LinkedHashMap<>();
+        Map<String, Long> porTipoEntidad = new LinkedHashMap<>();
+        Map<String, Long> porUsuario = new LinkedHashMap<>();
+        jdbcTemplate.query("""
+                SELECT GROUPING(accion) AS g_accion,
+                       GROUPING(entity_type) AS g_tipo,
+                       accion, entity_type, username,
+                       SUM(cantidad) AS cantidad
+                FROM audit_estadisticas_horarias
+                WHERE hora >= ?
+                GROUP BY GROUPING SETS ((accion), (entity_type), (username))
+                ORDER BY cantidad DESC
+                """,
+                rs -> {
+                    if (rs.getInt("g_accion") == 0) {
+                        porAccion.put(rs.getString("accion"), rs.getLong("cantidad"));
+                    } else if (rs.getInt("g_tipo") == 0) {
+                        porTipoEntidad.put(texto(rs.getString("entity_type")), rs.getLong("cantidad"));
+                    } else if (porUsuario.size() < TOP) {
+                        porUsuario.put(texto(rs.getString("username")), rs.getLong("cantidad"));
+                    }
+                },
+                Timestamp.valueOf(inicioSemana));
+
+        stats.put("semanaPorAccion", porAccion);
+        stats.put("semanaPorTipoEntidad", porTipoEntidad);
+        stats.put("semanaUsuariosMasActivos", porUsuario);
+        return stats;
+    }
+
+    /*
+     * =============================
+     * MANTENIMIENTO INCREMENTAL
+     * =============================
+     */
+
+    /**
+     * Suma un lote de eventos a la tabla acumulada. Se llama dentro de la
+     * transacción que inserta el lote en {@code audit_logs}.
+     */
+    void acumular(List<AuditEvento> lote) {
+        Map<ClaveHora, Long> conteos = new HashMap<>();
+        for (AuditEvento e : lote) {
+            LocalDateTime momento = e.timestamp() != null ? e.timestamp() : LocalDateTime.now();
+            conteos.merge(new ClaveHora(
+                    momento.truncatedTo(ChronoUnit.HOURS),
+                    e.action(),
+                    e.entityType() != null ? e.entityType() : SIN_VALOR,
+                    e.username() != null ? e.username() : SIN_VALOR), 1L, Long::sum);
+        }
+
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO audit_estadisticas_horarias (hora, accion, entity_type, username, cantidad)
+                VALUES (?, ?, ?, ?, ?)
+                ON CONFLICT (hora, accion, entity_type, username)
+                DO UPDATE SET cantidad = audit_estadisticas_horarias.cantidad + EXCLUDED.cantidad
+                """,
+                // Orden fijo de filas para que dos lotes concurrentes no se bloqueen mutuamente
+                conteos.entrySet().stream()
+                        .sorted(Map.Entry.comparingByKey(ORDEN_CLAVES))
+                        .map(c -> new Object[] {
+                                Timestamp.valueOf(c.getKey().hora()),
+                                c.getKey().accion(),
+                                c.getKey().entityType(),
+                                c.getKey().username(),
+                                c.getValue() })
+                        .toList());
+        // Sin invalidar la caché: con auditoría continua se vaciaría en cada lote;
+        // las estadísticas se refrescan al vencer el TTL
+    }
+
+    /*
+     * =============================
+     * RECONSTRUCCIÓN COMPLETA
+     * =============================
+     */
+
+    /**
+     * Recalcula la tabla acumulada desde {@code audit_logs}. Se ejecuta al
+     * arrancar si la tabla está vacía (primer despliegue) y bajo demanda desde
+     * {@code POST /api/auditoria/estadisticas/reconstruir}.
+     *
+     * Ojo: las particiones eliminadas por retención ya no se pueden recontar.
+     */
+    public long reconstruir() {
+        int filas = transactionTemplate.execute(status -> {
+            // Bloquea las actualizaciones incrementales mientras se recalcula
+            jdbcTemplate.execute("LOCK TABLE " + TABLA + " IN EXCLUSIVE MODE");
+            jdbcTemplate.update("DELETE FROM " + TABLA);
+            return jdbcTemplate.update("""
+                    INSERT INTO audit_estadisticas_horarias (hora, accion, entity_type, username, cantidad)
+                    SELECT date_trunc('hour', timestamp), action,
+                           COALESCE(entity_type, ''), COALESCE(username, ''), COUNT(*)
+                    FROM audit_logs
+                    GROUP BY 1, 2, 3, 4
+                    """);
+        });
+
+        invalidarCache();
+        log.info("Tabla {} reconstruida: {} filas", TABLA, filas);
+        return filas;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruirSiVacia() {
+        Boolean vacia = jdbcTemplate.queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM " + TABLA + ")", Boolean.class);
+        if (Boolean.TRUE.equals(vacia)) {
+            reconstruir();
+        }
+    }
+
+    private static String texto(String valor) {
+        return valor == null || valor.isEmpty() ? "N/A" : valor;
+    }
+
+    private static final Comparator<ClaveHora> ORDEN_CLAVES = Comparator.comparing(ClaveHora::hora)
+            .thenComparing(ClaveHora::accion)
+            .thenComparing(ClaveHora::entityType)
+            .thenComparing(ClaveHora::username);
+
+    private record ClaveHora(LocalDateTime hora, String accion, String entityType, String username) {}
+
+    private record EstadisticasCacheadas(Map<String, Object> estadisticas, Instant expira) {}
+}
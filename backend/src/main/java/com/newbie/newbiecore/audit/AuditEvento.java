@@ -0,0 +1,20 @@
+package com.newbie.newbiecore.audit;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de auditoría ya resuelto en el hilo que lo genera: usuario, IP y
+ * valores serializados se capturan antes de encolarlo, porque el contexto de
+ * seguridad y la petición HTTP no existen en el hilo escritor.
+ */
+public record AuditEvento(
+        String action,
+        String entityType,
+        String entityKey,
+        String oldValue,
+        String newValue,
+        String details,
+        String username,
+        String ipAddress,
+        LocalDateTime timestamp) {
+}
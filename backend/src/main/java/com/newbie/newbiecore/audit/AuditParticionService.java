@@ -0,0 +1,328 @@
+package com.newbie.newbiecore.audit;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSetMetaData;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Mantiene {@code audit_logs} particionada por mes (RANGE sobre
+ * {@code timestamp}).
+ *
+ * <ul>
+ * <li>Al arrancar convierte la tabla plana que crea Hibernate en tabla
+ * particionada (una sola vez) y crea los índices compuestos.</li>
+ * <li>Cada noche crea las particiones de los próximos meses y aplica la
+ * retención: las particiones más antiguas que {@code app.audit.retencion-meses}
+ * se exportan a NDJSON comprimido (si hay {@code app.audit.archivo-dir}) y se
+ * eliminan. Con retención 0 no se elimina nada.</li>
+ * </ul>
+ *
+ * Los índices se crean aquí y no con {@code @Index} en la entidad porque
+ * Hibernate no reconoce los índices de una tabla particionada y los
+ * intentaría crear en cada arranque.
+ */
+@Slf4j
+@Service
+@DependsOn("entityManagerFactory")
+public class AuditParticionService {
+
+    private static final DateTimeFormatter SUFIJO = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int mesesFuturos;
+    private final int retencionMeses;
+    private final String archivoDir;
+    private final String tabla;
+
+    @Autowired
+    public AuditParticionService(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.audit.particiones-futuras:3}") int mesesFuturos,
+            @Value("${app.audit.retencion-meses:0}") int retencionMeses,
+            @Value("${app.audit.archivo-dir:}") String archivoDir) {
+        this(jdbcTemplate, transactionManager, mesesFuturos, retencionMeses, archivoDir, "audit_logs");
+    }
+
+    /**
+     * Con otra tabla, para probar la migración y la retención sin tocar
+     * {@code audit_logs}. Secuencia, particiones e índices toman su nombre.
+     */
+    AuditParticionService(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            int mesesFuturos,
+            int retencionMeses,
+            String archivoDir,
+            String tabla) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.mesesFuturos = mesesFuturos;
+        this.retencionMeses = retencionMeses;
+        this.archivoDir = archivoDir;
+        this.tabla = tabla;
+    }
+
+    @PostConstruct
+    void inicializar() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                String tipo = jdbcTemplate.query(
+                        "SELECT c.relkind::text FROM pg_class c WHERE c.oid = to_regclass(?)",
+                        rs -> rs.next() ? rs.getString(1) : null,
+                        tabla);
+                if ("p".equals(tipo)) {
+                    return;
+                }
+                if (tipo == null) {
+                    crearTablaParticionada();
+                } else {
+                    migrarTablaPlana();
+                }
+            });
+            crearIndices();
+            asegurarParticiones(YearMonth.now(), mesesFuturos);
+        } catch (Exception e) {
+            log.error("No se pudo preparar el particionado de {}: {}", tabla, e.getMessage(), e);
+        }
+    }
+
+    /*
+     * =============================
+     * MANTENIMIENTO PROGRAMADO
+     * =============================
+     */
+    @Scheduled(cron = "${app.audit.mantenimiento-cron:0 15 2 * * *}")
+    public void mantenimiento() {
+        asegurarParticiones(YearMonth.now(), mesesFuturos);
+        if (retencionMeses > 0) {
+            aplicarRetencion(YearMonth.now().minusMonths(retencionMeses));
+        }
+    }
+
+    /**
+     * Archiva (si procede) y elimina las particiones cuyo mes es anterior a
+     * {@code primerMesConservado}.
+     */
+    void aplicarRetencion(YearMonth primerMesConservado) {
+        for (Map.Entry<String, YearMonth> particion : listarParticiones().entrySet()) {
+            if (!particion.getValue().isBefore(primerMesConservado)) {
+                continue;
+            }
+            String nombre = particion.getKey();
+            try {
+                if (!archivoDir.isBlank()) {
+                    archivar(nombre);
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.execute("ALTER TABLE " + tabla + " DETACH PARTITION " + nombre);
+                    jdbcTemplate.execute("DROP TABLE " + nombre);
+                });
+                log.info("Partición de auditoría {} eliminada por retención", nombre);
+            } catch (Exception e) {
+                log.error("No se pudo aplicar la retención a {}: {}", nombre, e.getMessage(), e);
+            }
+        }
+    }
+
+    /*
+     * =============================
+     * PARTICIONES
+     * =============================
+     */
+    private void asegurarParticiones(YearMonth desde, int mesesAdelante) {
+        for (int i = 0; i <= mesesAdelante; i++) {
+            crearParticion(desde.plusMonths(i));
+        }
+    }
+
+    private void crearParticion(YearMonth mes) {
+        String nombre = nombreParticion(mes);
+        LocalDate inicio = mes.atDay(1);
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + nombre + " PARTITION OF " + tabla
+                    + " FOR VALUES FROM ('" + inicio + "') TO ('" + inicio.plusMonths(1) + "')");
+        } catch (Exception e) {
+            // Ocurre si la partición por defecto ya tiene filas de ese mes
+            log.warn("No se pudo crear la partición {}: {}", nombre, e.getMessage());
+        }
+    }
+
+    /**
+     * Particiones mensuales existentes (por nombre), ordenadas por mes.
+     */
+    private Map<String, YearMonth> listarParticiones() {
+        Map<String, YearMonth> particiones = new LinkedHashMap<>();
+        jdbcTemplate.query("""
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = to_regclass(?)
+                ORDER BY c.relname
+                """,
+                rs -> {
+                    String nombre = rs.getString(1);
+                    if (nombre.matches(tabla + "_p\\d{6}")) {
+                        particiones.put(nombre, YearMonth.parse(nombre.substring(nombre.length() - 6), SUFIJO));
+                    }
+                },
+                tabla);
+        return particiones;
+    }
+
+    private String nombreParticion(YearMonth mes) {
+        return tabla + "_p" + mes.format(SUFIJO);
+    }
+
+    /*
+     * =============================
+     * CREACIÓN Y MIGRACIÓN
+     * =============================
+     */
+    private void crearTablaParticionada() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + tabla + "_id_seq");
+        jdbcTemplate.execute("""
+                CREATE TABLE %1$s (
+                    id BIGINT NOT NULL DEFAULT nextval('%1$s_id_seq'),
+                    action VARCHAR(100) NOT NULL,
+                    entity_type VARCHAR(100),
+                    entity_key VARCHAR(255),
+                    old_value TEXT,
+                    new_value TEXT,
+                    details TEXT,
+                    username VARCHAR(100),
+                    ip_address VARCHAR(50),
+                    timestamp TIMESTAMP(6) NOT NULL DEFAULT LOCALTIMESTAMP,
+                    CONSTRAINT pk_%1$s PRIMARY KEY (id, timestamp)
+                ) PARTITION BY RANGE (timestamp)
+                """.formatted(tabla));
+        jdbcTemplate.execute("ALTER SEQUENCE " + tabla + "_id_seq OWNED BY " + tabla + ".id");
+        jdbcTemplate.execute("CREATE TABLE " + tabla + "_default PARTITION OF " + tabla + " DEFAULT");
+    }
+
+    /**
+     * Convierte la tabla plana existente: se renombra, se crea la particionada
+     * con las particiones que cubren sus datos, se copian las filas y se
+     * elimina la antigua. Todo en la misma transacción.
+     */
+    private void migrarTablaPlana() {
+        String plana = tabla + "_plana";
+        log.info("Convirtiendo {} en tabla particionada por mes...", tabla);
+        jdbcTemplate.execute("LOCK TABLE " + tabla + " IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("ALTER TABLE " + tabla + " RENAME TO " + plana);
+        // La secuencia de la columna identity se elimina con la tabla antigua
+        jdbcTemplate.execute("ALTER SEQUENCE IF EXISTS " + tabla + "_id_seq RENAME TO " + plana + "_id_seq");
+
+        crearTablaParticionada();
+
+        List<LocalDate> extremos = jdbcTemplate.query(
+                "SELECT MIN(timestamp)::date AS minimo, MAX(timestamp)::date AS maximo FROM " + plana,
+                (rs, i) -> rs.getDate("minimo") != null
+                        ? List.of(rs.getDate("minimo").toLocalDate(), rs.getDate("maximo").toLocalDate())
+                        : List.<LocalDate>of())
+                .get(0);
+        if (!extremos.isEmpty()) {
+            YearMonth primero = YearMonth.from(extremos.get(0));
+            YearMonth ultimo = YearMonth.from(extremos.get(1));
+            for (YearMonth mes = primero; !mes.isAfter(ultimo); mes = mes.plusMonths(1)) {
+                crearParticion(mes);
+            }
+        }
+
+        int filas = jdbcTemplate.update("""
+                INSERT INTO %s (id, action, entity_type, entity_key, old_value, new_value,
+                                details, username, ip_address, timestamp)
+                SELECT id, action, entity_type, entity_key, old_value, new_value,
+                       details, username, ip_address, COALESCE(timestamp, TIMESTAMP '1970-01-01')
+                FROM %s
+                """.formatted(tabla, plana));
+        jdbcTemplate.execute("SELECT setval('" + tabla + "_id_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM "
+                + tabla + "), 1))");
+        jdbcTemplate.execute("DROP TABLE " + plana);
+        log.info("{} convertida: {} registros migrados", tabla, filas);
+    }
+
+    private void crearIndices() {
+        crearIndice("timestamp", "timestamp, id");
+        crearIndice("entity_type", "entity_type, timestamp, id");
+        crearIndice("username", "username, timestamp, id");
+        crearIndice("entity_key", "entity_key, timestamp, id");
+    }
+
+    private void crearIndice(String sufijo, String columnas) {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + tabla + "_" + sufijo
+                + " ON " + tabla + " (" + columnas + ")");
+    }
+
+    /*
+     * =============================
+     * ARCHIVO
+     * =============================
+     */
+
+    /**
+     * Exporta la partición a {@code <archivo-dir>/<particion>.ndjson.gz}, un
+     * registro por línea. Se escribe en un temporal y se renombra al terminar
+     * para no dejar archivos a medias.
+     */
+    private void archivar(String particion) throws IOException {
+        Path dir = Path.of(archivoDir);
+        Files.createDirectories(dir);
+        Path destino = dir.resolve(particion + ".ndjson.gz");
+        Path temporal = dir.resolve(particion + ".ndjson.gz.tmp");
+
+        try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal)))) {
+            // En transacción para que el driver respete el fetch size y no cargue la partición entera
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                var ps = con.prepareStatement("SELECT * FROM " + particion + " ORDER BY timestamp, id");
+                ps.setFetchSize(1000);
+                return ps;
+            }, rs -> {
+                try {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    Map<String, Object> fila = new LinkedHashMap<>();
+                    for (int i = 1; i <= meta.getColumnCount(); i++) {
+                        fila.put(meta.getColumnLabel(i), rs.getObject(i));
+                    }
+                    out.write(objectMapper.writeValueAsBytes(fila));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+        Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Partición {} archivada en {}", particion, destino);
+    }
+}
@@ -4,32 +4,41 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.newbie.newbiecore.dto.auditoria.AuditLogFiltro;
+import com.newbie.newbiecore.dto.auditoria.AuditLogPaginaDto;
 import com.newbie.newbiecore.entity.AuditLog;
 import com.newbie.newbiecore.repository.AuditLogRepository;
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 
 /**
  * Servicio centralizado de auditoría.
  * Registra todas las acciones importantes del sistema para trazabilidad.
  */
+@Slf4j
 @Service
 public class AuditService {
 
     private final AuditLogRepository auditLogRepository;
+    private final AuditWriter auditWriter;
     private final ObjectMapper objectMapper;
 
-    public AuditService(AuditLogRepository auditLogRepository) {
+    public AuditService(AuditLogRepository auditLogRepository, AuditWriter auditWriter) {
         this.auditLogRepository = auditLogRepository;
+        this.auditWriter = auditWriter;
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
         // Configurar para ignorar propiedades con @JsonIgnore
@@ -39,38 +48,32 @@ public class AuditService {
     /**
      * Registra una acción de auditoría
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void registrar(TipoAccion tipoAccion, String entityType, String entityKey, String detalles) {
         registrar(tipoAccion, entityType, entityKey, null, null, detalles);
     }
 
     /**
-     * Registra una acción de auditoría con valores anterior y nuevo
+     * Registra una acción de auditoría con valores anterior y nuevo.
+     * Usuario, IP y valores se resuelven aquí, en el hilo que llama; la
+     * escritura la hace {@link AuditWriter}.
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void registrar(TipoAccion tipoAccion, String entityType, String entityKey,
             Object valorAnterior, Object valorNuevo, String detalles) {
         try {
-            AuditLog log = new AuditLog();
-            log.setAction(tipoAccion.name());
-            log.setEntityType(entityType);
-            log.setEntityKey(entityKey);
-            log.setDetails(detalles);
-            log.setTimestamp(LocalDateTime.now());
-            log.setUsername(obtenerUsuarioActual());
-            log.setIpAddress(obtenerIpCliente());
-
-            if (valorAnterior != null) {
-                log.setOldValue(serializarObjeto(valorAnterior));
-            }
-            if (valorNuevo != null) {
-                log.setNewValue(serializarObjeto(valorNuevo));
-            }
-
-            auditLogRepository.save(log);
+            auditWriter.enviar(new AuditEvento(
+                    tipoAccion.name(),
+                    entityType,
+                    entityKey,
+                    serializarObjeto(valorAnterior),
+                    serializarObjeto(valorNuevo),
+                    detalles,
+                    obtenerUsuarioActual(),
+                    obtenerIpCliente(),
+                    LocalDateTime.now()));
         } catch (Exception e) {
             // No lanzar excepción para no afectar la operación principal
-            System.err.println("Error al registrar auditoría: " + e.getMessage());
+            log.warn("Error al registrar auditoría {} de {} {}: {}", tipoAccion, entityType, entityKey,
+                    e.getMessage(), e);
         }
     }
 
@@ -165,36 +168,61 @@ public class AuditService {
         registrar(TipoAccion.CONFIG_MODIFICADA, "ConfigurationProperty", clave, valorAnterior, valorNuevo, detalles);
     }
 
-    /**
-     * Consultar logs por tipo de entidad
-     */
-    @Transactional(readOnly = true)
-    public List<AuditLog> obtenerPorTipoEntidad(String entityType) {
-        return auditLogRepository.findByEntityTypeOrderByTimestampDesc(entityType);
-    }
+    // ============ CONSULTAS (PAGINADAS POR CURSOR) ============
 
-    /**
-     * Consultar logs por usuario
-     */
-    @Transactional(readOnly = true)
-    public List<AuditLog> obtenerPorUsuario(String username) {
-        return auditLogRepository.findByUsernameOrderByTimestampDesc(username);
-    }
+    private static final int LIMITE_POR_DEFECTO = 50;
+    private static final int LIMITE_MAXIMO = 200;
 
-    /**
-     * Consultar logs por clave de entidad (ej: número de orden)
-     */
-    @Transactional(readOnly = true)
-    public List<AuditLog> obtenerPorEntidad(String entityKey) {
-        return auditLogRepository.findByEntityKeyOrderByTimestampDesc(entityKey);
-    }
+    // Valores límite para el rango y el cursor cuando no se especifican
+    // (PostgreSQL no puede inferir el tipo de un parámetro timestamp nulo)
+    private static final LocalDateTime FECHA_MINIMA = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime FECHA_MAXIMA = LocalDateTime.of(9999, 12, 31, 0, 0);
 
     /**
-     * Consultar logs por rango de fechas
+     * Consulta paginada por cursor (keyset) sobre (timestamp, id) descendente.
      */
     @Transactional(readOnly = true)
-    public List<AuditLog> obtenerPorRangoFechas(LocalDateTime inicio, LocalDateTime fin) {
-        return auditLogRepository.findByDateRange(inicio, fin);
+    public AuditLogPaginaDto buscar(AuditLogFiltro filtro, String cursor, Integer limite) {
+        int tamano = limite == null ? LIMITE_POR_DEFECTO : Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+
+        LocalDateTime cursorFecha = FECHA_MAXIMA;
+        Long cursorId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] partes = decodificarCursor(cursor);
+            try {
+                cursorFecha = LocalDateTime.parse(partes[0]);
+                cursorId = Long.valueOf(partes[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor inválido", e);
+            }
+        }
+
+        LocalDateTime desde = filtro.desde() != null ? filtro.desde().atStartOfDay() : FECHA_MINIMA;
+        LocalDateTime hasta = filtro.hasta() != null ? filtro.hasta().plusDays(1).atStartOfDay() : FECHA_MAXIMA;
+        // Se pide un registro extra para saber si existe una página siguiente
+        Pageable pagina = PageRequest.of(0, tamano + 1);
+
+        List<AuditLog> registros;
+        if (filtro.entityKey() != null) {
+            registros = auditLogRepository.buscarPaginaPorClave(filtro.entityKey(), desde, hasta,
+                    cursorFecha, cursorId, pagina);
+        } else if (filtro.username() != null) {
+            registros = auditLogRepository.buscarPaginaPorUsuario(filtro.username(), desde, hasta,
+                    cursorFecha, cursorId, pagina);
+        } else if (filtro.entityType() != null) {
+            registros = auditLogRepository.buscarPaginaPorTipoEntidad(filtro.entityType(), desde, hasta,
+                    cursorFecha, cursorId, pagina);
+        } else {
+            registros = auditLogRepository.buscarPagina(desde, hasta, cursorFecha, cursorId, pagina);
+        }
+
+        String siguienteCursor = null;
+        if (registros.size() > tamano) {
+            registros = registros.subList(0, tamano);
+            AuditLog ultimo = registros.get(tamano - 1);
+            siguienteCursor = codificarCursor(ultimo.getTimestamp(), ultimo.getId());
+        }
+        return new AuditLogPaginaDto(registros, siguienteCursor);
     }
 
     // ============ MÉTODOS PRIVADOS ============
@@ -241,6 +269,24 @@ public class AuditService {
         }
     }
 
+    private static String codificarCursor(LocalDateTime fecha, Long id) {
+        String valor = fecha + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodificarCursor(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = valor.split("\\|");
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return partes;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+
     // Mixin para ignorar propiedades de Hibernate
     private abstract class IgnoreHibernatePropertiesMixin {
         @JsonIgnore
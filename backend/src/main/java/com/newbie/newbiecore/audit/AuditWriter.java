@@ -0,0 +1,223 @@
+package com.newbie.newbiecore.audit;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Escritor de {@code audit_logs} desacoplado del hilo de la petición.
+ *
+ * <p>En modo {@code ASINCRONO} los eventos entran en una cola acotada y un hilo
+ * propio los inserta por lotes (cada {@code app.audit.lote} eventos o cada
+ * {@code app.audit.intervalo-ms}, lo que ocurra antes). Si la cola está llena,
+ * quien audita espera como máximo {@code app.audit.espera-max-ms} y, pasado ese
+ * tiempo, el evento se descarta y se contabiliza.
+ *
+ * <p>Cada lote actualiza también las estadísticas horarias
+ * ({@link AuditEstadisticasService}) en la misma transacción.
+ *
+ * <p>En modo {@code SINCRONO} (tests) cada evento se inserta en el momento, en
+ * una transacción propia, como hacía el servicio original.
+ *
+ * <p>Métricas en {@code /actuator/metrics}: {@code audit.eventos.encolados},
+ * {@code audit.eventos.escritos}, {@code audit.eventos.descartados},
+ * {@code audit.eventos.esperas} (contrapresión) y {@code audit.cola.pendientes}.
+ */
+@Slf4j
+@Component
+public class AuditWriter {
+
+    public enum Modo {
+        ASINCRONO, SINCRONO
+    }
+
+    private static final String INSERT = """
+            INSERT INTO audit_logs (action, entity_type, entity_key, old_value, new_value,
+                                    details, username, ip_address, timestamp)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditEstadisticasService estadisticasService;
+    private final TransactionTemplate transactionTemplate;
+    private final Modo modo;
+    private final BlockingQueue<AuditEvento> cola;
+    private final int tamanoLote;
+    private final long intervaloMs;
+    private final long esperaMaxMs;
+
+    private final Counter encolados;
+    private final Counter escritos;
+    private final Counter descartados;
+    private final Counter esperas;
+
+    private volatile boolean activo;
+    private Thread hilo;
+
+    public AuditWriter(JdbcTemplate jdbcTemplate,
+            AuditEstadisticasService estadisticasService,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.audit.modo:ASINCRONO}") Modo modo,
+            @Value("${app.audit.capacidad:10000}") int capacidad,
+            @Value("${app.audit.lote:200}") int tamanoLote,
+            @Value("${app.audit.intervalo-ms:500}") long intervaloMs,
+            @Value("${app.audit.espera-max-ms:50}") long esperaMaxMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.estadisticasService = estadisticasService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.modo = modo;
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        this.tamanoLote = tamanoLote;
+        this.intervaloMs = intervaloMs;
+        this.esperaMaxMs = esperaMaxMs;
+
+        this.encolados = meterRegistry.counter("audit.eventos.encolados");
+        this.escritos = meterRegistry.counter("audit.eventos.escritos");
+        this.descartados = meterRegistry.counter("audit.eventos.descartados");
+        this.esperas = meterRegistry.counter("audit.eventos.esperas");
+        Gauge.builder("audit.cola.pendientes", cola, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        if (modo != Modo.ASINCRONO) {
+            log.info("Auditoría en modo {}", modo);
+            return;
+        }
+        activo = true;
+        hilo = new Thread(this::bucleEscritura, "audit-writer");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Vacía la cola antes de cerrar el contexto.
+     */
+    @PreDestroy
+    void detener() throws InterruptedException {
+        activo = false;
+        if (hilo != null) {
+            hilo.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Entrega un evento para su escritura. Nunca lanza excepción: un fallo de
+     * auditoría no debe afectar a la operación principal.
+     */
+    public void enviar(AuditEvento evento) {
+        if (!activo) {
+            escribirEnTransaccion(List.of(evento));
+            return;
+        }
+
+        if (cola.offer(evento)) {
+            encolados.increment();
+            return;
+        }
+
+        // Cola llena: contrapresión acotada sobre el hilo que audita
+        esperas.increment();
+        try {
+            if (cola.offer(evento, esperaMaxMs, TimeUnit.MILLISECONDS)) {
+                encolados.increment();
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        descartados.increment();
+        log.warn("Cola de auditoría llena, evento descartado: {} {} {}",
+                evento.action(), evento.entityType(), evento.entityKey());
+    }
+
+    /* ===== Hilo escritor ===== */
+
+    private void bucleEscritura() {
+        List<AuditEvento> lote = new ArrayList<>(tamanoLote);
+        // Al detenerse sigue hasta vaciar la cola
+        while (activo || !cola.isEmpty()) {
+            try {
+                AuditEvento primero = cola.poll(intervaloMs, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+                completarLote(lote);
+                escribirEnTransaccion(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Error inesperado en el escritor de auditoría: {}", e.getMessage(), e);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    /**
+     * Añade eventos al lote hasta llenarlo o hasta que venza el intervalo
+     * contado desde el primer evento.
+     */
+    private void completarLote(List<AuditEvento> lote) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(intervaloMs);
+        while (lote.size() < tamanoLote) {
+            cola.drainTo(lote, tamanoLote - lote.size());
+            if (lote.size() >= tamanoLote) {
+                return;
+            }
+            long restante = limite - System.nanoTime();
+            if (restante <= 0) {
+                return;
+            }
+            AuditEvento siguiente = cola.poll(restante, TimeUnit.NANOSECONDS);
+            if (siguiente == null) {
+                return;
+            }
+            lote.add(siguiente);
+        }
+    }
+
+    private void escribirEnTransaccion(List<AuditEvento> lote) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT, lote, lote.size(), (ps, e) -> {
+                    ps.setString(1, e.action());
+                    ps.setString(2, e.entityType());
+                    ps.setString(3, e.entityKey());
+                    ps.setString(4, e.oldValue());
+                    ps.setString(5, e.newValue());
+                    ps.setString(6, e.details());
+                    ps.setString(7, e.username());
+                    ps.setString(8, e.ipAddress());
+                    ps.setTimestamp(9, e.timestamp() != null ? Timestamp.valueOf(e.timestamp()) : null);
+                });
+                estadisticasService.acumular(lote);
+            });
+            escritos.increment(lote.size());
+        } catch (Exception e) {
+            descartados.increment(lote.size());
+            log.error("Error al escribir {} registros de auditoría: {}", lote.size(), e.getMessage());
+        }
+    }
+}
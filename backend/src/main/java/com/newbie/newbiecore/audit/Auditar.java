@@ -0,0 +1,39 @@
+package com.newbie.newbiecore.audit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un método de servicio para que {@link AuditAspect} registre una acción
+ * de auditoría cuando termina sin excepción.
+ *
+ * La clave de la entidad se toma de una propiedad del valor devuelto
+ * ({@link #clave()}) o de un argumento del método ({@link #argumento()}).
+ * Si se usa {@link #clave()} y el método devuelve null u Optional vacío, no se
+ * registra nada.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Auditar {
+
+    TipoAccion accion();
+
+    String entidad();
+
+    String detalle();
+
+    /**
+     * Propiedad del resultado usada como clave (getter {@code getX()} o accesor
+     * de record {@code x()}).
+     */
+    String clave() default "";
+
+    /**
+     * Índice del argumento usado como clave cuando no se toma del resultado.
+     */
+    int argumento() default -1;
+}
@@ -0,0 +1,125 @@
+package com.newbie.newbiecore.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Pools de hilos acotados para el trabajo en segundo plano.
+ * Cada pool tiene tamaño y cola fijos: si se llenan, el trabajo queda
+ * esperando en su origen (tabla, cola) en lugar de crecer sin límite.
+ */
+@Configuration
+@EnableScheduling
+public class ExecutorConfig {
+
+    /**
+     * Ejecuta las etapas del cierre de órdenes (PDFs y correo).
+     */
+    @Bean(name = "cierreOrdenExecutor")
+    public ThreadPoolTaskExecutor cierreOrdenExecutor(@Value("${app.cierre.hilos:2}") int hilos) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(hilos);
+        executor.setThreadNamePrefix("cierre-ot-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Coordina las importaciones masivas de informes HWiNFO; la cola corta
+     * rechaza nuevas importaciones cuando ya hay varias esperando.
+     */
+    @Bean(name = "hardwareImportacionExecutor")
+    public ThreadPoolTaskExecutor hardwareImportacionExecutor(
+            @Value("${app.equipos.importacion.simultaneas:1}") int simultaneas) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(simultaneas);
+        executor.setMaxPoolSize(simultaneas);
+        executor.setQueueCapacity(4);
+        executor.setThreadNamePrefix("importacion-hw-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Lee los informes de una importación en paralelo. Con la cola llena, el
+     * coordinador lee el informe él mismo en lugar de rechazarlo.
+     */
+    @Bean(name = "hardwareLecturaExecutor")
+    public ThreadPoolTaskExecutor hardwareLecturaExecutor(@Value("${app.equipos.importacion.hilos:4}") int hilos) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(hilos * 2);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("lectura-hw-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Renderiza los PDFs (HTML → PDF). Limita cuántos se generan a la vez;
+     * con la cola llena el pedido se rechaza y el llamador responde 503.
+     */
+    @Bean(name = "pdfExecutor")
+    public ThreadPoolTaskExecutor pdfExecutor(@Value("${app.pdf.hilos:2}") int hilos,
+            @Value("${app.pdf.cola:20}") int cola) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(cola);
+        executor.setThreadNamePrefix("pdf-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Procesa en paralelo las fichas técnicas de una orden al cerrarla; cada
+     * tarea espera su turno en {@code pdfExecutor}. Limita cuántos PDFs de un
+     * mismo lote piden turno a la vez, para no llenar la cola de las descargas.
+     * Con la cola llena, el coordinador procesa la ficha él mismo.
+     */
+    @Bean(name = "pdfLoteExecutor")
+    public ThreadPoolTaskExecutor pdfLoteExecutor(@Value("${app.pdf.lote.hilos:2}") int hilos) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(hilos);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("pdf-lote-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Genera las miniaturas y versiones medianas de las imágenes subidas a
+     * las órdenes. Con la cola llena, el hilo que confirmó la subida genera
+     * las variantes él mismo.
+     */
+    @Bean(name = "imagenExecutor")
+    public ThreadPoolTaskExecutor imagenExecutor(@Value("${app.imagenes.hilos:2}") int hilos,
+            @Value("${app.imagenes.cola:50}") int cola) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(cola);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("imagen-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -16,17 +16,23 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.newbie.newbiecore.service.CustomUserDetailsService;
+import com.newbie.newbiecore.service.RevocacionTokenService;
 import com.newbie.newbiecore.util.JwtUtils;
 
+import io.jsonwebtoken.Claims;
+
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
     private final CustomUserDetailsService userDetailsService;
+    private final RevocacionTokenService revocacionTokenService;
 
-    public JwtAuthenticationFilter(JwtUtils jwtUtils, CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtils jwtUtils, CustomUserDetailsService userDetailsService,
+            RevocacionTokenService revocacionTokenService) {
         this.jwtUtils = jwtUtils;
         this.userDetailsService = userDetailsService;
+        this.revocacionTokenService = revocacionTokenService;
     }
 
     @Override
@@ -48,14 +54,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwtToken = authHeader.substring(7); // "Bearer " son 7 caracteres
 
         try {
-            username = jwtUtils.extractUsername(jwtToken);
+            // Firma y expiración se verifican aquí, una sola vez (lanza si no es válido)
+            Claims claims = jwtUtils.verificar(jwtToken);
+            username = claims.getSubject();
+
+            // Token cerrado con logout: se sigue sin autenticar (índice en memoria, sin consulta)
+            if (revocacionTokenService.estaRevocado(jwtToken)) {
+                logger.debug("Token revocado rechazado");
+                filterChain.doFilter(request, response);
+                return;
+            }
 
             // 2. Si hay usuario y no está autenticado en el contexto actual
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                 UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
-                // 3. Validar Token
-                if (jwtUtils.validateToken(jwtToken, userDetails)) {
+                // 3. Validar que el token corresponde al usuario cargado y que sigue activo
+                if (username.equals(userDetails.getUsername()) && userDetails.isEnabled()) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -0,0 +1,73 @@
+package com.newbie.newbiecore.config;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import jakarta.servlet.MultipartConfigElement;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Límites de subida por endpoint.
+ *
+ * El contenedor aplica el límite de multipart del servlet que atiende la
+ * petición. El DispatcherServlet mantiene el global
+ * ({@code spring.servlet.multipart.*}, 10 MB por archivo); la importación
+ * masiva de HWiNFO se mapea a un servlet propio con un límite mayor para los
+ * ZIP, que lee el multipart y reenvía la petición al DispatcherServlet.
+ */
+@Configuration
+public class MultipartConfig {
+
+    public static final String RUTA_IMPORTACION_HARDWARE = "/api/equipos/hardware/importar";
+
+    @Bean
+    public ServletRegistrationBean<ImportacionHardwareServlet> importacionHardwareServlet(
+            @Value("${app.equipos.importacion.max-mb-archivo:100}") long maxMbArchivo,
+            @Value("${app.equipos.importacion.max-mb-peticion:100}") long maxMbPeticion) {
+        ServletRegistrationBean<ImportacionHardwareServlet> registro = new ServletRegistrationBean<>(
+                new ImportacionHardwareServlet(), RUTA_IMPORTACION_HARDWARE);
+        registro.setName("importacionHardwareServlet");
+        registro.setMultipartConfig(new MultipartConfigElement(null,
+                DataSize.ofMegabytes(maxMbArchivo).toBytes(),
+                DataSize.ofMegabytes(maxMbPeticion).toBytes(),
+                0));
+        return registro;
+    }
+
+    /**
+     * Lee las partes con el límite de este servlet y reenvía la petición al
+     * DispatcherServlet. El contenedor guarda el resultado (o el error de
+     * tamaño) en la petición, así que el MultipartResolver de Spring recibe
+     * las partes ya leídas, o lanza MaxUploadSizeExceededException (413).
+     *
+     * No es un DispatcherServlet: Spring Security no admite dos en el mismo
+     * contexto al resolver los requestMatchers de SecurityConfig.
+     */
+    static class ImportacionHardwareServlet extends HttpServlet {
+
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response)
+                throws ServletException, IOException {
+            String contentType = request.getContentType();
+            if (contentType != null && contentType.toLowerCase().startsWith("multipart/")) {
+                try {
+                    request.getParts();
+                } catch (IllegalStateException | ServletException | IOException e) {
+                    // El DispatcherServlet vuelve a encontrarlo y responde según el error
+                }
+            }
+            getServletContext()
+                    .getNamedDispatcher(DispatcherServletAutoConfiguration.DEFAULT_DISPATCHER_SERVLET_BEAN_NAME)
+                    .forward(request, response);
+        }
+    }
+}
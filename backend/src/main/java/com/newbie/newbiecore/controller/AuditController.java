@@ -1,52 +1,49 @@
 package com.newbie.newbiecore.controller;
 
+import com.newbie.newbiecore.audit.AuditEstadisticasService;
 import com.newbie.newbiecore.audit.AuditService;
-import com.newbie.newbiecore.entity.AuditLog;
-import com.newbie.newbiecore.repository.AuditLogRepository;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import com.newbie.newbiecore.dto.auditoria.AuditLogFiltro;
+import com.newbie.newbiecore.dto.auditoria.AuditLogPaginaDto;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
  * Controlador para consultar los registros de auditoría.
  * Solo accesible para administradores.
+ *
+ * Todos los listados paginan por cursor: la respuesta incluye
+ * {@code siguienteCursor}, que se envía como parámetro {@code cursor} para
+ * pedir la página siguiente. {@code desde}/{@code hasta} son opcionales.
  */
 @RestController
 @RequestMapping("/api/auditoria")
 public class AuditController {
 
     private final AuditService auditService;
-    private final AuditLogRepository auditLogRepository;
+    private final AuditEstadisticasService auditEstadisticasService;
 
-    public AuditController(AuditService auditService, AuditLogRepository auditLogRepository) {
+    public AuditController(AuditService auditService, AuditEstadisticasService auditEstadisticasService) {
         this.auditService = auditService;
-        this.auditLogRepository = auditLogRepository;
+        this.auditEstadisticasService = auditEstadisticasService;
     }
 
     /**
-     * Obtener todos los registros de auditoría con paginación
+     * Obtener todos los registros de auditoría
      */
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Page<AuditLog>> listarTodos(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "50") int size) {
-
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "timestamp"));
-        Page<AuditLog> logs = auditLogRepository.findAll(pageable);
-        return ResponseEntity.ok(logs);
+    public ResponseEntity<AuditLogPaginaDto> listarTodos(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        return buscar(AuditLogFiltro.porRango(desde, hasta), cursor, limite);
     }
 
     /**
@@ -54,9 +51,13 @@ public class AuditController {
      */
     @GetMapping("/entidad/{tipoEntidad}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<AuditLog>> porTipoEntidad(@PathVariable String tipoEntidad) {
-        List<AuditLog> logs = auditService.obtenerPorTipoEntidad(tipoEntidad);
-        return ResponseEntity.ok(logs);
+    public ResponseEntity<AuditLogPaginaDto> porTipoEntidad(
+            @PathVariable String tipoEntidad,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        return buscar(AuditLogFiltro.porTipoEntidad(tipoEntidad, desde, hasta), cursor, limite);
     }
 
     /**
@@ -64,9 +65,13 @@ public class AuditController {
      */
     @GetMapping("/usuario/{username}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<AuditLog>> porUsuario(@PathVariable String username) {
-        List<AuditLog> logs = auditService.obtenerPorUsuario(username);
-        return ResponseEntity.ok(logs);
+    public ResponseEntity<AuditLogPaginaDto> porUsuario(
+            @PathVariable String username,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        return buscar(AuditLogFiltro.porUsuario(username, desde, hasta), cursor, limite);
     }
 
     /**
@@ -74,9 +79,13 @@ public class AuditController {
      */
     @GetMapping("/clave/{entityKey}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<AuditLog>> porClaveEntidad(@PathVariable String entityKey) {
-        List<AuditLog> logs = auditService.obtenerPorEntidad(entityKey);
-        return ResponseEntity.ok(logs);
+    public ResponseEntity<AuditLogPaginaDto> porClaveEntidad(
+            @PathVariable String entityKey,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        return buscar(AuditLogFiltro.porClave(entityKey, desde, hasta), cursor, limite);
     }
 
     /**
@@ -84,15 +93,12 @@ public class AuditController {
      */
     @GetMapping("/rango")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<AuditLog>> porRangoFechas(
+    public ResponseEntity<AuditLogPaginaDto> porRangoFechas(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
-
-        LocalDateTime inicio = fechaInicio.atStartOfDay();
-        LocalDateTime fin = fechaFin.atTime(LocalTime.MAX);
-
-        List<AuditLog> logs = auditService.obtenerPorRangoFechas(inicio, fin);
-        return ResponseEntity.ok(logs);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        return buscar(AuditLogFiltro.porRango(fechaInicio, fechaFin), cursor, limite);
     }
 
     /**
@@ -100,50 +106,44 @@ public class AuditController {
      */
     @GetMapping("/orden/{numeroOrden}")
     @PreAuthorize("hasAnyRole('ADMIN', 'TECNICO')")
-    public ResponseEntity<List<AuditLog>> historialOrden(@PathVariable String numeroOrden) {
-        List<AuditLog> logs = auditService.obtenerPorEntidad(numeroOrden);
-        return ResponseEntity.ok(logs);
+    public ResponseEntity<AuditLogPaginaDto> historialOrden(
+            @PathVariable String numeroOrden,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        return buscar(AuditLogFiltro.porClave(numeroOrden, null, null), cursor, limite);
     }
 
     /**
-     * Obtener estadísticas de auditoría
+     * Obtener estadísticas de auditoría (desde la tabla acumulada por hora)
      */
     @GetMapping("/estadisticas")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, Object>> estadisticas() {
-        Map<String, Object> stats = new HashMap<>();
-
-        long totalRegistros = auditLogRepository.count();
-
-        // Registros de hoy
-        LocalDateTime inicioHoy = LocalDate.now().atStartOfDay();
-        LocalDateTime finHoy = LocalDate.now().atTime(LocalTime.MAX);
-        List<AuditLog> logsHoy = auditService.obtenerPorRangoFechas(inicioHoy, finHoy);
-
-        // Registros de la semana
-        LocalDateTime inicioSemana = LocalDate.now().minusDays(7).atStartOfDay();
-        List<AuditLog> logsSemana = auditService.obtenerPorRangoFechas(inicioSemana, finHoy);
-
-        stats.put("totalRegistros", totalRegistros);
-        stats.put("registrosHoy", logsHoy.size());
-        stats.put("registrosSemana", logsSemana.size());
-        stats.put("ultimosRegistros", logsHoy.stream().limit(10).toList());
-
+        Map<String, Object> stats = new HashMap<>(auditEstadisticasService.obtenerEstadisticas());
+        stats.put("ultimosRegistros", auditService.buscar(
+                AuditLogFiltro.porRango(LocalDate.now(), LocalDate.now()), null, 10).registros());
         return ResponseEntity.ok(stats);
     }
 
+    /**
+     * Recalcular las estadísticas desde el histórico de auditoría
+     */
+    @PostMapping("/estadisticas/reconstruir")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> reconstruirEstadisticas() {
+        long filas = auditEstadisticasService.reconstruir();
+        return ResponseEntity.ok(Map.of("filas", filas));
+    }
+
     /**
      * Obtener registros de cambios de configuración
      */
     @GetMapping("/configuracion")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Page<AuditLog>> cambiosConfiguracion(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-
-        Pageable pageable = PageRequest.of(page, size);
-        Page<AuditLog> logs = auditLogRepository.findConfigurationChanges(pageable);
-        return ResponseEntity.ok(logs);
+    public ResponseEntity<AuditLogPaginaDto> cambiosConfiguracion(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        return buscar(AuditLogFiltro.porTipoEntidad("ConfigurationProperty", null, null), cursor, limite);
     }
 
     /**
@@ -151,8 +151,19 @@ public class AuditController {
      */
     @GetMapping("/accesos")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<AuditLog>> registrosAcceso() {
-        List<AuditLog> logins = auditService.obtenerPorTipoEntidad("Usuario");
-        return ResponseEntity.ok(logins);
+    public ResponseEntity<AuditLogPaginaDto> registrosAcceso(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        return buscar(AuditLogFiltro.porTipoEntidad("Usuario", desde, hasta), cursor, limite);
+    }
+
+    private ResponseEntity<AuditLogPaginaDto> buscar(AuditLogFiltro filtro, String cursor, Integer limite) {
+        try {
+            return ResponseEntity.ok(auditService.buscar(filtro, cursor, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 }
@@ -1,18 +1,21 @@
 package com.newbie.newbiecore.controller;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.time.Instant;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpHeaders;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -22,14 +25,20 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.newbie.newbiecore.util.ArchivoHttpHelper;
+
 /**
  * Controlador seguro para servir documentos (PDFs, imágenes, etc.)
  * Requiere autenticación JWT para acceder a los archivos.
+ * Los archivos se envían sin cargarlos en memoria, con soporte de rangos y
+ * de 304 (ver {@link ArchivoHttpHelper}).
  */
 @RestController
 @RequestMapping("/api/documentos")
 public class DocumentoController {
 
+    private static final CacheControl CACHE_IMAGENES = CacheControl.maxAge(Duration.ofHours(1)).cachePrivate();
+
     @Value("${app.upload-dir}")
     private String baseUploadDir;
 
@@ -39,14 +48,13 @@ public class DocumentoController {
      * Ejemplo: /api/documentos/OT-00015/documentos/Conformidad_OT_15.pdf
      */
     @GetMapping("/{numeroOrden}/documentos/{nombreArchivo:.+}")
-    public ResponseEntity<byte[]> obtenerDocumento(
+    public ResponseEntity<Resource> obtenerDocumento(
             @PathVariable String numeroOrden,
             @PathVariable String nombreArchivo,
             Authentication authentication) {
         // Verificar autenticación
         if (authentication == null || !authentication.isAuthenticated()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("No autorizado".getBytes());
+            return mensaje(HttpStatus.UNAUTHORIZED, "No autorizado");
         }
 
         try {
@@ -60,28 +68,20 @@ public class DocumentoController {
             // Verificar que el archivo esté dentro del directorio permitido
             Path baseDir = Paths.get(baseUploadDir).normalize().toAbsolutePath();
             if (!filePath.toAbsolutePath().startsWith(baseDir)) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body("Acceso denegado".getBytes());
+                return mensaje(HttpStatus.FORBIDDEN, "Acceso denegado");
             }
 
             // Verificar que el archivo existe
             if (!Files.exists(filePath) || !Files.isRegularFile(filePath)) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body("Documento no encontrado".getBytes());
+                return mensaje(HttpStatus.NOT_FOUND, "Documento no encontrado");
             }
 
-            // Leer y devolver el archivo
-            byte[] contenido = Files.readAllBytes(filePath);
-            MediaType mediaType = determinarMediaType(sanitizedNombreArchivo);
-
-            return ResponseEntity.ok()
-                    .contentType(mediaType)
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + sanitizedNombreArchivo + "\"")
-                    .body(contenido);
+            // Los PDFs se regeneran: el navegador revalida con el ETag en cada vista
+            return ArchivoHttpHelper.servir(filePath, determinarMediaType(sanitizedNombreArchivo),
+                    CacheControl.noCache().cachePrivate(), sanitizedNombreArchivo);
 
         } catch (IOException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(("Error al leer documento: " + e.getMessage()).getBytes());
+            return mensaje(HttpStatus.INTERNAL_SERVER_ERROR, "Error al leer documento: " + e.getMessage());
         }
     }
 
@@ -91,14 +91,13 @@ public class DocumentoController {
      * Ejemplo: /api/documentos/OT-00015/imagenes/INGRESO/uuid-foto.jpg
      */
     @GetMapping("/{numeroOrden}/imagenes/{categoria}/{nombreArchivo:.+}")
-    public ResponseEntity<byte[]> obtenerImagenConCategoria(
+    public ResponseEntity<Resource> obtenerImagenConCategoria(
             @PathVariable String numeroOrden,
             @PathVariable String categoria,
             @PathVariable String nombreArchivo,
             Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("No autorizado".getBytes());
+            return mensaje(HttpStatus.UNAUTHORIZED, "No autorizado");
         }
 
         try {
@@ -113,26 +112,18 @@ public class DocumentoController {
 
             Path baseDir = Paths.get(baseUploadDir).normalize().toAbsolutePath();
             if (!filePath.toAbsolutePath().startsWith(baseDir)) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body("Acceso denegado".getBytes());
+                return mensaje(HttpStatus.FORBIDDEN, "Acceso denegado");
             }
 
             if (!Files.exists(filePath) || !Files.isRegularFile(filePath)) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body("Imagen no encontrada".getBytes());
+                return mensaje(HttpStatus.NOT_FOUND, "Imagen no encontrada");
             }
 
-            byte[] contenido = Files.readAllBytes(filePath);
-            MediaType mediaType = determinarMediaType(sanitizedNombreArchivo);
-
-            return ResponseEntity.ok()
-                    .contentType(mediaType)
-                    .header(HttpHeaders.CACHE_CONTROL, "max-age=3600")
-                    .body(contenido);
+            return ArchivoHttpHelper.servir(filePath, determinarMediaType(sanitizedNombreArchivo),
+                    CACHE_IMAGENES, null);
 
         } catch (IOException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(("Error al leer imagen: " + e.getMessage()).getBytes());
+            return mensaje(HttpStatus.INTERNAL_SERVER_ERROR, "Error al leer imagen: " + e.getMessage());
         }
     }
 
@@ -142,13 +133,12 @@ public class DocumentoController {
      * Ruta: /api/documentos/{numeroOrden}/imagenes/{nombreArchivo}
      */
     @GetMapping("/{numeroOrden}/imagenes/{nombreArchivo:.+}")
-    public ResponseEntity<byte[]> obtenerImagen(
+    public ResponseEntity<Resource> obtenerImagen(
             @PathVariable String numeroOrden,
             @PathVariable String nombreArchivo,
             Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("No autorizado".getBytes());
+            return mensaje(HttpStatus.UNAUTHORIZED, "No autorizado");
         }
 
         try {
@@ -161,26 +151,18 @@ public class DocumentoController {
 
             Path baseDir = Paths.get(baseUploadDir).normalize().toAbsolutePath();
             if (!filePath.toAbsolutePath().startsWith(baseDir)) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body("Acceso denegado".getBytes());
+                return mensaje(HttpStatus.FORBIDDEN, "Acceso denegado");
             }
 
             if (!Files.exists(filePath) || !Files.isRegularFile(filePath)) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body("Imagen no encontrada".getBytes());
+                return mensaje(HttpStatus.NOT_FOUND, "Imagen no encontrada");
             }
 
-            byte[] contenido = Files.readAllBytes(filePath);
-            MediaType mediaType = determinarMediaType(sanitizedNombreArchivo);
-
-            return ResponseEntity.ok()
-                    .contentType(mediaType)
-                    .header(HttpHeaders.CACHE_CONTROL, "max-age=3600")
-                    .body(contenido);
+            return ArchivoHttpHelper.servir(filePath, determinarMediaType(sanitizedNombreArchivo),
+                    CACHE_IMAGENES, null);
 
         } catch (IOException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(("Error al leer imagen: " + e.getMessage()).getBytes());
+            return mensaje(HttpStatus.INTERNAL_SERVER_ERROR, "Error al leer imagen: " + e.getMessage());
         }
     }
 
@@ -233,6 +215,12 @@ public class DocumentoController {
         }
     }
 
+    private static ResponseEntity<Resource> mensaje(HttpStatus status, String mensaje) {
+        return ResponseEntity.status(status)
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(new ByteArrayResource(mensaje.getBytes(StandardCharsets.UTF_8)));
+    }
+
     /**
      * Sanitizar path para evitar ataques de path traversal
      */
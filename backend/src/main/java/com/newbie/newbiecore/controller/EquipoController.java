@@ -2,9 +2,15 @@ package com.newbie.newbiecore.controller;
 
 import com.newbie.newbiecore.dto.EquipoDto;
 import com.newbie.newbiecore.dto.EquipoListDto;
+import com.newbie.newbiecore.dto.hardware.EquipoHardwareFiltro;
+import com.newbie.newbiecore.dto.hardware.EquipoHardwarePaginaDto;
+import com.newbie.newbiecore.dto.importacion.ImportacionHardwareDto;
 import com.newbie.newbiecore.entity.Equipo;
 import com.newbie.newbiecore.service.EquipoService;
+import com.newbie.newbiecore.service.hardware.InventarioHardwareService;
+import com.newbie.newbiecore.service.importacion.ImportacionHardwareService;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,9 +25,15 @@ import java.util.List;
 public class EquipoController {
 
     private final EquipoService equipoService;
+    private final ImportacionHardwareService importacionHardwareService;
+    private final InventarioHardwareService inventarioHardwareService;
 
-    public EquipoController(EquipoService equipoService) {
+    public EquipoController(EquipoService equipoService,
+                            ImportacionHardwareService importacionHardwareService,
+                            InventarioHardwareService inventarioHardwareService) {
         this.equipoService = equipoService;
+        this.importacionHardwareService = importacionHardwareService;
+        this.inventarioHardwareService = inventarioHardwareService;
     }
 
     // Crear/registrar un equipo
@@ -60,6 +72,60 @@ public class EquipoController {
         return ResponseEntity.ok(actualizado);
     }
 
+    // Importación masiva de XML de HWiNFO (sueltos o en .zip); se procesa en segundo plano
+    @PostMapping(
+            path = "/hardware/importar",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE
+    )
+    public ResponseEntity<?> importarHwinfo(@RequestPart("files") List<MultipartFile> files) {
+        try {
+            ImportacionHardwareDto importacion = importacionHardwareService.iniciar(files);
+            return ResponseEntity.accepted().body(importacion);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
+    }
+
+    // Progreso y resultado por archivo de una importación masiva
+    @GetMapping("/hardware/importaciones/{id}")
+    public ResponseEntity<ImportacionHardwareDto> obtenerImportacion(@PathVariable String id) {
+        return importacionHardwareService.obtener(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Buscar en el inventario de hardware (filtros, orden y paginación por cursor en SQL)
+    @GetMapping("/hardware/buscar")
+    public ResponseEntity<EquipoHardwarePaginaDto> buscarHardware(
+            @RequestParam(required = false) String cpu,
+            @RequestParam(required = false) Integer nucleosMin,
+            @RequestParam(required = false) Long ramMinMb,
+            @RequestParam(required = false) Long ramMaxMb,
+            @RequestParam(required = false) String placaModelo,
+            @RequestParam(required = false) String biosFabricante,
+            @RequestParam(required = false) String biosVersion,
+            @RequestParam(required = false) String discoModelo,
+            @RequestParam(required = false) String discoTipo,
+            @RequestParam(required = false) Long discoMinMb,
+            @RequestParam(required = false) String gpu,
+            @RequestParam(required = false) String entrada,
+            @RequestParam(required = false) String valor,
+            @RequestParam(required = false, defaultValue = "ACTUALIZADO") EquipoHardwareFiltro.Orden orden,
+            @RequestParam(required = false, defaultValue = "false") boolean descendente,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        try {
+            var filtro = new EquipoHardwareFiltro(cpu, nucleosMin, ramMinMb, ramMaxMb, placaModelo,
+                    biosFabricante, biosVersion, discoModelo, discoTipo, discoMinMb, gpu, entrada, valor,
+                    orden, descendente);
+            return ResponseEntity.ok(inventarioHardwareService.buscar(filtro, cursor, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // Obtener detalles de un equipo por ID
     @GetMapping("/{id}")
     public ResponseEntity<EquipoDto> obtenerPorId(@PathVariable Long id) {
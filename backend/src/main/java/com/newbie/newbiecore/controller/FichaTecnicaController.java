@@ -1,12 +1,17 @@
 package com.newbie.newbiecore.controller;
 
 import com.newbie.newbiecore.dto.FichaTecnica.FichaTecnicaDTO;
+import com.newbie.newbiecore.dto.FichaTecnica.FichaTecnicaFiltro;
+import com.newbie.newbiecore.dto.FichaTecnica.FichaTecnicaPaginaDto;
+import com.newbie.newbiecore.dto.FichaTecnica.FichaTecnicaResumenDTO;
 import com.newbie.newbiecore.service.FichaTecnicaService;
 import jakarta.transaction.Transactional;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -54,8 +59,8 @@ public class FichaTecnicaController {
         }
     }
     @GetMapping("/cliente/{cedula}")
-    public ResponseEntity<List<FichaTecnicaDTO>> listarPorCliente(@PathVariable String cedula) {
-        List<FichaTecnicaDTO> fichas = fichaTecnicaService.obtenerFichasPorCliente(cedula);
+    public ResponseEntity<List<FichaTecnicaResumenDTO>> listarPorCliente(@PathVariable String cedula) {
+        List<FichaTecnicaResumenDTO> fichas = fichaTecnicaService.obtenerFichasPorCliente(cedula);
 
         if (fichas.isEmpty()) {
             return ResponseEntity.noContent().build();
@@ -63,10 +68,30 @@ public class FichaTecnicaController {
 
         return ResponseEntity.ok(fichas);
     }
-    /** 📋 Listar todas las fichas técnicas (DTO) */
+    /**
+     * 📋 Listar fichas técnicas (resumen; el detalle en GET /{id}), paginado por
+     * cursor y con filtros opcionales.
+     *
+     * {@code orden}: "desc" (más recientes primero, por defecto) o "asc".
+     * {@code cursor}: el {@code siguienteCursor} de la página anterior.
+     */
     @GetMapping
-    public ResponseEntity<List<FichaTecnicaDTO>> listarTodas() {
-        return ResponseEntity.ok(fichaTecnicaService.listarDTO());
+    public ResponseEntity<FichaTecnicaPaginaDto> listarTodas(
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) String tecnicoId,
+            @RequestParam(required = false) Long equipoId,
+            @RequestParam(required = false) Long ordenTrabajoId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String orden,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        try {
+            var filtro = new FichaTecnicaFiltro(estado, tecnicoId, equipoId, ordenTrabajoId, desde, hasta);
+            return ResponseEntity.ok(fichaTecnicaService.buscar(filtro, orden, cursor, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /** 🔍 Obtener ficha técnica por id (DTO) */
@@ -78,12 +103,12 @@ public class FichaTecnicaController {
     }
 
     @GetMapping("/equipo/{equipoId}")
-    public ResponseEntity<List<FichaTecnicaDTO>> listarPorEquipo(@PathVariable Long equipoId) {
+    public ResponseEntity<List<FichaTecnicaResumenDTO>> listarPorEquipo(@PathVariable Long equipoId) {
         return ResponseEntity.ok(fichaTecnicaService.listarPorEquipo(equipoId));
     }
 
     @GetMapping("/tecnico/{cedulaTecnico}")
-    public ResponseEntity<List<FichaTecnicaDTO>> listarPorTecnico(@PathVariable String cedulaTecnico) {
+    public ResponseEntity<List<FichaTecnicaResumenDTO>> listarPorTecnico(@PathVariable String cedulaTecnico) {
         return ResponseEntity.ok(fichaTecnicaService.listarPorTecnico(cedulaTecnico));
     }
 
@@ -91,8 +116,8 @@ public class FichaTecnicaController {
 
     /** 🔍 Buscar ficha por orden de trabajo (si existe) */
     @GetMapping("/orden-trabajo/{ordenTrabajoId}")
-    public ResponseEntity<List<FichaTecnicaDTO>> buscarPorOrdenTrabajo(@PathVariable Long ordenTrabajoId) {
-        List<FichaTecnicaDTO> fichas = fichaTecnicaService.buscarPorOrdenTrabajo(ordenTrabajoId);
+    public ResponseEntity<List<FichaTecnicaResumenDTO>> buscarPorOrdenTrabajo(@PathVariable Long ordenTrabajoId) {
+        List<FichaTecnicaResumenDTO> fichas = fichaTecnicaService.buscarPorOrdenTrabajo(ordenTrabajoId);
         if (fichas.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
@@ -147,6 +172,17 @@ public class FichaTecnicaController {
         }
     }
 
+    /**
+     * ♻️ Re-autocompletar varias fichas (ids en el cuerpo) en una sola operación.
+     */
+    @PostMapping("/refrescar-hardware")
+    public ResponseEntity<List<FichaTecnicaDTO>> refrescarDesdeHardware(@RequestBody List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(fichaTecnicaService.refrescarDesdeHardware(ids));
+    }
+
     /** 🗑️ Eliminar ficha técnica */
     @DeleteMapping("/{id}")
     public ResponseEntity<?> eliminar(@PathVariable Long id) {
@@ -6,12 +6,14 @@ import com.newbie.newbiecore.service.OrdenTrabajoService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cloud.context.config.annotation.RefreshScope;
 import org.springframework.core.io.InputStreamResource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.security.core.Authentication;
 
 import java.io.ByteArrayInputStream;
@@ -20,6 +22,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -110,6 +113,16 @@ public class OrdenTrabajoController {
         return ResponseEntity.noContent().build();
     }
 
+    /*
+     * =============================================================
+     * ESTADO DEL CIERRE EN SEGUNDO PLANO (PDFs + CORREO)
+     * =============================================================
+     */
+    @GetMapping("/{id}/cierre-estado")
+    public ResponseEntity<List<CierreEtapaDto>> obtenerEstadoCierre(@PathVariable Long id) {
+        return ResponseEntity.ok(ordenTrabajoService.obtenerEstadoCierre(id));
+    }
+
     /*
      * =============================================================
      * OBTENER DETALLE COMPLETO (INGRESO + ENTREGA + EQUIPO + FICHA + META)
@@ -153,6 +166,50 @@ public class OrdenTrabajoController {
         return ResponseEntity.ok(lista);
     }
 
+    /*
+     * =============================================================
+     * LISTADO PAGINADO POR CURSOR CON FILTROS
+     * =============================================================
+     */
+    @GetMapping("/buscar")
+    public ResponseEntity<OrdenTrabajoPaginaDto> buscar(
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) String tecnicoCedula,
+            @RequestParam(required = false) String prioridad,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        try {
+            var filtro = new OrdenTrabajoFiltro(estado, tecnicoCedula, prioridad, desde, hasta);
+            return ResponseEntity.ok(ordenTrabajoService.buscarOrdenes(filtro, cursor, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /*
+     * =============================================================
+     * EXPORTAR HISTORIAL COMPLETO (NDJSON, STREAMING)
+     * =============================================================
+     */
+    @GetMapping(value = "/exportar", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) String tecnicoCedula,
+            @RequestParam(required = false) String prioridad,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+
+        var filtro = new OrdenTrabajoFiltro(estado, tecnicoCedula, prioridad, desde, hasta);
+        StreamingResponseBody body = out -> ordenTrabajoService.exportarOrdenes(filtro, out);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=ordenes.ndjson")
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     /*
      * =============================================================
      * LISTAR IMÁGENES DE UNA ORDEN
@@ -5,13 +5,13 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.context.config.annotation.RefreshScope;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.HandlerMapping;
+import com.newbie.newbiecore.util.ArchivoHttpHelper;
 
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
@@ -47,20 +47,13 @@ public class SecureFileController {
                 return ResponseEntity.badRequest().build();
             }
 
-            Resource resource = new UrlResource(file.toUri());
+            String contentType = request.getServletContext().getMimeType(file.getFileName().toString());
+            if (contentType == null)
+                contentType = "application/octet-stream";
 
-            if (resource.exists() && resource.isReadable()) {
-                String contentType = request.getServletContext().getMimeType(resource.getFile().getAbsolutePath());
-                if (contentType == null)
-                    contentType = "application/octet-stream";
-
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
+            // Streaming con rangos, ETag y 304; el navegador revalida antes de reutilizar su copia
+            return ArchivoHttpHelper.servir(file, MediaType.parseMediaType(contentType),
+                    CacheControl.noCache().cachePrivate(), file.getFileName().toString());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -0,0 +1,21 @@
+package com.newbie.newbiecore.dto.FichaTecnica;
+
+import java.time.LocalDate;
+
+/**
+ * Filtros opcionales del listado de fichas técnicas. Un campo null no filtra.
+ * El rango de fechas aplica sobre la fecha de creación y es inclusivo en ambos extremos.
+ */
+public record FichaTecnicaFiltro(
+        String estado,
+        String tecnicoId,
+        Long equipoId,
+        Long ordenTrabajoId,
+        LocalDate desde,
+        LocalDate hasta
+) {
+
+    public static FichaTecnicaFiltro vacio() {
+        return new FichaTecnicaFiltro(null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,12 @@
+package com.newbie.newbiecore.dto.FichaTecnica;
+
+import java.util.List;
+
+/**
+ * Página del listado de fichas técnicas con paginación por cursor (keyset).
+ * {@code siguienteCursor} es null cuando no hay más resultados.
+ */
+public record FichaTecnicaPaginaDto(
+        List<FichaTecnicaResumenDTO> fichas,
+        String siguienteCursor
+) {}
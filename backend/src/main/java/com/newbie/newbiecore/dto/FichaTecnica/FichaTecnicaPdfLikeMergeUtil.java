@@ -1,9 +1,30 @@
 package com.newbie.newbiecore.dto.FichaTecnica;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 
+/**
+ * Merge de {@link FichaTecnicaDTO} con las reglas del PdfController.
+ *
+ * Los campos del DTO se resuelven una sola vez, al cargar la clase, a
+ * {@link MethodHandle} de lectura y escritura con la regla de su tipo, todos
+ * encadenados en un único handle: cada merge no usa
+ * {@code getDeclaredFields}, {@code setAccessible} ni {@code Field.get/set},
+ * y no reserva memoria.
+ */
 public class FichaTecnicaPdfLikeMergeUtil {
 
+    private static final MethodType PASO = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * {@code (Object target, Object source) -> void}: todos los campos en un
+     * solo handle constante, que el JIT puede compilar como código lineal.
+     */
+    private static final MethodHandle MERGE = compilar();
+
     /**
      * Replica EXACTAMENTE la lógica del PdfController:
      * - null → ignorar
@@ -21,27 +42,104 @@ public class FichaTecnicaPdfLikeMergeUtil {
         if (source == null) return target;
 
         try {
-            for (Field field : FichaTecnicaDTO.class.getDeclaredFields()) {
-                field.setAccessible(true);
-
-                Object value = field.get(source);
-
-                // 🔁 MISMAS reglas que PdfController
-                if (value == null) continue;
-                if (value instanceof String s && s.trim().isEmpty()) continue;
-                if (value instanceof Number n && n.doubleValue() == 0) continue;
-
-                // Si pasó los filtros → copiar
-                field.set(target, value);
-            }
-
+            MERGE.invokeExact((Object) target, (Object) source);
             return target;
 
-        } catch (Exception e) {
+        } catch (Throwable e) {
             throw new RuntimeException(
                 "Error replicando comportamiento del PdfController",
                 e
             );
         }
     }
+
+    /*
+     * =============================
+     * REGLAS (MISMAS que PdfController)
+     * =============================
+     */
+
+    private static boolean valor(Object value) {
+        return value != null;
+    }
+
+    private static boolean texto(Object value) {
+        return value != null && !vacio((String) value);
+    }
+
+    private static boolean numero(Object value) {
+        return value != null && ((Number) value).doubleValue() != 0;
+    }
+
+    /** Tipo declarado genérico (Object, Serializable...): se decide por el valor. */
+    private static boolean dinamica(Object value) {
+        return value != null
+                && !(value instanceof String s && vacio(s))
+                && !(value instanceof Number n && n.doubleValue() == 0);
+    }
+
+    /** Igual que {@code s.trim().isEmpty()}, sin crear el String recortado. */
+    private static boolean vacio(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * =============================
+     * COMPILACIÓN
+     * =============================
+     */
+
+    /**
+     * Por cada campo: {@code v = source.campo; if (regla(v)) target.campo = v;}
+     * y luego encadena los pasos en un único handle.
+     */
+    private static MethodHandle compilar() {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(FichaTecnicaDTO.class, MethodHandles.lookup());
+            MethodHandles.Lookup propio = MethodHandles.lookup();
+            MethodHandle nada = MethodHandles.empty(PASO);
+
+            MethodHandle merge = nada;
+            Field[] fields = FichaTecnicaDTO.class.getDeclaredFields();
+            for (int i = fields.length - 1; i >= 0; i--) {
+                Field field = fields[i];
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                    continue;
+                }
+                MethodHandle leer = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+                MethodHandle escribir = lookup.unreflectSetter(field).asType(PASO);
+                MethodHandle regla = propio.findStatic(FichaTecnicaPdfLikeMergeUtil.class, regla(field.getType()),
+                        MethodType.methodType(boolean.class, Object.class));
+
+                // (target, v) -> regla(v) ? target.campo = v : nada
+                MethodHandle copiar = MethodHandles.guardWithTest(
+                        MethodHandles.dropArguments(regla, 0, Object.class), escribir, nada);
+                // (target, source) -> copiar(target, source.campo)
+                MethodHandle paso = MethodHandles.filterArguments(copiar, 1, leer);
+                merge = MethodHandles.foldArguments(merge, paso);
+            }
+            return merge;
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static String regla(Class<?> tipo) {
+        if (tipo == String.class) {
+            return "texto";
+        }
+        if (Number.class.isAssignableFrom(tipo) || (tipo.isPrimitive() && tipo != boolean.class && tipo != char.class)) {
+            return "numero";
+        }
+        // Object, Serializable, Comparable, CharSequence...: el valor puede ser texto o número
+        if (tipo.isAssignableFrom(String.class) || tipo.isAssignableFrom(Integer.class)) {
+            return "dinamica";
+        }
+        return "valor";
+    }
 }
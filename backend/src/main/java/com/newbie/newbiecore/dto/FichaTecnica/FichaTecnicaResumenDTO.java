@@ -0,0 +1,25 @@
+package com.newbie.newbiecore.dto.FichaTecnica;
+
+import java.time.Instant;
+
+/**
+ * Fila de los listados de fichas técnicas, proyectada directamente desde JPQL:
+ * solo las columnas de cabecera, sin cargar la entidad ni sus 140 campos de
+ * hardware. El detalle completo se pide con GET /api/fichas/{id}.
+ */
+public record FichaTecnicaResumenDTO(
+        Long id,
+        Instant fechaCreacion,
+        String estado,
+        String observaciones,
+
+        Long equipoId,
+        String equipoModelo,
+
+        Long ordenTrabajoId,
+        String numeroOrden,
+
+        String tecnicoId,
+        String tecnicoNombre
+) {
+}
@@ -0,0 +1,18 @@
+package com.newbie.newbiecore.dto.OrdenTrabajo;
+
+import com.newbie.newbiecore.entity.EstadoTareaCierre;
+import com.newbie.newbiecore.entity.EtapaCierre;
+
+import java.time.Instant;
+
+/**
+ * Estado de una etapa del cierre asíncrono de una orden.
+ */
+public record CierreEtapaDto(
+        EtapaCierre etapa,
+        EstadoTareaCierre estado,
+        int intentos,
+        String ultimoError,
+        Instant proximoIntento,
+        Instant fechaActualizacion
+) {}
@@ -7,6 +7,8 @@ import java.time.Instant;
 public record ImagenDto(
         Long id,
         String ruta,
+        String rutaMiniatura,
+        String rutaMedia,
         CategoriaImagen categoria,
         String descripcion,
         Instant fechaSubida
@@ -0,0 +1,25 @@
+package com.newbie.newbiecore.dto.OrdenTrabajo;
+
+import com.newbie.newbiecore.entity.CategoriaImagen;
+
+import java.time.Instant;
+
+/**
+ * Imagen proyectada junto con el id de su orden, para agrupar en memoria
+ * las imágenes de varias órdenes obtenidas en una sola consulta.
+ */
+public record ImagenOrdenFila(
+        Long ordenTrabajoId,
+        Long id,
+        String ruta,
+        String rutaMiniatura,
+        String rutaMedia,
+        CategoriaImagen categoria,
+        String descripcion,
+        Instant fechaSubida
+) {
+
+    public ImagenDto toDto() {
+        return new ImagenDto(id, ruta, rutaMiniatura, rutaMedia, categoria, descripcion, fechaSubida);
+    }
+}
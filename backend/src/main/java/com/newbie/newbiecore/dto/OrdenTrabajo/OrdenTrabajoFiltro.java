@@ -0,0 +1,20 @@
+package com.newbie.newbiecore.dto.OrdenTrabajo;
+
+import java.time.LocalDate;
+
+/**
+ * Filtros opcionales del listado de órdenes. Un campo null no filtra.
+ * El rango de fechas aplica sobre la fecha de ingreso y es inclusivo en ambos extremos.
+ */
+public record OrdenTrabajoFiltro(
+        String estado,
+        String tecnicoCedula,
+        String prioridad,
+        LocalDate desde,
+        LocalDate hasta
+) {
+
+    public static OrdenTrabajoFiltro vacio() {
+        return new OrdenTrabajoFiltro(null, null, null, null, null);
+    }
+}
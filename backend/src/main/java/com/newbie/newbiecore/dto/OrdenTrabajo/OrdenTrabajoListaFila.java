@@ -0,0 +1,64 @@
+package com.newbie.newbiecore.dto.OrdenTrabajo;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Fila plana del listado de órdenes, proyectada directamente desde JPQL
+ * (sin cargar las entidades ni sus relaciones). Las imágenes se agregan
+ * después con una sola consulta por página.
+ */
+public record OrdenTrabajoListaFila(
+        Long id,
+        String numeroOrden,
+        String estado,
+        String tipoServicio,
+        String prioridad,
+
+        Instant fechaHoraIngreso,
+        Instant fechaHoraEntrega,
+
+        String medioContacto,
+        String modalidad,
+
+        String clienteCedula,
+        String clienteNombre,
+
+        String tecnicoCedula,
+        String tecnicoNombre,
+
+        Long equipoId,
+        String equipoModelo,
+        String equipoHostname,
+
+        String problemaReportado,
+        String observacionesIngreso,
+        String diagnosticoTrabajo,
+        String observacionesRecomendaciones
+) {
+
+    public OrdenTrabajoListaDto conImagenes(List<ImagenDto> imagenes) {
+        return new OrdenTrabajoListaDto(
+                id,
+                numeroOrden,
+                estado,
+                tipoServicio,
+                prioridad,
+                fechaHoraIngreso,
+                fechaHoraEntrega,
+                medioContacto,
+                modalidad,
+                clienteCedula,
+                clienteNombre,
+                tecnicoCedula,
+                tecnicoNombre,
+                equipoId,
+                equipoModelo,
+                equipoHostname,
+                problemaReportado,
+                observacionesIngreso,
+                diagnosticoTrabajo,
+                observacionesRecomendaciones,
+                imagenes);
+    }
+}
@@ -0,0 +1,12 @@
+package com.newbie.newbiecore.dto.OrdenTrabajo;
+
+import java.util.List;
+
+/**
+ * Página del listado de órdenes con paginación por cursor (keyset).
+ * {@code siguienteCursor} es null cuando no hay más resultados.
+ */
+public record OrdenTrabajoPaginaDto(
+        List<OrdenTrabajoListaDto> ordenes,
+        String siguienteCursor
+) {}
@@ -0,0 +1,32 @@
+package com.newbie.newbiecore.dto.auditoria;
+
+import java.time.LocalDate;
+
+/**
+ * Filtro de consulta de auditoría. Se aplica como mucho uno de
+ * {@code entityKey}, {@code username} o {@code entityType} (en ese orden de
+ * prioridad); el rango de fechas es opcional y admite cualquiera de ellos.
+ */
+public record AuditLogFiltro(
+        String entityType,
+        String username,
+        String entityKey,
+        LocalDate desde,
+        LocalDate hasta
+) {
+    public static AuditLogFiltro porRango(LocalDate desde, LocalDate hasta) {
+        return new AuditLogFiltro(null, null, null, desde, hasta);
+    }
+
+    public static AuditLogFiltro porTipoEntidad(String entityType, LocalDate desde, LocalDate hasta) {
+        return new AuditLogFiltro(entityType, null, null, desde, hasta);
+    }
+
+    public static AuditLogFiltro porUsuario(String username, LocalDate desde, LocalDate hasta) {
+        return new AuditLogFiltro(null, username, null, desde, hasta);
+    }
+
+    public static AuditLogFiltro porClave(String entityKey, LocalDate desde, LocalDate hasta) {
+        return new AuditLogFiltro(null, null, entityKey, desde, hasta);
+    }
+}
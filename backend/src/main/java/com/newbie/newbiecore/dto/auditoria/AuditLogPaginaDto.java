@@ -0,0 +1,14 @@
+package com.newbie.newbiecore.dto.auditoria;
+
+import java.util.List;
+
+import com.newbie.newbiecore.entity.AuditLog;
+
+/**
+ * Página de registros de auditoría con paginación por cursor (keyset).
+ * {@code siguienteCursor} es null cuando no hay más resultados.
+ */
+public record AuditLogPaginaDto(
+        List<AuditLog> registros,
+        String siguienteCursor
+) {}
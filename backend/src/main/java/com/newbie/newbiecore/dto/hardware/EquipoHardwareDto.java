@@ -0,0 +1,16 @@
+package com.newbie.newbiecore.dto.hardware;
+
+import java.time.Instant;
+
+/**
+ * Resultado de la búsqueda de inventario de hardware.
+ */
+public record EquipoHardwareDto(
+        Long idEquipo,
+        String hostname,
+        String numeroSerie,
+        String marca,
+        String modelo,
+        InventarioHardwareDto hardware,
+        Instant actualizadoEn
+) {}
@@ -0,0 +1,38 @@
+package com.newbie.newbiecore.dto.hardware;
+
+/**
+ * Filtros opcionales de la búsqueda de inventario. Un campo null no filtra.
+ *
+ * <ul>
+ * <li>Los textos ({@code cpu}, {@code placaModelo}, {@code biosFabricante},
+ * {@code discoModelo}, {@code gpu}) buscan por contenido sin distinguir
+ * mayúsculas; {@code biosVersion} y {@code discoTipo} deben coincidir
+ * completos.</li>
+ * <li>Los rangos en MB son inclusivos y excluyen los equipos sin el dato.</li>
+ * <li>Las condiciones de disco se cumplen en un mismo disco.</li>
+ * <li>{@code entrada}/{@code valor} buscan una entrada exacta del informe
+ * original (hardwareJson).</li>
+ * </ul>
+ */
+public record EquipoHardwareFiltro(
+        String cpu,
+        Integer nucleosMin,
+        Long ramMinMb,
+        Long ramMaxMb,
+        String placaModelo,
+        String biosFabricante,
+        String biosVersion,
+        String discoModelo,
+        String discoTipo,
+        Long discoMinMb,
+        String gpu,
+        String entrada,
+        String valor,
+        Orden orden,
+        boolean descendente
+) {
+
+    public enum Orden {
+        ACTUALIZADO, CPU, RAM, ALMACENAMIENTO, BIOS
+    }
+}
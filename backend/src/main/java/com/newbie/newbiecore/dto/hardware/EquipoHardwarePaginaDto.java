@@ -0,0 +1,12 @@
+package com.newbie.newbiecore.dto.hardware;
+
+import java.util.List;
+
+/**
+ * Página de la búsqueda de inventario con paginación por cursor (keyset).
+ * {@code siguienteCursor} es null cuando no hay más resultados.
+ */
+public record EquipoHardwarePaginaDto(
+        List<EquipoHardwareDto> equipos,
+        String siguienteCursor
+) {}
@@ -0,0 +1,30 @@
+package com.newbie.newbiecore.dto.hardware;
+
+import java.util.List;
+
+/**
+ * Campos de hardware normalizados de un informe HWiNFO, tal como se guardan
+ * en {@code equipo_hardware}. Capacidades en MB; null cuando el informe no
+ * trae el dato.
+ */
+public record InventarioHardwareDto(
+        String cpuNombre,
+        Integer cpuNucleos,
+        Integer cpuHilos,
+        Long ramMb,
+        String placaFabricante,
+        String placaModelo,
+        String biosFabricante,
+        String biosVersion,
+        String biosFecha,
+        Long almacenamientoMb,
+        List<Disco> discos,
+        List<Gpu> gpus
+) {
+
+    public record Disco(String modelo, String tipo, Long capacidadMb, String serie) {
+    }
+
+    public record Gpu(String nombre, Long vramMb) {
+    }
+}
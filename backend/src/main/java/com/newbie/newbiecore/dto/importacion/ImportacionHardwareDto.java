@@ -0,0 +1,23 @@
+package com.newbie.newbiecore.dto.importacion;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Estado de una importación masiva de informes HWiNFO. Se devuelve al
+ * iniciarla y al consultar su progreso.
+ */
+public record ImportacionHardwareDto(
+        String id,
+        Estado estado,
+        int total,
+        int procesados,
+        List<ResultadoArchivoDto> archivos,
+        Instant fechaInicio,
+        Instant fechaFin
+) {
+
+    public enum Estado {
+        EN_COLA, EN_PROCESO, COMPLETADA, FALLIDA
+    }
+}
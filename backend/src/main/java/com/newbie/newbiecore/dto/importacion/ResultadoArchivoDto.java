@@ -0,0 +1,25 @@
+package com.newbie.newbiecore.dto.importacion;
+
+/**
+ * Resultado de un informe dentro de una importación masiva.
+ *
+ * {@code coincidencia} indica por qué campo se asoció el equipo
+ * ({@code numeroSerie} o {@code hostname}).
+ */
+public record ResultadoArchivoDto(
+        String archivo,
+        Estado estado,
+        Long equipoId,
+        String coincidencia,
+        String mensaje
+) {
+
+    public enum Estado {
+        PENDIENTE,
+        ACTUALIZADO,
+        SIN_COINCIDENCIA,
+        AMBIGUO,
+        DUPLICADO,
+        ERROR
+    }
+}
@@ -5,8 +5,15 @@ import lombok.*;
 
 import java.time.LocalDateTime;
 
+/**
+ * Token revocado (logout). Se guarda la huella SHA-256 en hexadecimal, no el
+ * JWT: basta para comprobar la revocación y no deja tokens válidos en la base
+ * de datos.
+ */
 @Entity
-@Table(name = "blacklisted_tokens")
+@Table(name = "blacklisted_tokens",
+        uniqueConstraints = @UniqueConstraint(name = "uk_blacklisted_tokens_token_digest", columnNames = "token_digest"),
+        indexes = @Index(name = "idx_blacklisted_tokens_expiration_date", columnList = "expiration_date"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -18,12 +25,12 @@ public class BlacklistedToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true, length = 500)
-    private String token;
+    @Column(name = "token_digest", nullable = false, length = 64)
+    private String tokenDigest;
 
     @Column(nullable = false)
     private LocalDateTime expirationDate;
 
     @Column(nullable = false)
     private LocalDateTime createdAt;
-}
\ No newline at end of file
+}
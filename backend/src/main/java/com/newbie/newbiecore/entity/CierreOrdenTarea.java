@@ -0,0 +1,64 @@
+package com.newbie.newbiecore.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * Tarea pendiente del cierre de una orden (outbox). Se inserta en la misma
+ * transacción que pasa la orden a CERRADA, de modo que ningún trabajo se pierde
+ * si la aplicación se reinicia antes de ejecutarlo.
+ */
+@Entity
+@Table(name = "cierre_orden_tareas", indexes = {
+        @Index(name = "idx_cierre_tareas_estado_proximo", columnList = "estado, proximo_intento"),
+        @Index(name = "idx_cierre_tareas_orden", columnList = "orden_trabajo_id, secuencia")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CierreOrdenTarea {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "orden_trabajo_id", nullable = false)
+    private Long ordenTrabajoId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "etapa", length = 30, nullable = false)
+    private EtapaCierre etapa;
+
+    // Copia de etapa.getSecuencia() para poder ordenar las etapas en SQL
+    @Column(name = "secuencia", nullable = false)
+    private int secuencia;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", length = 20, nullable = false)
+    private EstadoTareaCierre estado;
+
+    @Column(name = "intentos", nullable = false)
+    private int intentos;
+
+    @Column(name = "ultimo_error", length = 1000)
+    private String ultimoError;
+
+    @Column(name = "proximo_intento", nullable = false)
+    private Instant proximoIntento;
+
+    @CreationTimestamp
+    @Column(name = "fecha_creacion", nullable = false, updatable = false)
+    private Instant fechaCreacion;
+
+    @Column(name = "fecha_actualizacion", nullable = false)
+    private Instant fechaActualizacion;
+}
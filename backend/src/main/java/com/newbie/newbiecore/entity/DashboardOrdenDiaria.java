@@ -0,0 +1,49 @@
+package com.newbie.newbiecore.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Fila de la tabla acumulada del dashboard: cuántas órdenes ingresadas en
+ * {@code fecha} están en {@code estado} con un técnico. La mantiene
+ * DashboardService con upserts por JdbcTemplate en la misma transacción que
+ * modifica la orden; la entidad solo define el esquema.
+ */
+@Entity
+@Table(name = "dashboard_ordenes_diarias")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardOrdenDiaria {
+
+    @EmbeddedId
+    private Clave clave;
+
+    @Column(name = "cantidad", nullable = false)
+    private long cantidad;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+
+        @Column(name = "fecha", nullable = false)
+        private LocalDate fecha;
+
+        @Column(name = "estado", length = 30, nullable = false)
+        private String estado;
+
+        // "" para las órdenes sin técnico (la PK no admite null)
+        @Column(name = "tecnico_cedula", nullable = false)
+        private String tecnicoCedula;
+    }
+}
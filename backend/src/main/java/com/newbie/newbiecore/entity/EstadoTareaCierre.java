@@ -0,0 +1,11 @@
+package com.newbie.newbiecore.entity;
+
+/**
+ * Estado de una tarea del cierre de orden
+ */
+public enum EstadoTareaCierre {
+    PENDIENTE,   // En cola (o esperando reintento)
+    EN_PROCESO,  // Tomada por un worker
+    COMPLETADA,
+    FALLIDA      // Se agotaron los reintentos
+}
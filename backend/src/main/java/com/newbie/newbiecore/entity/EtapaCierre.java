@@ -0,0 +1,21 @@
+package com.newbie.newbiecore.entity;
+
+/**
+ * Etapas asíncronas del cierre de una orden de trabajo, en orden de ejecución.
+ * Una etapa no se ejecuta mientras alguna anterior de la misma orden no se haya completado.
+ */
+public enum EtapaCierre {
+    PDF_ORDEN(1),   // Resumen del servicio técnico
+    PDF_FICHAS(2),  // PDFs de las fichas técnicas de la orden
+    CORREO(3);      // Envío de los documentos al cliente
+
+    private final int secuencia;
+
+    EtapaCierre(int secuencia) {
+        this.secuencia = secuencia;
+    }
+
+    public int getSecuencia() {
+        return secuencia;
+    }
+}
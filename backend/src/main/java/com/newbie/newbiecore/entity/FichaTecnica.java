@@ -5,14 +5,41 @@ import java.time.Instant;
 import jakarta.persistence.*;
 import lombok.*;
 
+/**
+ * Ficha técnica de un equipo. La tabla {@code fichas_tecnicas} guarda solo la
+ * cabecera (la que leen los listados); los campos de cada sección van en
+ * tablas aparte con la misma clave, que Hibernate une al cargar la ficha
+ * completa. Las filas existentes se trasladan al arrancar
+ * ({@link com.newbie.newbiecore.service.FichaTecnicaSeccionesMigracion}).
+ */
 @Entity
-@Table(name = "fichas_tecnicas")
+@Table(name = FichaTecnica.TABLA, indexes = {
+      @Index(name = "idx_fichas_tecnicas_orden", columnList = "orden_trabajo_id"),
+      @Index(name = "idx_fichas_tecnicas_equipo", columnList = "equipo_id"),
+      @Index(name = "idx_fichas_tecnicas_tecnico_fecha", columnList = "tecnico_id, fecha_creacion"),
+      @Index(name = "idx_fichas_tecnicas_fecha", columnList = "fecha_creacion, id")
+})
+@SecondaryTable(name = FichaTecnica.TABLA_HARDWARE,
+      pkJoinColumns = @PrimaryKeyJoinColumn(name = "ficha_id"),
+      foreignKey = @ForeignKey(name = "fk_fichas_tecnicas_hardware_ficha"))
+@SecondaryTable(name = FichaTecnica.TABLA_INSPECCION,
+      pkJoinColumns = @PrimaryKeyJoinColumn(name = "ficha_id"),
+      foreignKey = @ForeignKey(name = "fk_fichas_tecnicas_inspeccion_ficha"))
+@SecondaryTable(name = FichaTecnica.TABLA_SOFTWARE,
+      pkJoinColumns = @PrimaryKeyJoinColumn(name = "ficha_id"),
+      foreignKey = @ForeignKey(name = "fk_fichas_tecnicas_software_ficha"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class FichaTecnica {
 
+   public static final String TABLA = "fichas_tecnicas";
+   // Secciones: hardware autocompletado, inspección física y software
+   public static final String TABLA_HARDWARE = "fichas_tecnicas_hardware";
+   public static final String TABLA_INSPECCION = "fichas_tecnicas_inspeccion";
+   public static final String TABLA_SOFTWARE = "fichas_tecnicas_software";
+
    /*
     * ===========================================================
     * ======================= METADATOS ==========================
@@ -52,173 +79,173 @@ public class FichaTecnica {
     */
 
    // Red / BIOS / Sistema
-   @Column(name = "adaptador_red")
+   @Column(table = TABLA_HARDWARE, name = "adaptador_red")
    private String adaptadorRed;
 
-   @Column(name = "arranque_uefi_presente")
+   @Column(table = TABLA_HARDWARE, name = "arranque_uefi_presente")
    private Boolean arranqueUefiPresente;
 
-   @Column(name = "bios_es_uefi_capaz")
+   @Column(table = TABLA_HARDWARE, name = "bios_es_uefi_capaz")
    private Boolean biosEsUefiCapaz;
 
-   @Column(name = "bios_fabricante")
+   @Column(table = TABLA_HARDWARE, name = "bios_fabricante")
    private String biosFabricante;
 
-   @Column(name = "bios_fecha_str")
+   @Column(table = TABLA_HARDWARE, name = "bios_fecha_str")
    private String biosFechaStr;
 
-   @Column(name = "bios_version")
+   @Column(table = TABLA_HARDWARE, name = "bios_version")
    private String biosVersion;
 
-   @Column(name = "chipset")
+   @Column(table = TABLA_HARDWARE, name = "chipset")
    private String chipset;
 
-   @Column(name = "secure_boot_activo")
+   @Column(table = TABLA_HARDWARE, name = "secure_boot_activo")
    private Boolean secureBootActivo;
 
-   @Column(name = "so_descripcion", length = 2000)
+   @Column(table = TABLA_HARDWARE, name = "so_descripcion", length = 2000)
    private String soDescripcion;
 
-   @Column(name = "so_proveedor")
+   @Column(table = TABLA_HARDWARE, name = "so_proveedor")
    private String soProveedor;
 
-   @Column(name = "mac_address")
+   @Column(table = TABLA_HARDWARE, name = "mac_address")
    private String macAddress;
 
-   @Column(name = "wifi_link_speed_actual")
+   @Column(table = TABLA_HARDWARE, name = "wifi_link_speed_actual")
    private String wifiLinkSpeedActual;
 
-   @Column(name = "wifi_link_speed_max")
+   @Column(table = TABLA_HARDWARE, name = "wifi_link_speed_max")
    private String wifiLinkSpeedMax;
 
    // CPU
-   @Column(name = "cpu_nombre")
+   @Column(table = TABLA_HARDWARE, name = "cpu_nombre")
    private String cpuNombre;
 
-   @Column(name = "cpu_nucleos")
+   @Column(table = TABLA_HARDWARE, name = "cpu_nucleos")
    private Integer cpuNucleos;
 
-   @Column(name = "cpu_logicos")
+   @Column(table = TABLA_HARDWARE, name = "cpu_logicos")
    private Integer cpuLogicos;
 
-   @Column(name = "cpu_paquetes_fisicos")
+   @Column(table = TABLA_HARDWARE, name = "cpu_paquetes_fisicos")
    private Integer cpuPaquetesFisicos;
 
-   @Column(name = "cpu_frecuencia_original_mhz")
+   @Column(table = TABLA_HARDWARE, name = "cpu_frecuencia_original_mhz")
    private Integer cpuFrecuenciaOriginalMhz;
 
    // Disco
-   @Column(name = "disco_capacidad_mb")
+   @Column(table = TABLA_HARDWARE, name = "disco_capacidad_mb")
    private Integer discoCapacidadMb;
 
-   @Column(name = "disco_capacidad_str")
+   @Column(table = TABLA_HARDWARE, name = "disco_capacidad_str")
    private String discoCapacidadStr;
 
-   @Column(name = "disco_modelo")
+   @Column(table = TABLA_HARDWARE, name = "disco_modelo")
    private String discoModelo;
 
-   @Column(name = "disco_numero_serie")
+   @Column(table = TABLA_HARDWARE, name = "disco_numero_serie")
    private String discoNumeroSerie;
 
-   @Column(name = "disco_rpm")
+   @Column(table = TABLA_HARDWARE, name = "disco_rpm")
    private Integer discoRpm;
 
-   @Column(name = "disco_tipo")
+   @Column(table = TABLA_HARDWARE, name = "disco_tipo")
    private String discoTipo;
 
-   @Column(name = "disco_letras")
+   @Column(table = TABLA_HARDWARE, name = "disco_letras")
    private String discoLetras;
 
-   @Column(name = "disco_wwn")
+   @Column(table = TABLA_HARDWARE, name = "disco_wwn")
    private String discoWwn;
 
    // SMART
-   @Column(name = "disco_temperatura")
+   @Column(table = TABLA_HARDWARE, name = "disco_temperatura")
    private String discoTemperatura;
 
-   @Column(name = "disco_horas_encendido")
+   @Column(table = TABLA_HARDWARE, name = "disco_horas_encendido")
    private String discoHorasEncendido;
 
-   @Column(name = "disco_sectores_reasignados")
+   @Column(table = TABLA_HARDWARE, name = "disco_sectores_reasignados")
    private String discoSectoresReasignados;
 
-   @Column(name = "disco_sectores_pendientes")
+   @Column(table = TABLA_HARDWARE, name = "disco_sectores_pendientes")
    private String discoSectoresPendientes;
 
-   @Column(name = "disco_errores_lectura")
+   @Column(table = TABLA_HARDWARE, name = "disco_errores_lectura")
    private String discoErroresLectura;
 
-   @Column(name = "disco_error_crc")
+   @Column(table = TABLA_HARDWARE, name = "disco_error_crc")
    private String discoErrorCrc;
 
    // GPU
-   @Column(name = "gpu_nombre")
+   @Column(table = TABLA_HARDWARE, name = "gpu_nombre")
    private String gpuNombre;
 
    // RAM (desde HW)
-   @Column(name = "ram_capacidad_gb")
+   @Column(table = TABLA_HARDWARE, name = "ram_capacidad_gb")
    private Integer ramCapacidadGb;
 
-   @Column(name = "ram_frecuencia_mhz")
+   @Column(table = TABLA_HARDWARE, name = "ram_frecuencia_mhz")
    private Integer ramFrecuenciaMhz;
 
-   @Column(name = "ram_tecnologia_modulo")
+   @Column(table = TABLA_HARDWARE, name = "ram_tecnologia_modulo")
    private String ramTecnologiaModulo;
 
-   @Column(name = "ram_tipo")
+   @Column(table = TABLA_HARDWARE, name = "ram_tipo")
    private String ramTipo;
 
-   @Column(name = "ram_numero_modulo")
+   @Column(table = TABLA_HARDWARE, name = "ram_numero_modulo")
    private Integer ramNumeroModulo;
 
-   @Column(name = "ram_serie_modulo")
+   @Column(table = TABLA_HARDWARE, name = "ram_serie_modulo")
    private String ramSerieModulo;
 
-   @Column(name = "ram_fecha_fabricacion")
+   @Column(table = TABLA_HARDWARE, name = "ram_fecha_fabricacion")
    private String ramFechaFabricacion;
 
-   @Column(name = "ram_lugar_fabricacion")
+   @Column(table = TABLA_HARDWARE, name = "ram_lugar_fabricacion")
    private String ramLugarFabricacion;
 
    // Mainboard
-   @Column(name = "mainboard_modelo")
+   @Column(table = TABLA_HARDWARE, name = "mainboard_modelo")
    private String mainboardModelo;
 
-   @Column(name = "equipo_nombre")
+   @Column(table = TABLA_HARDWARE, name = "equipo_nombre")
    private String equipoNombre;
 
    // Monitor
-   @Column(name = "monitor_nombre")
+   @Column(table = TABLA_HARDWARE, name = "monitor_nombre")
    private String monitorNombre;
 
-   @Column(name = "monitor_modelo")
+   @Column(table = TABLA_HARDWARE, name = "monitor_modelo")
    private String monitorModelo;
 
    // Audio
-   @Column(name = "audio_adaptador")
+   @Column(table = TABLA_HARDWARE, name = "audio_adaptador")
    private String audioAdaptador;
 
-   @Column(name = "audio_codec")
+   @Column(table = TABLA_HARDWARE, name = "audio_codec")
    private String audioCodec;
 
-   @Column(name = "audio_hardware_id")
+   @Column(table = TABLA_HARDWARE, name = "audio_hardware_id")
    private String audioHardwareId;
 
    // Interfaces
-   @Column(name = "pci_express_version")
+   @Column(table = TABLA_HARDWARE, name = "pci_express_version")
    private String pciExpressVersion;
 
-   @Column(name = "usb_version")
+   @Column(table = TABLA_HARDWARE, name = "usb_version")
    private String usbVersion;
 
    // Seguridad
-   @Column(name = "tpm_presente")
+   @Column(table = TABLA_HARDWARE, name = "tpm_presente")
    private Boolean tpmPresente;
 
-   @Column(name = "tpm_version")
+   @Column(table = TABLA_HARDWARE, name = "tpm_version")
    private String tpmVersion;
 
-   @Column(name = "hvci_estado")
+   @Column(table = TABLA_HARDWARE, name = "hvci_estado")
    private String hvciEstado;
 
    /*
@@ -228,271 +255,271 @@ public class FichaTecnica {
     */
 
    // Identificación
-   @Column(name = "equipo_marca")
+   @Column(table = TABLA_INSPECCION, name = "equipo_marca")
    private String equipoMarca;
 
-   @Column(name = "equipo_modelo")
+   @Column(table = TABLA_INSPECCION, name = "equipo_modelo")
    private String equipoModelo;
 
-   @Column(name = "equipo_serie")
+   @Column(table = TABLA_INSPECCION, name = "equipo_serie")
    private String equipoSerie;
 
-   @Column(name = "equipo_otros", length = 1000)
+   @Column(table = TABLA_INSPECCION, name = "equipo_otros", length = 1000)
    private String equipoOtros;
 
-   @Column(name = "equipo_roturas", length = 1000)
+   @Column(table = TABLA_INSPECCION, name = "equipo_roturas", length = 1000)
    private String equipoRoturas;
 
-   @Column(name = "equipo_marcas_desgaste", length = 1000)
+   @Column(table = TABLA_INSPECCION, name = "equipo_marcas_desgaste", length = 1000)
    private String equipoMarcasDesgaste;
 
    // Carcasa
-   @Column(name = "tornillos_faltantes")
+   @Column(table = TABLA_INSPECCION, name = "tornillos_faltantes")
    private Boolean tornillosFaltantes;
 
-   @Column(name = "carcasa_estado")
+   @Column(table = TABLA_INSPECCION, name = "carcasa_estado")
    private String carcasaEstado;
 
-   @Column(name = "carcasa_observaciones", length = 1000)
+   @Column(table = TABLA_INSPECCION, name = "carcasa_observaciones", length = 1000)
    private String carcasaObservaciones;
 
    // Teclado
-   @Column(name = "teclado_estado")
+   @Column(table = TABLA_INSPECCION, name = "teclado_estado")
    private String tecladoEstado;
 
-   @Column(name = "teclado_teclas_danadas")
+   @Column(table = TABLA_INSPECCION, name = "teclado_teclas_danadas")
    private Boolean tecladoTeclasDanadas;
 
-   @Column(name = "teclado_teclas_faltantes")
+   @Column(table = TABLA_INSPECCION, name = "teclado_teclas_faltantes")
    private Boolean tecladoTeclasFaltantes;
 
-   @Column(name = "teclado_retroiluminacion")
+   @Column(table = TABLA_INSPECCION, name = "teclado_retroiluminacion")
    private Boolean tecladoRetroiluminacion;
 
-   @Column(name = "teclado_observaciones", length = 1000)
+   @Column(table = TABLA_INSPECCION, name = "teclado_observaciones", length = 1000)
    private String tecladoObservaciones;
 
    // Pantalla
-   @Column(name = "pantalla_rayones")
+   @Column(table = TABLA_INSPECCION, name = "pantalla_rayones")
    private Boolean pantallaRayones;
 
-   @Column(name = "pantalla_trizaduras")
+   @Column(table = TABLA_INSPECCION, name = "pantalla_trizaduras")
    private Boolean pantallaTrizaduras;
 
-   @Column(name = "pantalla_pixeles_muertos")
+   @Column(table = TABLA_INSPECCION, name = "pantalla_pixeles_muertos")
    private Boolean pantallaPixelesMuertos;
 
-   @Column(name = "pantalla_manchas")
+   @Column(table = TABLA_INSPECCION, name = "pantalla_manchas")
    private Boolean pantallaManchas;
 
-   @Column(name = "pantalla_tactil")
+   @Column(table = TABLA_INSPECCION, name = "pantalla_tactil")
    private Boolean pantallaTactil;
 
-   @Column(name = "pantalla_observaciones", length = 1000)
+   @Column(table = TABLA_INSPECCION, name = "pantalla_observaciones", length = 1000)
    private String pantallaObservaciones;
 
    // Puertos
-   @Column(name = "puerto_usb")
+   @Column(table = TABLA_INSPECCION, name = "puerto_usb")
    private Boolean puertoUsb;
 
-   @Column(name = "puerto_vga")
+   @Column(table = TABLA_INSPECCION, name = "puerto_vga")
    private Boolean puertoVga;
 
-   @Column(name = "puerto_ethernet")
+   @Column(table = TABLA_INSPECCION, name = "puerto_ethernet")
    private Boolean puertoEthernet;
 
-   @Column(name = "puerto_hdmi")
+   @Column(table = TABLA_INSPECCION, name = "puerto_hdmi")
    private Boolean puertoHdmi;
 
-   @Column(name = "puerto_entrada_audio")
+   @Column(table = TABLA_INSPECCION, name = "puerto_entrada_audio")
    private Boolean puertoEntradaAudio;
 
-   @Column(name = "puerto_salida_audio")
+   @Column(table = TABLA_INSPECCION, name = "puerto_salida_audio")
    private Boolean puertoSalidaAudio;
 
-   @Column(name = "puerto_micro_sd")
+   @Column(table = TABLA_INSPECCION, name = "puerto_micro_sd")
    private Boolean puertoMicroSd;
 
-   @Column(name = "puerto_dvd")
+   @Column(table = TABLA_INSPECCION, name = "puerto_dvd")
    private Boolean puertoDvd;
 
-   @Column(name = "puertos_observaciones", length = 1000)
+   @Column(table = TABLA_INSPECCION, name = "puertos_observaciones", length = 1000)
    private String puertosObservaciones;
 
    // Touchpad
-   @Column(name = "touchpad_estado")
+   @Column(table = TABLA_INSPECCION, name = "touchpad_estado")
    private String touchpadEstado;
 
-   @Column(name = "touchpad_funciona")
+   @Column(table = TABLA_INSPECCION, name = "touchpad_funciona")
    private Boolean touchpadFunciona;
 
-   @Column(name = "touchpad_boton_izq")
+   @Column(table = TABLA_INSPECCION, name = "touchpad_boton_izq")
    private Boolean touchpadBotonIzq;
 
-   @Column(name = "touchpad_boton_der")
+   @Column(table = TABLA_INSPECCION, name = "touchpad_boton_der")
    private Boolean touchpadBotonDer;
 
-   @Column(name = "touchpad_tactil")
+   @Column(table = TABLA_INSPECCION, name = "touchpad_tactil")
    private Boolean touchpadTactil;
 
-   @Column(name = "touchpad_observaciones", length = 1000)
+   @Column(table = TABLA_INSPECCION, name = "touchpad_observaciones", length = 1000)
    private String touchpadObservaciones;
 
    // Disco Hoja Técnica
-   @Column(name = "disco_estado")
+   @Column(table = TABLA_INSPECCION, name = "disco_estado")
    private String discoEstado;
 
-   @Column(name = "disco_tipo_ficha")
+   @Column(table = TABLA_INSPECCION, name = "disco_tipo_ficha")
    private String discoTipoFicha;
 
-   @Column(name = "disco_marca_ficha")
+   @Column(table = TABLA_INSPECCION, name = "disco_marca_ficha")
    private String discoMarcaFicha;
 
-   @Column(name = "disco_capacidad_ficha")
+   @Column(table = TABLA_INSPECCION, name = "disco_capacidad_ficha")
    private String discoCapacidadFicha;
 
-   @Column(name = "disco_serie_ficha")
+   @Column(table = TABLA_INSPECCION, name = "disco_serie_ficha")
    private String discoSerieFicha;
 
-   @Column(name = "disco_observaciones_ficha", length = 1000)
+   @Column(table = TABLA_INSPECCION, name = "disco_observaciones_ficha", length = 1000)
    private String discoObservacionesFicha;
 
    // RAM Hoja Técnica
-   @Column(name = "ram_tipo_equipo")
+   @Column(table = TABLA_INSPECCION, name = "ram_tipo_equipo")
    private String ramTipoEquipo;
 
-   @Column(name = "ram_cantidad_modulos")
+   @Column(table = TABLA_INSPECCION, name = "ram_cantidad_modulos")
    private Integer ramCantidadModulos;
 
-   @Column(name = "ram_marca_ficha")
+   @Column(table = TABLA_INSPECCION, name = "ram_marca_ficha")
    private String ramMarcaFicha;
 
-   @Column(name = "ram_tecnologia_ficha")
+   @Column(table = TABLA_INSPECCION, name = "ram_tecnologia_ficha")
    private String ramTecnologiaFicha;
 
-   @Column(name = "ram_capacidad_ficha")
+   @Column(table = TABLA_INSPECCION, name = "ram_capacidad_ficha")
    private String ramCapacidadFicha;
 
-   @Column(name = "ram_frecuencia_ficha")
+   @Column(table = TABLA_INSPECCION, name = "ram_frecuencia_ficha")
    private String ramFrecuenciaFicha;
 
-   @Column(name = "ram_observaciones_ficha", length = 1000)
+   @Column(table = TABLA_INSPECCION, name = "ram_observaciones_ficha", length = 1000)
    private String ramObservacionesFicha;
 
    // Mainboard Hoja Técnica
-   @Column(name = "mainboard_modelo_ficha")
+   @Column(table = TABLA_INSPECCION, name = "mainboard_modelo_ficha")
    private String mainboardModeloFicha;
 
-   @Column(name = "mainboard_observaciones", length = 1000)
+   @Column(table = TABLA_INSPECCION, name = "mainboard_observaciones", length = 1000)
    private String mainboardObservaciones;
 
    // Procesador Hoja Técnica
-   @Column(name = "procesador_marca")
+   @Column(table = TABLA_INSPECCION, name = "procesador_marca")
    private String procesadorMarca;
 
-   @Column(name = "procesador_modelo")
+   @Column(table = TABLA_INSPECCION, name = "procesador_modelo")
    private String procesadorModelo;
 
    // Fuente de poder
-   @Column(name = "fuente_ventilador_estado")
+   @Column(table = TABLA_INSPECCION, name = "fuente_ventilador_estado")
    private String fuenteVentiladorEstado;
 
-   @Column(name = "fuente_ruido")
+   @Column(table = TABLA_INSPECCION, name = "fuente_ruido")
    private String fuenteRuido;
 
-   @Column(name = "fuente_medicion_voltaje")
+   @Column(table = TABLA_INSPECCION, name = "fuente_medicion_voltaje")
    private String fuenteMedicionVoltaje;
 
-   @Column(name = "fuente_observaciones", length = 1000)
+   @Column(table = TABLA_INSPECCION, name = "fuente_observaciones", length = 1000)
    private String fuenteObservaciones;
 
    // Gráfica física
-   @Column(name = "grafica_tipo")
+   @Column(table = TABLA_INSPECCION, name = "grafica_tipo")
    private String graficaTipo;
 
    // Ventilador CPU
-   @Column(name = "ventilador_cpu_observaciones", length = 1000)
+   @Column(table = TABLA_INSPECCION, name = "ventilador_cpu_observaciones", length = 1000)
    private String ventiladorCpuObservaciones;
 
    // Batería
-   @Column(name = "bateria_codigo")
+   @Column(table = TABLA_INSPECCION, name = "bateria_codigo")
    private String bateriaCodigo;
 
-   @Column(name = "bateria_observaciones", length = 1000)
+   @Column(table = TABLA_INSPECCION, name = "bateria_observaciones", length = 1000)
    private String bateriaObservaciones;
 
    // Cargador
-   @Column(name = "cargador_codigo")
+   @Column(table = TABLA_INSPECCION, name = "cargador_codigo")
    private String cargadorCodigo;
 
-   @Column(name = "cargador_estado_cable")
+   @Column(table = TABLA_INSPECCION, name = "cargador_estado_cable")
    private String cargadorEstadoCable;
 
-   @Column(name = "cargador_voltajes")
+   @Column(table = TABLA_INSPECCION, name = "cargador_voltajes")
    private String cargadorVoltajes;
 
    // BIOS física
-   @Column(name = "bios_contrasena")
+   @Column(table = TABLA_SOFTWARE, name = "bios_contrasena")
    private Boolean biosContrasena;
 
-   @Column(name = "bios_tipo_arranque")
+   @Column(table = TABLA_SOFTWARE, name = "bios_tipo_arranque")
    private String biosTipoArranque;
 
-   @Column(name = "bios_secure_boot")
+   @Column(table = TABLA_SOFTWARE, name = "bios_secure_boot")
    private Boolean biosSecureBoot;
 
-   @Column(name = "bios_observaciones_ficha", length = 1000)
+   @Column(table = TABLA_SOFTWARE, name = "bios_observaciones_ficha", length = 1000)
    private String biosObservacionesFicha;
 
    // SO físico
-   @Column(name = "so_tipo")
+   @Column(table = TABLA_SOFTWARE, name = "so_tipo")
    private String soTipo;
 
-   @Column(name = "so_version")
+   @Column(table = TABLA_SOFTWARE, name = "so_version")
    private String soVersion;
 
-   @Column(name = "so_licencia_activa")
+   @Column(table = TABLA_SOFTWARE, name = "so_licencia_activa")
    private Boolean soLicenciaActiva;
 
    // Antivirus
-   @Column(name = "antivirus_marca")
+   @Column(table = TABLA_SOFTWARE, name = "antivirus_marca")
    private String antivirusMarca;
 
-   @Column(name = "antivirus_licencia_activa")
+   @Column(table = TABLA_SOFTWARE, name = "antivirus_licencia_activa")
    private Boolean antivirusLicenciaActiva;
 
-   @Column(name = "antivirus_observaciones", length = 1000)
+   @Column(table = TABLA_SOFTWARE, name = "antivirus_observaciones", length = 1000)
    private String antivirusObservaciones;
 
    // Office
-   @Column(name = "office_licencia_activa")
+   @Column(table = TABLA_SOFTWARE, name = "office_licencia_activa")
    private Boolean officeLicenciaActiva;
 
-   @Column(name = "office_version")
+   @Column(table = TABLA_SOFTWARE, name = "office_version")
    private String officeVersion;
 
    // Info almacenada
-   @Column(name = "informacion_cantidad")
+   @Column(table = TABLA_SOFTWARE, name = "informacion_cantidad")
    private String informacionCantidad;
 
-   @Column(name = "informacion_requiere_respaldo")
+   @Column(table = TABLA_SOFTWARE, name = "informacion_requiere_respaldo")
    private Boolean informacionRequiereRespaldo;
 
-   @Column(name = "informacion_otros_programas", length = 1000)
+   @Column(table = TABLA_SOFTWARE, name = "informacion_otros_programas", length = 1000)
    private String informacionOtrosProgramas;
 
    // Cámara
-   @Column(name = "camara_funciona")
+   @Column(table = TABLA_INSPECCION, name = "camara_funciona")
    private Boolean camaraFunciona;
 
-   @Column(name = "camara_observaciones", length = 1000)
+   @Column(table = TABLA_INSPECCION, name = "camara_observaciones", length = 1000)
    private String camaraObservaciones;
 
    // WiFi
-   @Column(name = "wifi_funciona")
+   @Column(table = TABLA_INSPECCION, name = "wifi_funciona")
    private Boolean wifiFunciona;
 
-   @Column(name = "wifi_observaciones", length = 1000)
+   @Column(table = TABLA_INSPECCION, name = "wifi_observaciones", length = 1000)
    private String wifiObservaciones;
 
    // Trabajo realizado
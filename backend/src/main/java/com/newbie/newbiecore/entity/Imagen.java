@@ -8,7 +8,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.Instant;
 
 @Entity
-@Table(name = "imagenes")
+@Table(name = "imagenes", indexes = {
+        @Index(name = "idx_imagenes_orden_trabajo", columnList = "orden_trabajo_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -38,4 +40,11 @@ public class Imagen {
 
     @Column(length = 255)
     private String descripcion;
+
+    // Variantes reducidas (JPEG); null mientras se generan o si el archivo no es una imagen legible
+    @Column(name = "ruta_miniatura", length = 600)
+    private String rutaMiniatura;
+
+    @Column(name = "ruta_media", length = 600)
+    private String rutaMedia;
 }
@@ -22,6 +22,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -34,7 +35,12 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "ordenes_trabajo")
+@Table(name = "ordenes_trabajo", indexes = {
+        // Listado paginado por cursor (fecha de ingreso, id)
+        @Index(name = "idx_ot_fecha_ingreso_id", columnList = "fecha_hora_ingreso, id"),
+        @Index(name = "idx_ot_tecnico_fecha_ingreso", columnList = "tecnico_cedula, fecha_hora_ingreso"),
+        @Index(name = "idx_ot_estado_fecha_ingreso", columnList = "estado, fecha_hora_ingreso")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -1,7 +1,6 @@
 package com.newbie.newbiecore.repository;
 
 import com.newbie.newbiecore.entity.AuditLog;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -11,24 +10,70 @@ import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Las consultas de listado paginan por cursor (timestamp, id) descendente y
+ * siempre llevan rango de fechas, para que PostgreSQL descarte las particiones
+ * mensuales que no aplican. El servicio usa valores límite cuando no hay rango
+ * o cursor; el tamaño de página se toma del {@link Pageable}.
+ */
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
 
-    List<AuditLog> findByEntityTypeOrderByTimestampDesc(String entityType);
+    @Query("""
+           SELECT a FROM AuditLog a
+           WHERE a.timestamp >= :desde AND a.timestamp < :hasta
+             AND (a.timestamp < :cursorFecha OR (a.timestamp = :cursorFecha AND a.id < :cursorId))
+           ORDER BY a.timestamp DESC, a.id DESC
+           """)
+    List<AuditLog> buscarPagina(
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta,
+            @Param("cursorFecha") LocalDateTime cursorFecha,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
 
-    List<AuditLog> findByUsernameOrderByTimestampDesc(String username);
+    @Query("""
+           SELECT a FROM AuditLog a
+           WHERE a.entityType = :entityType
+             AND a.timestamp >= :desde AND a.timestamp < :hasta
+             AND (a.timestamp < :cursorFecha OR (a.timestamp = :cursorFecha AND a.id < :cursorId))
+           ORDER BY a.timestamp DESC, a.id DESC
+           """)
+    List<AuditLog> buscarPaginaPorTipoEntidad(
+            @Param("entityType") String entityType,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta,
+            @Param("cursorFecha") LocalDateTime cursorFecha,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
 
-    List<AuditLog> findByEntityKeyOrderByTimestampDesc(String entityKey);
+    @Query("""
+           SELECT a FROM AuditLog a
+           WHERE a.username = :username
+             AND a.timestamp >= :desde AND a.timestamp < :hasta
+             AND (a.timestamp < :cursorFecha OR (a.timestamp = :cursorFecha AND a.id < :cursorId))
+           ORDER BY a.timestamp DESC, a.id DESC
+           """)
+    List<AuditLog> buscarPaginaPorUsuario(
+            @Param("username") String username,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta,
+            @Param("cursorFecha") LocalDateTime cursorFecha,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
 
-    @Query("SELECT a FROM AuditLog a WHERE a.timestamp BETWEEN :startDate AND :endDate ORDER BY a.timestamp DESC")
-    List<AuditLog> findByDateRange(
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate
-    );
-
-    @Query("SELECT a FROM AuditLog a WHERE a.entityType = 'ConfigurationProperty' ORDER BY a.timestamp DESC")
-    Page<AuditLog> findConfigurationChanges(Pageable pageable);
-
-    @Query("SELECT a FROM AuditLog a WHERE a.entityType = 'ConfigurationProperty' AND a.entityKey = :key ORDER BY a.timestamp DESC")
-    List<AuditLog> findConfigurationChangesByKey(@Param("key") String key);
-}
\ No newline at end of file
+    @Query("""
+           SELECT a FROM AuditLog a
+           WHERE a.entityKey = :entityKey
+             AND a.timestamp >= :desde AND a.timestamp < :hasta
+             AND (a.timestamp < :cursorFecha OR (a.timestamp = :cursorFecha AND a.id < :cursorId))
+           ORDER BY a.timestamp DESC, a.id DESC
+           """)
+    List<AuditLog> buscarPaginaPorClave(
+            @Param("entityKey") String entityKey,
+            @Param("desde") LocalDateTime desde,
+            @Param("hasta") LocalDateTime hasta,
+            @Param("cursorFecha") LocalDateTime cursorFecha,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+}
@@ -2,10 +2,25 @@ package com.newbie.newbiecore.repository;
 
 import com.newbie.newbiecore.entity.BlacklistedToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface BlacklistedTokenRepository extends JpaRepository<BlacklistedToken, Long> {
-    Optional<BlacklistedToken> findByToken(String token);
-    boolean existsByToken(String token);
-}
\ No newline at end of file
+    boolean existsByTokenDigest(String tokenDigest);
+
+    // Revocaciones aún vigentes (las expiradas ya no pasan la verificación del JWT)
+    List<BlacklistedToken> findByExpirationDateAfter(LocalDateTime ahora);
+
+    // Revocaciones registradas desde otra instancia después de la última sincronización
+    List<BlacklistedToken> findByCreatedAtAfterAndExpirationDateAfter(LocalDateTime desde, LocalDateTime ahora);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM BlacklistedToken b WHERE b.expirationDate < :ahora")
+    int eliminarExpirados(@Param("ahora") LocalDateTime ahora);
+}
@@ -0,0 +1,43 @@
+package com.newbie.newbiecore.repository;
+
+import com.newbie.newbiecore.entity.CierreOrdenTarea;
+import com.newbie.newbiecore.entity.EstadoTareaCierre;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface CierreOrdenTareaRepository extends JpaRepository<CierreOrdenTarea, Long> {
+
+    List<CierreOrdenTarea> findByOrdenTrabajoIdOrderBySecuenciaAscIdAsc(Long ordenTrabajoId);
+
+    List<CierreOrdenTarea> findByOrdenTrabajoIdAndSecuenciaGreaterThanAndEstado(
+            Long ordenTrabajoId, int secuencia, EstadoTareaCierre estado);
+
+    /**
+     * Bloquea (sin esperar a otras instancias) las próximas tareas ejecutables:
+     * pendientes cuyo reintento ya venció, o en proceso con el lease vencido
+     * (worker caído). Una etapa solo es ejecutable si todas las etapas anteriores
+     * de la misma orden están completadas: tras una etapa FALLIDA, las siguientes
+     * no se ejecutan (no se envía el correo sin los PDFs).
+     */
+    @Query(value = """
+            SELECT t.* FROM cierre_orden_tareas t
+            WHERE ((t.estado = 'PENDIENTE' AND t.proximo_intento <= :ahora)
+                   OR (t.estado = 'EN_PROCESO' AND t.fecha_actualizacion < :leaseVencido))
+              AND NOT EXISTS (
+                  SELECT 1 FROM cierre_orden_tareas p
+                  WHERE p.orden_trabajo_id = t.orden_trabajo_id
+                    AND p.secuencia < t.secuencia
+                    AND p.estado <> 'COMPLETADA')
+            ORDER BY t.id
+            LIMIT :limite
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<CierreOrdenTarea> bloquearEjecutables(
+            @Param("ahora") Instant ahora,
+            @Param("leaseVencido") Instant leaseVencido,
+            @Param("limite") int limite);
+}
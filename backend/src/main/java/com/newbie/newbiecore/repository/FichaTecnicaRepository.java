@@ -1,18 +1,96 @@
 package com.newbie.newbiecore.repository;
 
+import com.newbie.newbiecore.dto.FichaTecnica.FichaTecnicaResumenDTO;
 import com.newbie.newbiecore.entity.FichaTecnica;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 public interface FichaTecnicaRepository extends JpaRepository<FichaTecnica, Long> {
 
     List<FichaTecnica> findByOrdenTrabajoId(Long ordenTrabajoId);
-    List<FichaTecnica> findByEquipoId(Long equipoId);
-    List<FichaTecnica> findByOrdenTrabajo_Cliente_Cedula(String cedula);
-    List<FichaTecnica> findByTecnicoId(String tecnicoId);
+
+    /*
+     * Listados: proyección de la cabecera (sin los campos de hardware), en orden
+     * de creación.
+     */
+    String RESUMEN = """
+            SELECT new com.newbie.newbiecore.dto.FichaTecnica.FichaTecnicaResumenDTO(
+                f.id, f.fechaCreacion, f.estado, f.observaciones,
+                f.equipoId, e.modelo,
+                o.id, o.numeroOrden,
+                f.tecnicoId, t.nombre
+            )
+            FROM FichaTecnica f
+            LEFT JOIN f.ordenTrabajo o
+            LEFT JOIN Equipo e ON e.idEquipo = f.equipoId
+            LEFT JOIN Usuario t ON t.cedula = f.tecnicoId
+            """;
+
+    @Query(RESUMEN + " WHERE f.equipoId = :equipoId ORDER BY f.id")
+    List<FichaTecnicaResumenDTO> listarResumenPorEquipo(@Param("equipoId") Long equipoId);
+
+    @Query(RESUMEN + " WHERE f.tecnicoId = :tecnicoId ORDER BY f.id")
+    List<FichaTecnicaResumenDTO> listarResumenPorTecnico(@Param("tecnicoId") String tecnicoId);
+
+    @Query(RESUMEN + " WHERE o.id = :ordenTrabajoId ORDER BY f.id")
+    List<FichaTecnicaResumenDTO> listarResumenPorOrdenTrabajo(@Param("ordenTrabajoId") Long ordenTrabajoId);
+
+    @Query(RESUMEN + " WHERE o.cliente.cedula = :cedula ORDER BY f.id")
+    List<FichaTecnicaResumenDTO> listarResumenPorCliente(@Param("cedula") String cedula);
+
+    /*
+     * Búsqueda paginada por cursor (fechaCreacion, id). Los filtros son opcionales
+     * (null = sin filtro); el rango de fechas y el cursor siempre llegan informados
+     * (el servicio usa valores límite cuando no aplican). El tamaño de página se
+     * toma del Pageable; no se ejecuta count.
+     */
+    String FILTROS = """
+             WHERE (:estado IS NULL OR f.estado = :estado)
+               AND (:tecnicoId IS NULL OR f.tecnicoId = :tecnicoId)
+               AND (:equipoId IS NULL OR f.equipoId = :equipoId)
+               AND (:ordenTrabajoId IS NULL OR o.id = :ordenTrabajoId)
+               AND f.fechaCreacion >= :desde
+               AND f.fechaCreacion < :hasta
+            """;
+
+    /** Más recientes primero. */
+    @Query(RESUMEN + FILTROS + """
+               AND (f.fechaCreacion < :cursorFecha
+                    OR (f.fechaCreacion = :cursorFecha AND f.id < :cursorId))
+             ORDER BY f.fechaCreacion DESC, f.id DESC
+            """)
+    List<FichaTecnicaResumenDTO> buscarResumenDesc(
+            @Param("estado") String estado,
+            @Param("tecnicoId") String tecnicoId,
+            @Param("equipoId") Long equipoId,
+            @Param("ordenTrabajoId") Long ordenTrabajoId,
+            @Param("desde") Instant desde,
+            @Param("hasta") Instant hasta,
+            @Param("cursorFecha") Instant cursorFecha,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
+
+    /** Más antiguas primero. */
+    @Query(RESUMEN + FILTROS + """
+               AND (f.fechaCreacion > :cursorFecha
+                    OR (f.fechaCreacion = :cursorFecha AND f.id > :cursorId))
+             ORDER BY f.fechaCreacion ASC, f.id ASC
+            """)
+    List<FichaTecnicaResumenDTO> buscarResumenAsc(
+            @Param("estado") String estado,
+            @Param("tecnicoId") String tecnicoId,
+            @Param("equipoId") Long equipoId,
+            @Param("ordenTrabajoId") Long ordenTrabajoId,
+            @Param("desde") Instant desde,
+            @Param("hasta") Instant hasta,
+            @Param("cursorFecha") Instant cursorFecha,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
 
 }
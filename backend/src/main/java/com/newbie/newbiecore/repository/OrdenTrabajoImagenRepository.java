@@ -1,11 +1,26 @@
 package com.newbie.newbiecore.repository;
 
+import com.newbie.newbiecore.dto.OrdenTrabajo.ImagenOrdenFila;
 import com.newbie.newbiecore.entity.Imagen;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface OrdenTrabajoImagenRepository extends JpaRepository<Imagen, Long> {
 
     List<Imagen> findByOrdenTrabajo_Id(Long ordenTrabajoId);
+
+    // Resumen de imágenes de varias órdenes en una sola consulta (listados paginados)
+    @Query("""
+           SELECT new com.newbie.newbiecore.dto.OrdenTrabajo.ImagenOrdenFila(
+               i.ordenTrabajo.id, i.id, i.ruta, i.rutaMiniatura, i.rutaMedia, i.categoria, i.descripcion, i.fechaSubida
+           )
+           FROM Imagen i
+           WHERE i.ordenTrabajo.id IN :ordenIds
+           ORDER BY i.ordenTrabajo.id, i.id
+           """)
+    List<ImagenOrdenFila> findResumenByOrdenTrabajoIds(@Param("ordenIds") Collection<Long> ordenIds);
 }
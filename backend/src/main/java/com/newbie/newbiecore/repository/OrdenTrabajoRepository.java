@@ -4,34 +4,65 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import com.newbie.newbiecore.dto.dashboard.TecnicoDashboardDto;
+import com.newbie.newbiecore.dto.OrdenTrabajo.OrdenTrabajoListaFila;
 import com.newbie.newbiecore.entity.OrdenTrabajo;
 
 public interface OrdenTrabajoRepository extends JpaRepository<OrdenTrabajo, Long> {
     Optional<OrdenTrabajo> findByNumeroOrden(String numeroOrden);
+
+    @Query("SELECT ot.numeroOrden FROM OrdenTrabajo ot WHERE ot.id = :id")
+    Optional<String> findNumeroOrdenById(@Param("id") Long id);
+
     long countByEstado(String estado);
 
-    long countByFechaHoraIngresoBetween(Instant inicio, Instant fin);
+    List<OrdenTrabajo> findByCliente_CedulaOrderByFechaHoraIngresoDesc(String cedula);
+    Optional<OrdenTrabajo> findByNumeroOrdenAndCliente_Cedula(String numeroOrden, String cedula);
+    List<OrdenTrabajo> findByTecnicoAsignado_CedulaOrderByFechaHoraIngresoDesc(String cedula);
 
+    /**
+     * Listado proyectado con paginación por cursor (fechaHoraIngreso, id) en orden
+     * descendente. Los filtros de texto son opcionales (null = sin filtro); el rango
+     * de fechas y el cursor siempre llegan informados (el servicio usa valores límite
+     * cuando no aplican). El tamaño de página se toma del {@link Pageable}; no se
+     * ejecuta count.
+     */
     @Query("""
-           SELECT new com.newbie.newbiecore.dto.dashboard.TecnicoDashboardDto(
-               ot.tecnicoAsignado.cedula,
-               ot.tecnicoAsignado.nombre,
-               COUNT(ot),
-               SUM(CASE WHEN ot.estado = 'PENDIENTE' THEN 1 ELSE 0 END),
-               SUM(CASE WHEN ot.estado IN ('EN_DIAGNOSTICO','EN_REPARACION') THEN 1 ELSE 0 END),
-               SUM(CASE WHEN ot.estado IN ('LISTO','CERRADO') THEN 1 ELSE 0 END)
+           SELECT new com.newbie.newbiecore.dto.OrdenTrabajo.OrdenTrabajoListaFila(
+               ot.id, ot.numeroOrden, ot.estado, ot.tipoServicio, ot.prioridad,
+               ot.fechaHoraIngreso, ot.fechaHoraEntrega,
+               ot.medioContacto, ot.modalidad,
+               c.cedula, c.nombre,
+               t.cedula, t.nombre,
+               e.idEquipo, e.modelo, e.hostname,
+               ot.problemaReportado, ot.observacionesIngreso,
+               ot.diagnosticoTrabajo, ot.observacionesRecomendaciones
            )
            FROM OrdenTrabajo ot
-           WHERE ot.tecnicoAsignado IS NOT NULL
-           GROUP BY ot.tecnicoAsignado.cedula, ot.tecnicoAsignado.nombre
+           LEFT JOIN ot.cliente c
+           LEFT JOIN ot.tecnicoAsignado t
+           LEFT JOIN ot.equipo e
+           WHERE (:estado IS NULL OR ot.estado = :estado)
+             AND (:tecnicoCedula IS NULL OR t.cedula = :tecnicoCedula)
+             AND (:prioridad IS NULL OR ot.prioridad = :prioridad)
+             AND ot.fechaHoraIngreso >= :desde
+             AND ot.fechaHoraIngreso < :hasta
+             AND (ot.fechaHoraIngreso < :cursorFecha
+                  OR (ot.fechaHoraIngreso = :cursorFecha AND ot.id < :cursorId))
+           ORDER BY ot.fechaHoraIngreso DESC, ot.id DESC
            """)
-    List<TecnicoDashboardDto> findResumenTecnicos();
-    List<OrdenTrabajo> findByCliente_CedulaOrderByFechaHoraIngresoDesc(String cedula);
-    Optional<OrdenTrabajo> findByNumeroOrdenAndCliente_Cedula(String numeroOrden, String cedula);
-    List<OrdenTrabajo> findByTecnicoAsignado_CedulaOrderByFechaHoraIngresoDesc(String cedula);
+    List<OrdenTrabajoListaFila> buscarListado(
+            @Param("estado") String estado,
+            @Param("tecnicoCedula") String tecnicoCedula,
+            @Param("prioridad") String prioridad,
+            @Param("desde") Instant desde,
+            @Param("hasta") Instant hasta,
+            @Param("cursorFecha") Instant cursorFecha,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable);
 
 }
\ No newline at end of file
@@ -1,7 +1,7 @@
 package com.newbie.newbiecore.service;
 
-import com.newbie.newbiecore.entity.AuditLog;
-import com.newbie.newbiecore.repository.AuditLogRepository;
+import com.newbie.newbiecore.audit.AuditEvento;
+import com.newbie.newbiecore.audit.AuditWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,25 +15,16 @@ public class AuditLogService {
     private static final Logger logger = LoggerFactory.getLogger(AuditLogService.class);
 
     @Autowired(required = false)
-    private AuditLogRepository auditLogRepository;
+    private AuditWriter auditWriter;
 
     /**
      * Registra un cambio en la configuración
      */
     public void logConfigurationChange(String propertyKey, String oldValue, String newValue, String username) {
         try {
-            if (auditLogRepository != null) {
-                AuditLog log = new AuditLog();
-                log.setAction("CONFIG_UPDATE");
-                log.setEntityType("ConfigurationProperty");
-                log.setEntityKey(propertyKey);
-                log.setOldValue(oldValue);
-                log.setNewValue(newValue);
-                log.setUsername(username);
-                log.setTimestamp(LocalDateTime.now());
-                log.setIpAddress(getClientIpAddress());
-
-                auditLogRepository.save(log);
+            if (auditWriter != null) {
+                auditWriter.enviar(new AuditEvento("CONFIG_UPDATE", "ConfigurationProperty", propertyKey,
+                        oldValue, newValue, null, username, getClientIpAddress(), LocalDateTime.now()));
             }
 
             logger.info("AUDIT: Usuario '{}' modificó configuración '{}' de '{}' a '{}'",
@@ -49,17 +40,9 @@ public class AuditLogService {
      */
     public void logAction(String action, String entityType, String entityId, String details, String username) {
         try {
-            if (auditLogRepository != null) {
-                AuditLog log = new AuditLog();
-                log.setAction(action);
-                log.setEntityType(entityType);
-                log.setEntityKey(entityId);
-                log.setDetails(details);
-                log.setUsername(username);
-                log.setTimestamp(LocalDateTime.now());
-                log.setIpAddress(getClientIpAddress());
-
-                auditLogRepository.save(log);
+            if (auditWriter != null) {
+                auditWriter.enviar(new AuditEvento(action, entityType, entityId,
+                        null, null, details, username, getClientIpAddress(), LocalDateTime.now()));
             }
 
             logger.info("AUDIT: {} - {} - {} - {} by {}", action, entityType, entityId, details, username);
@@ -1,6 +1,5 @@
 package com.newbie.newbiecore.service;
 
-import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -9,10 +8,8 @@ import com.newbie.newbiecore.audit.AuditService;
 import com.newbie.newbiecore.dto.Auth.LoginRequest;
 import com.newbie.newbiecore.dto.Auth.LoginResponse;
 import com.newbie.newbiecore.dto.RegisterRequest;
-import com.newbie.newbiecore.entity.BlacklistedToken;
 import com.newbie.newbiecore.entity.Rol;
 import com.newbie.newbiecore.entity.Usuario;
-import com.newbie.newbiecore.repository.BlacklistedTokenRepository;
 import com.newbie.newbiecore.repository.RolRepository;
 import com.newbie.newbiecore.repository.UsuarioRepository;
 import com.newbie.newbiecore.util.JwtUtils;
@@ -36,7 +33,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtUtils jwtUtils;
-    private final BlacklistedTokenRepository blacklistedTokenRepository;
+    private final RevocacionTokenService revocacionTokenService;
     private final AuditService auditService;
 
     public AuthService(UsuarioRepository usuarioRepository,
@@ -44,14 +41,14 @@ public class AuthService {
             PasswordEncoder passwordEncoder,
             AuthenticationManager authenticationManager,
             JwtUtils jwtUtils,
-            BlacklistedTokenRepository blacklistedTokenRepository,
+            RevocacionTokenService revocacionTokenService,
             AuditService auditService) {
         this.usuarioRepository = usuarioRepository;
         this.rolRepository = rolRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtUtils = jwtUtils;
-        this.blacklistedTokenRepository = blacklistedTokenRepository;
+        this.revocacionTokenService = revocacionTokenService;
         this.auditService = auditService;
     }
 
@@ -201,15 +198,9 @@ public class AuthService {
 
             Date expiration = jwtUtils.getExpirationDate(token);
 
-            BlacklistedToken blacklistedToken = BlacklistedToken.builder()
-                    .token(token)
-                    .expirationDate(expiration.toInstant()
-                            .atZone(java.time.ZoneId.systemDefault())
-                            .toLocalDateTime())
-                    .createdAt(LocalDateTime.now())
-                    .build();
-
-            blacklistedTokenRepository.save(blacklistedToken);
+            revocacionTokenService.revocar(token, expiration.toInstant()
+                    .atZone(java.time.ZoneId.systemDefault())
+                    .toLocalDateTime());
 
             // Registrar logout en auditoría
             auditService.registrarLogout(username);
@@ -222,6 +213,6 @@ public class AuthService {
     }
 
     public boolean isTokenBlacklisted(String token) {
-        return blacklistedTokenRepository.existsByToken(token);
+        return revocacionTokenService.estaRevocado(token);
     }
 }
\ No newline at end of file
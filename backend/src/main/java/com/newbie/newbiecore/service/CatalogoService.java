@@ -3,6 +3,8 @@ package com.newbie.newbiecore.service;
 import com.newbie.newbiecore.dto.catalogo.CatalogoItemDto;
 import com.newbie.newbiecore.entity.CatalogoItem;
 import com.newbie.newbiecore.repository.CatalogoItemRepository;
+import com.newbie.newbiecore.audit.Auditar;
+import com.newbie.newbiecore.audit.TipoAccion;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -33,6 +35,7 @@ public class CatalogoService {
     }
 
     @Transactional
+    @Auditar(accion = TipoAccion.ITEM_CATALOGO_CREADO, entidad = "CatalogoItem", clave = "id", detalle = "Item de catálogo creado")
     public CatalogoItem crear(CatalogoItem item) {
 
         if (item.getTipo() == null ||
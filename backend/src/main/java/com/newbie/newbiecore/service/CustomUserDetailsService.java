@@ -1,7 +1,10 @@
 package com.newbie.newbiecore.service;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
@@ -12,28 +15,110 @@ import org.springframework.stereotype.Service;
 
 import com.newbie.newbiecore.entity.Usuario;
 import com.newbie.newbiecore.repository.UsuarioRepository;
+import com.newbie.newbiecore.util.CacheConExpiracion;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Carga de usuarios para Spring Security con caché por correo.
+ *
+ * JwtAuthenticationFilter llama a {@link #loadUserByUsername} en cada petición;
+ * los datos se guardan durante {@code app.usuarios.cache.ttl-ms} y
+ * {@link UsuarioService}/{@link RolService} los invalidan al modificar
+ * usuarios o roles. Un usuario desactivado ({@code estado = false}) se
+ * carga deshabilitado: el login falla y JwtAuthenticationFilter no autentica
+ * sus tokens.
+ *
+ * Métricas: {@code usuarios.cache.aciertos}, {@code usuarios.cache.fallos},
+ * {@code usuarios.cache.invalidaciones} y {@code usuarios.cache.tamano}.
+ */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
+    /**
+     * Copia inmutable de lo que se necesita para construir el UserDetails.
+     * No se guarda el {@link User} en sí: ProviderManager borra la contraseña
+     * del principal tras el login y dejaría la entrada de caché inservible.
+     */
+    private record DatosUsuario(String correo, String password, boolean activo,
+            List<GrantedAuthority> autoridades) {
+    }
+
     private final UsuarioRepository usuarioRepository;
+    private final CacheConExpiracion<String, DatosUsuario> cache;
+    private final long ttlMs;
+
+    // Cambia con cada invalidación; una carga que se solapa con una
+    // invalidación no guarda su resultado (podría ser anterior al cambio)
+    private final AtomicLong generacion = new AtomicLong();
 
-    public CustomUserDetailsService(UsuarioRepository usuarioRepository) {
+    private final Counter aciertos;
+    private final Counter fallos;
+    private final Counter invalidaciones;
+
+    public CustomUserDetailsService(UsuarioRepository usuarioRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.usuarios.cache.ttl-ms:60000}") long ttlMs,
+            @Value("${app.usuarios.cache.maximo:1000}") int maximo) {
         this.usuarioRepository = usuarioRepository;
+        this.cache = new CacheConExpiracion<>(maximo);
+        this.ttlMs = ttlMs;
+
+        this.aciertos = meterRegistry.counter("usuarios.cache.aciertos");
+        this.fallos = meterRegistry.counter("usuarios.cache.fallos");
+        this.invalidaciones = meterRegistry.counter("usuarios.cache.invalidaciones");
+        Gauge.builder("usuarios.cache.tamano", cache, CacheConExpiracion::tamano).register(meterRegistry);
     }
 
     @Override
     public UserDetails loadUserByUsername(String correo) throws UsernameNotFoundException {
+        DatosUsuario datos = cache.obtener(correo);
+        if (datos != null) {
+            aciertos.increment();
+            return crearUserDetails(datos);
+        }
+        fallos.increment();
+
+        long generacionInicial = generacion.get();
         Usuario usuario = usuarioRepository.findByCorreo(correo)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado con correo: " + correo));
 
-        // Si quieres usar roles, aquí los conviertes a GrantedAuthority
         GrantedAuthority authority = new SimpleGrantedAuthority(usuario.getRol().getNombre());
+        // estado null (filas antiguas) cuenta como activo
+        boolean activo = !Boolean.FALSE.equals(usuario.getEstado());
+        datos = new DatosUsuario(usuario.getCorreo(), usuario.getPassword(), activo,
+                Collections.singletonList(authority));
+
+        if (ttlMs > 0 && generacion.get() == generacionInicial) {
+            cache.guardar(correo, datos, System.currentTimeMillis() + ttlMs);
+        }
+        return crearUserDetails(datos);
+    }
+
+    /**
+     * Descarta los datos en caché de un correo. Llamar después de guardar el
+     * cambio.
+     */
+    public void invalidar(String correo) {
+        generacion.incrementAndGet();
+        if (correo != null) {
+            cache.invalidar(correo);
+        }
+        invalidaciones.increment();
+    }
+
+    /**
+     * Descarta todos los usuarios en caché (p. ej. al cambiar un rol).
+     */
+    public void invalidarTodos() {
+        generacion.incrementAndGet();
+        cache.limpiar();
+        invalidaciones.increment();
+    }
 
-        return new User(
-                usuario.getCorreo(),
-                usuario.getPassword(),
-                Collections.singletonList(authority)  // asigna el rol
-        );
+    private static UserDetails crearUserDetails(DatosUsuario datos) {
+        return new User(datos.correo(), datos.password(), datos.activo(), true, true, true, datos.autoridades());
     }
 }
@@ -1,70 +1,126 @@
 package com.newbie.newbiecore.service;
 
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.newbie.newbiecore.dto.dashboard.DashboardResumenDto;
 import com.newbie.newbiecore.dto.dashboard.TecnicoDashboardDto;
-import com.newbie.newbiecore.repository.OrdenTrabajoRepository;
 
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Resumen del dashboard servido desde la tabla acumulada
+ * {@code dashboard_ordenes_diarias} (día de ingreso × estado × técnico, ver
+ * {@link com.newbie.newbiecore.entity.DashboardOrdenDiaria}), que se mantiene
+ * de forma incremental al crear órdenes y al cambiar su estado.
+ * El resumen completo se obtiene con una sola consulta y se cachea unos segundos.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class DashboardService {
 
-    private final OrdenTrabajoRepository ordenTrabajoRepository;
+    private static final String TABLA = "dashboard_ordenes_diarias";
+    // Clave usada para las órdenes sin técnico asignado (la PK no admite null)
+    private static final String SIN_TECNICO = "";
 
-    @Transactional(readOnly = true)
-    public DashboardResumenDto obtenerResumen() {
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttlCache;
 
-        long totalOrdenes = ordenTrabajoRepository.count();
+    private volatile ResumenCacheado cache;
 
-        // 🔹 Mapeo de estados:
-        // Abiertas      -> PENDIENTE
-        // En proceso    -> EN_DIAGNOSTICO + EN_REPARACION
-        // Cerradas      -> LISTO + CERRADO
-        long ordenesAbiertas = ordenTrabajoRepository.countByEstado("PENDIENTE");
+    public DashboardService(JdbcTemplate jdbcTemplate,
+            @Value("${app.dashboard.cache-ttl-ms:10000}") long ttlCacheMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlCache = Duration.ofMillis(ttlCacheMs);
+    }
 
-        long ordenesEnProceso =
-                ordenTrabajoRepository.countByEstado("EN_DIAGNOSTICO")
-                        + ordenTrabajoRepository.countByEstado("EN_REPARACION");
+    /*
+     * =============================
+     * LECTURA
+     * =============================
+     */
+    @Transactional(readOnly = true)
+    public DashboardResumenDto obtenerResumen() {
+        ResumenCacheado actual = cache;
+        if (actual != null && Instant.now().isBefore(actual.expira())) {
+            return actual.resumen();
+        }
+
+        DashboardResumenDto resumen = calcularResumen();
+        cache = new ResumenCacheado(resumen, Instant.now().plus(ttlCache));
+        return resumen;
+    }
 
-        long ordenesCerradas =
-                ordenTrabajoRepository.countByEstado("LISTO")
-                        + ordenTrabajoRepository.countByEstado("CERRADO");
+    public void invalidarCache() {
+        cache = null;
+    }
 
+    private DashboardResumenDto calcularResumen() {
         LocalDate hoy = LocalDate.now();
-        ZoneId zoneId = ZoneId.systemDefault();
-
-        // 🔹 Rango de hoy [inicioHoy, inicioMañana)
-        Instant inicioHoy = hoy.atStartOfDay(zoneId).toInstant();
-        Instant inicioManana = hoy.plusDays(1).atStartOfDay(zoneId).toInstant();
-
-        long ordenesHoy = ordenTrabajoRepository.countByFechaHoraIngresoBetween(
-                inicioHoy,
-                inicioManana
-        );
-
-        // 🔹 Rango del mes actual [inicioMes, inicioMesSiguiente)
         LocalDate primerDiaMes = hoy.withDayOfMonth(1);
         LocalDate primerDiaMesSiguiente = primerDiaMes.plusMonths(1);
 
-        Instant inicioMes = primerDiaMes.atStartOfDay(zoneId).toInstant();
-        Instant inicioMesSiguiente = primerDiaMesSiguiente.atStartOfDay(zoneId).toInstant();
-
-        long ordenesMes = ordenTrabajoRepository.countByFechaHoraIngresoBetween(
-                inicioMes,
-                inicioMesSiguiente
-        );
-
-        // 🔹 Resumen de técnicos
-        List<TecnicoDashboardDto> tecnicos = ordenTrabajoRepository.findResumenTecnicos();
+        // 🔹 Mapeo de estados:
+        // Abiertas      -> PENDIENTE
+        // En proceso    -> EN_DIAGNOSTICO + EN_REPARACION
+        // Cerradas      -> LISTO + CERRADO + CERRADA (estado que asigna el cierre de entrega)
+        //
+        // GROUPING SETS devuelve en la misma consulta la fila de totales
+        // (es_total = 1) y una fila por técnico.
+        long[] totales = new long[6];
+        List<TecnicoDashboardDto> tecnicos = new ArrayList<>();
+
+        jdbcTemplate.query("""
+                SELECT GROUPING(r.tecnico_cedula) AS es_total,
+                       r.tecnico_cedula,
+                       MAX(u.nombre) AS tecnico_nombre,
+                       COALESCE(SUM(r.cantidad), 0) AS total,
+                       COALESCE(SUM(r.cantidad) FILTER (WHERE r.estado = 'PENDIENTE'), 0) AS abiertas,
+                       COALESCE(SUM(r.cantidad) FILTER (WHERE r.estado IN ('EN_DIAGNOSTICO', 'EN_REPARACION')), 0) AS en_proceso,
+                       COALESCE(SUM(r.cantidad) FILTER (WHERE r.estado IN ('LISTO', 'CERRADO', 'CERRADA')), 0) AS cerradas,
+                       COALESCE(SUM(r.cantidad) FILTER (WHERE r.fecha = ?), 0) AS hoy,
+                       COALESCE(SUM(r.cantidad) FILTER (WHERE r.fecha >= ? AND r.fecha < ?), 0) AS mes
+                FROM dashboard_ordenes_diarias r
+                LEFT JOIN usuarios u ON u.cedula = r.tecnico_cedula
+                GROUP BY GROUPING SETS ((), (r.tecnico_cedula))
+                """,
+                rs -> {
+                    if (rs.getInt("es_total") == 1) {
+                        totales[0] = rs.getLong("total");
+                        totales[1] = rs.getLong("abiertas");
+                        totales[2] = rs.getLong("en_proceso");
+                        totales[3] = rs.getLong("cerradas");
+                        totales[4] = rs.getLong("hoy");
+                        totales[5] = rs.getLong("mes");
+                    } else if (!SIN_TECNICO.equals(rs.getString("tecnico_cedula")) && rs.getLong("total") > 0) {
+                        tecnicos.add(new TecnicoDashboardDto(
+                                rs.getString("tecnico_cedula"),
+                                rs.getString("tecnico_nombre"),
+                                rs.getLong("total"),
+                                rs.getLong("abiertas"),
+                                rs.getLong("en_proceso"),
+                                rs.getLong("cerradas")));
+                    }
+                },
+                Date.valueOf(hoy), Date.valueOf(primerDiaMes), Date.valueOf(primerDiaMesSiguiente));
 
         long totalTecnicos = tecnicos.size();
         long tecnicosConOrdenesAbiertas = tecnicos.stream()
@@ -72,16 +128,128 @@ public class DashboardService {
                 .count();
 
         return new DashboardResumenDto(
-                totalOrdenes,
-                ordenesAbiertas,
-                ordenesEnProceso,
-                ordenesCerradas,
-                ordenesHoy,
-                ordenesMes,
+                totales[0],
+                totales[1],
+                totales[2],
+                totales[3],
+                totales[4],
+                totales[5],
                 totalTecnicos,
                 tecnicosConOrdenesAbiertas,
                 tecnicos,
                 hoy
         );
     }
+
+    /*
+     * =============================
+     * MANTENIMIENTO INCREMENTAL
+     * =============================
+     * Se llaman dentro de la transacción que modifica la orden, así la tabla
+     * acumulada se confirma (o se revierte) junto con la orden.
+     */
+    public void registrarIngreso(Instant fechaHoraIngreso, String estado, String tecnicoCedula) {
+        sumar(fechaHoraIngreso, estado, tecnicoCedula, 1);
+        invalidarCacheAlConfirmar();
+    }
+
+    public void registrarCambioEstado(Instant fechaHoraIngreso, String estadoAnterior, String estadoNuevo,
+            String tecnicoCedula) {
+        if (estadoNuevo == null || estadoNuevo.equals(estadoAnterior)) {
+            return;
+        }
+        sumar(fechaHoraIngreso, estadoAnterior, tecnicoCedula, -1);
+        sumar(fechaHoraIngreso, estadoNuevo, tecnicoCedula, 1);
+        invalidarCacheAlConfirmar();
+    }
+
+    private void sumar(Instant fechaHoraIngreso, String estado, String tecnicoCedula, long delta) {
+        if (estado == null) {
+            return;
+        }
+        jdbcTemplate.update("""
+                INSERT INTO dashboard_ordenes_diarias (fecha, estado, tecnico_cedula, cantidad)
+                VALUES (?, ?, ?, ?)
+                ON CONFLICT (fecha, estado, tecnico_cedula)
+                DO UPDATE SET cantidad = dashboard_ordenes_diarias.cantidad + EXCLUDED.cantidad
+                """,
+                Date.valueOf(fechaIngreso(fechaHoraIngreso)),
+                estado,
+                tecnicoCedula != null ? tecnicoCedula : SIN_TECNICO,
+                delta);
+    }
+
+    private void invalidarCacheAlConfirmar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidarCache();
+                }
+            });
+        } else {
+            invalidarCache();
+        }
+    }
+
+    private static LocalDate fechaIngreso(Instant fechaHoraIngreso) {
+        return LocalDate.ofInstant(fechaHoraIngreso != null ? fechaHoraIngreso : Instant.now(),
+                ZoneId.systemDefault());
+    }
+
+    /*
+     * =============================
+     * RECONSTRUCCIÓN COMPLETA
+     * =============================
+     */
+
+    /**
+     * Recalcula la tabla acumulada desde {@code ordenes_trabajo}. Se ejecuta al
+     * arrancar y cada noche para corregir cualquier desvío (p. ej. cambios hechos
+     * directamente en la base de datos).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.dashboard.reconstruccion-cron:0 30 3 * * *}")
+    @Transactional
+    public void reconstruir() {
+        // Bloquea las actualizaciones incrementales mientras se recalcula
+        jdbcTemplate.execute("LOCK TABLE " + TABLA + " IN EXCLUSIVE MODE");
+
+        // Agregación en Java para usar la misma zona horaria que las actualizaciones
+        // incrementales; la memoria depende de días × estados × técnicos, no de las órdenes.
+        Map<ClaveRollup, Long> acumulado = new HashMap<>();
+        jdbcTemplate.query(con -> {
+                    var ps = con.prepareStatement(
+                            "SELECT fecha_hora_ingreso, estado, tecnico_cedula FROM ordenes_trabajo WHERE estado IS NOT NULL");
+                    ps.setFetchSize(1000);
+                    return ps;
+                },
+                rs -> {
+                    Timestamp ingreso = rs.getTimestamp("fecha_hora_ingreso");
+                    String tecnico = rs.getString("tecnico_cedula");
+                    ClaveRollup clave = new ClaveRollup(
+                            fechaIngreso(ingreso != null ? ingreso.toInstant() : null),
+                            rs.getString("estado"),
+                            tecnico != null ? tecnico : SIN_TECNICO);
+                    acumulado.merge(clave, 1L, Long::sum);
+                });
+
+        jdbcTemplate.update("DELETE FROM " + TABLA);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO " + TABLA + " (fecha, estado, tecnico_cedula, cantidad) VALUES (?, ?, ?, ?)",
+                acumulado.entrySet().stream()
+                        .map(e -> new Object[] {
+                                Date.valueOf(e.getKey().fecha()),
+                                e.getKey().estado(),
+                                e.getKey().tecnicoCedula(),
+                                e.getValue() })
+                        .toList());
+
+        invalidarCacheAlConfirmar();
+        log.info("Tabla {} reconstruida: {} filas", TABLA, acumulado.size());
+    }
+
+    private record ClaveRollup(LocalDate fecha, String estado, String tecnicoCedula) {}
+
+    private record ResumenCacheado(DashboardResumenDto resumen, Instant expira) {}
 }
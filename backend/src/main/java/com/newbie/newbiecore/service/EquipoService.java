@@ -7,6 +7,9 @@ import com.newbie.newbiecore.entity.Equipo;
 import com.newbie.newbiecore.entity.Usuario;
 import com.newbie.newbiecore.repository.EquipoRepository;
 import com.newbie.newbiecore.repository.UsuarioRepository;
+import com.newbie.newbiecore.service.hardware.EquipoSnapshotCache;
+import com.newbie.newbiecore.service.hardware.InventarioHardwareService;
+import com.newbie.newbiecore.util.InventarioHardwareHelper;
 import com.newbie.newbiecore.util.HwiXmlParser;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,15 +30,21 @@ public class EquipoService {
     private final UsuarioRepository usuarioRepository;
     private final ObjectMapper mapper;
     private final HwiXmlParser parser;
+    private final InventarioHardwareService inventarioHardwareService;
+    private final EquipoSnapshotCache equipoSnapshotCache;
 
     public EquipoService(EquipoRepository equipoRepository,
             UsuarioRepository usuarioRepository,
             ObjectMapper mapper,
-            HwiXmlParser parser) {
+            HwiXmlParser parser,
+            InventarioHardwareService inventarioHardwareService,
+            EquipoSnapshotCache equipoSnapshotCache) {
         this.equipoRepository = equipoRepository;
         this.usuarioRepository = usuarioRepository;
         this.mapper = mapper;
         this.parser = parser;
+        this.inventarioHardwareService = inventarioHardwareService;
+        this.equipoSnapshotCache = equipoSnapshotCache;
     }
 
     public List<EquipoListDto> listarTodosParaCombobox() {
@@ -119,13 +128,12 @@ public class EquipoService {
     public Equipo procesarXmlYActualizar(Long equipoId, MultipartFile xml) {
         return equipoRepository.findById(equipoId).map(eq -> {
             try {
-                // Leer una sola vez y reutilizar
-                byte[] bytes = xml.getBytes();
-                try (InputStream in1 = new java.io.ByteArrayInputStream(bytes)) {
+                // Se lee directamente del stream de la subida, sin copiarla a memoria
+                try (InputStream in = xml.getInputStream()) {
 
-                    // 👉 Construir solo el mapa byEntry
-                    // (usa el método collectByEntry que ya agregamos en HwiXmlParser)
-                    Map<String, String> byEntry = parser.collectByEntry(in1);
+                    // 👉 Una sola lectura: byEntry para el JSONB y el resumen para el inventario
+                    HwiXmlParser.Informe informe = parser.leer(in);
+                    Map<String, String> byEntry = informe.byEntry();
 
                     // (Opcional) Aun puedes actualizar columnas del equipo si quieres
                     // usando valores específicos de byEntry, por ejemplo:
@@ -137,7 +145,12 @@ public class EquipoService {
                     com.fasterxml.jackson.databind.JsonNode jsonOnlyByEntry = mapper.valueToTree(byEntry);
                     eq.setHardwareJson(jsonOnlyByEntry);
 
-                    return equipoRepository.save(eq);
+                    Equipo guardado = equipoRepository.save(eq);
+                    inventarioHardwareService.guardar(guardado.getIdEquipo(),
+                            InventarioHardwareHelper.desde(byEntry, informe.snapshot()));
+                    // Las fichas nuevas de este equipo deben usar el informe nuevo
+                    equipoSnapshotCache.invalidar(guardado.getIdEquipo());
+                    return guardado;
                 }
             } catch (Exception e) {
                 throw new RuntimeException("No se pudo procesar/guardar el XML", e);
@@ -1,29 +1,53 @@
 package com.newbie.newbiecore.service;
 
 import com.newbie.newbiecore.dto.FichaTecnica.FichaTecnicaDTO;
-import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ClassPathResource;
+import com.newbie.newbiecore.service.pdf.DocumentoPdfCache;
+import com.newbie.newbiecore.service.pdf.FichaTecnicaHtml;
+import com.newbie.newbiecore.service.pdf.LogoPdf;
+import com.newbie.newbiecore.service.pdf.PdfRenderService;
+import jakarta.annotation.PostConstruct;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.Base64;
 
 /**
  * Servicio para generar y guardar PDF de Ficha Técnica.
  * Extraído de PdfController para poder ser llamado desde FichaTecnicaService.
+ * El PDF guardado en la carpeta de la orden se reutiliza mientras la ficha
+ * no cambie (ver {@link DocumentoPdfCache}).
  */
 @Service
 public class FichaTecnicaPdfService {
 
-    @Value("${app.upload-dir}")
-    private String baseUploadDir;
+    private final PdfRenderService pdfRenderService;
+    private final DocumentoPdfCache documentoPdfCache;
+
+    public FichaTecnicaPdfService(PdfRenderService pdfRenderService, DocumentoPdfCache documentoPdfCache) {
+        this.pdfRenderService = pdfRenderService;
+        this.documentoPdfCache = documentoPdfCache;
+    }
+
+    /**
+     * Compila la plantilla de la ficha al arrancar (como la de la orden), así
+     * un error en ficha-tecnica.html impide iniciar en lugar de fallar en el
+     * primer PDF.
+     */
+    @PostConstruct
+    void compilarPlantilla() {
+        FichaTecnicaHtml.version();
+    }
+
+    /**
+     * PDF de la ficha. Si pertenece a una orden, se toma de (o se guarda en)
+     * la carpeta de documentos de esa orden.
+     */
+    public byte[] obtenerPdf(FichaTecnicaDTO ficha) {
+        if (ficha.getOrdenTrabajoId() == null || ficha.getNumeroOrden() == null) {
+            return generarPdf(ficha);
+        }
+        return documentoPdfCache.obtener(documento(ficha, ficha.getNumeroOrden()), () -> generarPdf(ficha));
+    }
 
     /**
      * Genera el PDF de la ficha técnica y lo guarda en el servidor.
@@ -34,14 +58,7 @@ public class FichaTecnicaPdfService {
      */
     public boolean generarYGuardarPdf(FichaTecnicaDTO ficha, String numeroOrden) {
         try {
-            ficha.setNumeroOrden(numeroOrden);
-            String html = generarHtmlFicha(ficha);
-            byte[] pdfBytes = htmlToPdf(html);
-
-            Path carpetaDocumentos = Path.of(baseUploadDir, numeroOrden, "documentos");
-            Files.createDirectories(carpetaDocumentos);
-            Path pdfPath = carpetaDocumentos.resolve("Ficha_Tecnica_" + ficha.getId() + ".pdf");
-            Files.write(pdfPath, pdfBytes, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            Path pdfPath = guardarPdf(ficha, numeroOrden);
 
             System.out.println("✅ PDF de Ficha Técnica generado: " + pdfPath);
             return true;
@@ -52,369 +69,25 @@ public class FichaTecnicaPdfService {
         }
     }
 
-    private String generarHtmlFicha(FichaTecnicaDTO f) {
-
-        String logoTag = cargarLogoBase64();
-        String fechaEmision = LocalDate.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
-        String numeroOrdenStr = (f.getNumeroOrden() != null) ? f.getNumeroOrden() : "-";
-        String colorPrimario = "#7c3aed"; // Violet-600
-        String colorPrimarioClaro = "#ede9fe"; // Violet-100
-        String colorPrimarioOscuro = "#6d28d9"; // Violet-700
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("<!DOCTYPE html><html><head><meta charset=\"UTF-8\" />");
-        sb.append("<style>");
-        sb.append("@page { size: A4; margin: 1.5cm; }");
-        sb.append(
-                "body { font-family: 'Helvetica', 'Arial', sans-serif; color: #333; line-height: 1.4; font-size: 10px; margin: 0; padding: 0; }");
-        sb.append(".header-table { width: 100%; border-bottom: 3px solid " + colorPrimario
-                + "; padding-bottom: 10px; margin-bottom: 15px; }");
-        sb.append(".header-logo { width: 35%%; vertical-align: middle; }");
-        sb.append(".header-info { width: 65%; text-align: right; vertical-align: middle; }");
-        sb.append(".document-title { font-size: 16px; font-weight: bold; color: " + colorPrimario
-                + "; text-transform: uppercase; letter-spacing: 0.5px; margin: 0 0 5px 0; }");
-        sb.append(".document-subtitle { font-size: 10px; color: #666; margin: 0 0 5px 0; }");
-        sb.append(".orden-numero { font-size: 11px; color: " + colorPrimarioOscuro + "; font-weight: bold; }");
-        sb.append(".section-title { background-color: " + colorPrimarioClaro
-                + "; padding: 6px 10px; font-weight: bold; border-left: 4px solid " + colorPrimario
-                + "; margin-top: 12px; margin-bottom: 8px; font-size: 11px; color: " + colorPrimarioOscuro + "; }");
-        sb.append("table { width: 100%; border-collapse: collapse; margin-bottom: 8px; }");
-        sb.append("td { padding: 5px 8px; border-bottom: 1px solid #e0e0e0; font-size: 10px; }");
-        sb.append(".label { font-weight: bold; color: #555; background-color: #fafafa; white-space: nowrap; }");
-        sb.append(".value { color: #000; }");
-        sb.append(".obs-box { background-color: #f5f5f5; padding: 8px; margin: 0 auto 6px; border-left: 3px solid "
-                + colorPrimario + "; color: #000000; font-size: 9px; }");
-        sb.append(
-                ".footer { text-align: center; font-size: 8px; color: #888; border-top: 1px solid #ddd; padding-top: 8px; margin-top: 15px; }");
-        sb.append("</style></head><body>");
-
-        // HEADER estilo OT
-        sb.append("<table class='header-table'><tr>");
-        sb.append("<td class='header-logo'>").append(logoTag).append("</td>");
-        sb.append("<td class='header-info'>");
-        sb.append("<div class='document-title'>Ficha Técnica del Equipo</div>");
-        sb.append("<div class='document-subtitle'>Documento de Diagnóstico y Estado</div>");
-        sb.append("<div class='orden-numero'>OT N°: ").append(numeroOrdenStr).append(" | Fecha: ").append(fechaEmision)
-                .append(" | ID Ficha: ").append(f.getId()).append("</div>");
-        sb.append("</td></tr></table>");
-
-        // IDENTIFICACIÓN DEL EQUIPO
-        sb.append("<div class='section-title'>IDENTIFICACIÓN DEL EQUIPO</div>");
-        sb.append("<table>");
-        agregarFila(sb, "Marca", f.getEquipoMarca());
-        agregarFila(sb, "Modelo", f.getEquipoModelo());
-        agregarFila(sb, "Número de Serie", f.getEquipoSerie());
-        agregarFila(sb, "Nombre del Equipo", f.getEquipoNombre());
-        agregarFila(sb, "Otros Datos", f.getEquipoOtros());
-        agregarFila(sb, "Roturas", f.getEquipoRoturas());
-        agregarFila(sb, "Marcas de Desgaste", f.getEquipoMarcasDesgaste());
-        sb.append("</table>");
-
-        // CARCASA
-        sb.append("<div class='section-title'>CARCASA</div>");
-        sb.append("<table>");
-        agregarFila(sb, "Estado", f.getCarcasaEstado());
-        agregarFilaBool(sb, "Tornillos Faltantes", f.getTornillosFaltantes());
-        agregarFila(sb, "Observaciones", f.getCarcasaObservaciones());
-        sb.append("</table>");
-
-        // PROCESADOR (CPU)
-        sb.append("<div class='section-title'>PROCESADOR (CPU)</div>");
-        sb.append("<table>");
-        agregarFila(sb, "Nombre CPU", f.getCpuNombre());
-        agregarFila(sb, "Marca (Ficha)", f.getProcesadorMarca());
-        agregarFila(sb, "Modelo (Ficha)", f.getProcesadorModelo());
-        agregarFila(sb, "Núcleos Físicos", f.getCpuNucleos());
-        agregarFila(sb, "Procesadores Lógicos", f.getCpuLogicos());
-        agregarFila(sb, "Paquetes Físicos", f.getCpuPaquetesFisicos());
-        agregarFila(sb, "Frecuencia (MHz)", f.getCpuFrecuenciaOriginalMhz());
-        sb.append("</table>");
-
-        // MEMORIA RAM
-        sb.append("<div class='section-title'>MEMORIA RAM</div>");
-        sb.append("<table>");
-        agregarFila(sb, "Capacidad (GB)", f.getRamCapacidadGb());
-        agregarFila(sb, "Frecuencia (MHz)", f.getRamFrecuenciaMhz());
-        agregarFila(sb, "Tipo", f.getRamTipo());
-        agregarFila(sb, "Tecnología Módulo", f.getRamTecnologiaModulo());
-        agregarFila(sb, "Número Módulo", f.getRamNumeroModulo());
-        agregarFila(sb, "Serie Módulo", f.getRamSerieModulo());
-        agregarFila(sb, "Fecha Fabricación", f.getRamFechaFabricacion());
-        agregarFila(sb, "Lugar Fabricación", f.getRamLugarFabricacion());
-        agregarFila(sb, "Tipo Equipo (Ficha)", f.getRamTipoEquipo());
-        agregarFila(sb, "Cantidad Módulos (Ficha)", f.getRamCantidadModulos());
-        agregarFila(sb, "Marca (Ficha)", f.getRamMarcaFicha());
-        agregarFila(sb, "Tecnología (Ficha)", f.getRamTecnologiaFicha());
-        agregarFila(sb, "Capacidad (Ficha)", f.getRamCapacidadFicha());
-        agregarFila(sb, "Frecuencia (Ficha)", f.getRamFrecuenciaFicha());
-        agregarFila(sb, "Observaciones RAM", f.getRamObservacionesFicha());
-        sb.append("</table>");
-
-        // ALMACENAMIENTO (DISCO)
-        sb.append("<div class='section-title'>ALMACENAMIENTO (DISCO)</div>");
-        sb.append("<table>");
-        agregarFila(sb, "Modelo", f.getDiscoModelo());
-        agregarFila(sb, "Tipo", f.getDiscoTipo());
-        agregarFila(sb, "Capacidad", f.getDiscoCapacidadStr());
-        agregarFila(sb, "Capacidad (MB)", f.getDiscoCapacidadMb());
-        agregarFila(sb, "Número de Serie", f.getDiscoNumeroSerie());
-        agregarFila(sb, "RPM", f.getDiscoRpm());
-        agregarFila(sb, "Letras de Unidad", f.getDiscoLetras());
-        agregarFila(sb, "WWN", f.getDiscoWwn());
-        agregarFila(sb, "Temperatura", f.getDiscoTemperatura());
-        agregarFila(sb, "Horas Encendido", f.getDiscoHorasEncendido());
-        agregarFila(sb, "Sectores Reasignados", f.getDiscoSectoresReasignados());
-        agregarFila(sb, "Sectores Pendientes", f.getDiscoSectoresPendientes());
-        agregarFila(sb, "Errores de Lectura", f.getDiscoErroresLectura());
-        agregarFila(sb, "Errores CRC", f.getDiscoErrorCrc());
-        agregarFila(sb, "Estado (Ficha)", f.getDiscoEstado());
-        agregarFila(sb, "Tipo (Ficha)", f.getDiscoTipoFicha());
-        agregarFila(sb, "Marca (Ficha)", f.getDiscoMarcaFicha());
-        agregarFila(sb, "Capacidad (Ficha)", f.getDiscoCapacidadFicha());
-        agregarFila(sb, "Serie (Ficha)", f.getDiscoSerieFicha());
-        agregarFila(sb, "Observaciones Disco", f.getDiscoObservacionesFicha());
-        sb.append("</table>");
-
-        // PLACA BASE (MAINBOARD)
-        sb.append("<div class='section-title'>PLACA BASE (MAINBOARD)</div>");
-        sb.append("<table>");
-        agregarFila(sb, "Modelo Mainboard", f.getMainboardModelo());
-        agregarFila(sb, "Modelo (Ficha)", f.getMainboardModeloFicha());
-        agregarFila(sb, "Chipset", f.getChipset());
-        agregarFila(sb, "Observaciones", f.getMainboardObservaciones());
-        sb.append("</table>");
-
-        // GPU
-        sb.append("<div class='section-title'>TARJETA GRÁFICA (GPU)</div>");
-        sb.append("<table>");
-        agregarFila(sb, "GPU", f.getGpuNombre());
-        agregarFila(sb, "Tipo Gráfica", f.getGraficaTipo());
-        sb.append("</table>");
-
-        // BIOS / UEFI
-        sb.append("<div class='section-title'>BIOS / UEFI</div>");
-        sb.append("<table>");
-        agregarFila(sb, "Fabricante BIOS", f.getBiosFabricante());
-        agregarFila(sb, "Versión BIOS", f.getBiosVersion());
-        agregarFila(sb, "Fecha BIOS", f.getBiosFechaStr());
-        agregarFilaBool(sb, "Es UEFI Capaz", f.getBiosEsUefiCapaz());
-        agregarFilaBool(sb, "Arranque UEFI Presente", f.getArranqueUefiPresente());
-        agregarFilaBool(sb, "Secure Boot Activo", f.getSecureBootActivo());
-        agregarFila(sb, "Tipo Arranque", f.getBiosTipoArranque());
-        agregarFilaBool(sb, "Contraseña BIOS", f.getBiosContrasena());
-        agregarFilaBool(sb, "Secure Boot (Ficha)", f.getBiosSecureBoot());
-        agregarFila(sb, "Observaciones BIOS", f.getBiosObservacionesFicha());
-        sb.append("</table>");
-
-        // SISTEMA OPERATIVO
-        sb.append("<div class='section-title'>SISTEMA OPERATIVO</div>");
-        sb.append("<table>");
-        agregarFila(sb, "Descripción", f.getSoDescripcion());
-        agregarFila(sb, "Proveedor", f.getSoProveedor());
-        agregarFila(sb, "Tipo", f.getSoTipo());
-        agregarFila(sb, "Versión", f.getSoVersion());
-        agregarFilaBool(sb, "Licencia Activa", f.getSoLicenciaActiva());
-        sb.append("</table>");
-
-        // SEGURIDAD
-        sb.append("<div class='section-title'>SEGURIDAD</div>");
-        sb.append("<table>");
-        agregarFilaBool(sb, "TPM Presente", f.getTpmPresente());
-        agregarFila(sb, "Versión TPM", f.getTpmVersion());
-        agregarFila(sb, "Estado HVCI", f.getHvciEstado());
-        agregarFila(sb, "Marca Antivirus", f.getAntivirusMarca());
-        agregarFilaBool(sb, "Licencia Antivirus Activa", f.getAntivirusLicenciaActiva());
-        agregarFila(sb, "Observaciones Antivirus", f.getAntivirusObservaciones());
-        sb.append("</table>");
-
-        // RED Y CONECTIVIDAD
-        sb.append("<div class='section-title'>RED Y CONECTIVIDAD</div>");
-        sb.append("<table>");
-        agregarFila(sb, "Adaptador Red", f.getAdaptadorRed());
-        agregarFila(sb, "Dirección MAC", f.getMacAddress());
-        agregarFila(sb, "Velocidad WiFi Actual", f.getWifiLinkSpeedActual());
-        agregarFila(sb, "Velocidad WiFi Máxima", f.getWifiLinkSpeedMax());
-        agregarFilaBool(sb, "WiFi Funciona", f.getWifiFunciona());
-        agregarFila(sb, "Observaciones WiFi", f.getWifiObservaciones());
-        sb.append("</table>");
-
-        // PANTALLA / MONITOR
-        sb.append("<div class='section-title'>PANTALLA / MONITOR</div>");
-        sb.append("<table>");
-        agregarFila(sb, "Monitor Nombre", f.getMonitorNombre());
-        agregarFila(sb, "Modelo Monitor", f.getMonitorModelo());
-        agregarFilaBool(sb, "Rayones", f.getPantallaRayones());
-        agregarFilaBool(sb, "Trizaduras", f.getPantallaTrizaduras());
-        agregarFilaBool(sb, "Píxeles Muertos", f.getPantallaPixelesMuertos());
-        agregarFilaBool(sb, "Manchas", f.getPantallaManchas());
-        agregarFilaBool(sb, "Táctil", f.getPantallaTactil());
-        agregarFila(sb, "Observaciones Pantalla", f.getPantallaObservaciones());
-        sb.append("</table>");
-
-        // AUDIO
-        sb.append("<div class='section-title'>AUDIO</div>");
-        sb.append("<table>");
-        agregarFila(sb, "Adaptador", f.getAudioAdaptador());
-        agregarFila(sb, "Codec", f.getAudioCodec());
-        agregarFila(sb, "Hardware ID", f.getAudioHardwareId());
-        sb.append("</table>");
-
-        // TECLADO
-        sb.append("<div class='section-title'>TECLADO</div>");
-        sb.append("<table>");
-        agregarFila(sb, "Estado", f.getTecladoEstado());
-        agregarFilaBool(sb, "Teclas Dañadas", f.getTecladoTeclasDanadas());
-        agregarFilaBool(sb, "Teclas Faltantes", f.getTecladoTeclasFaltantes());
-        agregarFilaBool(sb, "Retroiluminación", f.getTecladoRetroiluminacion());
-        agregarFila(sb, "Observaciones Teclado", f.getTecladoObservaciones());
-        sb.append("</table>");
-
-        // TOUCHPAD
-        sb.append("<div class='section-title'>TOUCHPAD</div>");
-        sb.append("<table>");
-        agregarFila(sb, "Estado", f.getTouchpadEstado());
-        agregarFilaBool(sb, "Funciona", f.getTouchpadFunciona());
-        agregarFilaBool(sb, "Botón Izquierdo", f.getTouchpadBotonIzq());
-        agregarFilaBool(sb, "Botón Derecho", f.getTouchpadBotonDer());
-        agregarFilaBool(sb, "Táctil", f.getTouchpadTactil());
-        agregarFila(sb, "Observaciones Touchpad", f.getTouchpadObservaciones());
-        sb.append("</table>");
-
-        // PUERTOS E INTERFACES
-        sb.append("<div class='section-title'>PUERTOS E INTERFACES</div>");
-        sb.append("<table>");
-        agregarFilaBool(sb, "Puerto USB", f.getPuertoUsb());
-        agregarFilaBool(sb, "Puerto VGA", f.getPuertoVga());
-        agregarFilaBool(sb, "Puerto Ethernet", f.getPuertoEthernet());
-        agregarFilaBool(sb, "Puerto HDMI", f.getPuertoHdmi());
-        agregarFilaBool(sb, "Entrada Audio", f.getPuertoEntradaAudio());
-        agregarFilaBool(sb, "Salida Audio", f.getPuertoSalidaAudio());
-        agregarFilaBool(sb, "MicroSD", f.getPuertoMicroSd());
-        agregarFilaBool(sb, "DVD", f.getPuertoDvd());
-        agregarFila(sb, "Versión PCI Express", f.getPciExpressVersion());
-        agregarFila(sb, "Versión USB", f.getUsbVersion());
-        agregarFila(sb, "Observaciones Puertos", f.getPuertosObservaciones());
-        sb.append("</table>");
-
-        // BATERÍA
-        sb.append("<div class='section-title'>BATERÍA</div>");
-        sb.append("<table>");
-        agregarFila(sb, "Código Batería", f.getBateriaCodigo());
-        agregarFila(sb, "Observaciones Batería", f.getBateriaObservaciones());
-        sb.append("</table>");
-
-        // CARGADOR
-        sb.append("<div class='section-title'>CARGADOR</div>");
-        sb.append("<table>");
-        agregarFila(sb, "Código Cargador", f.getCargadorCodigo());
-        agregarFila(sb, "Estado Cable", f.getCargadorEstadoCable());
-        agregarFila(sb, "Voltajes", f.getCargadorVoltajes());
-        sb.append("</table>");
-
-        // FUENTE Y VENTILACIÓN
-        sb.append("<div class='section-title'>FUENTE Y VENTILACIÓN</div>");
-        sb.append("<table>");
-        agregarFila(sb, "Estado Ventilador Fuente", f.getFuenteVentiladorEstado());
-        agregarFila(sb, "Ruido", f.getFuenteRuido());
-        agregarFila(sb, "Medición Voltaje", f.getFuenteMedicionVoltaje());
-        agregarFila(sb, "Observaciones Fuente", f.getFuenteObservaciones());
-        agregarFila(sb, "Observaciones Ventilador CPU", f.getVentiladorCpuObservaciones());
-        sb.append("</table>");
-
-        // CÁMARA
-        sb.append("<div class='section-title'>CÁMARA</div>");
-        sb.append("<table>");
-        agregarFilaBool(sb, "Funciona", f.getCamaraFunciona());
-        agregarFila(sb, "Observaciones Cámara", f.getCamaraObservaciones());
-        sb.append("</table>");
-
-        // SOFTWARE
-        sb.append("<div class='section-title'>SOFTWARE</div>");
-        sb.append("<table>");
-        agregarFilaBool(sb, "Office Licencia Activa", f.getOfficeLicenciaActiva());
-        agregarFila(sb, "Versión Office", f.getOfficeVersion());
-        agregarFila(sb, "Otros Programas", f.getInformacionOtrosProgramas());
-        sb.append("</table>");
-
-        // INFORMACIÓN Y RESPALDO
-        sb.append("<div class='section-title'>INFORMACIÓN Y RESPALDO</div>");
-        sb.append("<table>");
-        agregarFila(sb, "Cantidad de Información", f.getInformacionCantidad());
-        agregarFilaBool(sb, "Requiere Respaldo", f.getInformacionRequiereRespaldo());
-        sb.append("</table>");
-
-        // TRABAJO REALIZADO
-        if (f.getTrabajoRealizado() != null && !f.getTrabajoRealizado().isEmpty()) {
-            sb.append("<div class='section-title'>TRABAJO REALIZADO</div>");
-            sb.append("<div class='obs-box'>").append(escaparHtml(f.getTrabajoRealizado())).append("</div>");
-        }
-
-        // OBSERVACIONES GENERALES
-        if (f.getObservaciones() != null && !f.getObservaciones().isEmpty()) {
-            sb.append("<div class='section-title'>OBSERVACIONES GENERALES</div>");
-            sb.append("<div class='obs-box'>").append(escaparHtml(f.getObservaciones())).append("</div>");
-        }
-
-        // FOOTER
-        sb.append("<div class='footer'>");
-        sb.append("<p>Documento generado automáticamente por NewbieSoft | Ficha Técnica ID: ").append(f.getId())
-                .append(" | Estado: ").append(f.getEstado() != null ? f.getEstado() : "-").append("</p>");
-        sb.append("</div>");
-
-        sb.append("</body></html>");
-
-        return sb.toString();
-    }
-
-    private void agregarFila(StringBuilder sb, String label, Object valor) {
-        String val = valor != null ? valor.toString() : "";
-        if (val.isEmpty() || "0".equals(val) || "0.0".equals(val))
-            val = "-";
-        sb.append("<tr>");
-        sb.append("<td style='width:50%;text-align:left;'>").append(escaparHtml(label)).append("</td>");
-        sb.append("<td style='width:50%;text-align:left;'>").append(escaparHtml(val)).append("</td>");
-        sb.append("</tr>");
-    }
-
-    private void agregarFilaBool(StringBuilder sb, String label, Boolean valor) {
-        String val = valor == null ? "-" : (valor ? "Sí" : "No");
-        sb.append("<tr>");
-        sb.append("<td style='width:50%;text-align:left;'>").append(escaparHtml(label)).append("</td>");
-        sb.append("<td style='width:50%;text-align:left;'><b>").append(val).append("</b></td>");
-        sb.append("</tr>");
-    }
-
-    private byte[] htmlToPdf(String html) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PdfRendererBuilder builder = new PdfRendererBuilder();
-        builder.useFastMode();
-        builder.withHtmlContent(html, null);
-        builder.toStream(baos);
-        builder.run();
-        return baos.toByteArray();
+    /**
+     * Deja el PDF de la ficha en la carpeta de documentos de la orden
+     * (reutilizando el existente si la ficha no cambió).
+     *
+     * @throws IOException si no se puede escribir el archivo
+     */
+    public Path guardarPdf(FichaTecnicaDTO ficha, String numeroOrden) throws IOException {
+        ficha.setNumeroOrden(numeroOrden);
+        return documentoPdfCache.asegurar(documento(ficha, numeroOrden), () -> generarPdf(ficha));
     }
 
-    private String cargarLogoBase64() {
-        try {
-            ClassPathResource resource = new ClassPathResource("static/logo.png");
-            if (resource.exists()) {
-                byte[] imageBytes = resource.getInputStream().readAllBytes();
-                String base64 = Base64.getEncoder().encodeToString(imageBytes);
-                return "<img src='data:image/png;base64," + base64 + "' style='height: 80px;' />";
-            }
-        } catch (Exception e) {
-            System.err.println("No se pudo cargar el logo: " + e.getMessage());
-        }
-        return "";
+    private byte[] generarPdf(FichaTecnicaDTO ficha) {
+        String html = FichaTecnicaHtml.generar(ficha, pdfRenderService.logo(LogoPdf.FICHA));
+        return pdfRenderService.renderizar("ficha-tecnica", html);
     }
 
-    private String escaparHtml(String s) {
-        if (s == null)
-            return "";
-        return s.replace("&", "&amp;")
-                .replace("<", "&lt;")
-                .replace(">", "&gt;")
-                .replace("\"", "&quot;")
-                .replace("'", "&#39;");
+    private static DocumentoPdfCache.Documento documento(FichaTecnicaDTO ficha, String numeroOrden) {
+        return new DocumentoPdfCache.Documento("ficha-tecnica", numeroOrden,
+                "Ficha_Tecnica_" + ficha.getId() + ".pdf", ficha.getOrdenTrabajoId(), ficha.getId(),
+                FichaTecnicaHtml.version() + "/" + LogoPdf.FICHA, ficha);
     }
 }
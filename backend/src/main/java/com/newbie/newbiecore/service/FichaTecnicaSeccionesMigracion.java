@@ -0,0 +1,109 @@
+package com.newbie.newbiecore.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.newbie.newbiecore.entity.FichaTecnica;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Traslada los campos de sección de {@code fichas_tecnicas} a sus tablas
+ * ({@code _hardware}, {@code _inspeccion}, {@code _software}).
+ *
+ * Hibernate crea las tablas de sección pero no quita las columnas de la tabla
+ * ancha anterior. Al arrancar, por cada sección, se copian las columnas que
+ * siguen en la cabecera (solo las fichas con algún valor: Hibernate tampoco
+ * inserta filas de sección vacías) y luego se eliminan de la cabecera. Todo en
+ * una transacción; una vez migrada no queda nada que copiar y no hace nada.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class FichaTecnicaSeccionesMigracion {
+
+    private static final List<String> SECCIONES = List.of(
+            FichaTecnica.TABLA_HARDWARE, FichaTecnica.TABLA_INSPECCION, FichaTecnica.TABLA_SOFTWARE);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String tabla;
+    private final List<String> secciones;
+
+    @Autowired
+    public FichaTecnicaSeccionesMigracion(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this(jdbcTemplate, transactionManager, FichaTecnica.TABLA, SECCIONES);
+    }
+
+    // Los tests migran tablas propias para no tocar las de la aplicación
+    FichaTecnicaSeccionesMigracion(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            String tabla, List<String> secciones) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tabla = tabla;
+        this.secciones = secciones;
+    }
+
+    @PostConstruct
+    void migrar() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<String, List<String>> pendientes = new LinkedHashMap<>();
+                for (String seccion : secciones) {
+                    List<String> columnas = columnasPendientes(seccion);
+                    if (!columnas.isEmpty()) {
+                        pendientes.put(seccion, columnas);
+                    }
+                }
+                if (pendientes.isEmpty()) {
+                    return;
+                }
+
+                log.info("Trasladando los campos de sección de {} a {}...", tabla, pendientes.keySet());
+                jdbcTemplate.execute("LOCK TABLE " + tabla + " IN ACCESS EXCLUSIVE MODE");
+                pendientes.forEach(this::trasladar);
+            });
+        } catch (Exception e) {
+            log.error("No se pudieron trasladar las secciones de {}: {}", tabla, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Columnas de la sección que siguen existiendo en la cabecera, en el orden
+     * de la tabla de sección.
+     */
+    private List<String> columnasPendientes(String seccion) {
+        return jdbcTemplate.queryForList("""
+                SELECT s.column_name
+                FROM information_schema.columns s
+                JOIN information_schema.columns c
+                  ON c.table_schema = s.table_schema AND c.table_name = ? AND c.column_name = s.column_name
+                WHERE s.table_schema = current_schema() AND s.table_name = ? AND s.column_name <> 'ficha_id'
+                ORDER BY s.ordinal_position
+                """, String.class, tabla, seccion);
+    }
+
+    private void trasladar(String seccion, List<String> columnas) {
+        String lista = String.join(", ", columnas);
+        int filas = jdbcTemplate.update("""
+                INSERT INTO %s (ficha_id, %s)
+                SELECT id, %s FROM %s
+                WHERE num_nonnulls(%s) > 0
+                ON CONFLICT (ficha_id) DO NOTHING
+                """.formatted(seccion, lista, lista, tabla, lista));
+        jdbcTemplate.execute("ALTER TABLE " + tabla + " " + columnas.stream()
+                .map(columna -> "DROP COLUMN " + columna)
+                .collect(Collectors.joining(", ")));
+        log.info("{}: {} fichas y {} columnas trasladadas desde {}", seccion, filas, columnas.size(), tabla);
+    }
+}
@@ -1,26 +1,39 @@
 package com.newbie.newbiecore.service;
 
 import com.newbie.newbiecore.dto.FichaTecnica.FichaTecnicaDTO;
+import com.newbie.newbiecore.dto.FichaTecnica.FichaTecnicaFiltro;
 import com.newbie.newbiecore.dto.FichaTecnica.FichaTecnicaMapper;
-import com.newbie.newbiecore.entity.Equipo;
+import com.newbie.newbiecore.dto.FichaTecnica.FichaTecnicaPaginaDto;
+import com.newbie.newbiecore.dto.FichaTecnica.FichaTecnicaResumenDTO;
 import com.newbie.newbiecore.entity.FichaTecnica;
 import com.newbie.newbiecore.entity.OrdenTrabajo;
 import com.newbie.newbiecore.entity.Usuario;
-import com.newbie.newbiecore.repository.EquipoRepository;
 import com.newbie.newbiecore.repository.FichaTecnicaRepository;
 import com.newbie.newbiecore.repository.OrdenTrabajoRepository;
 import com.newbie.newbiecore.repository.UsuarioRepository;
+import com.newbie.newbiecore.service.hardware.EquipoSnapshotCache;
+import com.newbie.newbiecore.service.pdf.DocumentoPdfCache;
 import com.newbie.newbiecore.util.FichaTecnicaAutoFillHelper;
+import com.newbie.newbiecore.audit.Auditar;
+import com.newbie.newbiecore.audit.TipoAccion;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,20 +44,23 @@ public class FichaTecnicaService {
 
     private final FichaTecnicaRepository fichaTecnicaRepository;
     private final UsuarioRepository usuarioRepository;
-    private final EquipoRepository equipoRepository;
+    private final EquipoSnapshotCache equipoSnapshotCache;
     private final OrdenTrabajoRepository ordenTrabajoRepository;
     private final FichaTecnicaPdfService fichaTecnicaPdfService;
+    private final DocumentoPdfCache documentoPdfCache;
 
     public FichaTecnicaService(FichaTecnicaRepository fichaTecnicaRepository,
             UsuarioRepository usuarioRepository,
-            EquipoRepository equipoRepository,
+            EquipoSnapshotCache equipoSnapshotCache,
             OrdenTrabajoRepository ordenTrabajoRepository,
-            FichaTecnicaPdfService fichaTecnicaPdfService) {
+            FichaTecnicaPdfService fichaTecnicaPdfService,
+            DocumentoPdfCache documentoPdfCache) {
         this.fichaTecnicaRepository = fichaTecnicaRepository;
         this.usuarioRepository = usuarioRepository;
-        this.equipoRepository = equipoRepository;
+        this.equipoSnapshotCache = equipoSnapshotCache;
         this.ordenTrabajoRepository = ordenTrabajoRepository;
         this.fichaTecnicaPdfService = fichaTecnicaPdfService;
+        this.documentoPdfCache = documentoPdfCache;
     }
 
     /*
@@ -59,6 +75,7 @@ public class FichaTecnicaService {
      * Si ya existe una ficha para esa orden de trabajo, la reutiliza.
      */
     @Transactional
+    @Auditar(accion = TipoAccion.FICHA_CREADA, entidad = "FichaTecnica", clave = "id", detalle = "Ficha técnica creada")
     public FichaTecnica crearONegociar(String cedulaTecnico,
             Long equipoId,
             Long ordenTrabajoId,
@@ -68,8 +85,8 @@ public class FichaTecnicaService {
         Usuario tecnico = usuarioRepository.findById(cedulaTecnico)
                 .orElseThrow(() -> new IllegalArgumentException("Técnico no encontrado"));
 
-        // ✅ Cargar equipo (para hardwareJson)
-        Equipo equipo = equipoRepository.findById(equipoId)
+        // ✅ Datos del equipo ya convertidos (no se relee el hardwareJson si no cambió)
+        FichaTecnicaAutoFillHelper.Snapshot equipo = equipoSnapshotCache.obtener(equipoId)
                 .orElseThrow(() -> new IllegalArgumentException("Equipo no encontrado"));
 
         // ✅ Validar OT (sin restricción de ficha única)
@@ -97,7 +114,7 @@ public class FichaTecnicaService {
         ficha.setEstado("BORRADOR"); // Estado por defecto
 
         // Autocomplete desde hardwareJson
-        FichaTecnicaAutoFillHelper.rellenarDesdeHardwareJson(ficha, equipo);
+        FichaTecnicaAutoFillHelper.rellenar(ficha, equipo);
 
         return fichaTecnicaRepository.save(ficha);
     }
@@ -106,6 +123,7 @@ public class FichaTecnicaService {
      * Variante que ya devuelve DTO (útil para el controller).
      */
     @Transactional
+    @Auditar(accion = TipoAccion.FICHA_CREADA, entidad = "FichaTecnica", clave = "id", detalle = "Ficha técnica creada")
     public FichaTecnicaDTO crearONegociarDTO(String cedulaTecnico,
             Long equipoId,
             Long ordenTrabajoId,
@@ -122,10 +140,12 @@ public class FichaTecnicaService {
 
     /** 📝 Actualizar SOLO observaciones */
     @Transactional
+    @Auditar(accion = TipoAccion.FICHA_ACTUALIZADA, entidad = "FichaTecnica", clave = "id", detalle = "Ficha técnica actualizada")
     public Optional<FichaTecnicaDTO> actualizarObservaciones(Long fichaId, String observaciones) {
         return fichaTecnicaRepository.findById(fichaId)
                 .map(ficha -> {
                     ficha.setObservaciones(observaciones);
+                    documentoPdfCache.invalidarFicha(fichaId);
                     return FichaTecnicaMapper.toDTO(fichaTecnicaRepository.save(ficha));
                 });
     }
@@ -137,11 +157,13 @@ public class FichaTecnicaService {
      * Si el estado es "CERRADA", genera automáticamente el PDF.
      */
     @Transactional
+    @Auditar(accion = TipoAccion.FICHA_ACTUALIZADA, entidad = "FichaTecnica", clave = "id", detalle = "Ficha técnica actualizada")
     public Optional<FichaTecnicaDTO> actualizarDesdeDTO(Long fichaId, FichaTecnicaDTO dto) {
         return fichaTecnicaRepository.findById(fichaId)
                 .map(ficha -> {
                     aplicarDtoEnEntidad(dto, ficha);
                     FichaTecnica fichaSaved = fichaTecnicaRepository.save(ficha);
+                    documentoPdfCache.invalidarFicha(fichaId);
                     FichaTecnicaDTO resultDto = FichaTecnicaMapper.toDTO(fichaSaved);
 
                     // 📄 Si la ficha se cierra, generar PDF automáticamente
@@ -169,62 +191,170 @@ public class FichaTecnicaService {
                         throw new IllegalStateException("La ficha no tiene equipo asociado");
                     }
 
-                    Equipo equipo = equipoRepository.findById(ficha.getEquipoId())
+                    FichaTecnicaAutoFillHelper.Snapshot equipo = equipoSnapshotCache.obtener(ficha.getEquipoId())
                             .orElseThrow(() -> new IllegalArgumentException("Equipo no encontrado"));
 
-                    FichaTecnicaAutoFillHelper.rellenarDesdeHardwareJson(ficha, equipo);
+                    FichaTecnicaAutoFillHelper.rellenar(ficha, equipo);
+                    documentoPdfCache.invalidarFicha(fichaId);
                     return FichaTecnicaMapper.toDTO(fichaTecnicaRepository.save(ficha));
                 });
     }
 
+    /**
+     * ♻️ Re-autocompletar varias fichas a la vez: una consulta para las fichas y
+     * los snapshots de sus equipos (cada equipo se convierte una sola vez). Los
+     * ids inexistentes se ignoran.
+     */
+    @Transactional
+    public List<FichaTecnicaDTO> refrescarDesdeHardware(List<Long> fichaIds) {
+        List<FichaTecnica> fichas = fichaTecnicaRepository.findAllById(fichaIds);
+
+        Set<Long> equipoIds = fichas.stream()
+                .map(FichaTecnica::getEquipoId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, FichaTecnicaAutoFillHelper.Snapshot> equipos = equipoSnapshotCache.obtener(equipoIds);
+
+        for (FichaTecnica ficha : fichas) {
+            FichaTecnicaAutoFillHelper.Snapshot equipo = equipos.get(ficha.getEquipoId());
+            if (equipo != null) {
+                FichaTecnicaAutoFillHelper.rellenar(ficha, equipo);
+            }
+        }
+        documentoPdfCache.invalidarFichas(fichas.stream().map(FichaTecnica::getId).toList());
+        return fichaTecnicaRepository.saveAll(fichas).stream()
+                .map(FichaTecnicaMapper::toDTO)
+                .toList();
+    }
+
     /*
      * ===========================================================
      * ======================= CONSULTAS =========================
      * ===========================================================
      */
 
+    /*
+     * Los listados devuelven solo la cabecera de cada ficha (proyección JPQL);
+     * el detalle completo se carga con obtenerDTO.
+     */
+
     @Transactional(readOnly = true)
-    public List<FichaTecnicaDTO> listarPorEquipo(Long equipoId) {
-        return fichaTecnicaRepository.findByEquipoId(equipoId)
-                .stream()
-                .map(FichaTecnicaMapper::toDTO)
-                .toList();
+    public List<FichaTecnicaResumenDTO> listarPorEquipo(Long equipoId) {
+        return fichaTecnicaRepository.listarResumenPorEquipo(equipoId);
     }
 
     @Transactional(readOnly = true)
-    public List<FichaTecnicaDTO> listarPorTecnico(String cedulaTecnico) {
-        return fichaTecnicaRepository.findByTecnicoId(cedulaTecnico)
-                .stream()
-                .map(FichaTecnicaMapper::toDTO)
-                .toList();
+    public List<FichaTecnicaResumenDTO> listarPorTecnico(String cedulaTecnico) {
+        return fichaTecnicaRepository.listarResumenPorTecnico(cedulaTecnico);
     }
 
     /** 🔍 Buscar ficha por orden de trabajo (siempre debería ser máx. 1) */
     @Transactional(readOnly = true)
-    public List<FichaTecnicaDTO> buscarPorOrdenTrabajo(Long ordenTrabajoId) {
-        return fichaTecnicaRepository.findByOrdenTrabajoId(ordenTrabajoId)
-                .stream()
-                .map(FichaTecnicaMapper::toDTO)
-                .toList();
+    public List<FichaTecnicaResumenDTO> buscarPorOrdenTrabajo(Long ordenTrabajoId) {
+        return fichaTecnicaRepository.listarResumenPorOrdenTrabajo(ordenTrabajoId);
     }
 
     /** 🔍 NUEVO: Obtener todas las fichas de un cliente por cédula */
     @Transactional(readOnly = true)
-    public List<FichaTecnicaDTO> obtenerFichasPorCliente(String cedula) {
-        List<FichaTecnica> fichas = fichaTecnicaRepository.findByOrdenTrabajo_Cliente_Cedula(cedula);
-
-        return fichas.stream()
-                .map(FichaTecnicaMapper::toDTO)
-                .collect(Collectors.toList());
+    public List<FichaTecnicaResumenDTO> obtenerFichasPorCliente(String cedula) {
+        return fichaTecnicaRepository.listarResumenPorCliente(cedula);
     }
 
-    /** 📋 Listar todas las fichas en formato DTO */
+    /*
+     * ===========================================================
+     * ============ LISTADO PAGINADO POR CURSOR ==================
+     * ===========================================================
+     */
+
+    private static final int LIMITE_POR_DEFECTO = 50;
+    private static final int LIMITE_MAXIMO = 200;
+
+    // Valores límite para el rango y el cursor cuando no se especifican
+    // (PostgreSQL no puede inferir el tipo de un parámetro timestamp nulo)
+    private static final Instant FECHA_MINIMA = Instant.EPOCH;
+    private static final Instant FECHA_MAXIMA = Instant.parse("9999-12-31T00:00:00Z");
+
+    /**
+     * 📋 Listado paginado por cursor (keyset) sobre (fechaCreacion, id).
+     * Una consulta de proyección por página, sin count.
+     *
+     * @param orden "desc" (más recientes primero, por defecto) o "asc"
+     * @throws IllegalArgumentException si el cursor o el orden no son válidos
+     */
     @Transactional(readOnly = true)
-    public List<FichaTecnicaDTO> listarDTO() {
-        return fichaTecnicaRepository.findAll()
-                .stream()
-                .map(FichaTecnicaMapper::toDTO)
-                .toList();
+    public FichaTecnicaPaginaDto buscar(FichaTecnicaFiltro filtro, String orden, String cursor, Integer limite) {
+        boolean ascendente = ascendente(orden);
+        int tamano = limite == null ? LIMITE_POR_DEFECTO : Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+
+        Instant cursorFecha = ascendente ? FECHA_MINIMA : FECHA_MAXIMA;
+        Long cursorId = ascendente ? Long.MIN_VALUE : Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] partes = decodificarCursor(cursor);
+            try {
+                cursorFecha = Instant.parse(partes[0]);
+                cursorId = Long.valueOf(partes[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor inválido", e);
+            }
+        }
+
+        ZoneId zoneId = ZoneId.systemDefault();
+        Instant desde = filtro.desde() != null ? filtro.desde().atStartOfDay(zoneId).toInstant() : FECHA_MINIMA;
+        Instant hasta = filtro.hasta() != null
+                ? filtro.hasta().plusDays(1).atStartOfDay(zoneId).toInstant()
+                : FECHA_MAXIMA;
+        String estado = vacioANull(filtro.estado());
+        estado = estado != null ? estado.toUpperCase() : null;
+        String tecnicoId = vacioANull(filtro.tecnicoId());
+
+        // Se pide un registro extra para saber si existe una página siguiente
+        Pageable pagina = PageRequest.of(0, tamano + 1);
+        List<FichaTecnicaResumenDTO> fichas = ascendente
+                ? fichaTecnicaRepository.buscarResumenAsc(estado, tecnicoId,
+                        filtro.equipoId(), filtro.ordenTrabajoId(), desde, hasta, cursorFecha, cursorId, pagina)
+                : fichaTecnicaRepository.buscarResumenDesc(estado, tecnicoId,
+                        filtro.equipoId(), filtro.ordenTrabajoId(), desde, hasta, cursorFecha, cursorId, pagina);
+
+        String siguienteCursor = null;
+        if (fichas.size() > tamano) {
+            fichas = fichas.subList(0, tamano);
+            FichaTecnicaResumenDTO ultima = fichas.get(tamano - 1);
+            siguienteCursor = codificarCursor(ultima.fechaCreacion(), ultima.id());
+        }
+
+        return new FichaTecnicaPaginaDto(fichas, siguienteCursor);
+    }
+
+    private static boolean ascendente(String orden) {
+        if (orden == null || orden.isBlank() || orden.equalsIgnoreCase("desc")) {
+            return false;
+        }
+        if (orden.equalsIgnoreCase("asc")) {
+            return true;
+        }
+        throw new IllegalArgumentException("Orden inválido: " + orden);
+    }
+
+    private static String codificarCursor(Instant fecha, Long id) {
+        String valor = fecha + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodificarCursor(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = valor.split("\\|");
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return partes;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+
+    private static String vacioANull(String valor) {
+        return valor == null || valor.isBlank() ? null : valor.trim();
     }
 
     /** 🔍 Obtener ficha técnica en formato DTO por id */
@@ -264,6 +394,7 @@ public class FichaTecnicaService {
             }
         }
 
+        documentoPdfCache.invalidarFicha(id);
         fichaTecnicaRepository.deleteById(id);
     }
 
@@ -0,0 +1,126 @@
+package com.newbie.newbiecore.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Genera los números de orden (OT-00001, OT-00002, ...) a partir de una secuencia
+ * de PostgreSQL con pre-asignación por bloques.
+ *
+ * La secuencia avanza de {@code tamanoBloque} en {@code tamanoBloque}; cada
+ * {@code nextval} reserva un bloque completo que luego se reparte en memoria con
+ * un {@link AtomicLong}, sin bloqueos. Solo el hilo que agota el bloque vuelve a
+ * la base de datos. Al reiniciar se pierden, como mucho, los números no usados del
+ * último bloque; nunca se repiten números, aunque haya varias instancias.
+ *
+ * La secuencia se crea y se alinea al arrancar, fuera de cualquier transacción:
+ * si se creara con la primera orden, un rollback de esa orden la desharía.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class NumeroOrdenGenerator {
+
+    static final String SECUENCIA = "ordenes_trabajo_numero_seq";
+    private static final String PREFIJO = "OT-";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int tamanoBloque;
+    private final String secuencia;
+
+    private volatile Bloque bloque;
+
+    @Autowired
+    public NumeroOrdenGenerator(JdbcTemplate jdbcTemplate,
+            @Value("${app.ordenes.numero-bloque:50}") int tamanoBloque) {
+        this(jdbcTemplate, tamanoBloque, SECUENCIA);
+    }
+
+    // Los tests usan una secuencia propia para no tocar la de la aplicación
+    NumeroOrdenGenerator(JdbcTemplate jdbcTemplate, int tamanoBloque, String secuencia) {
+        if (tamanoBloque < 1) {
+            throw new IllegalArgumentException("app.ordenes.numero-bloque debe ser mayor que 0");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.tamanoBloque = tamanoBloque;
+        this.secuencia = secuencia;
+    }
+
+    public String siguienteNumero() {
+        return PREFIJO + String.format("%05d", siguienteSecuencia());
+    }
+
+    long siguienteSecuencia() {
+        while (true) {
+            Bloque actual = bloque;
+            if (actual != null) {
+                long valor = actual.siguiente.getAndIncrement();
+                if (valor <= actual.ultimo) {
+                    return valor;
+                }
+            }
+            recargar(actual);
+        }
+    }
+
+    private synchronized void recargar(Bloque agotado) {
+        // Otro hilo pudo haber recargado mientras esperábamos el lock
+        if (bloque != agotado) {
+            return;
+        }
+        Long inicio = jdbcTemplate.queryForObject("SELECT nextval('" + secuencia + "')", Long.class);
+        bloque = new Bloque(inicio, inicio + tamanoBloque - 1);
+        log.debug("Bloque de números de orden reservado: {} - {}", inicio, bloque.ultimo);
+    }
+
+    /**
+     * Crea la secuencia si no existe y la adelanta por encima del mayor número de
+     * orden ya registrado (órdenes creadas con el esquema anterior de count() + 1).
+     */
+    @PostConstruct
+    void asegurarSecuencia() {
+        long maximo = maximoNumeroExistente();
+
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + secuencia
+                + " START WITH " + (maximo + 1) + " INCREMENT BY " + tamanoBloque);
+        jdbcTemplate.execute("ALTER SEQUENCE " + secuencia + " INCREMENT BY " + tamanoBloque);
+
+        // last_value + incremento es el inicio del próximo bloque si is_called; si no, es last_value
+        Long proximoInicio = jdbcTemplate.queryForObject(
+                "SELECT CASE WHEN is_called THEN last_value + " + tamanoBloque
+                        + " ELSE last_value END FROM " + secuencia,
+                Long.class);
+
+        if (proximoInicio == null || proximoInicio <= maximo) {
+            jdbcTemplate.queryForObject("SELECT setval('" + secuencia + "', ?, false)", Long.class, maximo + 1);
+            log.info("Secuencia {} ajustada para continuar desde {}", secuencia, maximo + 1);
+        }
+    }
+
+    private long maximoNumeroExistente() {
+        Long maximo = jdbcTemplate.queryForObject("""
+                SELECT COALESCE(MAX(CAST(SUBSTRING(numero_orden FROM 4) AS BIGINT)), 0)
+                FROM ordenes_trabajo
+                WHERE numero_orden ~ '^OT-[0-9]+$'
+                """, Long.class);
+        return maximo == null ? 0 : maximo;
+    }
+
+    private static final class Bloque {
+        private final AtomicLong siguiente;
+        private final long ultimo;
+
+        private Bloque(long inicio, long ultimo) {
+            this.siguiente = new AtomicLong(inicio);
+            this.ultimo = ultimo;
+        }
+    }
+}
@@ -6,6 +6,9 @@ import com.newbie.newbiecore.entity.OrdenTrabajoCosto;
 import com.newbie.newbiecore.repository.CatalogoItemRepository;
 import com.newbie.newbiecore.repository.OrdenTrabajoCostoRepository;
 import com.newbie.newbiecore.repository.OrdenTrabajoRepository;
+import com.newbie.newbiecore.audit.Auditar;
+import com.newbie.newbiecore.audit.TipoAccion;
+import com.newbie.newbiecore.service.pdf.DocumentoPdfCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,11 +25,13 @@ public class OrdenTrabajoCostoService {
     private final OrdenTrabajoRepository ordenRepo;
     private final CatalogoItemRepository catalogoRepo;
     private final OrdenTrabajoCostoRepository costoRepo;
+    private final DocumentoPdfCache documentoPdfCache;
 
     /* ==========================
        AGREGAR COSTO
        ========================== */
     @Transactional
+    @Auditar(accion = TipoAccion.COSTO_AGREGADO, entidad = "OrdenTrabajoCosto", argumento = 0, detalle = "Costo agregado a la orden")
     public void agregar(Long ordenId, AgregarCostoRequest req) {
 
         if (req.cantidad() == null || req.cantidad() <= 0) {
@@ -54,6 +59,7 @@ public class OrdenTrabajoCostoService {
                 .build();
 
         costoRepo.save(costo);
+        documentoPdfCache.invalidarOrden(ordenId);
     }
 
     /* ==========================
@@ -92,6 +98,7 @@ public class OrdenTrabajoCostoService {
 
         costo.setCantidad(cantidad);
         costoRepo.save(costo);
+        documentoPdfCache.invalidarOrden(costo.getOrdenTrabajo().getId());
     }
 
     /* ==========================
@@ -106,6 +113,7 @@ public class OrdenTrabajoCostoService {
         validarOrdenEditable(costo.getOrdenTrabajo());
 
         costoRepo.delete(costo);
+        documentoPdfCache.invalidarOrden(costo.getOrdenTrabajo().getId());
     }
 
     /* ==========================
@@ -1,36 +1,62 @@
 package com.newbie.newbiecore.service;
 
 import com.newbie.newbiecore.dto.OrdenTrabajo.ImagenDto;
+import com.newbie.newbiecore.dto.OrdenTrabajo.ImagenOrdenFila;
 import com.newbie.newbiecore.entity.CategoriaImagen;
-import com.newbie.newbiecore.entity.Imagen;
-import com.newbie.newbiecore.entity.OrdenTrabajo;
 import com.newbie.newbiecore.repository.OrdenTrabajoImagenRepository;
 import com.newbie.newbiecore.repository.OrdenTrabajoRepository;
+import com.newbie.newbiecore.service.imagen.VarianteImagenService;
+import com.newbie.newbiecore.audit.Auditar;
+import com.newbie.newbiecore.audit.TipoAccion;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.context.config.annotation.RefreshScope;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.nio.file.*;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
+@Slf4j
 @Service
 @RefreshScope
 public class OrdenTrabajoImagenService {
 
+    private static final String INSERTAR = """
+            INSERT INTO imagenes (categoria, orden_trabajo_id, fecha_subida, ruta, descripcion)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private static final int MAX_NOMBRE = 150;
+
     private final OrdenTrabajoRepository ordenTrabajoRepository;
     private final OrdenTrabajoImagenRepository ordenTrabajoImagenRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final VarianteImagenService varianteImagenService;
     private final Path uploadPath;
+    private final long maxBytesImagen;
 
     public OrdenTrabajoImagenService(OrdenTrabajoRepository ordenTrabajoRepository,
             OrdenTrabajoImagenRepository ordenTrabajoImagenRepository,
-            @Value("${app.upload-dir:uploads}") String uploadDir) {
+            JdbcTemplate jdbcTemplate,
+            VarianteImagenService varianteImagenService,
+            @Value("${app.upload-dir:uploads}") String uploadDir,
+            @Value("${app.imagenes.max-mb:10}") long maxMbImagen) {
         this.ordenTrabajoRepository = ordenTrabajoRepository;
         this.ordenTrabajoImagenRepository = ordenTrabajoImagenRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.varianteImagenService = varianteImagenService;
         this.uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.maxBytesImagen = maxMbImagen * 1024 * 1024;
 
         System.out.println("📂 Carpeta de uploads = " + this.uploadPath);
 
@@ -41,8 +67,18 @@ public class OrdenTrabajoImagenService {
         }
     }
 
+    /**
+     * Guarda las imágenes de una orden. Cada archivo pasa del multipart a su
+     * carpeta sin cargarlo en memoria (un renombrado si ya está en disco), y
+     * las filas se insertan en un solo lote sin cargar ni volver a guardar la
+     * orden. Tras confirmar se programan las miniaturas; si la transacción se
+     * revierte, se borran los archivos escritos.
+     *
+     * @return cantidad de imágenes guardadas
+     */
     @Transactional
-    public OrdenTrabajo subirImagenes(Long ordenId,
+    @Auditar(accion = TipoAccion.IMAGEN_SUBIDA, entidad = "OrdenTrabajo", argumento = 0, detalle = "Imágenes subidas a la orden")
+    public int subirImagenes(Long ordenId,
             List<MultipartFile> files,
             String categoriaStr,
             String descripcionGlobal) throws IOException {
@@ -50,12 +86,17 @@ public class OrdenTrabajoImagenService {
         if (files == null || files.isEmpty()) {
             throw new IllegalArgumentException("Debes enviar al menos un archivo");
         }
-
-        OrdenTrabajo orden = ordenTrabajoRepository.findById(ordenId)
-                .orElseThrow(() -> new IllegalArgumentException("Orden de trabajo no encontrada"));
+        // Límite propio de las imágenes, por debajo del global de multipart si se sube
+        for (MultipartFile file : files) {
+            if (file.getSize() > maxBytesImagen) {
+                throw new IllegalArgumentException("La imagen " + file.getOriginalFilename()
+                        + " supera " + maxBytesImagen / (1024 * 1024) + " MB");
+            }
+        }
 
         // Estructura: OT-00015/imagenes/INGRESO/, OT-00015/imagenes/DIAGNOSTICO/, etc.
-        String folderName = orden.getNumeroOrden();
+        String folderName = ordenTrabajoRepository.findNumeroOrdenById(ordenId)
+                .orElseThrow(() -> new IllegalArgumentException("Orden de trabajo no encontrada"));
 
         CategoriaImagen categoria = CategoriaImagen.valueOf(
                 categoriaStr == null ? "OTRO" : categoriaStr.toUpperCase());
@@ -64,44 +105,106 @@ public class OrdenTrabajoImagenService {
         Path imagenesPath = uploadPath.resolve(folderName).resolve("imagenes").resolve(categoria.name());
         Files.createDirectories(imagenesPath);
 
-        for (MultipartFile file : files) {
-            if (file.isEmpty())
-                continue;
-
-            String fileName = UUID.randomUUID() + "-" + file.getOriginalFilename();
-            Path filePath = imagenesPath.resolve(fileName);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-            // Ruta relativa: /uploads/OT-00015/imagenes/INGRESO/archivo.jpg
-            String relativeUrl = "/uploads/" + folderName + "/imagenes/" + categoria.name() + "/" + fileName;
-
-            Imagen img = Imagen.builder()
-                    .ordenTrabajo(orden)
-                    .ruta(relativeUrl)
-                    .categoria(categoria)
-                    .descripcion(descripcionGlobal)
-                    .build();
+        List<Guardada> guardadas = new ArrayList<>();
+        try {
+            for (MultipartFile file : files) {
+                if (file.isEmpty())
+                    continue;
+
+                String fileName = UUID.randomUUID() + "-" + nombreSeguro(file.getOriginalFilename());
+                Path filePath = imagenesPath.resolve(fileName);
+                // transferTo(File) delega en Part.write: si el multipart ya está en disco,
+                // el contenedor lo renombra en lugar de copiarlo (transferTo(Path) siempre copia)
+                file.transferTo(filePath.toFile());
+
+                // Ruta relativa: /uploads/OT-00015/imagenes/INGRESO/archivo.jpg
+                String relativeUrl = "/uploads/" + folderName + "/imagenes/" + categoria.name() + "/" + fileName;
+                guardadas.add(new Guardada(filePath, relativeUrl));
+            }
+        } catch (IOException | RuntimeException e) {
+            borrar(guardadas);
+            throw e;
+        }
 
-            orden.getImagenes().add(img);
+        if (guardadas.isEmpty()) {
+            return 0;
         }
 
-        return ordenTrabajoRepository.save(orden);
+        Timestamp ahora = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERTAR, guardadas, guardadas.size(), (ps, g) -> {
+            ps.setString(1, categoria.name());
+            ps.setLong(2, ordenId);
+            ps.setTimestamp(3, ahora);
+            ps.setString(4, g.ruta());
+            ps.setString(5, descripcionGlobal);
+        });
+
+        alTerminar(ordenId, guardadas);
+        return guardadas.size();
     }
 
     // 🔹 NUEVO: listar imágenes por id de orden
     @Transactional(readOnly = true)
     public List<ImagenDto> listarImagenes(Long ordenId) {
-        OrdenTrabajo orden = ordenTrabajoRepository.findById(ordenId)
-                .orElseThrow(() -> new IllegalArgumentException("Orden de trabajo no encontrada"));
+        if (!ordenTrabajoRepository.existsById(ordenId)) {
+            throw new IllegalArgumentException("Orden de trabajo no encontrada");
+        }
 
-        return orden.getImagenes()
+        return ordenTrabajoImagenRepository.findResumenByOrdenTrabajoIds(List.of(ordenId))
                 .stream()
-                .map(img -> new ImagenDto(
-                        img.getId(),
-                        img.getRuta(),
-                        img.getCategoria(),
-                        img.getDescripcion(),
-                        img.getFechaSubida()))
+                .map(ImagenOrdenFila::toDto)
                 .toList();
     }
+
+    /*
+     * =============================
+     * AUXILIARES
+     * =============================
+     */
+
+    private record Guardada(Path archivo, String ruta) {
+    }
+
+    private void alTerminar(Long ordenId, List<Guardada> guardadas) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            guardadas.forEach(g -> varianteImagenService.programar(ordenId, g.archivo(), g.ruta()));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    guardadas.forEach(g -> varianteImagenService.programar(ordenId, g.archivo(), g.ruta()));
+                } else {
+                    borrar(guardadas);
+                }
+            }
+        });
+    }
+
+    private static void borrar(List<Guardada> guardadas) {
+        for (Guardada g : guardadas) {
+            try {
+                Files.deleteIfExists(g.archivo());
+            } catch (IOException e) {
+                log.warn("No se pudo borrar {}: {}", g.archivo(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Solo el nombre del archivo (sin carpetas ni puntos iniciales) y con
+     * caracteres seguros para la ruta y la URL. Si es muy largo se conserva el
+     * final, que incluye la extensión.
+     */
+    static String nombreSeguro(String original) {
+        String nombre = original == null ? "" : original;
+        nombre = nombre.substring(Math.max(nombre.lastIndexOf('/'), nombre.lastIndexOf('\\')) + 1);
+        nombre = nombre.replaceAll("[^A-Za-z0-9._-]", "_");
+        if (nombre.length() > MAX_NOMBRE) {
+            nombre = nombre.substring(nombre.length() - MAX_NOMBRE);
+        }
+        nombre = nombre.replaceFirst("^\\.+", "");
+        return nombre.isEmpty() ? "imagen" : nombre;
+    }
 }
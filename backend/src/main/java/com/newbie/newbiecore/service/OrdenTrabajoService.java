@@ -1,17 +1,25 @@
 package com.newbie.newbiecore.service;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.newbie.newbiecore.dto.OrdenTrabajo.*;
 import com.newbie.newbiecore.dto.costos.CostosTotalesDto;
 import com.newbie.newbiecore.dto.costos.OrdenTrabajoCostoDto;
@@ -19,12 +27,21 @@ import com.newbie.newbiecore.entity.OrdenTrabajo;
 import com.newbie.newbiecore.entity.Usuario;
 import com.newbie.newbiecore.repository.EquipoRepository;
 import com.newbie.newbiecore.repository.FichaTecnicaRepository;
+import com.newbie.newbiecore.repository.OrdenTrabajoImagenRepository;
 import com.newbie.newbiecore.repository.OrdenTrabajoRepository;
 import com.newbie.newbiecore.repository.UsuarioRepository;
+import com.newbie.newbiecore.service.cierre.CierreOrdenTareaService;
+import com.newbie.newbiecore.service.cierre.OrdenCerradaEvent;
 import com.newbie.newbiecore.service.documentos.FichasTecnicasMasivasService;
+import com.newbie.newbiecore.service.pdf.DocumentoPdfCache;
+import com.newbie.newbiecore.audit.Auditar;
+import com.newbie.newbiecore.audit.TipoAccion;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.security.core.Authentication;
@@ -34,14 +51,21 @@ import org.springframework.security.core.Authentication;
 public class OrdenTrabajoService {
 
     private final OrdenTrabajoRepository ordenTrabajoRepository;
+    private final OrdenTrabajoImagenRepository ordenTrabajoImagenRepository;
     private final UsuarioRepository usuarioRepository;
     private final EquipoRepository equipoRepository;
     private final FichaTecnicaRepository fichaTecnicaRepository;
     private final OrdenTrabajoPdfService ordenTrabajoPdfService;
     private final OrdenTrabajoCostoService ordenTrabajoCostoService;
     private final FichasTecnicasMasivasService fichasTecnicasMasivasService;
+    private final DocumentoPdfCache documentoPdfCache;
+    private final NumeroOrdenGenerator numeroOrdenGenerator;
+    private final CierreOrdenTareaService cierreOrdenTareaService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DashboardService dashboardService;
 
     private final MailService mailService;
+    private final ObjectMapper objectMapper;
 
     @Value("${app.upload-dir}")
     private String uploadDir;
@@ -52,6 +76,7 @@ public class OrdenTrabajoService {
      * =============================
      */
     @Transactional
+    @Auditar(accion = TipoAccion.OT_CREADA, entidad = "OrdenTrabajo", clave = "numeroOrden", detalle = "Orden de trabajo creada")
     public OrdenTrabajoIngresoDto crearOrden(CrearOrdenTrabajoRequest request, Authentication auth) {
 
         var usuarioAuth = usuarioRepository.findByCorreo(auth.getName())
@@ -95,12 +120,13 @@ public class OrdenTrabajoService {
 
         OrdenTrabajo guardada = ordenTrabajoRepository.save(orden);
 
+        dashboardService.registrarIngreso(guardada.getFechaHoraIngreso(), guardada.getEstado(), tecnico.getCedula());
+
         return mapToIngresoDto(guardada);
     }
 
     private String generarNumeroOrden() {
-        long secuencia = ordenTrabajoRepository.count() + 1;
-        return "OT-" + String.format("%05d", secuencia);
+        return numeroOrdenGenerator.siguienteNumero();
     }
 
     /*
@@ -162,6 +188,7 @@ public class OrdenTrabajoService {
     }
 
     @Transactional
+    @Auditar(accion = TipoAccion.ACTUALIZAR, entidad = "OrdenTrabajo", argumento = 0, detalle = "Orden de trabajo actualizada")
     public void actualizarEntrega(Long ordenId, ActualizarEntregaRequest request) {
 
         var orden = ordenTrabajoRepository.findById(ordenId)
@@ -204,6 +231,7 @@ public class OrdenTrabajoService {
             orden.setOtpValidado(request.otpValidado());
 
         // Estado y Cierre
+        String estadoAnterior = orden.getEstado();
         boolean seCierra = false;
 
         if (Boolean.TRUE.equals(request.cerrarOrden())) {
@@ -227,6 +255,14 @@ public class OrdenTrabajoService {
         }
 
         OrdenTrabajo ordenGuardada = ordenTrabajoRepository.save(orden);
+        documentoPdfCache.invalidarOrden(ordenGuardada.getId());
+
+        dashboardService.registrarCambioEstado(
+                ordenGuardada.getFechaHoraIngreso(),
+                estadoAnterior,
+                ordenGuardada.getEstado(),
+                ordenGuardada.getTecnicoAsignado() != null ? ordenGuardada.getTecnicoAsignado().getCedula() : null);
+
         if (seCierra) {
 
             CostosTotalesDto totales = ordenTrabajoCostoService.totales(ordenGuardada.getId());
@@ -237,100 +273,109 @@ public class OrdenTrabajoService {
 
             ordenTrabajoRepository.save(ordenGuardada);
 
-            OrdenTrabajoDetalleDto dto = obtenerDetalleInterno(ordenGuardada.getId());
+            // PDFs y correo se generan en segundo plano (CierreOrdenWorker) una vez
+            // confirmada esta transacción; las tareas se encolan junto con el cierre.
+            cierreOrdenTareaService.encolar(ordenGuardada.getId());
+            eventPublisher.publishEvent(new OrdenCerradaEvent(ordenGuardada.getId()));
+        }
 
-            byte[] pdfBytes = ordenTrabajoPdfService.generarPdfOrden(dto);
+    }
 
-            try {
-                Path documentosDir = Paths.get(
-                        uploadDir,
-                        ordenGuardada.getNumeroOrden(),
-                        "documentos");
+    /*
+     * =============================
+     * ETAPAS DEL CIERRE (SEGUNDO PLANO)
+     * =============================
+     */
+
+    /**
+     * Genera el PDF resumen del servicio técnico en {uploadDir}/{numeroOrden}/documentos.
+     * Si la orden no cambió desde el último resumen (p. ej. al reintentar la
+     * etapa), se conserva el PDF existente.
+     */
+    @Transactional
+    public void generarPdfResumenCierre(Long ordenId) throws IOException {
+        OrdenTrabajoDetalleDto dto = obtenerDetalleInterno(ordenId);
 
-                Files.createDirectories(documentosDir);
+        documentoPdfCache.asegurar(new DocumentoPdfCache.Documento("orden-trabajo", dto.numeroOrden(),
+                "Resumen_Servicio_" + dto.numeroOrden() + ".pdf", dto.ordenId(), null,
+                OrdenTrabajoPdfService.version(), dto),
+                () -> ordenTrabajoPdfService.generarPdfOrden(dto));
+    }
 
-                // PDF resumen del servicio técnico completo
-                Path pdfPath = documentosDir.resolve(
-                        "Resumen_Servicio_" + ordenGuardada.getNumeroOrden() + ".pdf");
+    /**
+     * Genera los PDFs de las fichas técnicas de la orden (si tiene fichas).
+     * Si alguna falla, lanza excepción para que la etapa se reintente; las
+     * fichas ya generadas no se vuelven a renderizar.
+     */
+    public void generarPdfsFichasCierre(Long ordenId) {
+        var resultados = fichasTecnicasMasivasService.generarPdfsPorOrdenTrabajo(ordenId);
 
-                Files.write(pdfPath, pdfBytes);
-                try {
-                    fichasTecnicasMasivasService
-                            .generarPdfsPorOrdenTrabajo(ordenGuardada.getId());
-                } catch (Exception e) {
+        List<Long> fallidas = resultados.stream()
+                .filter(r -> !r.generado())
+                .map(FichasTecnicasMasivasService.Resultado::fichaId)
+                .toList();
+        if (!fallidas.isEmpty()) {
+            throw new IllegalStateException("No se pudieron generar los PDFs de las fichas " + fallidas
+                    + " (" + fallidas.size() + " de " + resultados.size() + ")");
+        }
+    }
 
-                    System.err.println("Advertencia: error al generar PDFs de fichas técnicas: " + e.getMessage());
-                }
+    /**
+     * Envía al cliente los PDFs de la carpeta de documentos de la orden.
+     * Lanza excepción si el envío falla, para que la etapa se reintente.
+     */
+    @Transactional(readOnly = true)
+    public void enviarDocumentosCierre(Long ordenId) throws IOException {
+        var orden = ordenTrabajoRepository.findById(ordenId)
+                .orElseThrow(() -> new RuntimeException("Orden no encontrada"));
 
-            } catch (IOException e) {
-                throw new RuntimeException("Error al generar/guardar el PDF de la OT", e);
-            }
-            enviarArchivosCierreZip(ordenGuardada);
+        Usuario cliente = orden.getCliente();
+        if (cliente == null || cliente.getCorreo() == null || cliente.getCorreo().isEmpty()) {
+            return;
+        }
+
+        String numeroOrden = orden.getNumeroOrden();
+        String emailDestino = cliente.getCorreo();
+
+        // Solo la carpeta de documentos (PDFs), NO las imágenes
+        Path rutaCarpetaDocumentos = Paths.get(uploadDir).resolve(numeroOrden).resolve("documentos")
+                .toAbsolutePath();
 
+        String asunto = "Entrega de Orden de Trabajo #" + numeroOrden;
+        String cuerpo = "Estimado/a " + cliente.getNombre() + ",\n\n" +
+                "Su orden de trabajo #" + numeroOrden + " ha sido cerrada exitosamente.\n" +
+                "Adjunto encontrará los documentos generados de su servicio.\n\n" +
+                "Gracias por confiar en nosotros.\n\n" +
+                "Atentamente,\n" +
+                "El equipo de NewbieSoft.";
+
+        if (!Files.exists(rutaCarpetaDocumentos)) {
+            mailService.sendEmail(emailDestino, asunto,
+                    cuerpo + "\n\n(Nota: No se encontraron documentos para adjuntar).");
+            return;
         }
 
-    }
+        // Obtener todos los archivos PDF de la carpeta
+        List<java.io.File> archivosPdf = new ArrayList<>();
+        try (Stream<Path> archivos = Files.list(rutaCarpetaDocumentos)) {
+            archivos.filter(p -> p.toString().toLowerCase().endsWith(".pdf"))
+                    .forEach(p -> archivosPdf.add(p.toFile()));
+        }
 
-    private void enviarArchivosCierreZip(OrdenTrabajo orden) {
-        try {
-            Usuario cliente = orden.getCliente();
-            if (cliente != null && cliente.getCorreo() != null && !cliente.getCorreo().isEmpty()) {
-
-                String numeroOrden = orden.getNumeroOrden();
-                String emailDestino = cliente.getCorreo();
-
-                // Solo la carpeta de documentos (PDFs), NO las imágenes
-                Path rutaCarpetaDocumentos = Paths.get(uploadDir).resolve(numeroOrden).resolve("documentos")
-                        .toAbsolutePath();
-
-                String asunto = "Entrega de Orden de Trabajo #" + numeroOrden;
-                String cuerpo = "Estimado/a " + cliente.getNombre() + ",\n\n" +
-                        "Su orden de trabajo #" + numeroOrden + " ha sido cerrada exitosamente.\n" +
-                        "Adjunto encontrará los documentos generados de su servicio.\n\n" +
-                        "Gracias por confiar en nosotros.\n\n" +
-                        "Atentamente,\n" +
-                        "El equipo de NewbieSoft.";
-
-                new Thread(() -> {
-                    try {
-                        System.out.println("--- PREPARANDO ENVÍO DE DOCUMENTOS ---");
-                        System.out.println("Carpeta documentos: " + rutaCarpetaDocumentos);
-
-                        // Verificar si existe la carpeta de documentos
-                        if (!Files.exists(rutaCarpetaDocumentos)) {
-                            System.out.println("ADVERTENCIA: La carpeta de documentos NO EXISTE.");
-                            mailService.sendEmail(emailDestino, asunto,
-                                    cuerpo + "\n\n(Nota: No se encontraron documentos para adjuntar).");
-                            return;
-                        }
-
-                        // Obtener todos los archivos PDF de la carpeta
-                        java.util.List<java.io.File> archivosPdf = new java.util.ArrayList<>();
-                        try (java.util.stream.Stream<Path> archivos = Files.list(rutaCarpetaDocumentos)) {
-                            archivos.filter(p -> p.toString().toLowerCase().endsWith(".pdf"))
-                                    .forEach(p -> archivosPdf.add(p.toFile()));
-                        }
-
-                        if (archivosPdf.isEmpty()) {
-                            System.out.println("No se encontraron archivos PDF en la carpeta.");
-                            mailService.sendEmail(emailDestino, asunto,
-                                    cuerpo + "\n\n(Nota: No se encontraron documentos PDF para adjuntar).");
-                        } else {
-                            System.out.println("Encontrados " + archivosPdf.size() + " documentos PDF.");
-                            mailService.sendEmailWithMultipleAttachments(emailDestino, asunto, cuerpo, archivosPdf);
-                            System.out.println("Correo enviado con documentos adjuntos.");
-                        }
-
-                    } catch (Exception e) {
-                        System.err.println("Error grave en el hilo de envío de correo: " + e.getMessage());
-                        e.printStackTrace();
-                    }
-                }).start();
+        if (archivosPdf.isEmpty()) {
+            mailService.sendEmail(emailDestino, asunto,
+                    cuerpo + "\n\n(Nota: No se encontraron documentos PDF para adjuntar).");
+        } else {
+            mailService.sendEmailWithMultipleAttachments(emailDestino, asunto, cuerpo, archivosPdf);
+        }
+    }
 
-            }
-        } catch (Exception e) {
-            System.err.println("Error al preparar envío: " + e.getMessage());
+    @Transactional(readOnly = true)
+    public List<CierreEtapaDto> obtenerEstadoCierre(Long ordenId) {
+        if (!ordenTrabajoRepository.existsById(ordenId)) {
+            throw new RuntimeException("Orden no encontrada");
         }
+        return cierreOrdenTareaService.obtenerEstado(ordenId);
     }
 
     /**
@@ -599,60 +644,155 @@ public class OrdenTrabajoService {
      * LISTAR ÓRDENES
      * =============================
      */
+    private static final int LIMITE_POR_DEFECTO = 50;
+    private static final int LIMITE_MAXIMO = 200;
+    private static final int LOTE_EXPORTACION = 500;
+    private static final int LOTE_IMAGENES = 1000;
+
+    // Valores límite para el rango y el cursor cuando no se especifican
+    // (PostgreSQL no puede inferir el tipo de un parámetro timestamp nulo)
+    private static final Instant FECHA_MINIMA = Instant.EPOCH;
+    private static final Instant FECHA_MAXIMA = Instant.parse("9999-12-31T00:00:00Z");
+
     @Transactional(readOnly = true)
     public List<OrdenTrabajoListaDto> listarOrdenes() {
-        return ordenTrabajoRepository.findAll()
-                .stream()
-                .map(this::mapToListaDto)
-                .toList();
+        return cargarListado(OrdenTrabajoFiltro.vacio(), null, null, Pageable.unpaged());
     }
 
-    private OrdenTrabajoListaDto mapToListaDto(OrdenTrabajo orden) {
-        var cliente = orden.getCliente();
-        var tecnico = orden.getTecnicoAsignado();
-        var equipo = orden.getEquipo();
+    /**
+     * Listado paginado por cursor (keyset) sobre (fechaHoraIngreso, id) descendente.
+     * Una consulta de proyección por página más una consulta para sus imágenes.
+     */
+    @Transactional(readOnly = true)
+    public OrdenTrabajoPaginaDto buscarOrdenes(OrdenTrabajoFiltro filtro, String cursor, Integer limite) {
+        int tamano = limite == null ? LIMITE_POR_DEFECTO : Math.max(1, Math.min(limite, LIMITE_MAXIMO));
 
-        List<ImagenDto> imagenes = orden.getImagenes()
-                .stream()
-                .map(img -> new ImagenDto(
-                        img.getId(),
-                        img.getRuta(),
-                        img.getCategoria(),
-                        img.getDescripcion(),
-                        img.getFechaSubida()))
+        Instant cursorFecha = null;
+        Long cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] partes = decodificarCursor(cursor);
+            try {
+                cursorFecha = Instant.parse(partes[0]);
+                cursorId = Long.valueOf(partes[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor inválido", e);
+            }
+        }
+
+        // Se pide un registro extra para saber si existe una página siguiente
+        List<OrdenTrabajoListaDto> ordenes = cargarListado(filtro, cursorFecha, cursorId,
+                PageRequest.of(0, tamano + 1));
+
+        String siguienteCursor = null;
+        if (ordenes.size() > tamano) {
+            ordenes = ordenes.subList(0, tamano);
+            OrdenTrabajoListaDto ultima = ordenes.get(tamano - 1);
+            siguienteCursor = codificarCursor(ultima.fechaHoraIngreso(), ultima.id());
+        }
+
+        return new OrdenTrabajoPaginaDto(ordenes, siguienteCursor);
+    }
+
+    /**
+     * Exporta el historial completo (filtrado) como NDJSON: una orden por línea.
+     * Recorre la tabla por lotes con el mismo cursor del listado, así la memoria
+     * usada no depende del tamaño del historial.
+     */
+    public void exportarOrdenes(OrdenTrabajoFiltro filtro, OutputStream out) throws IOException {
+        Instant cursorFecha = null;
+        Long cursorId = null;
+
+        while (true) {
+            List<OrdenTrabajoListaDto> lote = cargarListado(filtro, cursorFecha, cursorId,
+                    PageRequest.of(0, LOTE_EXPORTACION));
+
+            for (OrdenTrabajoListaDto orden : lote) {
+                out.write(objectMapper.writeValueAsBytes(orden));
+                out.write('\n');
+            }
+            out.flush();
+
+            if (lote.size() < LOTE_EXPORTACION) {
+                return;
+            }
+            OrdenTrabajoListaDto ultima = lote.get(lote.size() - 1);
+            cursorFecha = ultima.fechaHoraIngreso();
+            cursorId = ultima.id();
+        }
+    }
+
+    private List<OrdenTrabajoListaDto> cargarListado(OrdenTrabajoFiltro filtro,
+            Instant cursorFecha,
+            Long cursorId,
+            Pageable pageable) {
+
+        ZoneId zoneId = ZoneId.systemDefault();
+        Instant desde = filtro.desde() != null ? filtro.desde().atStartOfDay(zoneId).toInstant() : FECHA_MINIMA;
+        Instant hasta = filtro.hasta() != null
+                ? filtro.hasta().plusDays(1).atStartOfDay(zoneId).toInstant()
+                : FECHA_MAXIMA;
+
+        List<OrdenTrabajoListaFila> filas = ordenTrabajoRepository.buscarListado(
+                mayusculas(filtro.estado()),
+                vacioANull(filtro.tecnicoCedula()),
+                mayusculas(filtro.prioridad()),
+                desde,
+                hasta,
+                cursorFecha != null ? cursorFecha : FECHA_MAXIMA,
+                cursorId != null ? cursorId : Long.MAX_VALUE,
+                pageable);
+
+        Map<Long, List<ImagenDto>> imagenesPorOrden = cargarImagenes(
+                filas.stream().map(OrdenTrabajoListaFila::id).toList());
+
+        return filas.stream()
+                .map(f -> f.conImagenes(imagenesPorOrden.getOrDefault(f.id(), List.of())))
                 .toList();
+    }
 
-        return new OrdenTrabajoListaDto(
-                orden.getId(),
-                orden.getNumeroOrden(),
-                orden.getEstado(),
-                orden.getTipoServicio(),
-                orden.getPrioridad(),
-                orden.getFechaHoraIngreso(),
-                orden.getFechaHoraEntrega(),
-                orden.getMedioContacto(),
-                orden.getModalidad(),
-                cliente != null ? cliente.getCedula() : null,
-                cliente != null ? cliente.getNombre() : null,
-                tecnico != null ? tecnico.getCedula() : null,
-                tecnico != null ? tecnico.getNombre() : null,
-                equipo != null ? equipo.getIdEquipo() : null,
-                equipo != null ? equipo.getModelo() : null,
-                equipo != null ? equipo.getHostname() : null,
-                orden.getProblemaReportado(),
-                orden.getObservacionesIngreso(),
-                orden.getDiagnosticoTrabajo(),
-                orden.getObservacionesRecomendaciones(),
-                imagenes);
+    private Map<Long, List<ImagenDto>> cargarImagenes(List<Long> ordenIds) {
+        Map<Long, List<ImagenDto>> resultado = new HashMap<>();
+        for (int i = 0; i < ordenIds.size(); i += LOTE_IMAGENES) {
+            List<Long> lote = ordenIds.subList(i, Math.min(i + LOTE_IMAGENES, ordenIds.size()));
+            for (ImagenOrdenFila img : ordenTrabajoImagenRepository.findResumenByOrdenTrabajoIds(lote)) {
+                resultado.computeIfAbsent(img.ordenTrabajoId(), k -> new ArrayList<>()).add(img.toDto());
+            }
+        }
+        return resultado;
+    }
+
+    private static String codificarCursor(Instant fecha, Long id) {
+        String valor = fecha + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodificarCursor(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = valor.split("\\|");
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return partes;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+
+    private static String mayusculas(String valor) {
+        String v = vacioANull(valor);
+        return v == null ? null : v.toUpperCase();
+    }
+
+    private static String vacioANull(String valor) {
+        return valor == null || valor.isBlank() ? null : valor.trim();
     }
 
     @Transactional(readOnly = true)
     public List<OrdenTrabajoListaDto> listarOrdenesPorTecnico(String cedulaTecnico) {
-        return ordenTrabajoRepository
-                .findByTecnicoAsignado_CedulaOrderByFechaHoraIngresoDesc(cedulaTecnico)
-                .stream()
-                .map(this::mapToListaDto)
-                .toList();
+        return cargarListado(
+                new OrdenTrabajoFiltro(null, cedulaTecnico, null, null, null),
+                null, null, Pageable.unpaged());
     }
 
     @Transactional(readOnly = true)
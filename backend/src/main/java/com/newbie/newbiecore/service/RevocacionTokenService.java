@@ -0,0 +1,240 @@
+package com.newbie.newbiecore.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.newbie.newbiecore.entity.BlacklistedToken;
+import com.newbie.newbiecore.repository.BlacklistedTokenRepository;
+import com.newbie.newbiecore.util.FiltroBloom;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Índice en memoria de tokens revocados (logout), respaldado por
+ * {@code blacklisted_tokens}.
+ *
+ * <ul>
+ * <li>Un filtro de Bloom responde el caso habitual (token no revocado) sin
+ * consultar nada más; un positivo se confirma contra el conjunto de huellas
+ * SHA-256, también en memoria. Ninguno de los dos casos va a la base de
+ * datos.</li>
+ * <li>Al arrancar se cargan las revocaciones vigentes y cada
+ * {@code app.jwt.revocacion.sincronizacion-ms} se incorporan las registradas
+ * por otras instancias.</li>
+ * <li>La purga programada elimina las filas cuyo token ya expiró y reconstruye
+ * el filtro.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+@DependsOn("entityManagerFactory")
+public class RevocacionTokenService {
+
+    private static final String TABLA = "blacklisted_tokens";
+    private static final double TASA_FALSOS_POSITIVOS = 0.01;
+    // Solape al sincronizar, por revocaciones que confirman tarde
+    private static final long MARGEN_SINCRONIZACION_SEG = 60;
+
+    private final BlacklistedTokenRepository blacklistedTokenRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int capacidadInicial;
+    private final String tabla;
+
+    // huella hex -> expiración del token
+    private final Map<String, LocalDateTime> revocados = new ConcurrentHashMap<>();
+    private volatile FiltroBloom filtro;
+    private volatile LocalDateTime ultimaSincronizacion = LocalDateTime.MIN;
+
+    @Autowired
+    public RevocacionTokenService(BlacklistedTokenRepository blacklistedTokenRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.jwt.revocacion.capacidad:10000}") int capacidadInicial) {
+        this(blacklistedTokenRepository, jdbcTemplate, transactionManager, capacidadInicial, TABLA);
+    }
+
+    // Los tests migran una tabla propia para no tocar la de la aplicación
+    RevocacionTokenService(BlacklistedTokenRepository blacklistedTokenRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            int capacidadInicial,
+            String tabla) {
+        this.blacklistedTokenRepository = blacklistedTokenRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.capacidadInicial = capacidadInicial;
+        this.tabla = tabla;
+        this.filtro = new FiltroBloom(capacidadInicial, TASA_FALSOS_POSITIVOS);
+    }
+
+    @PostConstruct
+    void inicializar() {
+        migrarTokensPlanos();
+        sincronizar();
+        log.info("Índice de tokens revocados cargado: {} tokens", revocados.size());
+    }
+
+    /*
+     * =============================
+     * CONSULTA Y REVOCACIÓN
+     * =============================
+     */
+
+    public boolean estaRevocado(String token) {
+        byte[] huella = huella(token);
+        if (!filtro.podriaContener(huella)) {
+            return false;
+        }
+        return revocados.containsKey(HexFormat.of().formatHex(huella));
+    }
+
+    /**
+     * Registra el token como revocado hasta su expiración. Revocar dos veces
+     * el mismo token no hace nada.
+     */
+    public void revocar(String token, LocalDateTime expiracion) {
+        byte[] huella = huella(token);
+        String hex = HexFormat.of().formatHex(huella);
+        if (revocados.containsKey(hex) || blacklistedTokenRepository.existsByTokenDigest(hex)) {
+            indexar(hex, huella, expiracion);
+            return;
+        }
+
+        blacklistedTokenRepository.save(BlacklistedToken.builder()
+                .tokenDigest(hex)
+                .expirationDate(expiracion)
+                .createdAt(LocalDateTime.now())
+                .build());
+        indexar(hex, huella, expiracion);
+    }
+
+    /*
+     * =============================
+     * MANTENIMIENTO PROGRAMADO
+     * =============================
+     */
+
+    /**
+     * Incorpora las revocaciones registradas desde la última sincronización
+     * (la primera vez, todas las vigentes).
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocacion.sincronizacion-ms:30000}",
+            initialDelayString = "${app.jwt.revocacion.sincronizacion-ms:30000}")
+    public void sincronizar() {
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime desde = ultimaSincronizacion;
+        List<BlacklistedToken> nuevos = desde == LocalDateTime.MIN
+                ? blacklistedTokenRepository.findByExpirationDateAfter(ahora)
+                : blacklistedTokenRepository.findByCreatedAtAfterAndExpirationDateAfter(
+                        desde.minusSeconds(MARGEN_SINCRONIZACION_SEG), ahora);
+
+        for (BlacklistedToken b : nuevos) {
+            indexar(b.getTokenDigest(), HexFormat.of().parseHex(b.getTokenDigest()), b.getExpirationDate());
+        }
+        ultimaSincronizacion = ahora;
+    }
+
+    /**
+     * Elimina de la tabla y del índice los tokens ya expirados.
+     */
+    @Scheduled(cron = "${app.jwt.revocacion.purga-cron:0 0 * * * *}")
+    public void purgar() {
+        LocalDateTime ahora = LocalDateTime.now();
+        int eliminados = blacklistedTokenRepository.eliminarExpirados(ahora);
+        revocados.values().removeIf(expira -> expira.isBefore(ahora));
+        reconstruirFiltro();
+        if (eliminados > 0) {
+            log.info("Purgados {} tokens revocados ya expirados", eliminados);
+        }
+    }
+
+    private synchronized void indexar(String hex, byte[] huella, LocalDateTime expiracion) {
+        if (revocados.put(hex, expiracion) != null) {
+            return;
+        }
+        if (revocados.size() > filtro.capacidad()) {
+            reconstruirFiltro();
+        } else {
+            filtro.agregar(huella);
+        }
+    }
+
+    /**
+     * Crea un filtro nuevo con las huellas actuales (el de Bloom no admite
+     * borrados) y con espacio para que siga creciendo.
+     */
+    private synchronized void reconstruirFiltro() {
+        FiltroBloom nuevo = new FiltroBloom(Math.max(capacidadInicial, revocados.size() * 2), TASA_FALSOS_POSITIVOS);
+        revocados.keySet().forEach(hex -> nuevo.agregar(HexFormat.of().parseHex(hex)));
+        filtro = nuevo;
+    }
+
+    /*
+     * =============================
+     * MIGRACIÓN
+     * =============================
+     */
+
+    /**
+     * Las versiones anteriores guardaban el JWT completo en la columna
+     * {@code token}. Se sustituye por su huella (una sola vez).
+     */
+    void migrarTokensPlanos() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Boolean columnaPlana = jdbcTemplate.queryForObject("""
+                        SELECT EXISTS (SELECT 1 FROM information_schema.columns
+                                       WHERE table_name = ? AND column_name = 'token')
+                        """, Boolean.class, tabla);
+                if (!Boolean.TRUE.equals(columnaPlana)) {
+                    return;
+                }
+                jdbcTemplate.execute("ALTER TABLE " + tabla + " ADD COLUMN IF NOT EXISTS token_digest VARCHAR(64)");
+                int migrados = jdbcTemplate.update("UPDATE " + tabla
+                        + " SET token_digest = encode(sha256(convert_to(token, 'UTF8')), 'hex')"
+                        + " WHERE token_digest IS NULL");
+                jdbcTemplate.execute("ALTER TABLE " + tabla + " DROP COLUMN token");
+                jdbcTemplate.execute("ALTER TABLE " + tabla + " ALTER COLUMN token_digest SET NOT NULL");
+                jdbcTemplate.execute("""
+                        DO $$ BEGIN
+                            IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                                           WHERE conname = 'uk_%1$s_token_digest') THEN
+                                ALTER TABLE %1$s
+                                    ADD CONSTRAINT uk_%1$s_token_digest UNIQUE (token_digest);
+                            END IF;
+                        END $$
+                        """.formatted(tabla));
+                jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + tabla + "_expiration_date ON "
+                        + tabla + " (expiration_date)");
+                log.info("{}: {} tokens sustituidos por su huella SHA-256", tabla, migrados);
+            });
+        } catch (Exception e) {
+            log.error("No se pudo migrar {} a huellas: {}", tabla, e.getMessage(), e);
+        }
+    }
+
+    private static byte[] huella(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
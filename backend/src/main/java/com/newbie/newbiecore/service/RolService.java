@@ -11,9 +11,11 @@ import java.util.Optional;
 public class RolService {
 
     private final RolRepository rolRepository;
+    private final CustomUserDetailsService userDetailsService;
 
-    public RolService(RolRepository rolRepository) {
+    public RolService(RolRepository rolRepository, CustomUserDetailsService userDetailsService) {
         this.rolRepository = rolRepository;
+        this.userDetailsService = userDetailsService;
     }
 
     // Crear
@@ -41,7 +43,10 @@ public class RolService {
         return rolRepository.findById(id).map(rol -> {
             rol.setNombre(rolActualizado.getNombre());
             rol.setDescripcion(rolActualizado.getDescripcion());
-            return rolRepository.save(rol);
+            Rol guardado = rolRepository.save(rol);
+            // El nombre del rol es la autoridad de los usuarios en caché
+            userDetailsService.invalidarTodos();
+            return guardado;
         });
     }
 
@@ -49,6 +54,7 @@ public class RolService {
     public boolean eliminarRol(Long id) {
         return rolRepository.findById(id).map(rol -> {
             rolRepository.delete(rol);
+            userDetailsService.invalidarTodos();
             return true;
         }).orElse(false);
     }
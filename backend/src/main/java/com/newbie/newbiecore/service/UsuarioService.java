@@ -3,6 +3,8 @@ package com.newbie.newbiecore.service;
 import com.newbie.newbiecore.dto.UsuarioDto;
 import com.newbie.newbiecore.entity.Usuario;
 import com.newbie.newbiecore.repository.UsuarioRepository;
+import com.newbie.newbiecore.audit.Auditar;
+import com.newbie.newbiecore.audit.TipoAccion;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -15,10 +17,13 @@ import java.util.Optional;
 public class UsuarioService {
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CustomUserDetailsService userDetailsService;
 
-    public UsuarioService(UsuarioRepository usuarioRepository, PasswordEncoder passwordEncoder) {
+    public UsuarioService(UsuarioRepository usuarioRepository, PasswordEncoder passwordEncoder,
+            CustomUserDetailsService userDetailsService) {
         this.usuarioRepository = usuarioRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userDetailsService = userDetailsService;
     }
 
     public List<Usuario> listarTodos() {
@@ -42,8 +47,11 @@ public class UsuarioService {
         return usuarioRepository.findById(cedula);
     }
 
+    @Auditar(accion = TipoAccion.USUARIO_MODIFICADO, entidad = "Usuario", clave = "cedula", detalle = "Usuario modificado")
     public Optional<UsuarioDto> actualizarUsuario(String cedula, Usuario datosActualizados) {
         return usuarioRepository.findById(cedula).map(usuario -> {
+            String correoAnterior = usuario.getCorreo();
+
             // campos que SÍ quieres actualizar
             usuario.setNombre(datosActualizados.getNombre());
             usuario.setCorreo(datosActualizados.getCorreo());
@@ -60,6 +68,9 @@ public class UsuarioService {
             // si viene null o vacío → se deja la que ya estaba
 
             Usuario guardado = usuarioRepository.save(usuario);
+            // correo, contraseña o rol pueden haber cambiado
+            userDetailsService.invalidar(correoAnterior);
+            userDetailsService.invalidar(guardado.getCorreo());
             return convertirADto(guardado); // el que te pasé antes
         });
     }
@@ -72,6 +83,7 @@ public class UsuarioService {
                 Usuario usuario = usuarioOpt.get();
                 usuario.setEstado(false);
                 usuarioRepository.save(usuario);
+                userDetailsService.invalidar(usuario.getCorreo());
                 return ResponseEntity.ok("Usuario desactivado");
             } else {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Usuario no encontrado");
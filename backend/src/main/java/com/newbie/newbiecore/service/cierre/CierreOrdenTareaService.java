@@ -0,0 +1,155 @@
+package com.newbie.newbiecore.service.cierre;
+
+import com.newbie.newbiecore.dto.OrdenTrabajo.CierreEtapaDto;
+import com.newbie.newbiecore.entity.CierreOrdenTarea;
+import com.newbie.newbiecore.entity.EstadoTareaCierre;
+import com.newbie.newbiecore.entity.EtapaCierre;
+import com.newbie.newbiecore.repository.CierreOrdenTareaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Cola persistente (outbox) de las etapas del cierre de órdenes.
+ */
+@Slf4j
+@Service
+public class CierreOrdenTareaService {
+
+    private static final int LARGO_MAXIMO_ERROR = 1000;
+
+    private final CierreOrdenTareaRepository repository;
+    private final int maxIntentos;
+    private final Duration esperaBase;
+    private final Duration lease;
+
+    public CierreOrdenTareaService(CierreOrdenTareaRepository repository,
+            @Value("${app.cierre.max-intentos:5}") int maxIntentos,
+            @Value("${app.cierre.espera-base-segundos:30}") long esperaBaseSegundos,
+            @Value("${app.cierre.lease-minutos:10}") long leaseMinutos) {
+        this.repository = repository;
+        this.maxIntentos = maxIntentos;
+        this.esperaBase = Duration.ofSeconds(esperaBaseSegundos);
+        this.lease = Duration.ofMinutes(leaseMinutos);
+    }
+
+    /**
+     * Encola todas las etapas del cierre. Debe llamarse dentro de la transacción
+     * que cierra la orden para que ambas cosas se confirmen juntas.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void encolar(Long ordenId) {
+        Instant ahora = Instant.now();
+        for (EtapaCierre etapa : EtapaCierre.values()) {
+            repository.save(CierreOrdenTarea.builder()
+                    .ordenTrabajoId(ordenId)
+                    .etapa(etapa)
+                    .secuencia(etapa.getSecuencia())
+                    .estado(EstadoTareaCierre.PENDIENTE)
+                    .intentos(0)
+                    .proximoIntento(ahora)
+                    .fechaActualizacion(ahora)
+                    .build());
+        }
+    }
+
+    /**
+     * Toma hasta {@code limite} tareas ejecutables y las marca EN_PROCESO.
+     * Usa su propia transacción porque también se invoca después del commit
+     * del cierre, cuando la transacción original ya terminó.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<CierreOrdenTarea> reclamar(int limite) {
+        Instant ahora = Instant.now();
+        List<CierreOrdenTarea> tareas = repository.bloquearEjecutables(ahora, ahora.minus(lease), limite);
+        for (CierreOrdenTarea tarea : tareas) {
+            tarea.setEstado(EstadoTareaCierre.EN_PROCESO);
+            tarea.setIntentos(tarea.getIntentos() + 1);
+            tarea.setFechaActualizacion(ahora);
+        }
+        return tareas;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void marcarCompletada(Long tareaId) {
+        repository.findById(tareaId).ifPresent(tarea -> {
+            tarea.setEstado(EstadoTareaCierre.COMPLETADA);
+            tarea.setUltimoError(null);
+            tarea.setFechaActualizacion(Instant.now());
+        });
+    }
+
+    /**
+     * Registra el fallo de una tarea: vuelve a PENDIENTE con espera exponencial,
+     * o queda FALLIDA si ya agotó los intentos. En ese caso las etapas
+     * siguientes de la orden también quedan FALLIDA, para que el estado del
+     * cierre muestre que no se ejecutarán.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void registrarFallo(Long tareaId, Exception error) {
+        repository.findById(tareaId).ifPresent(tarea -> {
+            Instant ahora = Instant.now();
+            tarea.setUltimoError(truncar(error.getMessage() != null ? error.getMessage() : error.toString()));
+            tarea.setFechaActualizacion(ahora);
+
+            if (tarea.getIntentos() >= maxIntentos) {
+                tarea.setEstado(EstadoTareaCierre.FALLIDA);
+                log.error("Etapa {} de la orden {} falló definitivamente tras {} intentos",
+                        tarea.getEtapa(), tarea.getOrdenTrabajoId(), tarea.getIntentos(), error);
+                cancelarSiguientes(tarea, ahora);
+            } else {
+                tarea.setEstado(EstadoTareaCierre.PENDIENTE);
+                tarea.setProximoIntento(ahora.plus(esperaBase.multipliedBy(1L << (tarea.getIntentos() - 1))));
+                log.warn("Etapa {} de la orden {} falló (intento {}): {}",
+                        tarea.getEtapa(), tarea.getOrdenTrabajoId(), tarea.getIntentos(), error.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Devuelve una tarea recién reclamada a la cola sin contar el intento
+     * (el pool estaba lleno).
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void liberar(Long tareaId) {
+        repository.findById(tareaId).ifPresent(tarea -> {
+            tarea.setEstado(EstadoTareaCierre.PENDIENTE);
+            tarea.setIntentos(Math.max(0, tarea.getIntentos() - 1));
+            tarea.setFechaActualizacion(Instant.now());
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public List<CierreEtapaDto> obtenerEstado(Long ordenId) {
+        return repository.findByOrdenTrabajoIdOrderBySecuenciaAscIdAsc(ordenId)
+                .stream()
+                .map(t -> new CierreEtapaDto(
+                        t.getEtapa(),
+                        t.getEstado(),
+                        t.getIntentos(),
+                        t.getUltimoError(),
+                        t.getProximoIntento(),
+                        t.getFechaActualizacion()))
+                .toList();
+    }
+
+    private void cancelarSiguientes(CierreOrdenTarea fallida, Instant ahora) {
+        List<CierreOrdenTarea> siguientes = repository.findByOrdenTrabajoIdAndSecuenciaGreaterThanAndEstado(
+                fallida.getOrdenTrabajoId(), fallida.getSecuencia(), EstadoTareaCierre.PENDIENTE);
+        for (CierreOrdenTarea tarea : siguientes) {
+            tarea.setEstado(EstadoTareaCierre.FALLIDA);
+            tarea.setUltimoError("No se ejecutó: falló la etapa " + fallida.getEtapa());
+            tarea.setFechaActualizacion(ahora);
+        }
+    }
+
+    private static String truncar(String mensaje) {
+        return mensaje.length() <= LARGO_MAXIMO_ERROR ? mensaje : mensaje.substring(0, LARGO_MAXIMO_ERROR);
+    }
+}
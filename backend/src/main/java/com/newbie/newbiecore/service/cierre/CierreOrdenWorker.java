@@ -0,0 +1,85 @@
+package com.newbie.newbiecore.service.cierre;
+
+import com.newbie.newbiecore.entity.CierreOrdenTarea;
+import com.newbie.newbiecore.service.OrdenTrabajoService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Ejecuta en segundo plano las etapas del cierre de órdenes encoladas en
+ * {@code cierre_orden_tareas}. Revisa la cola periódicamente y además
+ * inmediatamente después de cada cierre confirmado.
+ */
+@Slf4j
+@Component
+public class CierreOrdenWorker {
+
+    private final CierreOrdenTareaService tareaService;
+    private final OrdenTrabajoService ordenTrabajoService;
+    private final ThreadPoolTaskExecutor executor;
+
+    public CierreOrdenWorker(CierreOrdenTareaService tareaService,
+            OrdenTrabajoService ordenTrabajoService,
+            @Qualifier("cierreOrdenExecutor") ThreadPoolTaskExecutor executor) {
+        this.tareaService = tareaService;
+        this.ordenTrabajoService = ordenTrabajoService;
+        this.executor = executor;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrdenCerrada(OrdenCerradaEvent event) {
+        procesarPendientes();
+    }
+
+    @Scheduled(fixedDelayString = "${app.cierre.intervalo-ms:5000}")
+    public synchronized void procesarPendientes() {
+        // Solo se reclaman tantas tareas como hilos/cola libres haya
+        int libres = executor.getMaxPoolSize() + executor.getQueueCapacity()
+                - executor.getActiveCount() - executor.getQueueSize();
+        if (libres <= 0) {
+            return;
+        }
+
+        List<CierreOrdenTarea> tareas;
+        try {
+            tareas = tareaService.reclamar(libres);
+        } catch (Exception e) {
+            log.warn("No se pudo consultar la cola de cierre de órdenes: {}", e.getMessage());
+            return;
+        }
+
+        for (CierreOrdenTarea tarea : tareas) {
+            try {
+                executor.execute(() -> ejecutar(tarea));
+            } catch (TaskRejectedException e) {
+                tareaService.liberar(tarea.getId());
+            }
+        }
+    }
+
+    private void ejecutar(CierreOrdenTarea tarea) {
+        Long ordenId = tarea.getOrdenTrabajoId();
+        try {
+            switch (tarea.getEtapa()) {
+                case PDF_ORDEN -> ordenTrabajoService.generarPdfResumenCierre(ordenId);
+                case PDF_FICHAS -> ordenTrabajoService.generarPdfsFichasCierre(ordenId);
+                case CORREO -> ordenTrabajoService.enviarDocumentosCierre(ordenId);
+            }
+            tareaService.marcarCompletada(tarea.getId());
+            log.info("Etapa {} de la orden {} completada", tarea.getEtapa(), ordenId);
+        } catch (Exception e) {
+            tareaService.registrarFallo(tarea.getId(), e);
+            return;
+        }
+        // La siguiente etapa de la orden ya puede ejecutarse
+        procesarPendientes();
+    }
+}
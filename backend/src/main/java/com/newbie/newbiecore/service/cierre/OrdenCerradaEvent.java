@@ -0,0 +1,6 @@
+package com.newbie.newbiecore.service.cierre;
+
+/**
+ * Se publica cuando una orden pasa a CERRADA y sus tareas de cierre quedaron encoladas.
+ */
+public record OrdenCerradaEvent(Long ordenId) {}
@@ -1,69 +1,137 @@
 package com.newbie.newbiecore.service.documentos;
 
-import com.newbie.newbiecore.controller.PdfController;
 import com.newbie.newbiecore.dto.FichaTecnica.FichaTecnicaDTO;
 import com.newbie.newbiecore.dto.FichaTecnica.FichaTecnicaMapper;
 import com.newbie.newbiecore.dto.FichaTecnica.FichaTecnicaPdfLikeMergeUtil;
 import com.newbie.newbiecore.entity.FichaTecnica;
+import com.newbie.newbiecore.entity.OrdenTrabajo;
 import com.newbie.newbiecore.repository.FichaTecnicaRepository;
-import org.springframework.http.ResponseEntity;
+import com.newbie.newbiecore.repository.OrdenTrabajoRepository;
+import com.newbie.newbiecore.service.FichaTecnicaPdfService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * PDFs de todas las fichas técnicas de una orden (etapa PDF_FICHAS del
+ * cierre).
+ *
+ * <ul>
+ * <li>Las fichas se procesan en paralelo en {@code pdfLoteExecutor}
+ * ({@code app.pdf.lote.hilos}); el renderizado en sí sigue pasando por
+ * {@code pdfExecutor}.</li>
+ * <li>Cada PDF se escribe de forma atómica y se reutiliza si la ficha no
+ * cambió, así que reintentar el lote solo regenera las fichas que fallaron.</li>
+ * <li>El fallo de una ficha no detiene las demás: se devuelve el resultado de
+ * cada una.</li>
+ * </ul>
+ */
+@Slf4j
 @Service
 public class FichasTecnicasMasivasService {
 
+    /**
+     * Resultado de una ficha del lote: el archivo generado o el error.
+     */
+    public record Resultado(Long fichaId, Path archivo, String error) {
+        public boolean generado() {
+            return error == null;
+        }
+    }
+
     private final FichaTecnicaRepository fichaTecnicaRepository;
-    private final PdfController pdfController;
+    private final OrdenTrabajoRepository ordenTrabajoRepository;
+    private final FichaTecnicaPdfService fichaTecnicaPdfService;
+    private final ThreadPoolTaskExecutor executor;
 
     public FichasTecnicasMasivasService(
             FichaTecnicaRepository fichaTecnicaRepository,
-            PdfController pdfController
+            OrdenTrabajoRepository ordenTrabajoRepository,
+            FichaTecnicaPdfService fichaTecnicaPdfService,
+            @Qualifier("pdfLoteExecutor") ThreadPoolTaskExecutor executor
     ) {
         this.fichaTecnicaRepository = fichaTecnicaRepository;
-        this.pdfController = pdfController;
+        this.ordenTrabajoRepository = ordenTrabajoRepository;
+        this.fichaTecnicaPdfService = fichaTecnicaPdfService;
+        this.executor = executor;
     }
 
-    public void generarPdfsPorOrdenTrabajo(Long ordenTrabajoId) {
+    /**
+     * Genera (o reutiliza) el PDF de cada ficha de la orden en su carpeta de
+     * documentos.
+     *
+     * @return un resultado por ficha; vacío si la orden no tiene fichas
+     */
+    public List<Resultado> generarPdfsPorOrdenTrabajo(Long ordenTrabajoId) {
 
         List<FichaTecnica> fichas =
                 fichaTecnicaRepository.findByOrdenTrabajoId(ordenTrabajoId);
 
         if (fichas.isEmpty()) {
-            throw new RuntimeException(
-                    "La OT no tiene fichas técnicas asociadas"
-            );
+            return List.of();
         }
 
-        for (FichaTecnica ficha : fichas) {
+        String numeroOrden = ordenTrabajoRepository.findById(ordenTrabajoId)
+                .map(OrdenTrabajo::getNumeroOrden)
+                .orElseThrow(() -> new IllegalArgumentException("Orden de trabajo no encontrada"));
 
-            // 1️⃣ DTO COMPLETO desde BD / XML
-            FichaTecnicaDTO dtoBase =
-                    FichaTecnicaMapper.toDTO(ficha);
+        // Los DTOs se arman aquí: las entidades no se tocan desde otros hilos
+        List<CompletableFuture<Resultado>> pendientes = fichas.stream()
+                .map(FichasTecnicasMasivasService::dtoParaPdf)
+                .map(dto -> CompletableFuture.supplyAsync(() -> generar(dto, numeroOrden), executor))
+                .toList();
 
-            // 2️⃣ DTO del flujo
-            FichaTecnicaDTO dtoFlujo = new FichaTecnicaDTO();
+        List<Resultado> resultados = pendientes.stream()
+                .map(CompletableFuture::join)
+                .toList();
 
-            dtoFlujo.setId(ficha.getId());
-            dtoFlujo.setEquipoId(ficha.getEquipoId());
-            dtoFlujo.setObservaciones(ficha.getObservaciones());
+        long fallidas = resultados.stream().filter(r -> !r.generado()).count();
+        if (fallidas > 0) {
+            log.warn("Orden {}: {} de {} PDFs de fichas técnicas fallaron", numeroOrden, fallidas, resultados.size());
+        } else {
+            log.info("Orden {}: {} PDFs de fichas técnicas generados", numeroOrden, resultados.size());
+        }
+        return resultados;
+    }
 
-            if (ficha.getOrdenTrabajo() != null) {
-                dtoFlujo.setOrdenTrabajoId(
-                        ficha.getOrdenTrabajo().getId()
-                );
-            }
+    private Resultado generar(FichaTecnicaDTO ficha, String numeroOrden) {
+        try {
+            return new Resultado(ficha.getId(), fichaTecnicaPdfService.guardarPdf(ficha, numeroOrden), null);
+        } catch (Exception e) {
+            log.warn("No se pudo generar el PDF de la ficha {}: {}", ficha.getId(), e.getMessage());
+            return new Resultado(ficha.getId(), null,
+                    e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    private static FichaTecnicaDTO dtoParaPdf(FichaTecnica ficha) {
+
+        // 1️⃣ DTO COMPLETO desde BD / XML
+        FichaTecnicaDTO dtoBase =
+                FichaTecnicaMapper.toDTO(ficha);
 
-            // 3️⃣ MERGE (misma lógica del PdfController)
-            FichaTecnicaDTO dtoFinal =
-                    FichaTecnicaPdfLikeMergeUtil.mergeLikePdf(
-                            dtoBase,
-                            dtoFlujo
-                    );
+        // 2️⃣ DTO del flujo
+        FichaTecnicaDTO dtoFlujo = new FichaTecnicaDTO();
 
-            // 4️⃣ PDF (una sola vez)
-            pdfController.generarPdfFicha(dtoFinal);
+        dtoFlujo.setId(ficha.getId());
+        dtoFlujo.setEquipoId(ficha.getEquipoId());
+        dtoFlujo.setObservaciones(ficha.getObservaciones());
+
+        if (ficha.getOrdenTrabajo() != null) {
+            dtoFlujo.setOrdenTrabajoId(
+                    ficha.getOrdenTrabajo().getId()
+            );
         }
+
+        // 3️⃣ MERGE (misma lógica del PdfController)
+        return FichaTecnicaPdfLikeMergeUtil.mergeLikePdf(
+                dtoBase,
+                dtoFlujo
+        );
     }
 }
@@ -0,0 +1,172 @@
+package com.newbie.newbiecore.service.hardware;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.newbie.newbiecore.entity.Equipo;
+import com.newbie.newbiecore.repository.EquipoRepository;
+import com.newbie.newbiecore.util.CacheConExpiracion;
+import com.newbie.newbiecore.util.FichaTecnicaAutoFillHelper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Caché por equipo de los datos ya convertidos para el autorrelleno de fichas
+ * ({@link FichaTecnicaAutoFillHelper.Snapshot}).
+ *
+ * <ul>
+ * <li>Cada entrada guarda el hash de las columnas del equipo que usa el
+ * autorrelleno y de su {@code hardware_json}. PostgreSQL lo calcula al
+ * escribir la fila (columna generada {@code equipos.autorrelleno_hash}), así
+ * que antes de usar una entrada solo se lee esa columna: si coincide no se
+ * carga el equipo ni se lee el JSON; si cambió, se vuelve a extraer.</li>
+ * <li>{@code EquipoService} y {@code ImportacionHardwareService} la invalidan
+ * al guardar un informe nuevo. Aunque una entrada quedara sin invalidar, el
+ * hash evita usar datos viejos.</li>
+ * <li>Métricas: {@code equipos.snapshot.aciertos},
+ * {@code equipos.snapshot.fallos}, {@code equipos.snapshot.invalidaciones} y
+ * {@code equipos.snapshot.tamano}.</li>
+ * </ul>
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class EquipoSnapshotCache {
+
+    private static final String HASHES = "SELECT id_equipo, autorrelleno_hash FROM equipos WHERE id_equipo = ANY (?)";
+
+    private record Entrada(String hash, FichaTecnicaAutoFillHelper.Snapshot snapshot) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EquipoRepository equipoRepository;
+    private final CacheConExpiracion<Long, Entrada> cache;
+    private final long ttlMs;
+
+    private final Counter aciertos;
+    private final Counter fallos;
+    private final Counter invalidaciones;
+
+    public EquipoSnapshotCache(JdbcTemplate jdbcTemplate,
+            EquipoRepository equipoRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.equipos.snapshot.ttl-ms:1800000}") long ttlMs,
+            @Value("${app.equipos.snapshot.maximo:500}") int maximo) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.equipoRepository = equipoRepository;
+        this.cache = new CacheConExpiracion<>(maximo);
+        this.ttlMs = ttlMs;
+
+        this.aciertos = meterRegistry.counter("equipos.snapshot.aciertos");
+        this.fallos = meterRegistry.counter("equipos.snapshot.fallos");
+        this.invalidaciones = meterRegistry.counter("equipos.snapshot.invalidaciones");
+        Gauge.builder("equipos.snapshot.tamano", cache, CacheConExpiracion::tamano).register(meterRegistry);
+    }
+
+    /**
+     * Columna generada con el hash. chr(30) marca los null y chr(31) separa
+     * los valores, para que datos distintos no den el mismo texto.
+     */
+    @PostConstruct
+    void crearColumnaHash() {
+        jdbcTemplate.execute("""
+                ALTER TABLE equipos ADD COLUMN IF NOT EXISTS autorrelleno_hash char(32)
+                GENERATED ALWAYS AS (md5(
+                    coalesce(marca, chr(30)) || chr(31) ||
+                    coalesce(modelo, chr(30)) || chr(31) ||
+                    coalesce(numero_serie, chr(30)) || chr(31) ||
+                    coalesce(hostname, chr(30)) || chr(31) ||
+                    coalesce(tipo_equipo, chr(30)) || chr(31) ||
+                    coalesce(sistema_operativo, chr(30)) || chr(31) ||
+                    coalesce(hardware_json::text, chr(30))
+                )) STORED
+                """);
+    }
+
+    /*
+     * =============================
+     * CONSULTA
+     * =============================
+     */
+
+    /** Snapshot del equipo, o vacío si el equipo no existe. */
+    public Optional<FichaTecnicaAutoFillHelper.Snapshot> obtener(Long equipoId) {
+        return Optional.ofNullable(obtener(List.of(equipoId)).get(equipoId));
+    }
+
+    /**
+     * Snapshots de varios equipos: una consulta de hashes y, para los que no
+     * están en caché o cambiaron, una carga de esos equipos. Los ids
+     * inexistentes no aparecen en el mapa.
+     */
+    public Map<Long, FichaTecnicaAutoFillHelper.Snapshot> obtener(Collection<Long> equipoIds) {
+        Map<Long, FichaTecnicaAutoFillHelper.Snapshot> resultado = new HashMap<>();
+        if (equipoIds.isEmpty()) {
+            return resultado;
+        }
+
+        Long[] ids = equipoIds.toArray(Long[]::new);
+        Map<Long, String> hashes = new HashMap<>();
+        jdbcTemplate.query(HASHES,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)),
+                rs -> {
+                    hashes.put(rs.getLong("id_equipo"), rs.getString("autorrelleno_hash"));
+                });
+
+        for (Map.Entry<Long, String> e : hashes.entrySet()) {
+            Entrada entrada = cache.obtener(e.getKey());
+            if (entrada != null && entrada.hash().equals(e.getValue())) {
+                aciertos.increment();
+                resultado.put(e.getKey(), entrada.snapshot());
+            }
+        }
+
+        List<Long> pendientes = hashes.keySet().stream()
+                .filter(id -> !resultado.containsKey(id))
+                .toList();
+        if (pendientes.isEmpty()) {
+            return resultado;
+        }
+        fallos.increment(pendientes.size());
+
+        for (Equipo equipo : equipoRepository.findAllById(pendientes)) {
+            FichaTecnicaAutoFillHelper.Snapshot snapshot = FichaTecnicaAutoFillHelper.extraer(equipo);
+            // Si el equipo cambió entre las dos consultas, el hash guardado no
+            // coincidirá la próxima vez y se volverá a extraer
+            if (ttlMs > 0) {
+                cache.guardar(equipo.getIdEquipo(), new Entrada(hashes.get(equipo.getIdEquipo()), snapshot),
+                        System.currentTimeMillis() + ttlMs);
+            }
+            resultado.put(equipo.getIdEquipo(), snapshot);
+        }
+        return resultado;
+    }
+
+    /*
+     * =============================
+     * INVALIDACIÓN
+     * =============================
+     */
+
+    /** Descarta el snapshot de un equipo. Llamar después de guardar el informe. */
+    public void invalidar(Long equipoId) {
+        if (equipoId != null) {
+            cache.invalidar(equipoId);
+            invalidaciones.increment();
+        }
+    }
+
+    public void invalidar(Collection<Long> equipoIds) {
+        equipoIds.forEach(this::invalidar);
+    }
+}
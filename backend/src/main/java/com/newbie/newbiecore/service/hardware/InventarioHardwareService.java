@@ -0,0 +1,515 @@
+package com.newbie.newbiecore.service.hardware;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newbie.newbiecore.dto.hardware.EquipoHardwareDto;
+import com.newbie.newbiecore.dto.hardware.EquipoHardwareFiltro;
+import com.newbie.newbiecore.dto.hardware.EquipoHardwarePaginaDto;
+import com.newbie.newbiecore.dto.hardware.InventarioHardwareDto;
+import com.newbie.newbiecore.util.InventarioHardwareHelper;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Inventario de hardware consultable en SQL.
+ *
+ * <ul>
+ * <li>{@code equipo_hardware} (una fila por equipo) y sus tablas de discos y
+ * GPUs se rellenan cada vez que se guarda un informe HWiNFO, en la misma
+ * transacción que {@code equipos.hardware_json}.</li>
+ * <li>La búsqueda filtra, ordena y pagina por cursor en la base de datos, con
+ * índices de expresión para cada orden, trigramas para las búsquedas por
+ * contenido (si {@code pg_trgm} está disponible) y un GIN sobre
+ * {@code hardware_json} para buscar entradas exactas del informe.</li>
+ * <li>Al arrancar se indexan los equipos que ya tenían hardwareJson.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+@DependsOn("entityManagerFactory")
+public class InventarioHardwareService {
+
+    private static final int LIMITE_POR_DEFECTO = 50;
+    private static final int LIMITE_MAXIMO = 200;
+    private static final int LOTE_INDEXADO = 500;
+
+    private static final String GUARDAR = """
+            INSERT INTO equipo_hardware (id_equipo, cpu_nombre, cpu_nucleos, cpu_hilos, ram_mb,
+                placa_fabricante, placa_modelo, bios_fabricante, bios_version, bios_fecha,
+                almacenamiento_mb, actualizado_en)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (id_equipo) DO UPDATE SET
+                cpu_nombre = EXCLUDED.cpu_nombre,
+                cpu_nucleos = EXCLUDED.cpu_nucleos,
+                cpu_hilos = EXCLUDED.cpu_hilos,
+                ram_mb = EXCLUDED.ram_mb,
+                placa_fabricante = EXCLUDED.placa_fabricante,
+                placa_modelo = EXCLUDED.placa_modelo,
+                bios_fabricante = EXCLUDED.bios_fabricante,
+                bios_version = EXCLUDED.bios_version,
+                bios_fecha = EXCLUDED.bios_fecha,
+                almacenamiento_mb = EXCLUDED.almacenamiento_mb,
+                actualizado_en = EXCLUDED.actualizado_en
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper mapper;
+
+    public InventarioHardwareService(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper mapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.mapper = mapper;
+    }
+
+    @PostConstruct
+    void inicializar() {
+        crearTablas();
+        indexarExistentes();
+    }
+
+    /*
+     * =============================
+     * ESCRITURA
+     * =============================
+     */
+
+    @Transactional
+    public void guardar(Long idEquipo, InventarioHardwareDto inventario) {
+        guardar(Map.of(idEquipo, inventario));
+    }
+
+    /**
+     * Sustituye el inventario de los equipos indicados, con sentencias por
+     * lotes. Se une a la transacción en curso si la hay.
+     */
+    @Transactional
+    public void guardar(Map<Long, InventarioHardwareDto> inventarios) {
+        if (inventarios.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, InventarioHardwareDto>> filas = new ArrayList<>(inventarios.entrySet());
+        filas.sort(Map.Entry.comparingByKey());
+        Timestamp ahora = Timestamp.from(Instant.now());
+
+        jdbcTemplate.batchUpdate(GUARDAR, filas, filas.size(), (ps, f) -> {
+            InventarioHardwareDto h = f.getValue();
+            ps.setLong(1, f.getKey());
+            ps.setString(2, h.cpuNombre());
+            ps.setObject(3, h.cpuNucleos());
+            ps.setObject(4, h.cpuHilos());
+            ps.setObject(5, h.ramMb());
+            ps.setString(6, h.placaFabricante());
+            ps.setString(7, h.placaModelo());
+            ps.setString(8, h.biosFabricante());
+            ps.setString(9, h.biosVersion());
+            ps.setString(10, h.biosFecha());
+            ps.setObject(11, h.almacenamientoMb());
+            ps.setTimestamp(12, ahora);
+        });
+
+        Long[] ids = filas.stream().map(Map.Entry::getKey).toArray(Long[]::new);
+        jdbcTemplate.update("DELETE FROM equipo_hardware_disco WHERE id_equipo = ANY (?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)));
+        jdbcTemplate.update("DELETE FROM equipo_hardware_gpu WHERE id_equipo = ANY (?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)));
+
+        List<Object[]> discos = new ArrayList<>();
+        List<Object[]> gpus = new ArrayList<>();
+        for (Map.Entry<Long, InventarioHardwareDto> f : filas) {
+            int posicion = 0;
+            for (InventarioHardwareDto.Disco d : f.getValue().discos()) {
+                discos.add(new Object[] { f.getKey(), posicion++, d.modelo(), d.tipo(), d.capacidadMb(), d.serie() });
+            }
+            posicion = 0;
+            for (InventarioHardwareDto.Gpu g : f.getValue().gpus()) {
+                gpus.add(new Object[] { f.getKey(), posicion++, g.nombre(), g.vramMb() });
+            }
+        }
+        if (!discos.isEmpty()) {
+            jdbcTemplate.batchUpdate("""
+                    INSERT INTO equipo_hardware_disco (id_equipo, posicion, modelo, tipo, capacidad_mb, serie)
+                    VALUES (?, ?, ?, ?, ?, ?)
+                    """, discos);
+        }
+        if (!gpus.isEmpty()) {
+            jdbcTemplate.batchUpdate("""
+                    INSERT INTO equipo_hardware_gpu (id_equipo, posicion, nombre, vram_mb)
+                    VALUES (?, ?, ?, ?)
+                    """, gpus);
+        }
+    }
+
+    /*
+     * =============================
+     * BÚSQUEDA
+     * =============================
+     */
+
+    /**
+     * Búsqueda paginada por cursor (keyset) sobre (clave de orden, id).
+     * Una consulta para la página más una para sus discos y GPUs.
+     */
+    @Transactional(readOnly = true)
+    public EquipoHardwarePaginaDto buscar(EquipoHardwareFiltro filtro, String cursor, Integer limite) {
+        int tamano = limite == null ? LIMITE_POR_DEFECTO : Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        EquipoHardwareFiltro.Orden orden = filtro.orden() != null ? filtro.orden() : EquipoHardwareFiltro.Orden.ACTUALIZADO;
+        String clave = claveOrden(orden);
+        String sentido = filtro.descendente() ? "DESC" : "ASC";
+
+        StringBuilder sql = new StringBuilder("""
+                SELECT h.*, e.hostname, e.numero_serie, e.marca, e.modelo, %s AS clave
+                FROM equipo_hardware h
+                JOIN equipos e ON e.id_equipo = h.id_equipo
+                WHERE TRUE
+                """.formatted(clave));
+        List<Object> parametros = new ArrayList<>();
+        agregarFiltros(filtro, sql, parametros);
+
+        if (cursor != null && !cursor.isBlank()) {
+            String[] partes = decodificarCursor(cursor);
+            sql.append(" AND (").append(clave).append(", h.id_equipo) ")
+                    .append(filtro.descendente() ? "<" : ">").append(" (?, ?)");
+            try {
+                parametros.add(valorCursor(orden, partes[1]));
+                parametros.add(Long.valueOf(partes[0]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor inválido", e);
+            }
+        }
+
+        // Se pide un registro extra para saber si existe una página siguiente
+        sql.append(" ORDER BY ").append(clave).append(' ').append(sentido)
+                .append(", h.id_equipo ").append(sentido)
+                .append(" LIMIT ").append(tamano + 1);
+
+        List<Fila> filas = jdbcTemplate.query(sql.toString(), (rs, i) -> mapearFila(rs), parametros.toArray());
+
+        String siguienteCursor = null;
+        if (filas.size() > tamano) {
+            filas = filas.subList(0, tamano);
+            Fila ultima = filas.get(tamano - 1);
+            siguienteCursor = codificarCursor(ultima.dto().idEquipo(), ultima.clave());
+        }
+        return new EquipoHardwarePaginaDto(completarDispositivos(filas), siguienteCursor);
+    }
+
+    // Cada expresión tiene su índice (id_equipo incluido) para ordenar y paginar sin ordenar en memoria
+    private static String claveOrden(EquipoHardwareFiltro.Orden orden) {
+        return switch (orden) {
+            case ACTUALIZADO -> "h.actualizado_en";
+            case CPU -> "COALESCE(lower(h.cpu_nombre), '')";
+            case RAM -> "COALESCE(h.ram_mb, -1)";
+            case ALMACENAMIENTO -> "COALESCE(h.almacenamiento_mb, -1)";
+            case BIOS -> "COALESCE(lower(h.bios_version), '')";
+        };
+    }
+
+    private static Object valorCursor(EquipoHardwareFiltro.Orden orden, String valor) {
+        return switch (orden) {
+            case ACTUALIZADO -> Timestamp.from(Instant.parse(valor));
+            case RAM, ALMACENAMIENTO -> Long.valueOf(valor);
+            case CPU, BIOS -> valor;
+        };
+    }
+
+    private static void agregarFiltros(EquipoHardwareFiltro f, StringBuilder sql, List<Object> p) {
+        if (f.cpu() != null) {
+            sql.append(" AND lower(h.cpu_nombre) LIKE ?");
+            p.add(contiene(f.cpu()));
+        }
+        if (f.nucleosMin() != null) {
+            sql.append(" AND h.cpu_nucleos >= ?");
+            p.add(f.nucleosMin());
+        }
+        if (f.ramMinMb() != null || f.ramMaxMb() != null) {
+            // Misma expresión que el orden por RAM, para usar su índice; -1 (sin dato) queda fuera
+            sql.append(" AND COALESCE(h.ram_mb, -1) BETWEEN ? AND ?");
+            p.add(f.ramMinMb() != null ? Math.max(0, f.ramMinMb()) : 0L);
+            p.add(f.ramMaxMb() != null ? f.ramMaxMb() : Long.MAX_VALUE);
+        }
+        if (f.placaModelo() != null) {
+            sql.append(" AND lower(h.placa_modelo) LIKE ?");
+            p.add(contiene(f.placaModelo()));
+        }
+        if (f.biosFabricante() != null) {
+            sql.append(" AND lower(h.bios_fabricante) LIKE ?");
+            p.add(contiene(f.biosFabricante()));
+        }
+        if (f.biosVersion() != null) {
+            sql.append(" AND COALESCE(lower(h.bios_version), '') = ?");
+            p.add(f.biosVersion().trim().toLowerCase(Locale.ROOT));
+        }
+        if (f.discoModelo() != null || f.discoTipo() != null || f.discoMinMb() != null) {
+            sql.append(" AND EXISTS (SELECT 1 FROM equipo_hardware_disco d WHERE d.id_equipo = h.id_equipo");
+            if (f.discoModelo() != null) {
+                sql.append(" AND lower(d.modelo) LIKE ?");
+                p.add(contiene(f.discoModelo()));
+            }
+            if (f.discoTipo() != null) {
+                sql.append(" AND lower(d.tipo) = ?");
+                p.add(f.discoTipo().trim().toLowerCase(Locale.ROOT));
+            }
+            if (f.discoMinMb() != null) {
+                sql.append(" AND d.capacidad_mb >= ?");
+                p.add(f.discoMinMb());
+            }
+            sql.append(')');
+        }
+        if (f.gpu() != null) {
+            sql.append(" AND EXISTS (SELECT 1 FROM equipo_hardware_gpu g"
+                    + " WHERE g.id_equipo = h.id_equipo AND lower(g.nombre) LIKE ?)");
+            p.add(contiene(f.gpu()));
+        }
+        if (f.entrada() != null && f.valor() != null) {
+            sql.append(" AND e.hardware_json @> jsonb_build_object(?::text, ?::text)");
+            p.add(f.entrada());
+            p.add(f.valor());
+        }
+    }
+
+    private static String contiene(String texto) {
+        String escapado = texto.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escapado + "%";
+    }
+
+    private record Fila(EquipoHardwareDto dto, String clave) {
+    }
+
+    private static Fila mapearFila(ResultSet rs) throws SQLException {
+        Object clave = rs.getObject("clave");
+        String claveTexto = clave instanceof Timestamp t ? t.toInstant().toString() : String.valueOf(clave);
+        InventarioHardwareDto hardware = new InventarioHardwareDto(
+                rs.getString("cpu_nombre"),
+                rs.getObject("cpu_nucleos", Integer.class),
+                rs.getObject("cpu_hilos", Integer.class),
+                rs.getObject("ram_mb", Long.class),
+                rs.getString("placa_fabricante"),
+                rs.getString("placa_modelo"),
+                rs.getString("bios_fabricante"),
+                rs.getString("bios_version"),
+                rs.getString("bios_fecha"),
+                rs.getObject("almacenamiento_mb", Long.class),
+                List.of(),
+                List.of());
+        EquipoHardwareDto dto = new EquipoHardwareDto(
+                rs.getLong("id_equipo"),
+                rs.getString("hostname"),
+                rs.getString("numero_serie"),
+                rs.getString("marca"),
+                rs.getString("modelo"),
+                hardware,
+                rs.getTimestamp("actualizado_en").toInstant());
+        return new Fila(dto, claveTexto);
+    }
+
+    private List<EquipoHardwareDto> completarDispositivos(List<Fila> filas) {
+        if (filas.isEmpty()) {
+            return List.of();
+        }
+        Long[] ids = filas.stream().map(f -> f.dto().idEquipo()).toArray(Long[]::new);
+        Map<Long, List<InventarioHardwareDto.Disco>> discos = new HashMap<>();
+        Map<Long, List<InventarioHardwareDto.Gpu>> gpus = new HashMap<>();
+
+        jdbcTemplate.query("""
+                SELECT id_equipo, modelo, tipo, capacidad_mb, serie FROM equipo_hardware_disco
+                WHERE id_equipo = ANY (?) ORDER BY id_equipo, posicion
+                """, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)),
+                rs -> {
+                    discos.computeIfAbsent(rs.getLong("id_equipo"), k -> new ArrayList<>())
+                            .add(new InventarioHardwareDto.Disco(rs.getString("modelo"), rs.getString("tipo"),
+                                    rs.getObject("capacidad_mb", Long.class), rs.getString("serie")));
+                });
+        jdbcTemplate.query("""
+                SELECT id_equipo, nombre, vram_mb FROM equipo_hardware_gpu
+                WHERE id_equipo = ANY (?) ORDER BY id_equipo, posicion
+                """, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)),
+                rs -> {
+                    gpus.computeIfAbsent(rs.getLong("id_equipo"), k -> new ArrayList<>())
+                            .add(new InventarioHardwareDto.Gpu(rs.getString("nombre"),
+                                    rs.getObject("vram_mb", Long.class)));
+                });
+
+        return filas.stream().map(f -> {
+            EquipoHardwareDto e = f.dto();
+            InventarioHardwareDto h = e.hardware();
+            return new EquipoHardwareDto(e.idEquipo(), e.hostname(), e.numeroSerie(), e.marca(), e.modelo(),
+                    new InventarioHardwareDto(h.cpuNombre(), h.cpuNucleos(), h.cpuHilos(), h.ramMb(),
+                            h.placaFabricante(), h.placaModelo(), h.biosFabricante(), h.biosVersion(),
+                            h.biosFecha(), h.almacenamientoMb(),
+                            discos.getOrDefault(e.idEquipo(), Collections.emptyList()),
+                            gpus.getOrDefault(e.idEquipo(), Collections.emptyList())),
+                    e.actualizadoEn());
+        }).toList();
+    }
+
+    // El id va primero: el valor de orden puede contener el separador
+    private static String codificarCursor(Long id, String clave) {
+        String valor = id + "|" + clave;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodificarCursor(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = valor.split("\\|", 2);
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return partes;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+
+    /*
+     * =============================
+     * ESQUEMA E INDEXADO INICIAL
+     * =============================
+     */
+
+    private void crearTablas() {
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS equipo_hardware (
+                    id_equipo BIGINT PRIMARY KEY REFERENCES equipos (id_equipo) ON DELETE CASCADE,
+                    cpu_nombre VARCHAR(255),
+                    cpu_nucleos INTEGER,
+                    cpu_hilos INTEGER,
+                    ram_mb BIGINT,
+                    placa_fabricante VARCHAR(255),
+                    placa_modelo VARCHAR(255),
+                    bios_fabricante VARCHAR(255),
+                    bios_version VARCHAR(255),
+                    bios_fecha VARCHAR(50),
+                    almacenamiento_mb BIGINT,
+                    actualizado_en TIMESTAMPTZ NOT NULL
+                )
+                """);
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS equipo_hardware_disco (
+                    id_equipo BIGINT NOT NULL REFERENCES equipo_hardware (id_equipo) ON DELETE CASCADE,
+                    posicion INTEGER NOT NULL,
+                    modelo VARCHAR(255),
+                    tipo VARCHAR(100),
+                    capacidad_mb BIGINT,
+                    serie VARCHAR(255),
+                    PRIMARY KEY (id_equipo, posicion)
+                )
+                """);
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS equipo_hardware_gpu (
+                    id_equipo BIGINT NOT NULL REFERENCES equipo_hardware (id_equipo) ON DELETE CASCADE,
+                    posicion INTEGER NOT NULL,
+                    nombre VARCHAR(255),
+                    vram_mb BIGINT,
+                    PRIMARY KEY (id_equipo, posicion)
+                )
+                """);
+
+        // Un índice por cada orden de la búsqueda
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_equipo_hardware_actualizado"
+                + " ON equipo_hardware (actualizado_en, id_equipo)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_equipo_hardware_cpu"
+                + " ON equipo_hardware ((COALESCE(lower(cpu_nombre), '')), id_equipo)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_equipo_hardware_ram"
+                + " ON equipo_hardware ((COALESCE(ram_mb, -1)), id_equipo)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_equipo_hardware_almacenamiento"
+                + " ON equipo_hardware ((COALESCE(almacenamiento_mb, -1)), id_equipo)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_equipo_hardware_bios"
+                + " ON equipo_hardware ((COALESCE(lower(bios_version), '')), id_equipo)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_equipo_hardware_disco_tipo"
+                + " ON equipo_hardware_disco ((lower(tipo)), capacidad_mb)");
+        // Entradas exactas del informe original: hardware_json @> {"entrada": "valor"}
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_equipos_hardware_json"
+                + " ON equipos USING GIN (hardware_json jsonb_path_ops)");
+
+        crearIndicesTrigramas();
+    }
+
+    /**
+     * Índices para las búsquedas por contenido (LIKE '%texto%'). Si la
+     * extensión no se puede instalar, esas búsquedas siguen funcionando
+     * recorriendo la tabla, que es pequeña frente a cargar los equipos.
+     */
+    private void crearIndicesTrigramas() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+                jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_equipo_hardware_cpu_trgm"
+                        + " ON equipo_hardware USING GIN (lower(cpu_nombre) gin_trgm_ops)");
+                jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_equipo_hardware_disco_modelo_trgm"
+                        + " ON equipo_hardware_disco USING GIN (lower(modelo) gin_trgm_ops)");
+                jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_equipo_hardware_gpu_nombre_trgm"
+                        + " ON equipo_hardware_gpu USING GIN (lower(nombre) gin_trgm_ops)");
+            });
+        } catch (Exception e) {
+            log.warn("pg_trgm no disponible, las búsquedas por contenido no usarán índice: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Indexa los equipos con hardwareJson que aún no están en el inventario
+     * (los guardados antes de existir esta tabla). Sin el informe original,
+     * los discos no se conocen hasta que se vuelva a subir.
+     */
+    private void indexarExistentes() {
+        long ultimoId = 0;
+        int total = 0;
+        while (true) {
+            List<Map.Entry<Long, String>> lote = jdbcTemplate.query("""
+                    SELECT e.id_equipo, e.hardware_json::text AS json FROM equipos e
+                    WHERE e.id_equipo > ? AND e.hardware_json IS NOT NULL
+                      AND NOT EXISTS (SELECT 1 FROM equipo_hardware h WHERE h.id_equipo = e.id_equipo)
+                    ORDER BY e.id_equipo
+                    LIMIT ?
+                    """, (rs, i) -> Map.entry(rs.getLong("id_equipo"), rs.getString("json")),
+                    ultimoId, LOTE_INDEXADO);
+            if (lote.isEmpty()) {
+                break;
+            }
+
+            Map<Long, InventarioHardwareDto> inventarios = new LinkedHashMap<>();
+            for (Map.Entry<Long, String> fila : lote) {
+                try {
+                    Map<String, String> byEntry = mapper.readValue(fila.getValue(),
+                            new TypeReference<Map<String, String>>() {
+                            });
+                    inventarios.put(fila.getKey(), InventarioHardwareHelper.desde(byEntry, null));
+                } catch (Exception e) {
+                    log.warn("Equipo {}: hardwareJson no indexable: {}", fila.getKey(), e.getMessage());
+                }
+            }
+            transactionTemplate.executeWithoutResult(status -> guardar(inventarios));
+            total += inventarios.size();
+            ultimoId = lote.get(lote.size() - 1).getKey();
+        }
+        if (total > 0) {
+            log.info("Inventario de hardware: {} equipos indexados desde hardwareJson", total);
+        }
+    }
+}
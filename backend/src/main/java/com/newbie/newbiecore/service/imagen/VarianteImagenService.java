@@ -0,0 +1,246 @@
+package com.newbie.newbiecore.service.imagen;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Genera en segundo plano las variantes reducidas de las imágenes de órdenes:
+ * una miniatura para los listados y una versión mediana para la vista previa.
+ *
+ * <ul>
+ * <li>Se guardan como JPEG junto al original, en las subcarpetas
+ * {@code miniaturas/} y {@code medianas/} de la categoría, y sus rutas se
+ * escriben en {@code imagenes.ruta_miniatura} / {@code imagenes.ruta_media}.
+ * Mientras no existen, las columnas quedan en null y el cliente usa el
+ * original.</li>
+ * <li>El original se decodifica submuestreado cuando es mucho mayor que la
+ * versión mediana, para no cargar en memoria la imagen completa.</li>
+ * <li>Los archivos que ImageIO no sabe leer (HEIC, PDF...) se ignoran.</li>
+ * <li>Métricas: {@code imagenes.variantes.generadas},
+ * {@code imagenes.variantes.omitidas}, {@code imagenes.variantes.errores} y
+ * {@code imagenes.variantes.tiempo}.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class VarianteImagenService {
+
+    public static final String CARPETA_MINIATURAS = "miniaturas";
+    public static final String CARPETA_MEDIANAS = "medianas";
+
+    private static final float CALIDAD_JPEG = 0.82f;
+
+    private static final String ACTUALIZAR = """
+            UPDATE imagenes SET ruta_miniatura = ?, ruta_media = ?
+            WHERE orden_trabajo_id = ? AND ruta = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ThreadPoolTaskExecutor executor;
+    private final int ladoMiniatura;
+    private final int ladoMedia;
+
+    private final Counter generadas;
+    private final Counter omitidas;
+    private final Counter errores;
+    private final Timer tiempo;
+
+    public VarianteImagenService(JdbcTemplate jdbcTemplate,
+            @Qualifier("imagenExecutor") ThreadPoolTaskExecutor executor,
+            MeterRegistry meterRegistry,
+            @Value("${app.imagenes.lado-miniatura:320}") int ladoMiniatura,
+            @Value("${app.imagenes.lado-media:1280}") int ladoMedia) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.executor = executor;
+        this.ladoMiniatura = ladoMiniatura;
+        this.ladoMedia = ladoMedia;
+
+        this.generadas = meterRegistry.counter("imagenes.variantes.generadas");
+        this.omitidas = meterRegistry.counter("imagenes.variantes.omitidas");
+        this.errores = meterRegistry.counter("imagenes.variantes.errores");
+        this.tiempo = meterRegistry.timer("imagenes.variantes.tiempo");
+    }
+
+    /**
+     * Encola la generación de las variantes de una imagen ya guardada. Llamar
+     * después de confirmar la fila en {@code imagenes}.
+     *
+     * @param archivo ruta en disco del original
+     * @param ruta    ruta pública del original ({@code /uploads/...})
+     */
+    public void programar(Long ordenId, Path archivo, String ruta) {
+        executor.execute(() -> generar(ordenId, archivo, ruta));
+    }
+
+    void generar(Long ordenId, Path archivo, String ruta) {
+        try {
+            tiempo.record(() -> {
+                try {
+                    generarVariantes(ordenId, archivo, ruta);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } catch (Exception e) {
+            errores.increment();
+            log.warn("No se pudieron generar las variantes de {}: {}", ruta, e.getMessage());
+        }
+    }
+
+    private void generarVariantes(Long ordenId, Path archivo, String ruta) throws IOException {
+        BufferedImage original = leerReducida(archivo, ladoMedia);
+        if (original == null) {
+            omitidas.increment();
+            log.debug("Formato no soportado para variantes: {}", ruta);
+            return;
+        }
+
+        Path carpeta = archivo.getParent();
+        String nombre = nombreJpeg(archivo.getFileName().toString());
+
+        BufferedImage media = escalar(original, ladoMedia);
+        escribirJpeg(media, carpeta.resolve(CARPETA_MEDIANAS).resolve(nombre));
+        // La miniatura se obtiene de la mediana, que ya es pequeña
+        escribirJpeg(escalar(media, ladoMiniatura), carpeta.resolve(CARPETA_MINIATURAS).resolve(nombre));
+
+        jdbcTemplate.update(ACTUALIZAR,
+                rutaVariante(ruta, CARPETA_MINIATURAS),
+                rutaVariante(ruta, CARPETA_MEDIANAS),
+                ordenId,
+                ruta);
+        generadas.increment();
+    }
+
+    /*
+     * =============================
+     * RUTAS
+     * =============================
+     */
+
+    /** {@code /uploads/OT/imagenes/CAT/x.png} → {@code /uploads/OT/imagenes/CAT/miniaturas/x.jpg} */
+    static String rutaVariante(String ruta, String carpeta) {
+        int barra = ruta.lastIndexOf('/');
+        return ruta.substring(0, barra + 1) + carpeta + "/" + nombreJpeg(ruta.substring(barra + 1));
+    }
+
+    private static String nombreJpeg(String nombre) {
+        int punto = nombre.lastIndexOf('.');
+        return (punto > 0 ? nombre.substring(0, punto) : nombre) + ".jpg";
+    }
+
+    /*
+     * =============================
+     * IMAGEN
+     * =============================
+     */
+
+    /**
+     * Decodifica el archivo saltando píxeles cuando mide más del doble de
+     * {@code lado}; devuelve null si ImageIO no reconoce el formato.
+     */
+    private static BufferedImage leerReducida(Path archivo, int lado) throws IOException {
+        try (ImageInputStream entrada = ImageIO.createImageInputStream(archivo.toFile())) {
+            if (entrada == null) {
+                return null;
+            }
+            Iterator<ImageReader> lectores = ImageIO.getImageReaders(entrada);
+            if (!lectores.hasNext()) {
+                return null;
+            }
+            ImageReader lector = lectores.next();
+            try {
+                lector.setInput(entrada, true, true);
+                int mayor = Math.max(lector.getWidth(0), lector.getHeight(0));
+                int paso = Math.max(1, mayor / (lado * 2));
+
+                ImageReadParam param = lector.getDefaultReadParam();
+                param.setSourceSubsampling(paso, paso, 0, 0);
+                return lector.read(0, param);
+            } finally {
+                lector.dispose();
+            }
+        }
+    }
+
+    /**
+     * Reduce la imagen para que su lado mayor no pase de {@code lado}, por
+     * mitades sucesivas para que la miniatura no salga pixelada. El resultado
+     * es RGB sobre fondo blanco (JPEG no admite transparencia).
+     */
+    static BufferedImage escalar(BufferedImage imagen, int lado) {
+        int mayor = Math.max(imagen.getWidth(), imagen.getHeight());
+        double factor = Math.min(1.0, (double) lado / mayor);
+        int anchoFinal = Math.max(1, (int) Math.round(imagen.getWidth() * factor));
+        int altoFinal = Math.max(1, (int) Math.round(imagen.getHeight() * factor));
+
+        BufferedImage actual = imagen;
+        int ancho = imagen.getWidth();
+        int alto = imagen.getHeight();
+        do {
+            ancho = Math.max(anchoFinal, ancho / 2);
+            alto = Math.max(altoFinal, alto / 2);
+            actual = dibujar(actual, ancho, alto);
+        } while (ancho > anchoFinal || alto > altoFinal);
+        return actual;
+    }
+
+    private static BufferedImage dibujar(BufferedImage origen, int ancho, int alto) {
+        BufferedImage destino = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = destino.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(origen, 0, 0, ancho, alto, Color.WHITE, null);
+        } finally {
+            g.dispose();
+        }
+        return destino;
+    }
+
+    /** Escribe en un temporal y lo mueve, para no servir nunca un JPEG a medias. */
+    private static void escribirJpeg(BufferedImage imagen, Path destino) throws IOException {
+        Files.createDirectories(destino.getParent());
+        Path temporal = Files.createTempFile(destino.getParent(), ".variante-", ".tmp");
+        ImageWriter escritor = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream salida = ImageIO.createImageOutputStream(temporal.toFile())) {
+            escritor.setOutput(salida);
+            ImageWriteParam param = escritor.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(CALIDAD_JPEG);
+            escritor.write(null, new IIOImage(imagen, null, null), param);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        } finally {
+            escritor.dispose();
+        }
+        Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,67 @@
+package com.newbie.newbiecore.service.importacion;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.newbie.newbiecore.dto.importacion.ImportacionHardwareDto;
+import com.newbie.newbiecore.dto.importacion.ResultadoArchivoDto;
+
+/**
+ * Progreso en memoria de una importación masiva. Lo actualiza el hilo que la
+ * ejecuta y lo leen las consultas de progreso.
+ */
+class ImportacionHardware {
+
+    private final String id;
+    private final AtomicReferenceArray<ResultadoArchivoDto> resultados;
+    private final AtomicInteger procesados = new AtomicInteger();
+    private final Instant fechaInicio = Instant.now();
+    private volatile ImportacionHardwareDto.Estado estado = ImportacionHardwareDto.Estado.EN_COLA;
+    private volatile Instant fechaFin;
+
+    ImportacionHardware(String id, List<String> archivos) {
+        this.id = id;
+        this.resultados = new AtomicReferenceArray<>(archivos.stream()
+                .map(a -> new ResultadoArchivoDto(a, ResultadoArchivoDto.Estado.PENDIENTE, null, null, null))
+                .toArray(ResultadoArchivoDto[]::new));
+    }
+
+    String id() {
+        return id;
+    }
+
+    String archivo(int indice) {
+        return resultados.get(indice).archivo();
+    }
+
+    void iniciar() {
+        estado = ImportacionHardwareDto.Estado.EN_PROCESO;
+    }
+
+    void terminar(ImportacionHardwareDto.Estado estadoFinal) {
+        fechaFin = Instant.now();
+        estado = estadoFinal;
+    }
+
+    /**
+     * Registra el resultado definitivo de un archivo.
+     */
+    void registrar(int indice, ResultadoArchivoDto.Estado estadoArchivo, Long equipoId,
+            String coincidencia, String mensaje) {
+        ResultadoArchivoDto anterior = resultados.getAndSet(indice,
+                new ResultadoArchivoDto(archivo(indice), estadoArchivo, equipoId, coincidencia, mensaje));
+        if (anterior.estado() == ResultadoArchivoDto.Estado.PENDIENTE) {
+            procesados.incrementAndGet();
+        }
+    }
+
+    ImportacionHardwareDto aDto() {
+        ResultadoArchivoDto[] archivos = new ResultadoArchivoDto[resultados.length()];
+        Arrays.setAll(archivos, resultados::get);
+        return new ImportacionHardwareDto(id, estado, archivos.length, procesados.get(),
+                List.of(archivos), fechaInicio, fechaFin);
+    }
+}
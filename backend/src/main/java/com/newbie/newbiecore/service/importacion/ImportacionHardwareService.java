@@ -0,0 +1,494 @@
+package com.newbie.newbiecore.service.importacion;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newbie.newbiecore.dto.hardware.InventarioHardwareDto;
+import com.newbie.newbiecore.dto.importacion.ImportacionHardwareDto;
+import com.newbie.newbiecore.dto.importacion.ResultadoArchivoDto;
+import com.newbie.newbiecore.service.hardware.EquipoSnapshotCache;
+import com.newbie.newbiecore.service.hardware.InventarioHardwareService;
+import com.newbie.newbiecore.util.CacheConExpiracion;
+import com.newbie.newbiecore.util.HwiXmlParser;
+import com.newbie.newbiecore.util.InventarioHardwareHelper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Importación masiva de informes HWiNFO (alta de flotas de equipos).
+ *
+ * <ul>
+ * <li>Los informes (XML sueltos o dentro de ZIP) se copian a un directorio
+ * temporal durante la petición; el resto del trabajo corre en segundo plano y
+ * su progreso se consulta por id.</li>
+ * <li>Cada informe se lee en paralelo en {@code hardwareLecturaExecutor}, con
+ * un número acotado de lecturas en curso, y se asocia a un equipo por número de
+ * serie o, si no, por hostname.</li>
+ * <li>Las actualizaciones se escriben por lotes JDBC, con el mismo efecto que
+ * {@code EquipoService.procesarXmlYActualizar} (incluido el inventario de
+ * hardware).</li>
+ * <li>Las importaciones en cola o en curso se guardan aparte, sin caducidad ni
+ * desalojo; al terminar pasan a una caché acotada donde se conservan
+ * {@code retencion-minutos}. El mapa de activas está acotado por el pool
+ * {@code hardwareImportacionExecutor}: una importación rechazada se quita.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class ImportacionHardwareService {
+
+    // Entradas de HWiNFO con el número de serie del equipo, por prioridad
+    private static final List<String> ENTRADAS_SERIE = List.of(
+            "Número de serie de computadora",
+            "Número de serie del sistema",
+            "Número de serie de la placa base");
+
+    // Valores de relleno de los fabricantes que no identifican a ningún equipo
+    private static final Set<String> SERIES_GENERICAS = Set.of(
+            "TO BE FILLED BY O.E.M.", "DEFAULT STRING", "SYSTEM SERIAL NUMBER",
+            "NONE", "N/A", "0", "0123456789", "123456789");
+
+    private static final String ACTUALIZAR = """
+            UPDATE equipos
+            SET hostname = COALESCE(?, hostname),
+                sistema_operativo = COALESCE(?, sistema_operativo),
+                fecha_registro = ?,
+                hardware_json = CAST(? AS jsonb)
+            WHERE id_equipo = ?
+            """;
+
+    private final HwiXmlParser parser;
+    private final ObjectMapper mapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final InventarioHardwareService inventarioHardwareService;
+    private final EquipoSnapshotCache equipoSnapshotCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor lecturaExecutor;
+    private final ThreadPoolTaskExecutor importacionExecutor;
+    private final Map<String, ImportacionHardware> activas = new ConcurrentHashMap<>();
+    private final CacheConExpiracion<String, ImportacionHardware> terminadas;
+
+    private final int maxInformes;
+    private final long maxBytesInforme;
+    private final int tamanoLote;
+    private final long retencionMs;
+
+    public ImportacionHardwareService(HwiXmlParser parser,
+            ObjectMapper mapper,
+            JdbcTemplate jdbcTemplate,
+            InventarioHardwareService inventarioHardwareService,
+            EquipoSnapshotCache equipoSnapshotCache,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("hardwareLecturaExecutor") ThreadPoolTaskExecutor lecturaExecutor,
+            @Qualifier("hardwareImportacionExecutor") ThreadPoolTaskExecutor importacionExecutor,
+            @Value("${app.equipos.importacion.max-informes:500}") int maxInformes,
+            @Value("${app.equipos.importacion.max-mb-informe:50}") long maxMbInforme,
+            @Value("${app.equipos.importacion.lote:50}") int tamanoLote,
+            @Value("${app.equipos.importacion.retencion-minutos:60}") long retencionMinutos) {
+        this.parser = parser;
+        this.mapper = mapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.inventarioHardwareService = inventarioHardwareService;
+        this.equipoSnapshotCache = equipoSnapshotCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lecturaExecutor = lecturaExecutor;
+        this.importacionExecutor = importacionExecutor;
+        this.terminadas = new CacheConExpiracion<>(100);
+        this.maxInformes = maxInformes;
+        this.maxBytesInforme = maxMbInforme * 1024 * 1024;
+        this.tamanoLote = tamanoLote;
+        this.retencionMs = TimeUnit.MINUTES.toMillis(retencionMinutos);
+    }
+
+    /*
+     * =============================
+     * API
+     * =============================
+     */
+
+    /**
+     * Recibe el lote y lo encola para su procesamiento.
+     *
+     * @throws IllegalArgumentException si el lote está vacío o supera el máximo de informes
+     * @throws IllegalStateException    si ya hay demasiadas importaciones en curso
+     */
+    public ImportacionHardwareDto iniciar(List<MultipartFile> archivos) {
+        if (archivos == null || archivos.isEmpty()) {
+            throw new IllegalArgumentException("No se recibieron archivos");
+        }
+
+        Path directorio;
+        List<ArchivoPendiente> pendientes = new ArrayList<>();
+        try {
+            directorio = Files.createTempDirectory("hwinfo-importacion-");
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el directorio temporal", e);
+        }
+
+        try {
+            for (MultipartFile archivo : archivos) {
+                preparar(archivo, directorio, pendientes);
+            }
+            if (pendientes.isEmpty()) {
+                throw new IllegalArgumentException("El lote no contiene informes XML");
+            }
+        } catch (IOException e) {
+            borrar(directorio);
+            throw new UncheckedIOException("No se pudieron leer los archivos subidos", e);
+        } catch (RuntimeException e) {
+            borrar(directorio);
+            throw e;
+        }
+
+        ImportacionHardware importacion = new ImportacionHardware(UUID.randomUUID().toString(),
+                pendientes.stream().map(ArchivoPendiente::nombre).toList());
+        // Se registra antes de encolar para que ejecutar() siempre la encuentre
+        activas.put(importacion.id(), importacion);
+        try {
+            importacionExecutor.execute(() -> ejecutar(importacion, pendientes, directorio));
+        } catch (TaskRejectedException e) {
+            activas.remove(importacion.id());
+            borrar(directorio);
+            throw new IllegalStateException("Hay demasiadas importaciones en curso, intente más tarde");
+        }
+
+        log.info("Importación de hardware {} encolada: {} informes", importacion.id(), pendientes.size());
+        return importacion.aDto();
+    }
+
+    public Optional<ImportacionHardwareDto> obtener(String id) {
+        ImportacionHardware importacion = activas.get(id);
+        if (importacion == null) {
+            importacion = terminadas.obtener(id);
+        }
+        return Optional.ofNullable(importacion).map(ImportacionHardware::aDto);
+    }
+
+    // Importaciones en cola o en curso
+    int activas() {
+        return activas.size();
+    }
+
+    /*
+     * =============================
+     * PREPARACIÓN (hilo de la petición)
+     * =============================
+     */
+
+    private record ArchivoPendiente(int indice, String nombre, Path ruta, String error) {
+    }
+
+    private void preparar(MultipartFile archivo, Path directorio, List<ArchivoPendiente> pendientes)
+            throws IOException {
+        String nombre = Optional.ofNullable(archivo.getOriginalFilename()).orElse("archivo");
+        String extension = nombre.toLowerCase(Locale.ROOT);
+
+        if (extension.endsWith(".zip")) {
+            try (ZipInputStream zip = new ZipInputStream(archivo.getInputStream())) {
+                ZipEntry entrada;
+                while ((entrada = zip.getNextEntry()) != null) {
+                    String ruta = entrada.getName();
+                    if (entrada.isDirectory() || ruta.startsWith("__MACOSX/")
+                            || !ruta.toLowerCase(Locale.ROOT).endsWith(".xml")) {
+                        continue;
+                    }
+                    agregar(nombre + "/" + ruta, zip, directorio, pendientes);
+                }
+            }
+        } else if (extension.endsWith(".xml")) {
+            try (InputStream in = archivo.getInputStream()) {
+                agregar(nombre, in, directorio, pendientes);
+            }
+        } else {
+            validarCupo(pendientes);
+            pendientes.add(new ArchivoPendiente(pendientes.size(), nombre, null,
+                    "Formato no soportado (se esperaba .xml o .zip)"));
+        }
+    }
+
+    // Copia un informe al directorio temporal; no cierra el stream (puede ser una entrada del ZIP)
+    private void agregar(String nombre, InputStream in, Path directorio, List<ArchivoPendiente> pendientes)
+            throws IOException {
+        validarCupo(pendientes);
+        int indice = pendientes.size();
+        Path destino = directorio.resolve(indice + ".xml");
+
+        if (copiarConLimite(in, destino)) {
+            pendientes.add(new ArchivoPendiente(indice, nombre, destino, null));
+        } else {
+            Files.deleteIfExists(destino);
+            pendientes.add(new ArchivoPendiente(indice, nombre, null,
+                    "El informe supera " + maxBytesInforme / (1024 * 1024) + " MB"));
+        }
+    }
+
+    private void validarCupo(List<ArchivoPendiente> pendientes) {
+        if (pendientes.size() >= maxInformes) {
+            throw new IllegalArgumentException("El lote supera el máximo de " + maxInformes + " informes");
+        }
+    }
+
+    // false si el contenido supera maxBytesInforme (protege de ZIP con entradas enormes)
+    private boolean copiarConLimite(InputStream in, Path destino) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(destino)) {
+            int leidos;
+            while ((leidos = in.read(buffer)) != -1) {
+                total += leidos;
+                if (total > maxBytesInforme) {
+                    return false;
+                }
+                out.write(buffer, 0, leidos);
+            }
+        }
+        return true;
+    }
+
+    /*
+     * =============================
+     * EJECUCIÓN (segundo plano)
+     * =============================
+     */
+
+    /** Lo que se necesita de un informe tras leerlo; el informe completo no se retiene. */
+    private record Lectura(int indice, String hardwareJson, InventarioHardwareDto inventario, String hostname,
+            String sistemaOperativo, List<String> series, List<String> hostnames, String error) {
+    }
+
+    private record Coincidencia(Long equipoId, String criterio, boolean ambigua) {
+    }
+
+    private record Actualizacion(int indice, Long equipoId, String criterio, Lectura lectura) {
+    }
+
+    private record IndiceEquipos(Map<String, List<Long>> porSerie, Map<String, List<Long>> porHostname) {
+    }
+
+    private void ejecutar(ImportacionHardware importacion, List<ArchivoPendiente> pendientes, Path directorio) {
+        importacion.iniciar();
+        try {
+            IndiceEquipos indice = cargarIndice();
+            ExecutorCompletionService<Lectura> lecturas =
+                    new ExecutorCompletionService<>(lecturaExecutor.getThreadPoolExecutor());
+            // Lecturas en curso a la vez: acota la memoria de informes leídos sin guardar
+            int ventana = lecturaExecutor.getMaxPoolSize() * 2;
+
+            List<ArchivoPendiente> porLeer = new ArrayList<>();
+            for (ArchivoPendiente p : pendientes) {
+                if (p.error() != null) {
+                    importacion.registrar(p.indice(), ResultadoArchivoDto.Estado.ERROR, null, null, p.error());
+                } else {
+                    porLeer.add(p);
+                }
+            }
+
+            Set<Long> equiposActualizados = new HashSet<>();
+            List<Actualizacion> lote = new ArrayList<>(tamanoLote);
+            int siguiente = 0;
+            int enCurso = 0;
+            while (siguiente < porLeer.size() || enCurso > 0) {
+                while (enCurso < ventana && siguiente < porLeer.size()) {
+                    ArchivoPendiente p = porLeer.get(siguiente++);
+                    lecturas.submit(() -> leer(p));
+                    enCurso++;
+                }
+                Lectura lectura = lecturas.take().get();
+                enCurso--;
+
+                clasificar(importacion, lectura, indice, equiposActualizados, lote);
+                if (lote.size() >= tamanoLote) {
+                    guardar(importacion, lote);
+                }
+            }
+            guardar(importacion, lote);
+
+            importacion.terminar(ImportacionHardwareDto.Estado.COMPLETADA);
+            log.info("Importación de hardware {} completada: {} informes, {} equipos actualizados",
+                    importacion.id(), pendientes.size(), equiposActualizados.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            importacion.terminar(ImportacionHardwareDto.Estado.FALLIDA);
+        } catch (Exception e) {
+            log.error("Importación de hardware {} fallida: {}", importacion.id(), e.getMessage(), e);
+            importacion.terminar(ImportacionHardwareDto.Estado.FALLIDA);
+        } finally {
+            borrar(directorio);
+            // Primero en terminadas, para que la consulta de progreso no la pierda entre medio
+            terminadas.guardar(importacion.id(), importacion, System.currentTimeMillis() + retencionMs);
+            activas.remove(importacion.id());
+        }
+    }
+
+    // Se ejecuta en hardwareLecturaExecutor; nunca lanza excepción
+    private Lectura leer(ArchivoPendiente archivo) {
+        try (InputStream in = Files.newInputStream(archivo.ruta())) {
+            HwiXmlParser.Informe informe = parser.leer(in);
+            Map<String, String> byEntry = informe.byEntry();
+
+            List<String> series = ENTRADAS_SERIE.stream()
+                    .map(byEntry::get)
+                    .map(ImportacionHardwareService::normalizarSerie)
+                    .filter(s -> s != null && !SERIES_GENERICAS.contains(s))
+                    .distinct()
+                    .toList();
+            List<String> hostnames = Stream.of(informe.snapshot().general.hostname, byEntry.get("Nombre del computadora"))
+                    .map(ImportacionHardwareService::normalizarHostname)
+                    .filter(h -> h != null)
+                    .distinct()
+                    .toList();
+
+            return new Lectura(archivo.indice(), mapper.writeValueAsString(byEntry),
+                    InventarioHardwareHelper.desde(byEntry, informe.snapshot()),
+                    byEntry.get("Nombre del computadora"), byEntry.get("Sistema operativo"),
+                    series, hostnames, null);
+        } catch (Exception e) {
+            return new Lectura(archivo.indice(), null, null, null, null, List.of(), List.of(),
+                    "No se pudo leer el informe: " + e.getMessage());
+        }
+    }
+
+    private void clasificar(ImportacionHardware importacion, Lectura lectura, IndiceEquipos indice,
+            Set<Long> equiposActualizados, List<Actualizacion> lote) {
+        int i = lectura.indice();
+        if (lectura.error() != null) {
+            importacion.registrar(i, ResultadoArchivoDto.Estado.ERROR, null, null, lectura.error());
+            return;
+        }
+
+        Coincidencia c = buscar(lectura, indice);
+        if (c == null) {
+            importacion.registrar(i, ResultadoArchivoDto.Estado.SIN_COINCIDENCIA, null, null,
+                    "Ningún equipo coincide por número de serie ni por hostname");
+        } else if (c.ambigua()) {
+            importacion.registrar(i, ResultadoArchivoDto.Estado.AMBIGUO, null, c.criterio(),
+                    "Varios equipos coinciden por " + c.criterio());
+        } else if (!equiposActualizados.add(c.equipoId())) {
+            // Se conserva el primer informe procesado para cada equipo
+            importacion.registrar(i, ResultadoArchivoDto.Estado.DUPLICADO, c.equipoId(), c.criterio(),
+                    "Otro informe del lote ya actualizó este equipo");
+        } else {
+            lote.add(new Actualizacion(i, c.equipoId(), c.criterio(), lectura));
+        }
+    }
+
+    // Primero por número de serie; si no hay coincidencia, por hostname
+    private static Coincidencia buscar(Lectura lectura, IndiceEquipos indice) {
+        for (String serie : lectura.series()) {
+            List<Long> ids = indice.porSerie().get(serie);
+            if (ids != null) {
+                return new Coincidencia(ids.get(0), "numeroSerie", ids.size() > 1);
+            }
+        }
+        for (String hostname : lectura.hostnames()) {
+            List<Long> ids = indice.porHostname().get(hostname);
+            if (ids != null) {
+                return new Coincidencia(ids.get(0), "hostname", ids.size() > 1);
+            }
+        }
+        return null;
+    }
+
+    private void guardar(ImportacionHardware importacion, List<Actualizacion> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        lote.sort(Comparator.comparing(Actualizacion::equipoId));
+        Timestamp ahora = Timestamp.from(Instant.now());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(ACTUALIZAR, lote, lote.size(), (ps, a) -> {
+                    ps.setString(1, a.lectura().hostname());
+                    ps.setString(2, a.lectura().sistemaOperativo());
+                    ps.setTimestamp(3, ahora);
+                    ps.setString(4, a.lectura().hardwareJson());
+                    ps.setLong(5, a.equipoId());
+                });
+                Map<Long, InventarioHardwareDto> inventarios = new HashMap<>();
+                lote.forEach(a -> inventarios.put(a.equipoId(), a.lectura().inventario()));
+                inventarioHardwareService.guardar(inventarios);
+            });
+            equipoSnapshotCache.invalidar(lote.stream().map(Actualizacion::equipoId).toList());
+            lote.forEach(a -> importacion.registrar(a.indice(), ResultadoArchivoDto.Estado.ACTUALIZADO,
+                    a.equipoId(), a.criterio(), null));
+        } catch (Exception e) {
+            log.error("Importación de hardware {}: no se pudo guardar un lote de {} equipos: {}",
+                    importacion.id(), lote.size(), e.getMessage());
+            lote.forEach(a -> importacion.registrar(a.indice(), ResultadoArchivoDto.Estado.ERROR,
+                    a.equipoId(), a.criterio(), "No se pudo guardar el equipo"));
+        }
+        lote.clear();
+    }
+
+    private IndiceEquipos cargarIndice() {
+        Map<String, List<Long>> porSerie = new HashMap<>();
+        Map<String, List<Long>> porHostname = new HashMap<>();
+        jdbcTemplate.query("SELECT id_equipo, numero_serie, hostname FROM equipos", rs -> {
+            long id = rs.getLong("id_equipo");
+            String serie = normalizarSerie(rs.getString("numero_serie"));
+            if (serie != null) {
+                porSerie.computeIfAbsent(serie, k -> new ArrayList<>(1)).add(id);
+            }
+            String hostname = normalizarHostname(rs.getString("hostname"));
+            if (hostname != null) {
+                porHostname.computeIfAbsent(hostname, k -> new ArrayList<>(1)).add(id);
+            }
+        });
+        return new IndiceEquipos(porSerie, porHostname);
+    }
+
+    private static String normalizarSerie(String serie) {
+        return serie == null || serie.isBlank() ? null : serie.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static String normalizarHostname(String hostname) {
+        return hostname == null || hostname.isBlank() ? null : hostname.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void borrar(Path directorio) {
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException e) {
+                    log.warn("No se pudo borrar el temporal {}: {}", p, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            log.warn("No se pudo borrar el directorio temporal {}: {}", directorio, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.newbie.newbiecore.service.pdf;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Caché de los PDFs guardados en {@code uploads/<numeroOrden>/documentos}.
+ *
+ * <ul>
+ * <li>Cada documento se identifica por un hash de sus datos (el DTO en JSON),
+ * la versión de la plantilla y la de los recursos (logo). Si el archivo ya
+ * existe con ese hash, se devuelve sin volver a renderizar.</li>
+ * <li>El hash y el tamaño de cada archivo se guardan en
+ * {@code documento_pdf}; en la carpeta de documentos solo quedan los PDFs,
+ * que son los que se envían al cliente.</li>
+ * <li>Los archivos se escriben en un temporal y se mueven al destino, así que
+ * nunca se lee un PDF a medio escribir.</li>
+ * <li>Los cambios en fichas, costos y entrega borran las entradas afectadas.
+ * Aunque una entrada quedara sin borrar, un cambio en los datos cambia el
+ * hash y el documento se regenera.</li>
+ * <li>Métricas: {@code pdf.cache.aciertos} y {@code pdf.cache.fallos} por
+ * tipo de documento, {@code pdf.cache.tasa_aciertos} e
+ * {@code pdf.cache.invalidaciones}.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+@DependsOn("entityManagerFactory")
+public class DocumentoPdfCache {
+
+    private static final String GUARDAR = """
+            INSERT INTO documento_pdf (ruta, documento, orden_id, ficha_id, hash, tamano, generado_en)
+            VALUES (?, ?, ?, ?, ?, ?, now())
+            ON CONFLICT (ruta) DO UPDATE SET
+                documento = EXCLUDED.documento,
+                orden_id = EXCLUDED.orden_id,
+                ficha_id = EXCLUDED.ficha_id,
+                hash = EXCLUDED.hash,
+                tamano = EXCLUDED.tamano,
+                generado_en = EXCLUDED.generado_en
+            """;
+
+    /**
+     * Documento a guardar en la carpeta de la orden.
+     *
+     * @param tipo        tipo de documento ("ficha-tecnica", "orden-trabajo"), para las métricas
+     * @param numeroOrden carpeta de la orden
+     * @param archivo     nombre del PDF dentro de {@code documentos}
+     * @param ordenId     orden a la que pertenece, para invalidar
+     * @param fichaId     ficha a la que pertenece (o null), para invalidar
+     * @param version     versión de la plantilla y variante del logo
+     * @param datos       datos con los que se renderiza (se serializan a JSON para el hash)
+     */
+    public record Documento(String tipo, String numeroOrden, String archivo, Long ordenId, Long fichaId,
+            String version, Object datos) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final PdfRenderService pdfRenderService;
+    private final MeterRegistry meterRegistry;
+    private final Path baseUploadDir;
+
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong consultas = new AtomicLong();
+    private final Counter invalidaciones;
+
+    public DocumentoPdfCache(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+            PdfRenderService pdfRenderService, MeterRegistry meterRegistry,
+            @Value("${app.upload-dir}") String baseUploadDir) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.pdfRenderService = pdfRenderService;
+        this.meterRegistry = meterRegistry;
+        this.baseUploadDir = Path.of(baseUploadDir);
+
+        this.invalidaciones = meterRegistry.counter("pdf.cache.invalidaciones");
+        Gauge.builder("pdf.cache.tasa_aciertos", this, c -> {
+            long total = c.consultas.get();
+            return total == 0 ? 0.0 : (double) c.aciertos.get() / total;
+        }).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void crearTabla() {
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS documento_pdf (
+                    ruta varchar(500) PRIMARY KEY,
+                    documento varchar(50) NOT NULL,
+                    orden_id bigint,
+                    ficha_id bigint,
+                    hash char(64) NOT NULL,
+                    tamano bigint NOT NULL,
+                    generado_en timestamptz NOT NULL
+                )
+                """);
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_documento_pdf_orden ON documento_pdf (orden_id)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_documento_pdf_ficha ON documento_pdf (ficha_id)");
+    }
+
+    /*
+     * =============================
+     * CONSULTA
+     * =============================
+     */
+
+    /**
+     * Deja el PDF al día en la carpeta de la orden, renderizándolo solo si
+     * sus datos cambiaron.
+     *
+     * @throws IOException si no se puede escribir el archivo
+     */
+    public Path asegurar(Documento documento, Supplier<byte[]> generar) throws IOException {
+        Path ruta = ruta(documento);
+        String hash = hash(documento);
+        if (!vigente(documento, ruta, hash)) {
+            guardar(documento, ruta, hash, generar.get());
+        }
+        return ruta;
+    }
+
+    /**
+     * Devuelve el PDF: el guardado si sigue vigente o uno recién renderizado,
+     * que se guarda para la próxima vez. Si no se puede guardar, se devuelve
+     * igual.
+     */
+    public byte[] obtener(Documento documento, Supplier<byte[]> generar) {
+        Path ruta = ruta(documento);
+        String hash = hash(documento);
+        if (vigente(documento, ruta, hash)) {
+            try {
+                return Files.readAllBytes(ruta);
+            } catch (IOException e) {
+                log.warn("No se pudo leer {}, se vuelve a generar: {}", ruta, e.getMessage());
+            }
+        }
+        byte[] pdf = generar.get();
+        try {
+            guardar(documento, ruta, hash, pdf);
+        } catch (IOException e) {
+            log.warn("No se pudo guardar la copia en el servidor de {}: {}", ruta, e.getMessage());
+        }
+        return pdf;
+    }
+
+    private boolean vigente(Documento documento, Path ruta, String hash) {
+        List<Long> tamanos = jdbcTemplate.queryForList(
+                "SELECT tamano FROM documento_pdf WHERE ruta = ? AND hash = ?",
+                Long.class, clave(ruta), hash);
+        boolean acierto = !tamanos.isEmpty() && tamanoArchivo(ruta) == tamanos.get(0);
+
+        consultas.incrementAndGet();
+        if (acierto) {
+            aciertos.incrementAndGet();
+        }
+        meterRegistry.counter(acierto ? "pdf.cache.aciertos" : "pdf.cache.fallos", "documento", documento.tipo())
+                .increment();
+        return acierto;
+    }
+
+    private void guardar(Documento documento, Path ruta, String hash, byte[] pdf) throws IOException {
+        Files.createDirectories(ruta.getParent());
+        Path temporal = Files.createTempFile(ruta.getParent(), ".pdf-", ".tmp");
+        try {
+            Files.write(temporal, pdf);
+            try {
+                Files.move(temporal, ruta, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporal, ruta, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+        jdbcTemplate.update(GUARDAR, clave(ruta), documento.tipo(), documento.ordenId(), documento.fichaId(),
+                hash, (long) pdf.length);
+    }
+
+    /*
+     * =============================
+     * INVALIDACIÓN
+     * =============================
+     */
+
+    /** Olvida los PDFs de la orden (resumen y fichas). */
+    public void invalidarOrden(Long ordenId) {
+        if (ordenId != null) {
+            invalidaciones.increment(jdbcTemplate.update("DELETE FROM documento_pdf WHERE orden_id = ?", ordenId));
+        }
+    }
+
+    public void invalidarFicha(Long fichaId) {
+        if (fichaId != null) {
+            invalidaciones.increment(jdbcTemplate.update("DELETE FROM documento_pdf WHERE ficha_id = ?", fichaId));
+        }
+    }
+
+    public void invalidarFichas(List<Long> fichaIds) {
+        if (fichaIds.isEmpty()) {
+            return;
+        }
+        Long[] ids = fichaIds.toArray(Long[]::new);
+        invalidaciones.increment(jdbcTemplate.update("DELETE FROM documento_pdf WHERE ficha_id = ANY (?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids))));
+    }
+
+    /*
+     * =============================
+     * HELPERS
+     * =============================
+     */
+
+    private Path ruta(Documento documento) {
+        return baseUploadDir.resolve(documento.numeroOrden()).resolve("documentos").resolve(documento.archivo());
+    }
+
+    /** Ruta relativa a la carpeta de uploads, con '/' en cualquier sistema. */
+    private String clave(Path ruta) {
+        return baseUploadDir.relativize(ruta).toString().replace('\\', '/');
+    }
+
+    private static long tamanoArchivo(Path ruta) {
+        try {
+            return Files.size(ruta);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private String hash(Documento documento) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(documento.version().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(pdfRenderService.versionRecursos().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(objectMapper.writeValueAsBytes(documento.datos()));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.newbie.newbiecore.service.pdf;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+import com.newbie.newbiecore.dto.FichaTecnica.FichaTecnicaDTO;
+
+/**
+ * HTML de la ficha técnica ({@code plantillas/pdf/ficha-tecnica.html}), usado
+ * tanto por el PDF que se guarda al cerrar la ficha como por la descarga
+ * desde /api/pdf/ficha.
+ */
+public final class FichaTecnicaHtml {
+
+    private static final DateTimeFormatter FECHA_FMT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    public record Datos(FichaTecnicaDTO ficha, String logo, String fecha) {
+    }
+
+    private static final PlantillaHtml<Datos> PLANTILLA = PlantillaHtml.cargar("ficha-tecnica.html", Datos.class,
+            Map.of(
+                    "valor", FichaTecnicaHtml::valor,
+                    "siNo", FichaTecnicaHtml::siNo,
+                    "guion", v -> v == null ? "-" : v.toString()));
+
+    private FichaTecnicaHtml() {
+    }
+
+    /** Versión de la plantilla, para la caché de PDFs. */
+    public static String version() {
+        return PLANTILLA.version();
+    }
+
+    public static String generar(FichaTecnicaDTO ficha, String logo) {
+        return PLANTILLA.renderizar(new Datos(ficha, logo, LocalDate.now().format(FECHA_FMT)));
+    }
+
+    /** Vacío, 0 o 0.0 se muestran como "-". */
+    private static String valor(Object valor) {
+        String texto = valor != null ? valor.toString() : "";
+        return texto.isEmpty() || "0".equals(texto) || "0.0".equals(texto) ? "-" : texto;
+    }
+
+    private static String siNo(Object valor) {
+        return valor == null ? "-" : (Boolean.TRUE.equals(valor) ? "Sí" : "No");
+    }
+}
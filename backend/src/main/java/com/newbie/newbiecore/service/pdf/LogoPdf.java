@@ -0,0 +1,34 @@
+package com.newbie.newbiecore.service.pdf;
+
+/**
+ * Variantes del logo en los documentos PDF: estilo del {@code <img>} y el
+ * texto que se usa si el logo no está disponible.
+ */
+public enum LogoPdf {
+
+    /** Encabezado de orden de trabajo, conformidad y recibo. */
+    GRANDE("alt='Logo' style='max-height: 120px; max-width: 280px;'",
+            "<div style='font-size: 28px; font-weight: bold; color: #7c3aed;'>NEWBIE SOFT</div>"),
+
+    /** Encabezado de la confirmación de firma. */
+    MEDIANO("alt='Logo' style='max-height: 60px; max-width: 180px;'", "<b>NEWBIE SOFT</b>"),
+
+    /** Ficha técnica (guardada al cerrar y descargada desde /api/pdf/ficha). */
+    FICHA("style='height: 80px;'", "");
+
+    private final String atributos;
+    private final String respaldo;
+
+    LogoPdf(String atributos, String respaldo) {
+        this.atributos = atributos;
+        this.respaldo = respaldo;
+    }
+
+    String etiqueta(String src) {
+        return "<img src='" + src + "' " + atributos + " />";
+    }
+
+    String respaldo() {
+        return respaldo;
+    }
+}
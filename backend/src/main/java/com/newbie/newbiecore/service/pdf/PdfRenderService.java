@@ -0,0 +1,223 @@
+package com.newbie.newbiecore.service.pdf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import com.openhtmltopdf.extend.FSCacheEx;
+import com.openhtmltopdf.extend.FSCacheValue;
+import com.openhtmltopdf.extend.FSStream;
+import com.openhtmltopdf.extend.FSStreamFactory;
+import com.openhtmltopdf.extend.impl.FSDefaultCacheStore;
+import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Renderizado HTML → PDF compartido por todos los documentos.
+ *
+ * <ul>
+ * <li>Los recursos estáticos (logo) se leen una sola vez al arrancar y los
+ * documentos los referencian como {@code recurso:<nombre>}: el renderizador
+ * los lee de memoria en lugar de decodificar un data URI en cada PDF.</li>
+ * <li>Las métricas de fuentes se guardan en una caché compartida entre
+ * renderizados.</li>
+ * <li>Cada PDF se genera en {@code pdfExecutor}, con hilos y cola acotados:
+ * una ráfaga de cierres espera en la cola y, si esta se llena, se rechaza en
+ * lugar de consumir toda la CPU y la memoria.</li>
+ * <li>Métricas: {@code pdf.render} (duración por tipo de documento, con
+ * histograma), {@code pdf.render.espera} (tiempo en cola),
+ * {@code pdf.render.cola}, {@code pdf.render.activos} y
+ * {@code pdf.render.rechazados}.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class PdfRenderService {
+
+    static final String PROTOCOLO = "recurso";
+    private static final String LOGO = "logo.png";
+
+    private final ThreadPoolTaskExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final long timeoutMs;
+
+    private final Map<String, byte[]> recursos = new ConcurrentHashMap<>();
+    private final Map<LogoPdf, String> logos = new EnumMap<>(LogoPdf.class);
+    private final FSCacheEx<String, FSCacheValue> metricasFuentes = new FSDefaultCacheStore();
+    private final FSStreamFactory lectorRecursos = this::abrirRecurso;
+    private String versionRecursos = "";
+
+    private final Timer espera;
+    private final Counter rechazados;
+
+    public PdfRenderService(@Qualifier("pdfExecutor") ThreadPoolTaskExecutor executor,
+            MeterRegistry meterRegistry,
+            @Value("${app.pdf.timeout-ms:60000}") long timeoutMs) {
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.timeoutMs = timeoutMs;
+
+        this.espera = Timer.builder("pdf.render.espera").publishPercentileHistogram().register(meterRegistry);
+        this.rechazados = meterRegistry.counter("pdf.render.rechazados");
+        Gauge.builder("pdf.render.cola", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("pdf.render.activos", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void cargarRecursos() {
+        byte[] logo = leerClasspath("static/" + LOGO);
+        if (logo != null) {
+            recursos.put(LOGO, logo);
+            versionRecursos = huella(logo);
+        }
+        for (LogoPdf variante : LogoPdf.values()) {
+            logos.put(variante, logo != null ? variante.etiqueta(PROTOCOLO + ":" + LOGO) : variante.respaldo());
+        }
+    }
+
+    /**
+     * Etiqueta HTML del logo para la variante indicada (o su texto de
+     * respaldo si no hay logo).
+     */
+    public String logo(LogoPdf variante) {
+        return logos.get(variante);
+    }
+
+    /**
+     * Huella de los recursos cargados: si cambia el logo, cambian los PDFs
+     * aunque no cambien sus datos ni sus plantillas.
+     */
+    public String versionRecursos() {
+        return versionRecursos;
+    }
+
+    /**
+     * Renderiza el HTML en el pool de PDFs y espera el resultado.
+     *
+     * @param documento tipo de documento, para las métricas ("orden-trabajo", "ficha-tecnica", ...)
+     * @throws IllegalStateException si el pool está saturado o el renderizado no termina a tiempo
+     */
+    public byte[] renderizar(String documento, String html) {
+        long encolado = System.nanoTime();
+        Future<byte[]> resultado;
+        try {
+            resultado = executor.submit(() -> {
+                espera.record(System.nanoTime() - encolado, TimeUnit.NANOSECONDS);
+                Timer.Sample muestra = Timer.start(meterRegistry);
+                try {
+                    return htmlToPdf(html);
+                } finally {
+                    muestra.stop(Timer.builder("pdf.render")
+                            .tag("documento", documento)
+                            .publishPercentileHistogram()
+                            .register(meterRegistry));
+                }
+            });
+        } catch (TaskRejectedException e) {
+            rechazados.increment();
+            throw new IllegalStateException("Generación de PDF saturada, intente nuevamente en unos segundos", e);
+        }
+
+        try {
+            return resultado.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            resultado.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Generación de PDF interrumpida", e);
+        } catch (TimeoutException e) {
+            resultado.cancel(true);
+            throw new IllegalStateException("La generación del PDF (" + documento + ") superó el tiempo máximo", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error al renderizar HTML a PDF (" + documento + ")", e.getCause());
+        }
+    }
+
+    private byte[] htmlToPdf(String html) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(64 * 1024);
+        PdfRendererBuilder builder = new PdfRendererBuilder();
+        builder.useFastMode();
+        builder.useCacheStore(PdfRendererBuilder.CacheStore.PDF_FONT_METRICS, metricasFuentes);
+        builder.useProtocolsStreamImplementation(lectorRecursos, PROTOCOLO);
+        builder.withHtmlContent(html, null);
+        builder.toStream(baos);
+        builder.run();
+        return baos.toByteArray();
+    }
+
+    /*
+     * =============================
+     * RECURSOS EN MEMORIA
+     * =============================
+     */
+
+    private FSStream abrirRecurso(String uri) {
+        byte[] contenido = recursos.get(uri.substring(PROTOCOLO.length() + 1));
+        if (contenido == null) {
+            log.warn("Recurso de PDF no encontrado: {}", uri);
+        }
+        // Con stream null el renderizador omite el recurso; con FSStream null falla
+        return new FSStream() {
+            @Override
+            public InputStream getStream() {
+                return contenido != null ? new ByteArrayInputStream(contenido) : null;
+            }
+
+            @Override
+            public Reader getReader() {
+                return contenido != null
+                        ? new InputStreamReader(new ByteArrayInputStream(contenido), StandardCharsets.UTF_8)
+                        : null;
+            }
+        };
+    }
+
+    private static byte[] leerClasspath(String ruta) {
+        ClassPathResource resource = new ClassPathResource(ruta);
+        if (!resource.exists()) {
+            log.warn("Recurso de PDF {} no disponible", ruta);
+            return null;
+        }
+        try (InputStream in = resource.getInputStream()) {
+            return in.readAllBytes();
+        } catch (Exception e) {
+            log.error("No se pudo leer el recurso de PDF {}: {}", ruta, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String huella(byte[] contenido) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(contenido), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
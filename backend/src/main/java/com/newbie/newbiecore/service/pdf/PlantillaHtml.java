@@ -0,0 +1,373 @@
+package com.newbie.newbiecore.service.pdf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Plantilla HTML compilada una sola vez contra la clase de sus datos.
+ *
+ * <pre>
+ * {{campo}}                 valor escapado
+ * {{campo|filtro}}          valor pasado por un filtro y luego escapado
+ * {{{campo}}}               valor sin escapar (fragmentos ya armados: logo)
+ * {{#campo}} ... {{/campo}} bloque si el campo tiene valor; si es una lista,
+ *                           se repite con cada elemento como datos
+ * {{^campo}} ... {{/campo}} bloque si el campo es nulo, falso, vacío o lista vacía
+ * </pre>
+ *
+ * Los campos ({@code orden.clienteNombre}) se resuelven al compilar a
+ * accesores de record, getters o campos públicos; un campo o filtro
+ * inexistente falla al cargar la plantilla, no al generar el documento. Al
+ * renderizar solo se recorren los segmentos: sin parseo, sin reflexión y sin
+ * {@code String.format}.
+ */
+public final class PlantillaHtml<T> {
+
+    private static final String CARPETA = "plantillas/pdf/";
+    private static final MethodType TIPO_GENERICO = MethodType.methodType(Object.class, Object.class);
+
+    private final String nombre;
+    private final String version;
+    private final Segmento[] segmentos;
+    private final int tamanoInicial;
+
+    private PlantillaHtml(String nombre, String version, Segmento[] segmentos, int tamanoLiterales) {
+        this.nombre = nombre;
+        this.version = version;
+        this.segmentos = segmentos;
+        // Margen para los valores: evita que el StringBuilder crezca varias veces
+        this.tamanoInicial = tamanoLiterales + tamanoLiterales / 4;
+    }
+
+    /**
+     * Carga y compila {@code plantillas/pdf/<archivo>} del classpath.
+     */
+    public static <T> PlantillaHtml<T> cargar(String archivo, Class<T> tipo,
+            Map<String, Function<Object, String>> filtros) {
+        ClassPathResource resource = new ClassPathResource(CARPETA + archivo);
+        try (InputStream in = resource.getInputStream()) {
+            return compilar(archivo, new String(in.readAllBytes(), StandardCharsets.UTF_8), tipo, filtros);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo leer la plantilla " + archivo, e);
+        }
+    }
+
+    static <T> PlantillaHtml<T> compilar(String nombre, String fuente, Class<T> tipo,
+            Map<String, Function<Object, String>> filtros) {
+        Compilador compilador = new Compilador(nombre, fuente, filtros);
+        Segmento[] segmentos = compilador.compilar(tipo, null);
+        return new PlantillaHtml<>(nombre, huella(fuente), segmentos, compilador.tamanoLiterales);
+    }
+
+    /**
+     * Huella del texto de la plantilla: cambia con cualquier edición, así que
+     * sirve para invalidar los PDFs ya generados con una versión anterior.
+     */
+    public String version() {
+        return version;
+    }
+
+    public String renderizar(T datos) {
+        StringBuilder sb = new StringBuilder(tamanoInicial);
+        escribir(segmentos, datos, sb);
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "PlantillaHtml[" + nombre + "]";
+    }
+
+    private static void escribir(Segmento[] segmentos, Object datos, StringBuilder sb) {
+        for (Segmento segmento : segmentos) {
+            segmento.escribir(datos, sb);
+        }
+    }
+
+    /*
+     * =============================
+     * SEGMENTOS
+     * =============================
+     */
+
+    private interface Segmento {
+        void escribir(Object datos, StringBuilder sb);
+    }
+
+    private record Literal(String texto) implements Segmento {
+        @Override
+        public void escribir(Object datos, StringBuilder sb) {
+            sb.append(texto);
+        }
+    }
+
+    private record Valor(Accesor accesor, Function<Object, String> filtro, boolean escapar) implements Segmento {
+        @Override
+        public void escribir(Object datos, StringBuilder sb) {
+            Object valor = accesor.leer(datos);
+            String texto = filtro != null ? filtro.apply(valor) : (valor == null ? null : valor.toString());
+            if (texto == null) {
+                return;
+            }
+            if (escapar) {
+                escaparHtml(texto, sb);
+            } else {
+                sb.append(texto);
+            }
+        }
+    }
+
+    private record Bloque(Accesor accesor, Segmento[] cuerpo, boolean invertido, boolean lista)
+            implements Segmento {
+        @Override
+        public void escribir(Object datos, StringBuilder sb) {
+            Object valor = accesor.leer(datos);
+            if (invertido) {
+                if (!tieneValor(valor)) {
+                    PlantillaHtml.escribir(cuerpo, datos, sb);
+                }
+            } else if (lista) {
+                if (valor != null) {
+                    for (Object elemento : (Iterable<?>) valor) {
+                        PlantillaHtml.escribir(cuerpo, elemento, sb);
+                    }
+                }
+            } else if (tieneValor(valor)) {
+                PlantillaHtml.escribir(cuerpo, datos, sb);
+            }
+        }
+    }
+
+    private static boolean tieneValor(Object valor) {
+        if (valor == null) {
+            return false;
+        }
+        if (valor instanceof Boolean b) {
+            return b;
+        }
+        if (valor instanceof String s) {
+            return !s.isBlank();
+        }
+        if (valor instanceof Collection<?> c) {
+            return !c.isEmpty();
+        }
+        return true;
+    }
+
+    /**
+     * Cadena de accesores de un campo con puntos ({@code orden.costos}).
+     */
+    private record Accesor(MethodHandle[] cadena) {
+        Object leer(Object datos) {
+            Object valor = datos;
+            try {
+                for (MethodHandle paso : cadena) {
+                    if (valor == null) {
+                        return null;
+                    }
+                    valor = paso.invokeExact(valor);
+                }
+                return valor;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static String huella(String fuente) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(fuente.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void escaparHtml(String s, StringBuilder sb) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '&' -> sb.append("&amp;");
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '"' -> sb.append("&quot;");
+                case '\'' -> sb.append("&#39;");
+                default -> sb.append(c);
+            }
+        }
+    }
+
+    /*
+     * =============================
+     * COMPILACIÓN
+     * =============================
+     */
+
+    private static final class Compilador {
+
+        private final String nombre;
+        private final String fuente;
+        private final Map<String, Function<Object, String>> filtros;
+        private int pos;
+        private int tamanoLiterales;
+
+        Compilador(String nombre, String fuente, Map<String, Function<Object, String>> filtros) {
+            this.nombre = nombre;
+            this.fuente = fuente;
+            this.filtros = filtros;
+        }
+
+        /**
+         * Compila desde la posición actual hasta {@code {{/cierre}}} (o el final
+         * si cierre es null), resolviendo los campos contra {@code tipo}.
+         */
+        Segmento[] compilar(Class<?> tipo, String cierre) {
+            List<Segmento> segmentos = new ArrayList<>();
+            while (true) {
+                int inicio = fuente.indexOf("{{", pos);
+                if (inicio < 0) {
+                    if (cierre != null) {
+                        throw error("falta {{/" + cierre + "}}");
+                    }
+                    agregarLiteral(segmentos, fuente.substring(pos));
+                    pos = fuente.length();
+                    return segmentos.toArray(Segmento[]::new);
+                }
+                agregarLiteral(segmentos, fuente.substring(pos, inicio));
+
+                boolean crudo = fuente.startsWith("{{{", inicio);
+                String fin = crudo ? "}}}" : "}}";
+                int finEtiqueta = fuente.indexOf(fin, inicio);
+                if (finEtiqueta < 0) {
+                    throw error("etiqueta sin cerrar en la posición " + inicio);
+                }
+                String etiqueta = fuente.substring(inicio + (crudo ? 3 : 2), finEtiqueta).trim();
+                pos = finEtiqueta + fin.length();
+
+                char tipoEtiqueta = crudo ? ' ' : etiqueta.charAt(0);
+                switch (tipoEtiqueta) {
+                    case '/' -> {
+                        String campo = etiqueta.substring(1).trim();
+                        if (!campo.equals(cierre)) {
+                            throw error("{{/" + campo + "}} no corresponde a ningún bloque abierto");
+                        }
+                        return segmentos.toArray(Segmento[]::new);
+                    }
+                    case '#', '^' -> segmentos.add(bloque(tipo, etiqueta.substring(1).trim(), tipoEtiqueta == '^'));
+                    default -> segmentos.add(valor(tipo, etiqueta, !crudo));
+                }
+            }
+        }
+
+        private Segmento valor(Class<?> tipo, String etiqueta, boolean escapar) {
+            int barra = etiqueta.indexOf('|');
+            String campo = barra < 0 ? etiqueta : etiqueta.substring(0, barra).trim();
+            Function<Object, String> filtro = null;
+            if (barra >= 0) {
+                String nombreFiltro = etiqueta.substring(barra + 1).trim();
+                filtro = filtros.get(nombreFiltro);
+                if (filtro == null) {
+                    throw error("filtro desconocido '" + nombreFiltro + "'");
+                }
+            }
+            return new Valor(resolver(tipo, campo).accesor(), filtro, escapar);
+        }
+
+        private Segmento bloque(Class<?> tipo, String campo, boolean invertido) {
+            Resolucion resolucion = resolver(tipo, campo);
+            boolean lista = !invertido && Iterable.class.isAssignableFrom(resolucion.tipo());
+            Class<?> tipoCuerpo = lista ? resolucion.tipoElemento() : tipo;
+            Segmento[] cuerpo = compilar(tipoCuerpo, campo);
+            return new Bloque(resolucion.accesor(), cuerpo, invertido, lista);
+        }
+
+        private void agregarLiteral(List<Segmento> segmentos, String texto) {
+            if (!texto.isEmpty()) {
+                segmentos.add(new Literal(texto));
+                tamanoLiterales += texto.length();
+            }
+        }
+
+        private record Resolucion(Accesor accesor, Class<?> tipo, Class<?> tipoElemento) {
+        }
+
+        private Resolucion resolver(Class<?> tipo, String campo) {
+            String[] partes = campo.split("\\.");
+            MethodHandle[] cadena = new MethodHandle[partes.length];
+            Class<?> actual = tipo;
+            Type generico = tipo;
+            for (int i = 0; i < partes.length; i++) {
+                Object miembro = buscarMiembro(actual, partes[i]);
+                if (miembro == null) {
+                    throw error("'" + campo + "' no existe en " + actual.getSimpleName());
+                }
+                try {
+                    if (miembro instanceof Method metodo) {
+                        metodo.setAccessible(true);
+                        cadena[i] = MethodHandles.lookup().unreflect(metodo).asType(TIPO_GENERICO);
+                        actual = metodo.getReturnType();
+                        generico = metodo.getGenericReturnType();
+                    } else {
+                        Field field = (Field) miembro;
+                        field.setAccessible(true);
+                        cadena[i] = MethodHandles.lookup().unreflectGetter(field).asType(TIPO_GENERICO);
+                        actual = field.getType();
+                        generico = field.getGenericType();
+                    }
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    throw new IllegalStateException("Plantilla " + nombre + ": no se puede leer '" + campo + "'", e);
+                }
+            }
+            Class<?> elemento = Object.class;
+            if (generico instanceof ParameterizedType p && p.getActualTypeArguments()[0] instanceof Class<?> c) {
+                elemento = c;
+            }
+            return new Resolucion(new Accesor(cadena), actual, elemento);
+        }
+
+        private static Object buscarMiembro(Class<?> tipo, String propiedad) {
+            String sufijo = Character.toUpperCase(propiedad.charAt(0)) + propiedad.substring(1);
+            for (String nombreMetodo : new String[] { "get" + sufijo, "is" + sufijo, propiedad }) {
+                try {
+                    Method metodo = tipo.getMethod(nombreMetodo);
+                    if (metodo.getReturnType() != void.class && !Modifier.isStatic(metodo.getModifiers())) {
+                        return metodo;
+                    }
+                } catch (NoSuchMethodException e) {
+                    // probar el siguiente nombre
+                }
+            }
+            try {
+                Field field = tipo.getField(propiedad);
+                return Modifier.isStatic(field.getModifiers()) ? null : field;
+            } catch (NoSuchFieldException e) {
+                return null;
+            }
+        }
+
+        private IllegalStateException error(String detalle) {
+            return new IllegalStateException("Plantilla " + nombre + ": " + detalle);
+        }
+    }
+}
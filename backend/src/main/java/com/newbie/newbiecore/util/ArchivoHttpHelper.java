@@ -0,0 +1,64 @@
+package com.newbie.newbiecore.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Respuestas HTTP para archivos de la carpeta de uploads.
+ *
+ * <ul>
+ * <li>El cuerpo es un {@link FileSystemResource}: Spring copia el archivo a
+ * la respuesta por bloques, sin cargarlo entero en memoria.</li>
+ * <li>Con un encabezado {@code Range} Spring responde {@code 206} con solo
+ * los bytes pedidos (o {@code 416} si el rango no es válido).</li>
+ * <li>{@code ETag} (tamaño + fecha de modificación) y {@code Last-Modified}
+ * permiten que Spring responda {@code 304} a {@code If-None-Match} o
+ * {@code If-Modified-Since} sin enviar el archivo.</li>
+ * </ul>
+ */
+public final class ArchivoHttpHelper {
+
+    private ArchivoHttpHelper() {
+    }
+
+    /**
+     * Respuesta con el archivo, o {@code 404} si no existe o no es un archivo
+     * regular.
+     *
+     * @param inline nombre para {@code Content-Disposition: inline}, o null
+     *               para no enviarlo
+     */
+    public static ResponseEntity<Resource> servir(Path archivo, MediaType tipo, CacheControl cache, String inline)
+            throws IOException {
+        BasicFileAttributes atributos;
+        try {
+            atributos = Files.readAttributes(archivo, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!atributos.isRegularFile()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        long modificado = atributos.lastModifiedTime().toMillis();
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(tipo)
+                .eTag(Long.toHexString(atributos.size()) + "-" + Long.toHexString(modificado))
+                .lastModified(modificado)
+                .cacheControl(cache);
+        if (inline != null) {
+            respuesta.header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + inline + "\"");
+        }
+        return respuesta.body(new FileSystemResource(archivo));
+    }
+}
@@ -0,0 +1,74 @@
+package com.newbie.newbiecore.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché en memoria acotada con expiración por entrada.
+ *
+ * Las lecturas no bloquean. Al llegar al máximo se eliminan primero las
+ * entradas vencidas y, si no basta, entradas arbitrarias hasta bajar al 90 %:
+ * no es LRU, pero mantiene el tamaño acotado sin coste en el camino de lectura.
+ */
+public class CacheConExpiracion<K, V> {
+
+    private record Entrada<V>(V valor, long expiraEnMs) {
+    }
+
+    private final Map<K, Entrada<V>> entradas = new ConcurrentHashMap<>();
+    private final int maximo;
+
+    public CacheConExpiracion(int maximo) {
+        this.maximo = Math.max(1, maximo);
+    }
+
+    /**
+     * Valor guardado para la clave, o null si no existe o ya venció.
+     */
+    public V obtener(K clave) {
+        Entrada<V> entrada = entradas.get(clave);
+        if (entrada == null) {
+            return null;
+        }
+        if (entrada.expiraEnMs() <= System.currentTimeMillis()) {
+            entradas.remove(clave, entrada);
+            return null;
+        }
+        return entrada.valor();
+    }
+
+    public void guardar(K clave, V valor, long expiraEnMs) {
+        if (expiraEnMs <= System.currentTimeMillis()) {
+            return;
+        }
+        if (entradas.size() >= maximo) {
+            liberarEspacio();
+        }
+        entradas.put(clave, new Entrada<>(valor, expiraEnMs));
+    }
+
+    public void invalidar(K clave) {
+        entradas.remove(clave);
+    }
+
+    public void limpiar() {
+        entradas.clear();
+    }
+
+    public int tamano() {
+        return entradas.size();
+    }
+
+    private void liberarEspacio() {
+        long ahora = System.currentTimeMillis();
+        entradas.values().removeIf(e -> e.expiraEnMs() <= ahora);
+
+        int objetivo = maximo - Math.max(1, maximo / 10);
+        Iterator<K> it = entradas.keySet().iterator();
+        while (entradas.size() > objetivo && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
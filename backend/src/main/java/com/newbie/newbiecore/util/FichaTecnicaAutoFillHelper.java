@@ -4,350 +4,392 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.newbie.newbiecore.entity.Equipo;
 import com.newbie.newbiecore.entity.FichaTecnica;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
+/**
+ * Autorrelleno de la ficha técnica desde el equipo y su hardwareJson.
+ *
+ * El mapeo es una tabla de reglas (origen → conversor → campo de la ficha)
+ * construida una sola vez al cargar la clase; rellenar una ficha solo recorre
+ * ese arreglo. Cada regla escribe únicamente si el campo está vacío y el
+ * valor convertido no es null, y las reglas se aplican en orden: la primera
+ * que rellena un campo gana.
+ *
+ * La conversión se puede separar de la asignación: {@link #extraer(Equipo)}
+ * convierte una vez todos los valores a un {@link Snapshot} inmutable, que
+ * luego rellena cualquier número de fichas del mismo equipo sin volver a leer
+ * el equipo ni su hardwareJson.
+ */
 public class FichaTecnicaAutoFillHelper {
 
-        public static void rellenarDesdeHardwareJson(FichaTecnica ficha, Equipo equipo) {
-                JsonNode hw = equipo.getHardwareJson();
+        /**
+         * Una regla ya enlazada: lee el campo de la ficha y, si está vacío,
+         * obtiene el valor del origen y lo asigna.
+         */
+        private record Regla<O, T>(Function<O, String> origen,
+                        Function<String, T> conversor,
+                        Function<FichaTecnica, Object> actual,
+                        BiConsumer<FichaTecnica, T> asignar) {
+
+                void aplicar(FichaTecnica ficha, O fuente) {
+                        if (actual.apply(ficha) != null)
+                                return;
+                        T valor = extraer(fuente);
+                        if (valor != null)
+                                asignar.accept(ficha, valor);
+                }
+
+                /** Valor convertido desde el origen, o null si no hay dato. */
+                T extraer(O fuente) {
+                        String raw = origen.apply(fuente);
+                        return raw == null ? null : conversor.apply(raw);
+                }
+
+                /** Asigna un valor obtenido antes con {@link #extraer} de esta misma regla. */
+                @SuppressWarnings("unchecked")
+                void asignar(FichaTecnica ficha, Object valor) {
+                        if (valor != null && actual.apply(ficha) == null)
+                                asignar.accept(ficha, (T) valor);
+                }
+        }
 
-                // Helpers
-                java.util.function.BiConsumer<java.util.function.Supplier<Object>, Runnable> onlyIfNull = (getter,
-                                setter) -> {
-                        if (getter.get() == null)
-                                setter.run();
-                };
-
-                // ==================== DATOS DEL EQUIPO (desde entidad Equipo)
-                // ====================
-                onlyIfNull.accept(ficha::getEquipoMarca,
-                                () -> ficha.setEquipoMarca(equipo.getMarca()));
-                onlyIfNull.accept(ficha::getEquipoModelo,
-                                () -> ficha.setEquipoModelo(equipo.getModelo()));
-                onlyIfNull.accept(ficha::getEquipoSerie,
-                                () -> ficha.setEquipoSerie(equipo.getNumeroSerie()));
-                onlyIfNull.accept(ficha::getEquipoNombre,
-                                () -> ficha.setEquipoNombre(equipo.getHostname()));
-                onlyIfNull.accept(ficha::getRamTipoEquipo,
-                                () -> ficha.setRamTipoEquipo(equipo.getTipo())); // Desktop, Laptop, etc.
-                // SO desde equipo si existe
-                if (equipo.getSistemaOperativo() != null && !equipo.getSistemaOperativo().isEmpty()) {
-                        onlyIfNull.accept(ficha::getSoDescripcion,
-                                        () -> ficha.setSoDescripcion(equipo.getSistemaOperativo()));
+        /**
+         * Datos de un equipo ya convertidos: un valor por regla de
+         * {@code REGLAS_EQUIPO} y {@code REGLAS_HARDWARE} (null si no hay dato o
+         * no se pudo convertir). Inmutable, así que se puede compartir entre hilos
+         * y fichas.
+         */
+        public static final class Snapshot {
+
+                private final Object[] equipo;
+                private final Object[] hardware;
+
+                private Snapshot(Object[] equipo, Object[] hardware) {
+                        this.equipo = equipo;
+                        this.hardware = hardware;
                 }
+        }
+
+        /* ================== TABLA DE MAPEO ================== */
+
+        // ==================== DATOS DEL EQUIPO (desde entidad Equipo) ====================
+        @SuppressWarnings("unchecked")
+        private static final Regla<Equipo, ?>[] REGLAS_EQUIPO = new Regla[] {
+                        equipo(Equipo::getMarca, FichaTecnica::getEquipoMarca, FichaTecnica::setEquipoMarca),
+                        equipo(Equipo::getModelo, FichaTecnica::getEquipoModelo, FichaTecnica::setEquipoModelo),
+                        equipo(Equipo::getNumeroSerie, FichaTecnica::getEquipoSerie, FichaTecnica::setEquipoSerie),
+                        equipo(Equipo::getHostname, FichaTecnica::getEquipoNombre, FichaTecnica::setEquipoNombre),
+                        // Desktop, Laptop, etc.
+                        equipo(Equipo::getTipo, FichaTecnica::getRamTipoEquipo, FichaTecnica::setRamTipoEquipo),
+                        // SO desde equipo solo si no está vacío
+                        new Regla<Equipo, String>(Equipo::getSistemaOperativo, s -> s.isEmpty() ? null : s,
+                                        FichaTecnica::getSoDescripcion, FichaTecnica::setSoDescripcion),
+        };
+
+        @SuppressWarnings("unchecked")
+        private static final Regla<JsonNode, ?>[] REGLAS_HARDWARE = new Regla[] {
+                        // CPU
+                        texto("Nombre del procesador", FichaTecnica::getCpuNombre, FichaTecnica::setCpuNombre),
+                        entero("Número de núcleos de procesador", FichaTecnica::getCpuNucleos,
+                                        FichaTecnica::setCpuNucleos),
+                        entero("Número de procesadores lógicos", FichaTecnica::getCpuLogicos,
+                                        FichaTecnica::setCpuLogicos),
+                        entero("Número de paquetes de procesador (físicos)", FichaTecnica::getCpuPaquetesFisicos,
+                                        FichaTecnica::setCpuPaquetesFisicos),
+                        entero("Original Processor Frequency [MHz]", FichaTecnica::getCpuFrecuenciaOriginalMhz,
+                                        FichaTecnica::setCpuFrecuenciaOriginalMhz),
+
+                        // RAM
+                        entero("Tamaño del módulo", FichaTecnica::getRamCapacidadGb, // "16 GBytes"
+                                        FichaTecnica::setRamCapacidadGb),
+                        entero("Velocidad del módulo", FichaTecnica::getRamFrecuenciaMhz, // MHz
+                                        FichaTecnica::setRamFrecuenciaMhz),
+                        texto("Tipo de módulo", FichaTecnica::getRamTecnologiaModulo,
+                                        FichaTecnica::setRamTecnologiaModulo),
+                        texto("Tipo de memoria", FichaTecnica::getRamTipo, FichaTecnica::setRamTipo),
+                        entero("Número de módulo", FichaTecnica::getRamNumeroModulo, FichaTecnica::setRamNumeroModulo),
+                        texto("Número de serie del módulo", FichaTecnica::getRamSerieModulo,
+                                        FichaTecnica::setRamSerieModulo),
+                        texto("Fecha de fabricación del módulo", FichaTecnica::getRamFechaFabricacion,
+                                        FichaTecnica::setRamFechaFabricacion),
+                        texto("Ubicación de fabricación del módulo", FichaTecnica::getRamLugarFabricacion,
+                                        FichaTecnica::setRamLugarFabricacion),
+                        // RAM ficha física - copiar si no hay valores manuales
+                        texto("Tamaño del módulo", FichaTecnica::getRamCapacidadFicha,
+                                        FichaTecnica::setRamCapacidadFicha),
+                        texto("Velocidad del módulo", FichaTecnica::getRamFrecuenciaFicha,
+                                        FichaTecnica::setRamFrecuenciaFicha),
+                        texto("Tipo de memoria", FichaTecnica::getRamTecnologiaFicha,
+                                        FichaTecnica::setRamTecnologiaFicha),
+                        texto("Fabricante del módulo de memoria", FichaTecnica::getRamMarcaFicha,
+                                        FichaTecnica::setRamMarcaFicha),
+
+                        // Disco
+                        texto("Modelo de unidad", FichaTecnica::getDiscoModelo, FichaTecnica::setDiscoModelo),
+                        texto("Número de serie de la unidad", FichaTecnica::getDiscoNumeroSerie,
+                                        FichaTecnica::setDiscoNumeroSerie),
+                        entero("Drive Capacity [MB]", FichaTecnica::getDiscoCapacidadMb,
+                                        FichaTecnica::setDiscoCapacidadMb),
+                        texto("Capacidad de la unidad", FichaTecnica::getDiscoCapacidadStr,
+                                        FichaTecnica::setDiscoCapacidadStr),
+                        entero("Tasa de rotación de medios", FichaTecnica::getDiscoRpm, FichaTecnica::setDiscoRpm),
+                        texto("Tipo de unidad", FichaTecnica::getDiscoTipo, FichaTecnica::setDiscoTipo), // SSD, HDD, NVMe
+                        texto("Drive Letter(s)", FichaTecnica::getDiscoLetras, FichaTecnica::setDiscoLetras),
+                        texto("Nombre mundial (WWN)", FichaTecnica::getDiscoWwn, FichaTecnica::setDiscoWwn),
+                        texto("[C2] Temperatura", FichaTecnica::getDiscoTemperatura,
+                                        FichaTecnica::setDiscoTemperatura),
+                        texto("[09] Número de ciclos/horas de encendido", FichaTecnica::getDiscoHorasEncendido,
+                                        FichaTecnica::setDiscoHorasEncendido),
+                        texto("[05] Reasignado el conteo del sector", FichaTecnica::getDiscoSectoresReasignados,
+                                        FichaTecnica::setDiscoSectoresReasignados),
+                        texto("[C5] Recuento actual de sectores pendientes", FichaTecnica::getDiscoSectoresPendientes,
+                                        FichaTecnica::setDiscoSectoresPendientes),
+                        texto("[01] Tasa de errores en la lectura", FichaTecnica::getDiscoErroresLectura,
+                                        FichaTecnica::setDiscoErroresLectura),
+                        texto("[C7] Tasa de error UltraDMA/SATA CRC", FichaTecnica::getDiscoErrorCrc,
+                                        FichaTecnica::setDiscoErrorCrc),
+                        // Disco ficha física - copiar valores detectados
+                        texto("Tipo de unidad", FichaTecnica::getDiscoTipoFicha, FichaTecnica::setDiscoTipoFicha),
+                        texto("Fabricante de la unidad", FichaTecnica::getDiscoMarcaFicha,
+                                        FichaTecnica::setDiscoMarcaFicha),
+                        texto("Capacidad de la unidad", FichaTecnica::getDiscoCapacidadFicha,
+                                        FichaTecnica::setDiscoCapacidadFicha),
+                        texto("Número de serie de la unidad", FichaTecnica::getDiscoSerieFicha,
+                                        FichaTecnica::setDiscoSerieFicha),
+
+                        // GPU / mainboard / buses
+                        texto("Tarjeta grafica", FichaTecnica::getGpuNombre, FichaTecnica::setGpuNombre),
+                        hardware("Tarjeta grafica", FichaTecnicaAutoFillHelper::tipoGrafica,
+                                        FichaTecnica::getGraficaTipo, FichaTecnica::setGraficaTipo),
+                        texto("Modelo de placa base", FichaTecnica::getMainboardModelo,
+                                        FichaTecnica::setMainboardModelo),
+                        texto("Modelo de placa base", FichaTecnica::getMainboardModeloFicha,
+                                        FichaTecnica::setMainboardModeloFicha),
+                        texto("Chipset de la placa base", FichaTecnica::getChipset, FichaTecnica::setChipset),
+                        texto("Versión de PCI Express admitida", FichaTecnica::getPciExpressVersion,
+                                        FichaTecnica::setPciExpressVersion),
+                        texto("Versión USB admitida", FichaTecnica::getUsbVersion, FichaTecnica::setUsbVersion),
+
+                        // Procesador marca/modelo (ficha física)
+                        hardware("Nombre del procesador", FichaTecnicaAutoFillHelper::marcaProcesador,
+                                        FichaTecnica::getProcesadorMarca, FichaTecnica::setProcesadorMarca),
+                        texto("Nombre del procesador", FichaTecnica::getProcesadorModelo,
+                                        FichaTecnica::setProcesadorModelo),
+
+                        // Red
+                        texto("Tarjeta de red", FichaTecnica::getAdaptadorRed, FichaTecnica::setAdaptadorRed),
+                        texto("Dirección MAC", FichaTecnica::getMacAddress, FichaTecnica::setMacAddress),
+                        texto("Velocidad de enlace actual", FichaTecnica::getWifiLinkSpeedActual,
+                                        FichaTecnica::setWifiLinkSpeedActual),
+                        texto("Velocidad máxima de enlace", FichaTecnica::getWifiLinkSpeedMax,
+                                        FichaTecnica::setWifiLinkSpeedMax),
+
+                        // BIOS / UEFI / SO
+                        texto("Fabricante de BIOS", FichaTecnica::getBiosFabricante, FichaTecnica::setBiosFabricante),
+                        texto("Versión de BIOS", FichaTecnica::getBiosVersion, FichaTecnica::setBiosVersion),
+                        texto("Fecha de BIOS (mm/dd/yyyy)", FichaTecnica::getBiosFechaStr,
+                                        FichaTecnica::setBiosFechaStr),
+
+                        hardware("UEFI BIOS", s -> booleano(s, "capaz"), FichaTecnica::getBiosEsUefiCapaz,
+                                        FichaTecnica::setBiosEsUefiCapaz),
+                        hardware("Arranque UEFI", s -> booleano(s, "presente"), FichaTecnica::getArranqueUefiPresente,
+                                        FichaTecnica::setArranqueUefiPresente),
+                        hardware("Arranque seguro", s -> booleano(s, "activado"), FichaTecnica::getSecureBootActivo,
+                                        FichaTecnica::setSecureBootActivo),
+
+                        texto("Sistema operativo", FichaTecnica::getSoDescripcion, FichaTecnica::setSoDescripcion),
+                        texto("Descripción del proveedor", FichaTecnica::getSoProveedor, FichaTecnica::setSoProveedor),
+                        // SO ficha física
+                        hardware("Sistema operativo", FichaTecnicaAutoFillHelper::tipoSistemaOperativo,
+                                        FichaTecnica::getSoTipo, FichaTecnica::setSoTipo),
+                        texto("Sistema operativo", FichaTecnica::getSoVersion, FichaTecnica::setSoVersion),
+
+                        // TPM / HVCI
+                        hardware("Chip del módulo de plataforma segura (TPM)",
+                                        s -> s.toLowerCase(Locale.ROOT).contains("present") ? Boolean.TRUE : null,
+                                        FichaTecnica::getTpmPresente, FichaTecnica::setTpmPresente),
+                        hardware("Chip del módulo de plataforma segura (TPM)", FichaTecnicaAutoFillHelper::versionTpm,
+                                        FichaTecnica::getTpmVersion, FichaTecnica::setTpmVersion),
+                        texto("Integridad de código protegida por hipervisor (HVCI)", FichaTecnica::getHvciEstado,
+                                        FichaTecnica::setHvciEstado),
+
+                        // Nombre equipo / monitor
+                        texto("Nombre del computadora", FichaTecnica::getEquipoNombre, FichaTecnica::setEquipoNombre),
+                        texto("Nombre del monitor", FichaTecnica::getMonitorNombre, FichaTecnica::setMonitorNombre),
+                        texto("Nombre del monitor (del fabricante)", FichaTecnica::getMonitorModelo,
+                                        FichaTecnica::setMonitorModelo),
+
+                        // Audio
+                        texto("Adaptador de sonido", FichaTecnica::getAudioAdaptador, FichaTecnica::setAudioAdaptador),
+                        texto("Códec de audio de alta definición", FichaTecnica::getAudioCodec,
+                                        FichaTecnica::setAudioCodec),
+                        texto("ID de hardware del códec de audio", FichaTecnica::getAudioHardwareId,
+                                        FichaTecnica::setAudioHardwareId),
+        };
+
+        /* ================== API ================== */
+
+        public static void rellenarDesdeHardwareJson(FichaTecnica ficha, Equipo equipo) {
+                for (Regla<Equipo, ?> regla : REGLAS_EQUIPO)
+                        regla.aplicar(ficha, equipo);
 
                 // Si no hay hardwareJson, terminar aquí
+                JsonNode hw = equipo.getHardwareJson();
                 if (hw == null)
                         return;
 
-                // CPU
-                onlyIfNull.accept(ficha::getCpuNombre,
-                                () -> ficha.setCpuNombre(text(hw, "Nombre del procesador")));
-                onlyIfNull.accept(ficha::getCpuNucleos,
-                                () -> ficha.setCpuNucleos(intFromText(hw, "Número de núcleos de procesador")));
-                onlyIfNull.accept(ficha::getCpuLogicos,
-                                () -> ficha.setCpuLogicos(intFromText(hw, "Número de procesadores lógicos")));
-                onlyIfNull.accept(ficha::getCpuPaquetesFisicos,
-                                () -> ficha.setCpuPaquetesFisicos(
-                                                intFromText(hw, "Número de paquetes de procesador (físicos)")));
-                onlyIfNull.accept(ficha::getCpuFrecuenciaOriginalMhz,
-                                () -> ficha.setCpuFrecuenciaOriginalMhz(
-                                                intFromText(hw, "Original Processor Frequency [MHz]")));
-
-                // RAM
-                onlyIfNull.accept(ficha::getRamCapacidadGb,
-                                () -> ficha.setRamCapacidadGb(intFromSizeGb(hw, "Tamaño del módulo"))); // "16 GBytes"
-                onlyIfNull.accept(ficha::getRamFrecuenciaMhz,
-                                () -> ficha.setRamFrecuenciaMhz(intFromText(hw, "Velocidad del módulo"))); // MHz
-                onlyIfNull.accept(ficha::getRamTecnologiaModulo,
-                                () -> ficha.setRamTecnologiaModulo(text(hw, "Tipo de módulo")));
-                onlyIfNull.accept(ficha::getRamTipo,
-                                () -> ficha.setRamTipo(text(hw, "Tipo de memoria")));
-                onlyIfNull.accept(ficha::getRamNumeroModulo,
-                                () -> ficha.setRamNumeroModulo(intFromText(hw, "Número de módulo")));
-                onlyIfNull.accept(ficha::getRamSerieModulo,
-                                () -> ficha.setRamSerieModulo(text(hw, "Número de serie del módulo")));
-                onlyIfNull.accept(ficha::getRamFechaFabricacion,
-                                () -> ficha.setRamFechaFabricacion(text(hw, "Fecha de fabricación del módulo")));
-                onlyIfNull.accept(ficha::getRamLugarFabricacion,
-                                () -> ficha.setRamLugarFabricacion(text(hw, "Ubicación de fabricación del módulo")));
-                // RAM ficha física - copiar si no hay valores manuales
-                onlyIfNull.accept(ficha::getRamCapacidadFicha,
-                                () -> {
-                                        String cap = text(hw, "Tamaño del módulo");
-                                        if (cap != null)
-                                                ficha.setRamCapacidadFicha(cap);
-                                });
-                onlyIfNull.accept(ficha::getRamFrecuenciaFicha,
-                                () -> {
-                                        String freq = text(hw, "Velocidad del módulo");
-                                        if (freq != null)
-                                                ficha.setRamFrecuenciaFicha(freq);
-                                });
-                onlyIfNull.accept(ficha::getRamTecnologiaFicha,
-                                () -> ficha.setRamTecnologiaFicha(text(hw, "Tipo de memoria")));
-                onlyIfNull.accept(ficha::getRamMarcaFicha,
-                                () -> ficha.setRamMarcaFicha(text(hw, "Fabricante del módulo de memoria")));
-
-                // Disco
-                onlyIfNull.accept(ficha::getDiscoModelo,
-                                () -> ficha.setDiscoModelo(text(hw, "Modelo de unidad")));
-                onlyIfNull.accept(ficha::getDiscoNumeroSerie,
-                                () -> ficha.setDiscoNumeroSerie(text(hw, "Número de serie de la unidad")));
-                onlyIfNull.accept(ficha::getDiscoCapacidadMb,
-                                () -> ficha.setDiscoCapacidadMb(intFromText(hw, "Drive Capacity [MB]")));
-                onlyIfNull.accept(ficha::getDiscoCapacidadStr,
-                                () -> ficha.setDiscoCapacidadStr(text(hw, "Capacidad de la unidad")));
-                onlyIfNull.accept(ficha::getDiscoRpm,
-                                () -> ficha.setDiscoRpm(intFromText(hw, "Tasa de rotación de medios")));
-                onlyIfNull.accept(ficha::getDiscoTipo,
-                                () -> ficha.setDiscoTipo(text(hw, "Tipo de unidad"))); // SSD, HDD, NVMe
-                onlyIfNull.accept(ficha::getDiscoLetras,
-                                () -> ficha.setDiscoLetras(text(hw, "Drive Letter(s)")));
-                onlyIfNull.accept(ficha::getDiscoWwn,
-                                () -> ficha.setDiscoWwn(text(hw, "Nombre mundial (WWN)")));
-                onlyIfNull.accept(ficha::getDiscoTemperatura,
-                                () -> ficha.setDiscoTemperatura(text(hw, "[C2] Temperatura")));
-                onlyIfNull.accept(ficha::getDiscoHorasEncendido,
-                                () -> ficha.setDiscoHorasEncendido(
-                                                text(hw, "[09] Número de ciclos/horas de encendido")));
-                onlyIfNull.accept(ficha::getDiscoSectoresReasignados,
-                                () -> ficha.setDiscoSectoresReasignados(
-                                                text(hw, "[05] Reasignado el conteo del sector")));
-                onlyIfNull.accept(ficha::getDiscoSectoresPendientes,
-                                () -> ficha.setDiscoSectoresPendientes(
-                                                text(hw, "[C5] Recuento actual de sectores pendientes")));
-                onlyIfNull.accept(ficha::getDiscoErroresLectura,
-                                () -> ficha.setDiscoErroresLectura(text(hw, "[01] Tasa de errores en la lectura")));
-                onlyIfNull.accept(ficha::getDiscoErrorCrc,
-                                () -> ficha.setDiscoErrorCrc(text(hw, "[C7] Tasa de error UltraDMA/SATA CRC")));
-                // Disco ficha física - copiar valores detectados
-                onlyIfNull.accept(ficha::getDiscoTipoFicha,
-                                () -> ficha.setDiscoTipoFicha(text(hw, "Tipo de unidad")));
-                onlyIfNull.accept(ficha::getDiscoMarcaFicha,
-                                () -> ficha.setDiscoMarcaFicha(text(hw, "Fabricante de la unidad")));
-                onlyIfNull.accept(ficha::getDiscoCapacidadFicha,
-                                () -> ficha.setDiscoCapacidadFicha(text(hw, "Capacidad de la unidad")));
-                onlyIfNull.accept(ficha::getDiscoSerieFicha,
-                                () -> ficha.setDiscoSerieFicha(text(hw, "Número de serie de la unidad")));
-
-                // GPU / mainboard / buses
-                onlyIfNull.accept(ficha::getGpuNombre,
-                                () -> ficha.setGpuNombre(text(hw, "Tarjeta grafica")));
-                onlyIfNull.accept(ficha::getGraficaTipo,
-                                () -> {
-                                        String gpu = text(hw, "Tarjeta grafica");
-                                        if (gpu != null) {
-                                                if (gpu.toLowerCase().contains("intel")
-                                                                || gpu.toLowerCase().contains("integrad")) {
-                                                        ficha.setGraficaTipo("Integrada");
-                                                } else if (gpu.toLowerCase().contains("nvidia")
-                                                                || gpu.toLowerCase().contains("amd")
-                                                                || gpu.toLowerCase().contains("radeon")
-                                                                || gpu.toLowerCase().contains("geforce")) {
-                                                        ficha.setGraficaTipo("Dedicada");
-                                                }
-                                        }
-                                });
-                onlyIfNull.accept(ficha::getMainboardModelo,
-                                () -> ficha.setMainboardModelo(text(hw, "Modelo de placa base")));
-                onlyIfNull.accept(ficha::getMainboardModeloFicha,
-                                () -> ficha.setMainboardModeloFicha(text(hw, "Modelo de placa base")));
-                onlyIfNull.accept(ficha::getChipset,
-                                () -> ficha.setChipset(text(hw, "Chipset de la placa base")));
-                onlyIfNull.accept(ficha::getPciExpressVersion,
-                                () -> ficha.setPciExpressVersion(text(hw, "Versión de PCI Express admitida")));
-                onlyIfNull.accept(ficha::getUsbVersion,
-                                () -> ficha.setUsbVersion(text(hw, "Versión USB admitida")));
-
-                // Procesador marca/modelo (ficha física)
-                onlyIfNull.accept(ficha::getProcesadorMarca,
-                                () -> {
-                                        String cpu = text(hw, "Nombre del procesador");
-                                        if (cpu != null) {
-                                                if (cpu.toLowerCase().contains("intel")) {
-                                                        ficha.setProcesadorMarca("Intel");
-                                                } else if (cpu.toLowerCase().contains("amd")) {
-                                                        ficha.setProcesadorMarca("AMD");
-                                                } else if (cpu.toLowerCase().contains("apple")
-                                                                || cpu.toLowerCase().contains("m1")
-                                                                || cpu.toLowerCase().contains("m2")) {
-                                                        ficha.setProcesadorMarca("Apple");
-                                                }
-                                        }
-                                });
-                onlyIfNull.accept(ficha::getProcesadorModelo,
-                                () -> ficha.setProcesadorModelo(text(hw, "Nombre del procesador")));
-
-                // Red
-                onlyIfNull.accept(ficha::getAdaptadorRed,
-                                () -> ficha.setAdaptadorRed(text(hw, "Tarjeta de red")));
-                onlyIfNull.accept(ficha::getMacAddress,
-                                () -> ficha.setMacAddress(text(hw, "Dirección MAC")));
-                onlyIfNull.accept(ficha::getWifiLinkSpeedActual,
-                                () -> ficha.setWifiLinkSpeedActual(text(hw, "Velocidad de enlace actual")));
-                onlyIfNull.accept(ficha::getWifiLinkSpeedMax,
-                                () -> ficha.setWifiLinkSpeedMax(text(hw, "Velocidad máxima de enlace")));
-
-                // BIOS / UEFI / SO
-                onlyIfNull.accept(ficha::getBiosFabricante,
-                                () -> ficha.setBiosFabricante(text(hw, "Fabricante de BIOS")));
-                onlyIfNull.accept(ficha::getBiosVersion,
-                                () -> ficha.setBiosVersion(text(hw, "Versión de BIOS")));
-                onlyIfNull.accept(ficha::getBiosFechaStr,
-                                () -> ficha.setBiosFechaStr(text(hw, "Fecha de BIOS (mm/dd/yyyy)")));
-
-                onlyIfNull.accept(ficha::getBiosEsUefiCapaz,
-                                () -> ficha.setBiosEsUefiCapaz(boolFromText(hw, "UEFI BIOS", "Capaz")));
-                onlyIfNull.accept(ficha::getArranqueUefiPresente,
-                                () -> ficha.setArranqueUefiPresente(boolFromText(hw, "Arranque UEFI", "Presente")));
-                onlyIfNull.accept(ficha::getSecureBootActivo,
-                                () -> ficha.setSecureBootActivo(boolFromText(hw, "Arranque seguro", "Activado")));
-
-                onlyIfNull.accept(ficha::getSoDescripcion,
-                                () -> ficha.setSoDescripcion(text(hw, "Sistema operativo")));
-                onlyIfNull.accept(ficha::getSoProveedor,
-                                () -> ficha.setSoProveedor(text(hw, "Descripción del proveedor")));
-                // SO ficha física
-                onlyIfNull.accept(ficha::getSoTipo,
-                                () -> {
-                                        String so = text(hw, "Sistema operativo");
-                                        if (so != null) {
-                                                if (so.toLowerCase().contains("windows")) {
-                                                        ficha.setSoTipo("Windows");
-                                                } else if (so.toLowerCase().contains("linux")
-                                                                || so.toLowerCase().contains("ubuntu")
-                                                                || so.toLowerCase().contains("debian")) {
-                                                        ficha.setSoTipo("Linux");
-                                                } else if (so.toLowerCase().contains("mac")
-                                                                || so.toLowerCase().contains("darwin")) {
-                                                        ficha.setSoTipo("macOS");
-                                                }
-                                        }
-                                });
-                onlyIfNull.accept(ficha::getSoVersion,
-                                () -> {
-                                        String so = text(hw, "Sistema operativo");
-                                        if (so != null) {
-                                                // Extraer versión del texto, ej: "Windows 10 Pro" -> "10 Pro"
-                                                ficha.setSoVersion(so);
-                                        }
-                                });
-
-                // TPM / HVCI
-                onlyIfNull.accept(ficha::getTpmPresente, () -> {
-                        String raw = text(hw, "Chip del módulo de plataforma segura (TPM)");
-                        if (raw != null && raw.toLowerCase().contains("present")) {
-                                ficha.setTpmPresente(true);
-                        }
-                });
-                onlyIfNull.accept(ficha::getTpmVersion, () -> {
-                        String raw = text(hw, "Chip del módulo de plataforma segura (TPM)");
-                        if (raw != null) {
-                                // Ej: "Present, version 2.0"
-                                int idx = raw.toLowerCase().indexOf("version");
-                                if (idx >= 0) {
-                                        ficha.setTpmVersion(raw.substring(idx).replace("version", "").trim());
-                                } else {
-                                        ficha.setTpmVersion(raw);
-                                }
-                        }
-                });
-
-                onlyIfNull.accept(ficha::getHvciEstado,
-                                () -> ficha.setHvciEstado(
-                                                text(hw, "Integridad de código protegida por hipervisor (HVCI)")));
-
-                // Nombre equipo / monitor
-                onlyIfNull.accept(ficha::getEquipoNombre,
-                                () -> ficha.setEquipoNombre(text(hw, "Nombre del computadora")));
-                onlyIfNull.accept(ficha::getMonitorNombre,
-                                () -> ficha.setMonitorNombre(text(hw, "Nombre del monitor")));
-                onlyIfNull.accept(ficha::getMonitorModelo,
-                                () -> ficha.setMonitorModelo(text(hw, "Nombre del monitor (del fabricante)")));
-
-                // Audio
-                onlyIfNull.accept(ficha::getAudioAdaptador,
-                                () -> ficha.setAudioAdaptador(text(hw, "Adaptador de sonido")));
-                onlyIfNull.accept(ficha::getAudioCodec,
-                                () -> ficha.setAudioCodec(text(hw, "Códec de audio de alta definición")));
-                onlyIfNull.accept(ficha::getAudioHardwareId,
-                                () -> ficha.setAudioHardwareId(text(hw, "ID de hardware del códec de audio")));
+                for (Regla<JsonNode, ?> regla : REGLAS_HARDWARE)
+                        regla.aplicar(ficha, hw);
         }
 
-        private static Boolean boolFromText(JsonNode hw, String key, String expected) {
-                String raw = text(hw, key);
-                if (raw == null)
-                        return null;
-                String lower = raw.toLowerCase();
-                if (lower.contains(expected.toLowerCase()))
-                        return true;
-                if (lower.contains("no"))
-                        return false;
-                if (lower.contains("deshabilitado") || lower.contains("disabled"))
-                        return false;
-                return null;
+        /**
+         * Convierte una vez los datos del equipo y de su hardwareJson para
+         * rellenar después varias fichas con {@link #rellenar(FichaTecnica, Snapshot)}.
+         */
+        public static Snapshot extraer(Equipo equipo) {
+                Object[] datosEquipo = new Object[REGLAS_EQUIPO.length];
+                for (int i = 0; i < REGLAS_EQUIPO.length; i++)
+                        datosEquipo[i] = REGLAS_EQUIPO[i].extraer(equipo);
+
+                Object[] datosHardware = new Object[REGLAS_HARDWARE.length];
+                JsonNode hw = equipo.getHardwareJson();
+                if (hw != null) {
+                        for (int i = 0; i < REGLAS_HARDWARE.length; i++)
+                                datosHardware[i] = REGLAS_HARDWARE[i].extraer(hw);
+                }
+                return new Snapshot(datosEquipo, datosHardware);
+        }
+
+        /**
+         * Igual que {@link #rellenarDesdeHardwareJson(FichaTecnica, Equipo)}, con
+         * los valores ya convertidos del snapshot.
+         */
+        public static void rellenar(FichaTecnica ficha, Snapshot snapshot) {
+                for (int i = 0; i < REGLAS_EQUIPO.length; i++)
+                        REGLAS_EQUIPO[i].asignar(ficha, snapshot.equipo[i]);
+                for (int i = 0; i < REGLAS_HARDWARE.length; i++)
+                        REGLAS_HARDWARE[i].asignar(ficha, snapshot.hardware[i]);
+        }
+
+        /**
+         * Rellena varias fichas con el equipo de cada una. Las fichas sin equipo
+         * (o cuyo equipo no está en el mapa) se dejan como están.
+         */
+        public static void rellenarDesdeHardwareJson(Collection<FichaTecnica> fichas, Map<Long, Equipo> equiposPorId) {
+                for (FichaTecnica ficha : fichas) {
+                        Equipo equipo = ficha.getEquipoId() != null ? equiposPorId.get(ficha.getEquipoId()) : null;
+                        if (equipo != null)
+                                rellenarDesdeHardwareJson(ficha, equipo);
+                }
         }
 
-        /* ================== HELPERS ================== */
+        /* ================== CONSTRUCCIÓN DE REGLAS ================== */
+
+        private static Regla<Equipo, String> equipo(Function<Equipo, String> origen,
+                        Function<FichaTecnica, Object> actual, BiConsumer<FichaTecnica, String> asignar) {
+                return new Regla<>(origen, Function.identity(), actual, asignar);
+        }
+
+        private static Regla<JsonNode, String> texto(String entrada,
+                        Function<FichaTecnica, Object> actual, BiConsumer<FichaTecnica, String> asignar) {
+                return hardware(entrada, Function.identity(), actual, asignar);
+        }
+
+        private static Regla<JsonNode, Integer> entero(String entrada,
+                        Function<FichaTecnica, Object> actual, BiConsumer<FichaTecnica, Integer> asignar) {
+                return hardware(entrada, FichaTecnicaAutoFillHelper::primerEntero, actual, asignar);
+        }
+
+        private static <T> Regla<JsonNode, T> hardware(String entrada, Function<String, T> conversor,
+                        Function<FichaTecnica, Object> actual, BiConsumer<FichaTecnica, T> asignar) {
+                return new Regla<>(hw -> text(hw, entrada), conversor, actual, asignar);
+        }
+
+        /* ================== CONVERSORES ================== */
 
         /** Obtiene un campo de texto del JSON, o null si no existe */
         private static String text(JsonNode node, String field) {
-                if (node == null || field == null)
-                        return null;
                 JsonNode v = node.get(field);
                 return (v != null && !v.isNull()) ? v.asText() : null;
         }
 
-        /** Extrae el primer número entero que encuentre en el valor de un campo */
-        private static Integer intFromText(JsonNode node, String field) {
-                return firstIntFromString(text(node, field));
-        }
-
         /**
-         * Extrae el primer número (int) de un String como "7200 RPM", "16 GBytes", etc.
+         * Primer número entero de textos como "7200 RPM" o "16 GBytes"; null si
+         * no hay dígitos o no cabe en un int. Se recorre el texto sin crear
+         * objetos intermedios.
          */
-        private static Integer firstIntFromString(String s) {
-                if (s == null)
+        private static Integer primerEntero(String s) {
+                int inicio = 0;
+                int largo = s.length();
+                while (inicio < largo && !esDigito(s.charAt(inicio)))
+                        inicio++;
+                if (inicio == largo)
+                        return null;
+                int fin = inicio;
+                while (fin < largo && esDigito(s.charAt(fin)))
+                        fin++;
+                try {
+                        return Integer.parseInt(s, inicio, fin, 10);
+                } catch (NumberFormatException e) {
                         return null;
-                Matcher m = Pattern.compile("(\\d+)").matcher(s);
-                if (m.find()) {
-                        try {
-                                return Integer.parseInt(m.group(1));
-                        } catch (NumberFormatException e) {
-                                return null;
-                        }
                 }
+        }
+
+        // Misma clase de caracteres que \d en java.util.regex (solo ASCII)
+        private static boolean esDigito(char c) {
+                return c >= '0' && c <= '9';
+        }
+
+        private static Boolean booleano(String raw, String esperado) {
+                String lower = raw.toLowerCase(Locale.ROOT);
+                if (lower.contains(esperado))
+                        return true;
+                if (lower.contains("no"))
+                        return false;
+                if (lower.contains("deshabilitado") || lower.contains("disabled"))
+                        return false;
                 return null;
         }
 
-        /**
-         * Convierte textos como "16 GBytes" o "8 GB" o "32 G" a un número entero (GB).
-         * Devuelve null si no puede parsear nada.
-         */
-        private static Integer intFromSizeGb(JsonNode hw, String key) {
-                String raw = text(hw, key);
-                if (raw == null)
-                        return null;
+        private static String tipoGrafica(String gpu) {
+                String lower = gpu.toLowerCase(Locale.ROOT);
+                if (lower.contains("intel") || lower.contains("integrad"))
+                        return "Integrada";
+                if (lower.contains("nvidia") || lower.contains("amd") || lower.contains("radeon")
+                                || lower.contains("geforce"))
+                        return "Dedicada";
+                return null;
+        }
 
-                // Extraer solo los dígitos
-                java.util.regex.Matcher m = java.util.regex.Pattern.compile("(\\d+)")
-                                .matcher(raw.replace(",", "."));
-                if (m.find()) {
-                        try {
-                                return Integer.parseInt(m.group(1));
-                        } catch (NumberFormatException ignored) {
-                        }
-                }
+        private static String marcaProcesador(String cpu) {
+                String lower = cpu.toLowerCase(Locale.ROOT);
+                if (lower.contains("intel"))
+                        return "Intel";
+                if (lower.contains("amd"))
+                        return "AMD";
+                if (lower.contains("apple") || lower.contains("m1") || lower.contains("m2"))
+                        return "Apple";
                 return null;
         }
 
-        /** Si el valor del campo contiene cierto texto, devuelve Boolean */
-        private static Boolean booleanFromContains(JsonNode node, String field, String expected) {
-                String value = text(node, field);
-                if (value == null || expected == null)
-                        return null;
-                return value.toLowerCase().contains(expected.toLowerCase());
+        private static String tipoSistemaOperativo(String so) {
+                String lower = so.toLowerCase(Locale.ROOT);
+                if (lower.contains("windows"))
+                        return "Windows";
+                if (lower.contains("linux") || lower.contains("ubuntu") || lower.contains("debian"))
+                        return "Linux";
+                if (lower.contains("mac") || lower.contains("darwin"))
+                        return "macOS";
+                return null;
+        }
+
+        // Ej: "Present, version 2.0" -> "2.0"
+        private static String versionTpm(String raw) {
+                int idx = raw.toLowerCase(Locale.ROOT).indexOf("version");
+                return idx >= 0 ? raw.substring(idx).replace("version", "").trim() : raw;
         }
 }
@@ -0,0 +1,68 @@
+package com.newbie.newbiecore.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de tamaño fijo sobre huellas SHA-256.
+ *
+ * Si {@link #podriaContener} devuelve false, la huella no se agregó nunca;
+ * si devuelve true, puede ser un falso positivo y hay que confirmarlo. Las
+ * posiciones se derivan de los 16 primeros bytes de la huella (doble hash),
+ * que ya están uniformemente distribuidos. Admite lecturas y escrituras
+ * concurrentes sin bloqueo.
+ */
+public class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long numeroBits;
+    private final int numeroHashes;
+    private final int capacidad;
+
+    /**
+     * @param capacidad           número de elementos previsto
+     * @param tasaFalsosPositivos tasa de falsos positivos aceptable con esa capacidad
+     */
+    public FiltroBloom(int capacidad, double tasaFalsosPositivos) {
+        this.capacidad = Math.max(1, capacidad);
+        long m = (long) Math.ceil(-this.capacidad * Math.log(tasaFalsosPositivos) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) ((Math.max(64, m) + 63) / 64));
+        this.numeroBits = bits.length() * 64L;
+        this.numeroHashes = Math.max(1, (int) Math.round((double) numeroBits / this.capacidad * Math.log(2)));
+    }
+
+    public void agregar(byte[] huella) {
+        ByteBuffer buffer = ByteBuffer.wrap(huella);
+        long h1 = buffer.getLong();
+        long h2 = buffer.getLong();
+        for (int i = 0; i < numeroHashes; i++) {
+            long posicion = Math.floorMod(h1 + i * h2, numeroBits);
+            int palabra = (int) (posicion >>> 6);
+            long mascara = 1L << posicion;
+            long actual;
+            do {
+                actual = bits.get(palabra);
+                if ((actual & mascara) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(palabra, actual, actual | mascara));
+        }
+    }
+
+    public boolean podriaContener(byte[] huella) {
+        ByteBuffer buffer = ByteBuffer.wrap(huella);
+        long h1 = buffer.getLong();
+        long h2 = buffer.getLong();
+        for (int i = 0; i < numeroHashes; i++) {
+            long posicion = Math.floorMod(h1 + i * h2, numeroBits);
+            if ((bits.get((int) (posicion >>> 6)) & (1L << posicion)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int capacidad() {
+        return capacidad;
+    }
+}
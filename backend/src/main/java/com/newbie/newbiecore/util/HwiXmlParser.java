@@ -3,20 +3,30 @@ package com.newbie.newbiecore.util;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Component;
-import org.w3c.dom.*;
-import org.xml.sax.EntityResolver;
-import org.xml.sax.InputSource;
 
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.xpath.*;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.InputStream;
-import java.io.StringReader;
 import java.util.*;
-
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Lector de informes XML de HWiNFO.
+ *
+ * El XML se recorre una sola vez con StAX directamente desde el stream
+ * ({@link #leer}). Durante el recorrido se construye el mapa byEntry y un árbol
+ * compacto con las secciones, SubNode y propiedades (sin el DOM ni los nodos
+ * de texto), del que se derivan la vista agrupada por dispositivo y el
+ * {@link HardwareSnapshot} sin volver a leer el documento.
+ */
 @Component
 public class HwiXmlParser {
 
-    private final XPath xp = XPathFactory.newInstance().newXPath();
+    private static final XMLInputFactory FABRICA = crearFabrica();
+
     private final ObjectMapper objectMapper;
 
     public HwiXmlParser(ObjectMapper objectMapper) {
@@ -39,333 +49,387 @@ public class HwiXmlParser {
         public static class BIOS { public String fabricante, version, fecha; }
     }
 
-    public HardwareSnapshot parse(InputStream in) {
-        try {
-            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-            dbf.setXIncludeAware(false);
-            dbf.setExpandEntityReferences(false);
-            try {
-                dbf.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-                dbf.setFeature("http://apache.org/xml/features/disallow-doctype-decl", false);
-            } catch (Exception ignore) {}
-
-            var builder = dbf.newDocumentBuilder();
-            builder.setEntityResolver(new EntityResolver() {
-                @Override public InputSource resolveEntity(String publicId, String systemId) {
-                    // Evita cargar HWiNFO32log.dtd (o cualquier DTD externo)
-                    return new InputSource(new StringReader(""));
-                }
-            });
-
-            Document doc = builder.parse(in);
-            doc.getDocumentElement().normalize();
-            HardwareSnapshot hw = new HardwareSnapshot();
-
-            // --- General ---
-            hw.general.hostname   = eval(doc, "/HWINFO/COMPUTER/NodeName");
-            hw.general.marca      = prop(doc, "Nombre de marca de computadora");
-            hw.general.so         = prop(doc, "Sistema operativo");
-            hw.general.uefi       = "Presente".equalsIgnoreCase(prop(doc, "Arranque UEFI"));
-            hw.general.secureBoot = "Activado".equalsIgnoreCase(prop(doc, "Arranque seguro"));
-
-            // --- CPU ---
-            hw.cpu.nombre  = firstNonNull(
-                    propUnder(doc, "//CPU/SubNode", "Nombre del procesador"),
-                    eval(doc, "//CPU/SubNode[1]/NodeName")
-            );
-            hw.cpu.nucleos = toInt(prop(doc, "Número de núcleos de procesador"));
-            hw.cpu.hilos   = toInt(prop(doc, "Número de procesadores lógicos"));
-            hw.cpu.socket  = prop(doc, "Actualización del procesador");
-
-            // --- MOBO ---
-            hw.mobo.fabricante = propUnder(doc, "//MOBO/SubNode[NodeName='Sistema']", "Fabricante del sistema");
-            if (hw.mobo.fabricante == null) hw.mobo.fabricante = prop(doc, "Nombre de marca de computadora");
-            hw.mobo.modelo = firstNonNull(
-                    prop(doc, "Modelo de placa base"),
-                    propUnder(doc, "//MOBO/SubNode[NodeName='tarjeta madre']", "Nombre de la placa base")
-            );
-            hw.mobo.serie  = propUnder(doc, "//MOBO/SubNode[NodeName='tarjeta madre']", "Número de serie de la placa base");
-
-            // --- GPUs ---
-            NodeList gpuNodes = nodes(doc, "//VIDEO/SubNode");
-            for (int i = 0; i < gpuNodes.getLength(); i++) {
-                Node n = gpuNodes.item(i);
-                String nombre = propHere(n, "Chipset de gráficos");
-                if (nombre == null) continue;
-                var g = new HardwareSnapshot.GPU();
-                g.nombre = nombre;
-                g.board  = propHere(n, "Tarjeta grafica");
-                g.vram   = propHere(n, "Memoria gráfica");
-                hw.gpus.add(g);
-            }
-
-            // --- DRIVES (NVMe) ---
-            NodeList driveNodes = nodes(doc, "//DRIVES/SubNode[NodeName='Unidades NVMe']/SubNode");
-            for (int i = 0; i < driveNodes.getLength(); i++) {
-                Node n = driveNodes.item(i);
-                var d = new HardwareSnapshot.Drive();
-                d.nombre    = eval(n, "./NodeName");
-                d.tipo      = propHere(n, "Controlador de disco");
-                d.capacidad = firstNonNull(propHere(n, "Capacidad de la unidad"), propHere(n, "Drive Capacity [MB]"));
-                d.serie     = propHere(n, "Número de serie de la unidad");
-                hw.drives.add(d);
-            }
-
-            // --- BIOS ---
-            Node bios = node(doc, "//SubNode[NodeName='BIOS']");
-            if (bios != null) {
-                hw.bios.fabricante = propHere(bios, "Fabricante de BIOS");
-                hw.bios.version    = propHere(bios, "Versión de BIOS");
-                hw.bios.fecha      = propHere(bios, "Fecha de lanzamiento del BIOS (mm/dd/yyyy)");
-            }
-
-            // --- Extras (ejemplo: TPM) ---
-            Map<String,Object> extras = new LinkedHashMap<>();
-            extras.put("TPM", propUnder(doc, "//MOBO", "Chip del módulo de plataforma segura (TPM)"));
-            hw.extras = extras;
-
-            return hw;
-        } catch (Exception e) {
-            throw new RuntimeException("Error parseando XML HWiNFO", e);
-        }
+    public static class PropertyRow {
+        public String path;
+        public String entry;
+        public String value;
+        public String unit;
     }
 
-    // ---------- Helpers XPath ----------
-    private String prop(Document doc, String entry){
-        return eval(doc, "/HWINFO/COMPUTER/Property[Entry='"+entry+"']/Description");
+    /**
+     * Resultado de una lectura: las tres vistas del mismo informe.
+     *
+     * @param byEntry   Entry → Description de todo el informe (la última gana)
+     * @param agrupado  propiedades por sección y, en video/monitor/sonido/red/discos, por dispositivo
+     * @param snapshot  resumen de hardware
+     */
+    public record Informe(Map<String, String> byEntry, Map<String, Object> agrupado, HardwareSnapshot snapshot) {
     }
-    private String propUnder(Document doc, String contextXPath, String entry){
-        return eval(doc, contextXPath + "//Property[Entry='"+entry+"']/Description");
+
+    /**
+     * Lee el informe en una sola pasada y devuelve todas sus vistas.
+     */
+    public Informe leer(InputStream in) {
+        Lectura lectura = recorrer(in);
+        return new Informe(lectura.byEntry, agrupar(lectura.raiz), resumir(lectura.raiz));
     }
-    private String propHere(Node context, String entry){
-        return eval(context, ".//Property[Entry='"+entry+"']/Description");
+
+    public HardwareSnapshot parse(InputStream in) {
+        return resumir(recorrer(in).raiz);
     }
-    private Node node(Document doc, String xpExpr) {
-        try { return (Node) xp.evaluate(xpExpr, doc, XPathConstants.NODE); } catch (Exception e){ return null; }
+
+    public Map<String, String> collectByEntry(InputStream in) {
+        return recorrer(in).byEntry;
     }
-    private NodeList nodes(Document doc, String xpExpr) {
-        try { return (NodeList) xp.evaluate(xpExpr, doc, XPathConstants.NODESET); } catch (Exception e){ return null; }
+
+    // --- Devuelve un JSON agrupado por secciones ---
+    public Map<String, Object> collectGroupedByEntry(InputStream in) {
+        return agrupar(recorrer(in).raiz);
     }
-    private String eval(Object x, String xpExpr){
-        try {
-            String s = xp.evaluate(xpExpr, x);
-            return (s != null && !s.isBlank()) ? s.trim() : null;
-        } catch(Exception e){ return null; }
+
+    public List<PropertyRow> collectAllProperties(InputStream in) {
+        Nodo raiz = recorrer(in).raiz;
+        List<PropertyRow> rows = new ArrayList<>();
+        if (raiz != null) {
+            filas(raiz, new ArrayDeque<>(), rows);
+        }
+        return rows;
     }
-    private Integer toInt(String s){ try { return (s==null)? null : Integer.parseInt(s.replaceAll("[^0-9]","")); } catch(Exception e){ return null; } }
-    private String firstNonNull(String... xs){ for(String s: xs) if (s!=null && !s.isBlank()) return s; return null; }
 
     public String toJson(HardwareSnapshot hw) {
         try { return objectMapper.writeValueAsString(hw); }
         catch (Exception e) { throw new RuntimeException(e); }
     }
-    // dentro de HwiXmlParser.java
-    public static class PropertyRow {
-        public String path;
-        public String entry;
-        public String value;
-        public String unit;
-    }
 
-    public List<PropertyRow> collectAllProperties(InputStream in) {
-        try {
-            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-            dbf.setXIncludeAware(false);
-            dbf.setExpandEntityReferences(false);
-            try {
-                dbf.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-                dbf.setFeature("http://apache.org/xml/features/disallow-doctype-decl", false);
-            } catch (Exception ignore) {}
-
-            var builder = dbf.newDocumentBuilder();
-            builder.setEntityResolver((publicId, systemId) -> new InputSource(new StringReader("")));
-            Document doc = builder.parse(in);
-            doc.getDocumentElement().normalize();
-
-            NodeList properties = (NodeList) xp.evaluate("//Property", doc, XPathConstants.NODESET);
-            List<PropertyRow> rows = new ArrayList<>(properties.getLength());
-
-            for (int i = 0; i < properties.getLength(); i++) {
-                Element p = (Element) properties.item(i);
-                String entry = text(p, "Entry");
-                String value = text(p, "Description");
-                if ((entry == null || entry.isBlank()) && (value == null || value.isBlank())) continue;
-
-                PropertyRow r = new PropertyRow();
-                r.path  = computePath(p);
-                r.entry = safe(entry);
-                r.value = safe(value);
-                r.unit  = text(p, "Unit"); // opcional si existe en tu XML
-                rows.add(r);
-            }
-            return rows;
-        } catch (Exception e) {
-            throw new RuntimeException("Error recolectando propiedades del XML HWiNFO", e);
+    /*
+     * =============================
+     * RECORRIDO STAX
+     * =============================
+     */
+
+    /** Elemento con hijos del informe: HWINFO, COMPUTER, secciones (CPU, MOBO...) y SubNode. */
+    private static final class Nodo {
+        final String etiqueta;
+        final int indice; // posición entre los hermanos con la misma etiqueta
+        String nombre;    // NodeName
+        final List<Propiedad> propiedades = new ArrayList<>();
+        final List<Nodo> hijos = new ArrayList<>();
+
+        Nodo(String etiqueta, int indice) {
+            this.etiqueta = etiqueta;
+            this.indice = indice;
         }
     }
 
+    private record Propiedad(String entry, String description, String unit) {
+    }
 
-    private static String safe(String s) { return s == null ? null : s.trim(); }
+    private record Lectura(Nodo raiz, Map<String, String> byEntry) {
+    }
 
-    // Ruta legible usando NodeName cuando exista + índice de hermanos
-    private String computePath(Node leaf) {
-        Deque<String> parts = new ArrayDeque<>();
-        Node cur = leaf;
-        while (cur != null && cur.getNodeType() == Node.ELEMENT_NODE) {
-            Element el = (Element) cur;
-
-            String nodeNameText = null;
-            NodeList nodeNameNodes = el.getElementsByTagName("NodeName");
-            if (nodeNameNodes.getLength() > 0) {
-                nodeNameText = nodeNameNodes.item(0).getTextContent();
+    private Lectura recorrer(InputStream in) {
+        XMLStreamReader r = null;
+        try {
+            r = FABRICA.createXMLStreamReader(in);
+            Deque<Nodo> pila = new ArrayDeque<>();
+            Map<String, String> byEntry = new LinkedHashMap<>();
+            Nodo raiz = null;
+
+            while (r.hasNext()) {
+                int evento = r.next();
+                if (evento == XMLStreamConstants.START_ELEMENT) {
+                    Nodo actual = pila.peek();
+                    switch (r.getLocalName()) {
+                        case "Property" -> {
+                            Propiedad p = leerPropiedad(r);
+                            if (actual != null && (p.entry() != null || p.description() != null)) {
+                                actual.propiedades.add(p);
+                                if (p.entry() != null && p.description() != null) {
+                                    byEntry.put(p.entry(), p.description()); // último valor para la misma clave “gana”
+                                }
+                            }
+                        }
+                        case "NodeName" -> {
+                            String nombre = texto(r.getElementText());
+                            if (actual != null && actual.nombre == null) {
+                                actual.nombre = nombre;
+                            }
+                        }
+                        default -> {
+                            String etiqueta = r.getLocalName();
+                            Nodo nodo;
+                            if (actual == null) {
+                                nodo = new Nodo(etiqueta, 0);
+                                raiz = nodo;
+                            } else {
+                                nodo = new Nodo(etiqueta, contarHijos(actual, etiqueta));
+                                actual.hijos.add(nodo);
+                            }
+                            pila.push(nodo);
+                        }
+                    }
+                } else if (evento == XMLStreamConstants.END_ELEMENT) {
+                    pila.pop();
+                }
             }
-
-            String label;
-            if (nodeNameText != null && !nodeNameText.isBlank()) {
-                label = el.getTagName() + "(" + nodeNameText.trim() + ")";
-            } else {
-                int idx = siblingIndex(el);
-                label = el.getTagName() + "#" + idx;
+            return new Lectura(raiz, byEntry);
+        } catch (XMLStreamException e) {
+            throw new RuntimeException("Error parseando XML HWiNFO", e);
+        } finally {
+            if (r != null) {
+                try { r.close(); } catch (XMLStreamException ignore) {}
             }
-            parts.addFirst(label);
-
-            cur = el.getParentNode();
-            if (cur != null && cur.getNodeType() == Node.DOCUMENT_NODE) break;
         }
-        return String.join(" > ", parts);
     }
 
-    private int siblingIndex(Element el) {
-        int idx = 0;
-        Node prev = el.getPreviousSibling();
-        while (prev != null) {
-            if (prev.getNodeType() == Node.ELEMENT_NODE
-                    && ((Element) prev).getTagName().equals(el.getTagName())) {
-                idx++;
+    // Lee un <Property> completo; el lector queda sobre su cierre
+    private static Propiedad leerPropiedad(XMLStreamReader r) throws XMLStreamException {
+        String entry = null, description = null, unit = null;
+        int profundidad = 0;
+        while (r.hasNext()) {
+            int evento = r.next();
+            if (evento == XMLStreamConstants.START_ELEMENT) {
+                if (profundidad > 0) {
+                    profundidad++;
+                    continue;
+                }
+                switch (r.getLocalName()) {
+                    case "Entry" -> entry = texto(r.getElementText());
+                    case "Description" -> description = texto(r.getElementText());
+                    case "Unit" -> unit = texto(r.getElementText());
+                    default -> profundidad++;
+                }
+            } else if (evento == XMLStreamConstants.END_ELEMENT) {
+                if (profundidad == 0) {
+                    break;
+                }
+                profundidad--;
             }
-            prev = prev.getPreviousSibling();
         }
-        return idx;
+        return new Propiedad(entry, description, unit);
     }
-    // HwiXmlParser.java
-    public Map<String, String> collectByEntry(InputStream in) {
-        try {
-            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-            dbf.setXIncludeAware(false);
-            dbf.setExpandEntityReferences(false);
-            try {
-                dbf.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-                dbf.setFeature("http://apache.org/xml/features/disallow-doctype-decl", false);
-            } catch (Exception ignore) {}
-
-            var builder = dbf.newDocumentBuilder();
-            builder.setEntityResolver((publicId, systemId) -> new org.xml.sax.InputSource(new java.io.StringReader("")));
-            org.w3c.dom.Document doc = builder.parse(in);
-            doc.getDocumentElement().normalize();
-
-            javax.xml.xpath.XPath xp = javax.xml.xpath.XPathFactory.newInstance().newXPath();
-            org.w3c.dom.NodeList props = (org.w3c.dom.NodeList)
-                    xp.evaluate("//Property", doc, javax.xml.xpath.XPathConstants.NODESET);
-
-            Map<String,String> map = new java.util.LinkedHashMap<>();
-            for (int i = 0; i < props.getLength(); i++) {
-                org.w3c.dom.Element p = (org.w3c.dom.Element) props.item(i);
-                String entry = text(p, "Entry");
-                String value = text(p, "Description");
-                if (entry != null && !entry.isBlank() && value != null && !value.isBlank()) {
-                    map.put(entry.trim(), value.trim()); // último valor para la misma clave “gana”
-                }
-            }
-            return map;
-        } catch (Exception e) {
-            throw new RuntimeException("Error construyendo byEntry desde XML HWiNFO", e);
+
+    private static int contarHijos(Nodo padre, String etiqueta) {
+        int n = 0;
+        for (Nodo h : padre.hijos) {
+            if (h.etiqueta.equals(etiqueta)) n++;
         }
+        return n;
     }
-    // --- NUEVO: devuelve un JSON agrupado por secciones ---
-    public Map<String, Object> collectGroupedByEntry(InputStream in) {
-        try {
-            // Parser DOM seguro (igual que parse(...))
-            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-            dbf.setXIncludeAware(false);
-            dbf.setExpandEntityReferences(false);
-            try {
-                dbf.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-                dbf.setFeature("http://apache.org/xml/features/disallow-doctype-decl", false);
-            } catch (Exception ignore) {}
-            var builder = dbf.newDocumentBuilder();
-            builder.setEntityResolver((publicId, systemId) -> new InputSource(new StringReader("")));
-            Document doc = builder.parse(in);
-            doc.getDocumentElement().normalize();
-
-            Map<String, Object> out = new LinkedHashMap<>();
-
-            // Secciones "simples": tomamos todas sus Properties
-            out.put("computer", byEntryFrom(node(doc, "/HWINFO/COMPUTER")));
-            out.put("cpu",      byEntryFrom(node(doc, "//CPU")));
-            out.put("mobo",     byEntryFrom(node(doc, "//MOBO")));
-            out.put("memory",   byEntryFrom(node(doc, "//MEMORY")));
-
-            // Secciones con múltiples dispositivos: submapa por SubNode (NodeName)
-            out.put("video",   byEntryPerDevice(doc, "//VIDEO"));
-            out.put("monitor", byEntryPerDevice(doc, "//MONITOR"));
-            out.put("sound",   byEntryPerDevice(doc, "//SOUND"));
-            out.put("network", byEntryPerDevice(doc, "//NETWORK"));
-
-            // DRIVES: combinamos ATA y NVMe, cada unidad como submapa
-            Map<String, Map<String,String>> drives = new LinkedHashMap<>();
-            drives.putAll(byEntryPerDevice(doc, "//DRIVES/SubNode[NodeName='ATA Drives']"));
-            drives.putAll(byEntryPerDevice(doc, "//DRIVES/SubNode[NodeName='Unidades NVMe']"));
-            out.put("drives", drives);
-
-            return out;
-        } catch (Exception e) {
-            throw new RuntimeException("Error agrupando byEntry", e);
+
+    private static XMLInputFactory crearFabrica() {
+        XMLInputFactory f = XMLInputFactory.newFactory();
+        // Evita cargar HWiNFO32log.dtd (o cualquier DTD/entidad externa)
+        f.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        f.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        f.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return f;
+    }
+
+    /*
+     * =============================
+     * VISTAS
+     * =============================
+     */
+
+    private HardwareSnapshot resumir(Nodo raiz) {
+        HardwareSnapshot hw = new HardwareSnapshot();
+        if (raiz == null) return hw;
+        Nodo computer = "HWINFO".equals(raiz.etiqueta) ? hijo(raiz, "COMPUTER") : null;
+
+        // --- General ---
+        hw.general.hostname   = computer != null ? computer.nombre : null;
+        hw.general.marca      = propiedad(computer, "Nombre de marca de computadora");
+        hw.general.so         = propiedad(computer, "Sistema operativo");
+        hw.general.uefi       = "Presente".equalsIgnoreCase(propiedad(computer, "Arranque UEFI"));
+        hw.general.secureBoot = "Activado".equalsIgnoreCase(propiedad(computer, "Arranque seguro"));
+
+        // --- CPU ---
+        hw.cpu.nombre  = firstNonNull(
+                primeraBajo(subnodos(raiz, "CPU", null), "Nombre del procesador"),
+                subnodos(raiz, "CPU", null).findFirst().map(n -> n.nombre).orElse(null)
+        );
+        hw.cpu.nucleos = toInt(propiedad(computer, "Número de núcleos de procesador"));
+        hw.cpu.hilos   = toInt(propiedad(computer, "Número de procesadores lógicos"));
+        hw.cpu.socket  = propiedad(computer, "Actualización del procesador");
+
+        // --- MOBO ---
+        hw.mobo.fabricante = primeraBajo(subnodos(raiz, "MOBO", "Sistema"), "Fabricante del sistema");
+        if (hw.mobo.fabricante == null) hw.mobo.fabricante = propiedad(computer, "Nombre de marca de computadora");
+        hw.mobo.modelo = firstNonNull(
+                propiedad(computer, "Modelo de placa base"),
+                primeraBajo(subnodos(raiz, "MOBO", "tarjeta madre"), "Nombre de la placa base")
+        );
+        hw.mobo.serie  = primeraBajo(subnodos(raiz, "MOBO", "tarjeta madre"), "Número de serie de la placa base");
+
+        // --- GPUs ---
+        subnodos(raiz, "VIDEO", null).forEach(n -> {
+            String nombre = primeraBajo(Stream.of(n), "Chipset de gráficos");
+            if (nombre == null) return;
+            var g = new HardwareSnapshot.GPU();
+            g.nombre = nombre;
+            g.board  = primeraBajo(Stream.of(n), "Tarjeta grafica");
+            g.vram   = primeraBajo(Stream.of(n), "Memoria gráfica");
+            hw.gpus.add(g);
+        });
+
+        // --- DRIVES (NVMe) ---
+        subnodos(raiz, "DRIVES", "Unidades NVMe")
+                .flatMap(nvme -> nvme.hijos.stream().filter(h -> "SubNode".equals(h.etiqueta)))
+                .forEach(n -> {
+                    var d = new HardwareSnapshot.Drive();
+                    d.nombre    = n.nombre;
+                    d.tipo      = primeraBajo(Stream.of(n), "Controlador de disco");
+                    d.capacidad = firstNonNull(primeraBajo(Stream.of(n), "Capacidad de la unidad"),
+                            primeraBajo(Stream.of(n), "Drive Capacity [MB]"));
+                    d.serie     = primeraBajo(Stream.of(n), "Número de serie de la unidad");
+                    hw.drives.add(d);
+                });
+
+        // --- BIOS ---
+        Nodo bios = buscar(raiz, n -> "SubNode".equals(n.etiqueta) && "BIOS".equals(n.nombre));
+        if (bios != null) {
+            hw.bios.fabricante = primeraBajo(Stream.of(bios), "Fabricante de BIOS");
+            hw.bios.version    = primeraBajo(Stream.of(bios), "Versión de BIOS");
+            hw.bios.fecha      = primeraBajo(Stream.of(bios), "Fecha de lanzamiento del BIOS (mm/dd/yyyy)");
         }
+
+        // --- Extras (ejemplo: TPM) ---
+        Map<String,Object> extras = new LinkedHashMap<>();
+        extras.put("TPM", primeraBajo(descendientes(raiz).filter(n -> "MOBO".equals(n.etiqueta)),
+                "Chip del módulo de plataforma segura (TPM)"));
+        hw.extras = extras;
+
+        return hw;
     }
 
-// --- helpers privados ---
+    private Map<String, Object> agrupar(Nodo raiz) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        Nodo computer = raiz != null && "HWINFO".equals(raiz.etiqueta) ? hijo(raiz, "COMPUTER") : null;
+
+        // Secciones "simples": tomamos todas sus Properties
+        out.put("computer", byEntryFrom(computer));
+        out.put("cpu",      byEntryFrom(buscar(raiz, n -> "CPU".equals(n.etiqueta))));
+        out.put("mobo",     byEntryFrom(buscar(raiz, n -> "MOBO".equals(n.etiqueta))));
+        out.put("memory",   byEntryFrom(buscar(raiz, n -> "MEMORY".equals(n.etiqueta))));
+
+        // Secciones con múltiples dispositivos: submapa por SubNode (NodeName)
+        out.put("video",   byEntryPerDevice(buscar(raiz, n -> "VIDEO".equals(n.etiqueta))));
+        out.put("monitor", byEntryPerDevice(buscar(raiz, n -> "MONITOR".equals(n.etiqueta))));
+        out.put("sound",   byEntryPerDevice(buscar(raiz, n -> "SOUND".equals(n.etiqueta))));
+        out.put("network", byEntryPerDevice(buscar(raiz, n -> "NETWORK".equals(n.etiqueta))));
+
+        // DRIVES: combinamos ATA y NVMe, cada unidad como submapa
+        Map<String, Map<String,String>> drives = new LinkedHashMap<>();
+        drives.putAll(byEntryPerDevice(subnodos(raiz, "DRIVES", "ATA Drives").findFirst().orElse(null)));
+        drives.putAll(byEntryPerDevice(subnodos(raiz, "DRIVES", "Unidades NVMe").findFirst().orElse(null)));
+        out.put("drives", drives);
+
+        return out;
+    }
 
-    // Extrae Entry→Description bajo un contexto (sección o SubNode)
-    private Map<String,String> byEntryFrom(Node context) {
+    // Ruta legible usando NodeName cuando exista + índice de hermanos
+    private static void filas(Nodo nodo, Deque<String> ruta, List<PropertyRow> rows) {
+        ruta.addLast(etiquetaRuta(nodo));
+        String base = String.join(" > ", ruta);
+        for (int i = 0; i < nodo.propiedades.size(); i++) {
+            Propiedad p = nodo.propiedades.get(i);
+            PropertyRow r = new PropertyRow();
+            r.path  = base + " > Property#" + i;
+            r.entry = p.entry();
+            r.value = p.description();
+            r.unit  = p.unit();
+            rows.add(r);
+        }
+        for (Nodo h : nodo.hijos) {
+            filas(h, ruta, rows);
+        }
+        ruta.removeLast();
+    }
+
+    private static String etiquetaRuta(Nodo nodo) {
+        // Sin NodeName propio se usa el primero de sus descendientes (como en HWINFO → COMPUTER)
+        String nombre = descendientes(nodo).map(n -> n.nombre).filter(Objects::nonNull).findFirst().orElse(null);
+        return nombre != null ? nodo.etiqueta + "(" + nombre + ")" : nodo.etiqueta + "#" + nodo.indice;
+    }
+
+    // --- helpers privados ---
+
+    // Entry→Description bajo un contexto (sección o SubNode); la última gana
+    private static Map<String,String> byEntryFrom(Nodo contexto) {
         Map<String,String> m = new LinkedHashMap<>();
-        if (context == null) return m;
-        try {
-            NodeList props = (NodeList) xp.evaluate(".//Property", context, XPathConstants.NODESET);
-            for (int i = 0; i < props.getLength(); i++) {
-                Node p = props.item(i);
-                String k = eval(p, "./Entry");
-                String v = eval(p, "./Description");
-                if (k != null && !k.isBlank() && v != null && !v.isBlank()) {
-                    m.put(k, v);
-                }
+        if (contexto == null) return m;
+        descendientes(contexto).forEach(n -> {
+            for (Propiedad p : n.propiedades) {
+                if (p.entry() != null && p.description() != null) m.put(p.entry(), p.description());
             }
-        } catch (Exception ignore) {}
+        });
         return m;
     }
 
-    // Recorre los SubNode hijos de una sección y crea un submapa por dispositivo
-    private Map<String, Map<String,String>> byEntryPerDevice(Document doc, String sectionXPath) {
+    // Un submapa por cada SubNode hijo de la sección
+    private static Map<String, Map<String,String>> byEntryPerDevice(Nodo seccion) {
         Map<String, Map<String,String>> out = new LinkedHashMap<>();
-        Node section = node(doc, sectionXPath);
-        if (section == null) return out;
-
-        try {
-            NodeList subs = (NodeList) xp.evaluate("./SubNode", section, XPathConstants.NODESET);
-            for (int i = 0; i < subs.getLength(); i++) {
-                Node sub = subs.item(i);
-                String name = firstNonNull(eval(sub, "./NodeName"), "device#" + (i+1));
-                Map<String,String> props = byEntryFrom(sub);
-                if (!props.isEmpty()) out.put(name, props);
-            }
-        } catch (Exception ignore) {}
+        if (seccion == null) return out;
+        int i = 0;
+        for (Nodo sub : seccion.hijos) {
+            if (!"SubNode".equals(sub.etiqueta)) continue;
+            i++;
+            String name = firstNonNull(sub.nombre, "device#" + i);
+            Map<String,String> props = byEntryFrom(sub);
+            if (!props.isEmpty()) out.put(name, props);
+        }
         return out;
     }
 
-    private static String text(org.w3c.dom.Element parent, String tag) {
-        org.w3c.dom.NodeList nl = parent.getElementsByTagName(tag);
-        if (nl.getLength() == 0) return null;
-        String s = nl.item(0).getTextContent();
-        return (s == null) ? null : s.trim();
+    // Description de la primera propiedad directa del nodo con ese Entry
+    private static String propiedad(Nodo nodo, String entry) {
+        if (nodo == null) return null;
+        for (Propiedad p : nodo.propiedades) {
+            if (entry.equals(p.entry())) return p.description();
+        }
+        return null;
     }
 
+    // Description de la primera propiedad con ese Entry bajo cualquiera de los contextos, en orden
+    private static String primeraBajo(Stream<Nodo> contextos, String entry) {
+        return contextos.flatMap(HwiXmlParser::descendientes)
+                .flatMap(n -> n.propiedades.stream())
+                .filter(p -> entry.equals(p.entry()))
+                .findFirst()
+                .map(Propiedad::description)
+                .orElse(null);
+    }
+
+    // SubNode hijos de las secciones con esa etiqueta; con nombre, solo los que se llaman así
+    private static Stream<Nodo> subnodos(Nodo raiz, String seccion, String nombre) {
+        if (raiz == null) return Stream.empty();
+        return descendientes(raiz)
+                .filter(n -> seccion.equals(n.etiqueta))
+                .flatMap(s -> s.hijos.stream())
+                .filter(h -> "SubNode".equals(h.etiqueta) && (nombre == null || nombre.equals(h.nombre)));
+    }
+
+    private static Nodo hijo(Nodo padre, String etiqueta) {
+        for (Nodo h : padre.hijos) {
+            if (h.etiqueta.equals(etiqueta)) return h;
+        }
+        return null;
+    }
+
+    private static Nodo buscar(Nodo raiz, Predicate<Nodo> criterio) {
+        if (raiz == null) return null;
+        return descendientes(raiz).filter(criterio).findFirst().orElse(null);
+    }
+
+    // El nodo y todos sus descendientes, en orden de documento
+    private static Stream<Nodo> descendientes(Nodo nodo) {
+        return Stream.concat(Stream.of(nodo), nodo.hijos.stream().flatMap(HwiXmlParser::descendientes));
+    }
+
+    private static String texto(String s) {
+        return (s != null && !s.isBlank()) ? s.trim() : null;
+    }
+    private static Integer toInt(String s){ try { return (s==null)? null : Integer.parseInt(s.replaceAll("[^0-9]","")); } catch(Exception e){ return null; } }
+    private static String firstNonNull(String... xs){ for(String s: xs) if (s!=null && !s.isBlank()) return s; return null; }
 }
@@ -0,0 +1,118 @@
+package com.newbie.newbiecore.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.newbie.newbiecore.dto.hardware.InventarioHardwareDto;
+
+/**
+ * Normaliza los datos de un informe HWiNFO para el inventario consultable
+ * ({@code equipo_hardware}).
+ */
+public final class InventarioHardwareHelper {
+
+    // "32 GBytes", "953869 MBytes", "1,5 TB", "476940"
+    private static final Pattern TAMANO = Pattern.compile("([0-9]+(?:[.,][0-9]+)?)\\s*([KMGT])?", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern ENTERO = Pattern.compile("\\d+");
+
+    private InventarioHardwareHelper() {
+    }
+
+    /**
+     * Combina el resumen del informe con su mapa Entry → Description.
+     *
+     * @param byEntry  entradas del informe (lo guardado en hardwareJson)
+     * @param snapshot resumen del mismo informe, o null si solo se tiene el
+     *                 hardwareJson (en ese caso los discos no se conocen y
+     *                 de las GPUs solo la última)
+     */
+    public static InventarioHardwareDto desde(Map<String, String> byEntry, HwiXmlParser.HardwareSnapshot snapshot) {
+        List<InventarioHardwareDto.Disco> discos;
+        List<InventarioHardwareDto.Gpu> gpus;
+        if (snapshot != null) {
+            discos = snapshot.drives.stream()
+                    .map(d -> new InventarioHardwareDto.Disco(d.nombre, d.tipo, aMegabytes(d.capacidad), d.serie))
+                    .toList();
+            gpus = snapshot.gpus.stream()
+                    .map(g -> new InventarioHardwareDto.Gpu(g.nombre, aMegabytes(g.vram)))
+                    .toList();
+        } else {
+            discos = List.of();
+            String gpu = byEntry.get("Chipset de gráficos");
+            gpus = gpu == null ? List.of()
+                    : List.of(new InventarioHardwareDto.Gpu(gpu, aMegabytes(byEntry.get("Memoria gráfica"))));
+        }
+
+        Long almacenamiento = discos.stream()
+                .map(InventarioHardwareDto.Disco::capacidadMb)
+                .filter(Objects::nonNull)
+                .reduce(Long::sum)
+                .orElse(null);
+
+        return new InventarioHardwareDto(
+                primero(snapshot != null ? snapshot.cpu.nombre : null, byEntry.get("Nombre del procesador")),
+                entero(primero(snapshot != null && snapshot.cpu.nucleos != null ? snapshot.cpu.nucleos.toString() : null,
+                        byEntry.get("Número de núcleos de procesador"))),
+                entero(primero(snapshot != null && snapshot.cpu.hilos != null ? snapshot.cpu.hilos.toString() : null,
+                        byEntry.get("Número de procesadores lógicos"))),
+                aMegabytes(byEntry.get("Tamaño total de memoria")),
+                primero(snapshot != null ? snapshot.mobo.fabricante : null,
+                        byEntry.get("Fabricante del sistema"), byEntry.get("Nombre de marca de computadora")),
+                primero(snapshot != null ? snapshot.mobo.modelo : null,
+                        byEntry.get("Modelo de placa base"), byEntry.get("Nombre de la placa base")),
+                primero(snapshot != null ? snapshot.bios.fabricante : null, byEntry.get("Fabricante de BIOS")),
+                primero(snapshot != null ? snapshot.bios.version : null, byEntry.get("Versión de BIOS")),
+                primero(snapshot != null ? snapshot.bios.fecha : null,
+                        byEntry.get("Fecha de lanzamiento del BIOS (mm/dd/yyyy)")),
+                almacenamiento,
+                discos,
+                gpus);
+    }
+
+    /**
+     * Convierte un tamaño de HWiNFO a MB. Sin unidad se asume MB (entradas
+     * como "Drive Capacity [MB]"). Devuelve null si no reconoce el valor.
+     */
+    public static Long aMegabytes(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return null;
+        }
+        Matcher m = TAMANO.matcher(texto.trim());
+        if (!m.lookingAt()) {
+            return null;
+        }
+        BigDecimal valor = new BigDecimal(m.group(1).replace(',', '.'));
+        String unidad = m.group(2) == null ? "M" : m.group(2).toUpperCase(Locale.ROOT);
+        BigDecimal mb = switch (unidad) {
+            case "K" -> valor.divide(BigDecimal.valueOf(1024), 0, RoundingMode.HALF_UP);
+            case "G" -> valor.multiply(BigDecimal.valueOf(1024));
+            case "T" -> valor.multiply(BigDecimal.valueOf(1024L * 1024));
+            default -> valor;
+        };
+        return mb.longValue();
+    }
+
+    private static Integer entero(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        Matcher m = ENTERO.matcher(texto);
+        return m.find() ? Integer.valueOf(m.group()) : null;
+    }
+
+    private static String primero(String... valores) {
+        for (String v : valores) {
+            if (v != null && !v.isBlank()) {
+                return v.trim();
+            }
+        }
+        return null;
+    }
+}
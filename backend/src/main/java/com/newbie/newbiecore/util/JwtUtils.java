@@ -5,11 +5,17 @@ import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 
 /**
@@ -17,6 +23,11 @@ import java.util.Date;
  *
  * Usa DynamicJwtConfig (que tiene @RefreshScope) para obtener los valores,
  * permitiendo que los cambios en la BD se apliquen sin reiniciar.
+ *
+ * La clave de firma y el parser se construyen una vez por versión del secreto
+ * (se comparan con el secreto vigente en cada uso, así un refresh concurrente no
+ * deja publicada la clave anterior), y cada token se parsea y verifica una sola
+ * vez por petición.
  */
 @Component
 public class JwtUtils {
@@ -24,13 +35,45 @@ public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
     private final DynamicJwtConfig jwtConfig;
+    // Tokens ya verificados (clave: SHA-256 del token) hasta su expiración
+    private final CacheConExpiracion<String, TokenVerificado> tokensVerificados;
+
+    // Clave y parser del secreto vigente; se reconstruyen tras un refresh de configuración
+    private volatile Firma firma;
 
-    public JwtUtils(DynamicJwtConfig jwtConfig) {
+    public JwtUtils(DynamicJwtConfig jwtConfig,
+            @Value("${app.jwt.cache-tokens:10000}") int maxTokensEnCache) {
         this.jwtConfig = jwtConfig;
+        this.tokensVerificados = new CacheConExpiracion<>(maxTokensEnCache);
+    }
+
+    private record Firma(String secreto, Key clave, JwtParser parser) {
+    }
+
+    private record TokenVerificado(Claims claims, Firma firma) {
+    }
+
+    private Firma firma() {
+        String secreto = jwtConfig.getSecret();
+        Firma actual = firma;
+        // Si otro hilo publicó una firma con el secreto anterior, se reconstruye
+        if (actual == null || !actual.secreto().equals(secreto)) {
+            Key clave = Keys.hmacShaKeyFor(secreto.getBytes(StandardCharsets.UTF_8));
+            actual = new Firma(secreto, clave, Jwts.parserBuilder().setSigningKey(clave).build());
+            firma = actual;
+        }
+        return actual;
     }
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8));
+    /**
+     * DynamicJwtConfig se recrea al refrescar la configuración (puede cambiar
+     * el secreto): se descartan la clave, el parser y los tokens verificados.
+     */
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void invalidarCache() {
+        firma = null;
+        tokensVerificados.limpiar();
+        logger.info("Caché de verificación JWT invalidada");
     }
 
     // Genera Access Token (vida corta)
@@ -39,7 +82,7 @@ public class JwtUtils {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtConfig.getExpiration()))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(firma().clave(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -49,35 +92,49 @@ public class JwtUtils {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtConfig.getRefreshExpiration()))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(firma().clave(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verifica firma y expiración con un único parseo y devuelve todos los
+     * claims. Un token ya verificado se sirve desde la caché hasta que expira.
+     *
+     * @throws ExpiredJwtException si el token expiró
+     * @throws JwtException        si el token no es válido
+     */
+    public Claims verificar(String token) {
+        Firma actual = firma();
+        String digest = digest(token);
+
+        TokenVerificado verificado = tokensVerificados.obtener(digest);
+        if (verificado != null && verificado.firma() == actual) {
+            return verificado.claims();
+        }
+
+        Claims claims = actual.parser().parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            tokensVerificados.guardar(digest, new TokenVerificado(claims, actual),
+                    claims.getExpiration().getTime());
+        }
+        return claims;
+    }
+
     // Extrae el username (correo) del token
     public String extractUsername(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return verificar(token).getSubject();
     }
 
     // Extrae la fecha de expiración del token
     public Date getExpirationDate(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getExpiration();
+        return verificar(token).getExpiration();
     }
 
     // Valida Access Token contra UserDetails
     public boolean validateToken(String token, UserDetails userDetails) {
         try {
-            final String username = extractUsername(token);
-            return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+            // La expiración la comprueba verificar()
+            return userDetails.getUsername().equals(verificar(token).getSubject());
         } catch (ExpiredJwtException e) {
             logger.warn("Token expirado");
             return false;
@@ -90,10 +147,7 @@ public class JwtUtils {
     // Valida Refresh Token (firma y expiración)
     public boolean validateRefreshToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            verificar(token);
             return true;
         } catch (JwtException e) {
             logger.warn("Refresh token inválido: {}", e.getMessage());
@@ -101,9 +155,12 @@ public class JwtUtils {
         }
     }
 
-    // Verifica si el token está expirado
-    private boolean isTokenExpired(String token) {
-        Date expiration = getExpirationDate(token);
-        return expiration.before(new Date());
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,53 @@
+package com.newbie.newbiecore.audit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.newbie.newbiecore.entity.OrdenTrabajo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccesorPropiedadTest {
+
+    private record Resultado(String numeroOrden, Long id) {
+    }
+
+    private static class Privada {
+        public boolean isActivo() {
+            return true;
+        }
+    }
+
+    @Test
+    @DisplayName("Debe leer getters de entidades")
+    void testLeerGetter() {
+        OrdenTrabajo orden = OrdenTrabajo.builder().id(7L).numeroOrden("OT-00007").build();
+
+        assertEquals("OT-00007", AccesorPropiedad.leer(orden, "numeroOrden"));
+        assertEquals(7L, AccesorPropiedad.leer(orden, "id"));
+    }
+
+    @Test
+    @DisplayName("Debe leer accesores de records no públicos")
+    void testLeerRecord() {
+        Resultado resultado = new Resultado("OT-00001", 1L);
+
+        assertEquals("OT-00001", AccesorPropiedad.leer(resultado, "numeroOrden"));
+        assertEquals(1L, AccesorPropiedad.leer(resultado, "id"));
+    }
+
+    @Test
+    @DisplayName("Debe leer getters booleanos 'is'")
+    void testLeerBooleano() {
+        assertEquals(true, AccesorPropiedad.leer(new Privada(), "activo"));
+    }
+
+    @Test
+    @DisplayName("Debe devolver null si la propiedad no existe o el objeto es null")
+    void testPropiedadInexistente() {
+        assertNull(AccesorPropiedad.leer(new Resultado("OT-00001", 1L), "cedula"));
+        // segunda lectura desde la caché
+        assertNull(AccesorPropiedad.leer(new Resultado("OT-00002", 2L), "cedula"));
+        assertNull(AccesorPropiedad.leer(null, "id"));
+    }
+}
@@ -0,0 +1,175 @@
+package com.newbie.newbiecore.audit;
+
+import com.newbie.newbiecore.config.TestContainersConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * La tabla acumulada {@code audit_estadisticas_horarias} debe coincidir con un
+ * conteo directo sobre {@code audit_logs}, tanto tras los lotes de
+ * {@link AuditWriter} como tras la reconstrucción. Cada test usa un usuario
+ * propio para comparar solo sus filas.
+ */
+@SpringBootTest
+@Import(TestContainersConfig.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuditEstadisticasServiceTest {
+
+    private static final LocalDateTime HORA = LocalDateTime.of(1999, 6, 1, 10, 0);
+
+    @Autowired
+    private AuditEstadisticasService estadisticasService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private String usuario;
+
+    @BeforeEach
+    void setUp() {
+        usuario = "stats-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM audit_logs WHERE username = ?", usuario);
+        jdbcTemplate.update("DELETE FROM audit_estadisticas_horarias WHERE username = ?", usuario);
+    }
+
+    @Test
+    @DisplayName("Los lotes del escritor asíncrono dejan la tabla acumulada igual al conteo de audit_logs")
+    void testLotesCoincidenConAuditLogs() throws Exception {
+        // Arrange: lotes pequeños para que haya varios y con claves repetidas entre lotes
+        AuditWriter writer = new AuditWriter(jdbcTemplate, estadisticasService, transactionManager,
+                new SimpleMeterRegistry(), AuditWriter.Modo.ASINCRONO, 1000, 7, 50, 1000);
+        writer.iniciar();
+
+        // Act
+        for (int i = 0; i < 40; i++) {
+            writer.enviar(evento(
+                    i % 3 == 0 ? "CREAR" : "ACTUALIZAR",
+                    i % 4 == 0 ? null : "Equipo",
+                    HORA.plusMinutes(i * 3L)));
+        }
+        writer.detener();
+
+        // Assert
+        assertEquals(40L, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM audit_logs WHERE username = ?", Long.class, usuario));
+        Map<String, Long> acumulada = tablaAcumulada();
+        assertEquals(conteoEnVivo(), acumulada);
+        // 40 eventos cada 3 minutos: de 10:00 a 11:57
+        assertEquals(40L, acumulada.values().stream().mapToLong(Long::longValue).sum());
+        assertTrue(acumulada.keySet().stream().anyMatch(clave -> clave.startsWith("1999-06-01 11:00")));
+    }
+
+    @Test
+    @DisplayName("POST /estadisticas/reconstruir corrige los desvíos y deja la tabla igual a audit_logs")
+    @WithMockUser(roles = "ADMIN")
+    void testReconstruirCoincideConAuditLogs() throws Exception {
+        // Arrange: registros escritos sin pasar por la tabla acumulada y un desvío
+        for (int i = 0; i < 5; i++) {
+            jdbcTemplate.update("""
+                    INSERT INTO audit_logs (action, entity_type, entity_key, username, timestamp)
+                    VALUES (?, ?, 'EQ-1', ?, ?)
+                    """,
+                    i < 3 ? "CREAR" : "ELIMINAR", i == 4 ? null : "Equipo", usuario,
+                    Timestamp.valueOf(HORA.plusMinutes(i * 20L)));
+        }
+        jdbcTemplate.update("""
+                INSERT INTO audit_estadisticas_horarias (hora, accion, entity_type, username, cantidad)
+                VALUES (?, 'CREAR', 'Equipo', ?, 99)
+                """, Timestamp.valueOf(HORA.minusDays(1)), usuario);
+        assertNotEquals(conteoEnVivo(), tablaAcumulada());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/auditoria/estadisticas/reconstruir"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.filas").isNumber());
+
+        assertEquals(conteoEnVivo(), tablaAcumulada());
+        assertEquals(Map.of(
+                "1999-06-01 10:00|CREAR|Equipo", 3L,
+                "1999-06-01 11:00|ELIMINAR|Equipo", 1L,
+                "1999-06-01 11:00|ELIMINAR|", 1L), tablaAcumulada());
+
+        // También el total global coincide con audit_logs
+        assertEquals(
+                jdbcTemplate.queryForObject("SELECT count(*) FROM audit_logs", Long.class),
+                jdbcTemplate.queryForObject("SELECT COALESCE(SUM(cantidad), 0) FROM audit_estadisticas_horarias",
+                        Long.class));
+    }
+
+    /*
+     * =============================
+     * AUXILIARES
+     * =============================
+     */
+
+    private AuditEvento evento(String accion, String entityType, LocalDateTime momento) {
+        return new AuditEvento(accion, entityType, "EQ-1", null, null, null, usuario, "127.0.0.1", momento);
+    }
+
+    /** Conteo directo sobre audit_logs con la misma agrupación que la tabla acumulada. */
+    private Map<String, Long> conteoEnVivo() {
+        Map<String, Long> filas = new TreeMap<>();
+        jdbcTemplate.query("""
+                SELECT date_trunc('hour', timestamp) AS hora, action, COALESCE(entity_type, '') AS tipo,
+                       count(*) AS cantidad
+                FROM audit_logs
+                WHERE username = ?
+                GROUP BY 1, 2, 3
+                """,
+                rs -> {
+                    filas.put(clave(rs.getTimestamp("hora"), rs.getString("action"), rs.getString("tipo")),
+                            rs.getLong("cantidad"));
+                },
+                usuario);
+        return filas;
+    }
+
+    private Map<String, Long> tablaAcumulada() {
+        Map<String, Long> filas = new TreeMap<>();
+        jdbcTemplate.query("""
+                SELECT hora, accion, entity_type, cantidad
+                FROM audit_estadisticas_horarias
+                WHERE username = ?
+                """,
+                rs -> {
+                    filas.put(clave(rs.getTimestamp("hora"), rs.getString("accion"), rs.getString("entity_type")),
+                            rs.getLong("cantidad"));
+                },
+                usuario);
+        return filas;
+    }
+
+    private static String clave(Timestamp hora, String accion, String tipo) {
+        return hora.toLocalDateTime().toString().replace('T', ' ') + "|" + accion + "|" + tipo;
+    }
+}
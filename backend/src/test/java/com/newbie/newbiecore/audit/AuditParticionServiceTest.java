@@ -0,0 +1,233 @@
+package com.newbie.newbiecore.audit;
+
+import com.newbie.newbiecore.config.TestContainersConfig;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Migración de la tabla plana y retención de particiones usando PostgreSQL
+ * local. Cada test trabaja sobre una tabla propia con el mismo esquema que
+ * Hibernate crea para {@code audit_logs}.
+ */
+@SpringBootTest
+@Import(TestContainersConfig.class)
+@ActiveProfiles("test")
+class AuditParticionServiceTest {
+
+    private static final DateTimeFormatter SUFIJO = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path archivoDir;
+
+    private String tabla;
+
+    @BeforeEach
+    void setUp() {
+        tabla = "audit_logs_test_" + UUID.randomUUID().toString().substring(0, 8);
+        crearTablaPlana();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Las particiones y la secuencia se eliminan con la tabla
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + tabla + " CASCADE");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + tabla + "_plana CASCADE");
+    }
+
+    @Test
+    @DisplayName("La migración convierte la tabla plana poblada sin perder filas")
+    void testMigracionConservaFilas() {
+        // Arrange
+        insertar(1L, "CREAR", LocalDateTime.of(2024, 1, 15, 8, 30));
+        insertar(2L, "ACTUALIZAR", LocalDateTime.of(2024, 1, 31, 23, 59, 59));
+        insertar(3L, "ELIMINAR", LocalDateTime.of(2024, 3, 1, 0, 0));
+        insertar(4L, "SIN_FECHA", null);
+        List<Map<String, Object>> antes = filas();
+        AuditParticionService servicio = servicio(0, "");
+
+        // Act
+        servicio.inicializar();
+
+        // Assert
+        assertEquals("p", tipoRelacion(tabla));
+        assertNull(tipoRelacion(tabla + "_plana"));
+        assertEquals(antes.size(), filas().size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(antes.get(i), filas().get(i));
+        }
+
+        // Particiones de los meses con datos (también el hueco de febrero) y de los próximos
+        List<String> particiones = particiones();
+        assertTrue(particiones.containsAll(List.of(
+                tabla + "_p202401", tabla + "_p202402", tabla + "_p202403",
+                tabla + "_p" + YearMonth.now().format(SUFIJO),
+                tabla + "_default")));
+        assertEquals(2, contar(tabla + "_p202401"));
+        assertEquals(1, contar(tabla + "_p202403"));
+        // Sin timestamp se migra con fecha 1970 y cae en la partición por defecto
+        assertEquals(1, contar(tabla + "_default"));
+
+        // La secuencia sigue después del último id migrado
+        Long nuevoId = jdbcTemplate.queryForObject(
+                "INSERT INTO " + tabla + " (action) VALUES ('NUEVO') RETURNING id", Long.class);
+        assertEquals(5L, nuevoId);
+
+        Integer indices = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_indexes WHERE tablename = ? AND indexname LIKE 'idx_%'",
+                Integer.class, tabla);
+        assertEquals(4, indices);
+    }
+
+    @Test
+    @DisplayName("Arrancar de nuevo sobre la tabla ya particionada no cambia nada")
+    void testMigracionIdempotente() {
+        // Arrange
+        insertar(1L, "CREAR", LocalDateTime.of(2024, 1, 15, 8, 30));
+        AuditParticionService servicio = servicio(0, "");
+        servicio.inicializar();
+        List<String> particiones = particiones();
+
+        // Act
+        servicio(0, "").inicializar();
+
+        // Assert
+        assertEquals(particiones, particiones());
+        assertEquals(1, contar(tabla));
+    }
+
+    @Test
+    @DisplayName("La retención archiva en NDJSON comprimido y elimina las particiones antiguas")
+    void testRetencionArchivaYElimina() throws Exception {
+        // Arrange
+        insertar(1L, "CREAR", LocalDateTime.of(2024, 1, 15, 8, 30));
+        insertar(2L, "ACTUALIZAR", LocalDateTime.of(2024, 1, 20, 9, 0));
+        insertar(3L, "ELIMINAR", LocalDateTime.of(2024, 2, 3, 10, 0));
+        AuditParticionService servicio = servicio(1, archivoDir.toString());
+        servicio.inicializar();
+
+        // Act: se conserva desde febrero
+        servicio.aplicarRetencion(YearMonth.of(2024, 2));
+
+        // Assert
+        assertNull(tipoRelacion(tabla + "_p202401"));
+        assertEquals(1, contar(tabla));
+        assertEquals(1, contar(tabla + "_p202402"));
+
+        Path archivo = archivoDir.resolve(tabla + "_p202401.ndjson.gz");
+        assertTrue(Files.exists(archivo));
+        assertFalse(Files.exists(archivoDir.resolve(tabla + "_p202401.ndjson.gz.tmp")));
+        List<String> lineas = leerGzip(archivo);
+        assertEquals(2, lineas.size());
+        assertTrue(lineas.get(0).contains("\"action\":\"CREAR\""));
+        assertTrue(lineas.get(1).contains("\"action\":\"ACTUALIZAR\""));
+    }
+
+    @Test
+    @DisplayName("Sin directorio de archivo la retención elimina sin exportar")
+    void testRetencionSinArchivo() {
+        // Arrange
+        insertar(1L, "CREAR", LocalDateTime.of(2024, 1, 15, 8, 30));
+        AuditParticionService servicio = servicio(1, "");
+        servicio.inicializar();
+
+        // Act
+        servicio.aplicarRetencion(YearMonth.of(2024, 2));
+
+        // Assert
+        assertNull(tipoRelacion(tabla + "_p202401"));
+        assertEquals(0, contar(tabla));
+        // La partición por defecto no es mensual: nunca se elimina
+        assertEquals("r", tipoRelacion(tabla + "_default"));
+    }
+
+    /*
+     * =============================
+     * AUXILIARES
+     * =============================
+     */
+
+    private AuditParticionService servicio(int retencionMeses, String dir) {
+        return new AuditParticionService(jdbcTemplate, transactionManager, 1, retencionMeses, dir, tabla);
+    }
+
+    /** Mismo esquema que genera Hibernate para la entidad AuditLog. */
+    private void crearTablaPlana() {
+        jdbcTemplate.execute("""
+                CREATE TABLE %s (
+                    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                    action VARCHAR(100) NOT NULL,
+                    entity_type VARCHAR(100),
+                    entity_key VARCHAR(255),
+                    old_value TEXT,
+                    new_value TEXT,
+                    details TEXT,
+                    username VARCHAR(100),
+                    ip_address VARCHAR(50),
+                    timestamp TIMESTAMP(6)
+                )
+                """.formatted(tabla));
+    }
+
+    private void insertar(Long id, String accion, LocalDateTime timestamp) {
+        jdbcTemplate.update("""
+                INSERT INTO %s (id, action, entity_type, entity_key, new_value, username, timestamp)
+                OVERRIDING SYSTEM VALUE VALUES (?, ?, 'Equipo', ?, '{"a":1}', 'tester', ?)
+                """.formatted(tabla),
+                id, accion, "EQ-" + id, timestamp != null ? Timestamp.valueOf(timestamp) : null);
+    }
+
+    private List<Map<String, Object>> filas() {
+        return jdbcTemplate.queryForList("SELECT * FROM " + tabla + " ORDER BY id");
+    }
+
+    private List<String> particiones() {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = to_regclass(?) ORDER BY c.relname
+                """, String.class, tabla);
+    }
+
+    private String tipoRelacion(String nombre) {
+        return jdbcTemplate.query("SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?)",
+                rs -> rs.next() ? rs.getString(1) : null, nombre);
+    }
+
+    private long contar(String nombre) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + nombre, Long.class);
+    }
+
+    private static List<String> leerGzip(Path archivo) throws Exception {
+        try (BufferedReader lector = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(archivo)), StandardCharsets.UTF_8))) {
+            return lector.lines().toList();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.newbie.newbiecore.config;
+
+import com.newbie.newbiecore.entity.Rol;
+import com.newbie.newbiecore.entity.Usuario;
+import com.newbie.newbiecore.repository.RolRepository;
+import com.newbie.newbiecore.repository.UsuarioRepository;
+import com.newbie.newbiecore.service.CustomUserDetailsService;
+import com.newbie.newbiecore.util.JwtUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba que el contenedor aplica un límite de multipart distinto a la
+ * importación masiva de HWiNFO y al resto de endpoints.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.servlet.multipart.max-file-size=1MB",
+        "spring.servlet.multipart.max-request-size=1MB",
+        "app.equipos.importacion.max-mb-archivo=2",
+        "app.equipos.importacion.max-mb-peticion=2"
+})
+@Import(TestContainersConfig.class)
+@ActiveProfiles("test")
+class MultipartConfigTest {
+
+    // Por encima del límite global y por debajo del de la importación
+    // (y del maxSwallowSize de Tomcat, para que la respuesta llegue entera)
+    private static final int TAMANO = 1536 * 1024;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private RolRepository rolRepository;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    private Usuario usuario;
+    private Rol rol;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        String sufijo = UUID.randomUUID().toString().substring(0, 8);
+        rol = rolRepository.save(Rol.builder()
+                .nombre("ROLE_TEST_" + sufijo)
+                .descripcion("Rol de prueba")
+                .build());
+        usuario = usuarioRepository.save(Usuario.builder()
+                .cedula("MP" + sufijo)
+                .nombre("Multipart Test")
+                .correo("multipart-" + sufijo + "@test.com")
+                .password("x")
+                .rol(rol)
+                .estado(true)
+                .build());
+        token = jwtUtils.generateToken(userDetailsService.loadUserByUsername(usuario.getCorreo()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        usuarioRepository.delete(usuario);
+        rolRepository.delete(rol);
+        userDetailsService.invalidar(usuario.getCorreo());
+    }
+
+    @Test
+    @DisplayName("La importación masiva admite archivos por encima del límite global")
+    void testImportacionUsaSuLimite() {
+        // Act
+        ResponseEntity<String> respuesta = subir("/api/equipos/hardware/importar", "files", "informe.xml");
+
+        // Assert: el multipart se leyó y la importación quedó encolada
+        assertEquals(HttpStatus.ACCEPTED, respuesta.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("El resto de endpoints mantiene el límite global")
+    void testOtrosEndpointsUsanLimiteGlobal() {
+        // Act
+        ResponseEntity<String> respuesta = subir("/api/equipos/0/hardware/upload-xml", "file", "informe.xml");
+
+        // Assert
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, respuesta.getStatusCode());
+    }
+
+    private ResponseEntity<String> subir(String ruta, String parte, String nombre) {
+        MultiValueMap<String, Object> cuerpo = new LinkedMultiValueMap<>();
+        cuerpo.add(parte, new ByteArrayResource(new byte[TAMANO]) {
+            @Override
+            public String getFilename() {
+                return nombre;
+            }
+        });
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        headers.setBearerAuth(token);
+        return restTemplate.postForEntity(ruta, new HttpEntity<>(cuerpo, headers), String.class);
+    }
+}
@@ -0,0 +1,158 @@
+package com.newbie.newbiecore.controller;
+
+import com.newbie.newbiecore.config.TestContainersConfig;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Descarga de documentos de órdenes: rangos, 304 y ETag
+ * (ver {@link com.newbie.newbiecore.util.ArchivoHttpHelper}).
+ */
+@SpringBootTest
+@Import(TestContainersConfig.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class DocumentoControllerTest {
+
+    private static final String RUTA = "/api/documentos/{orden}/documentos/{archivo}";
+    private static final String ARCHIVO = "Resumen.pdf";
+    private static final int TAMANO = 1000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Value("${app.upload-dir}")
+    private String uploadDir;
+
+    private String numeroOrden;
+    private Path carpetaOrden;
+    private Path documento;
+    private byte[] contenido;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        numeroOrden = "OT-TEST-" + UUID.randomUUID().toString().substring(0, 8);
+        carpetaOrden = Paths.get(uploadDir, numeroOrden);
+        documento = Files.createDirectories(carpetaOrden.resolve("documentos")).resolve(ARCHIVO);
+
+        contenido = new byte[TAMANO];
+        for (int i = 0; i < TAMANO; i++) {
+            contenido[i] = (byte) i;
+        }
+        Files.write(documento, contenido);
+        // Segundos exactos, como viaja Last-Modified
+        Files.setLastModifiedTime(documento, FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS)
+                .truncatedTo(ChronoUnit.SECONDS)));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        FileSystemUtils.deleteRecursively(carpetaOrden);
+    }
+
+    @Test
+    @DisplayName("Sin Range devuelve el archivo completo con ETag y Last-Modified")
+    void testArchivoCompleto() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get(RUTA, numeroOrden, ARCHIVO))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/pdf"))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(content().bytes(contenido));
+    }
+
+    @Test
+    @DisplayName("Range válido devuelve 206 con solo los bytes pedidos")
+    void testRangoParcial() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get(RUTA, numeroOrden, ARCHIVO).header(HttpHeaders.RANGE, "bytes=100-199"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 100-199/" + TAMANO))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 100))
+                .andExpect(content().bytes(Arrays.copyOfRange(contenido, 100, 200)));
+    }
+
+    @Test
+    @DisplayName("Range fuera del archivo devuelve 416")
+    void testRangoInvalido() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get(RUTA, numeroOrden, ARCHIVO).header(HttpHeaders.RANGE, "bytes=5000-6000"))
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+    }
+
+    @Test
+    @DisplayName("If-None-Match con el ETag actual devuelve 304 sin cuerpo")
+    void testIfNoneMatch() throws Exception {
+        // Arrange
+        String etag = descargar().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act & Assert
+        mockMvc.perform(get(RUTA, numeroOrden, ARCHIVO).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    @DisplayName("If-Modified-Since igual a Last-Modified devuelve 304")
+    void testIfModifiedSince() throws Exception {
+        // Arrange
+        String modificado = descargar().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+
+        // Act & Assert
+        mockMvc.perform(get(RUTA, numeroOrden, ARCHIVO).header(HttpHeaders.IF_MODIFIED_SINCE, modificado))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("Al reescribir el archivo cambia el ETag y el anterior ya no da 304")
+    void testEtagCambiaAlReescribir() throws Exception {
+        // Arrange
+        String etagAnterior = descargar().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act: el PDF se regenera (mismo tamaño, fecha posterior)
+        byte[] nuevo = contenido.clone();
+        nuevo[0] = 42;
+        Files.write(documento, nuevo);
+        Files.setLastModifiedTime(documento, FileTime.from(Instant.now().truncatedTo(ChronoUnit.SECONDS)));
+
+        // Assert
+        MvcResult resultado = mockMvc.perform(get(RUTA, numeroOrden, ARCHIVO)
+                        .header(HttpHeaders.IF_NONE_MATCH, etagAnterior))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(nuevo))
+                .andReturn();
+        assertNotEquals(etagAnterior, resultado.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    private MvcResult descargar() throws Exception {
+        return mockMvc.perform(get(RUTA, numeroOrden, ARCHIVO))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+}
@@ -0,0 +1,101 @@
+package com.newbie.newbiecore.dto.FichaTecnica;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FichaTecnicaPdfLikeMergeUtilTest {
+
+    private static final List<Field> CAMPOS = Arrays.stream(FichaTecnicaDTO.class.getDeclaredFields())
+            .filter(f -> !Modifier.isStatic(f.getModifiers()))
+            .peek(f -> f.setAccessible(true))
+            .toList();
+
+    /** Implementación reflexiva anterior, usada como referencia. */
+    private static FichaTecnicaDTO mergeReflexivo(FichaTecnicaDTO target, FichaTecnicaDTO source) throws Exception {
+        if (target == null) return source;
+        if (source == null) return target;
+        for (Field field : CAMPOS) {
+            Object value = field.get(source);
+            if (value == null) continue;
+            if (value instanceof String s && s.trim().isEmpty()) continue;
+            if (value instanceof Number n && n.doubleValue() == 0) continue;
+            field.set(target, value);
+        }
+        return target;
+    }
+
+    /** Valores de prueba para el tipo del campo: nulos, vacíos, ceros y valores reales. */
+    private static List<Object> candidatos(Class<?> tipo) {
+        if (tipo == String.class) {
+            return Arrays.asList(null, "", " ", "\t\n", "x", " x ", "0", " ");
+        }
+        if (tipo == Integer.class) {
+            return Arrays.asList(null, 0, 7, -3);
+        }
+        if (tipo == Long.class) {
+            return Arrays.asList(null, 0L, 42L, -1L);
+        }
+        if (tipo == Boolean.class) {
+            return Arrays.asList(null, true, false);
+        }
+        if (tipo == Instant.class) {
+            return Arrays.asList(null, Instant.EPOCH, Instant.parse("2025-01-01T10:00:00Z"));
+        }
+        throw new IllegalStateException("Tipo sin candidatos: " + tipo);
+    }
+
+    private static FichaTecnicaDTO aleatorio(long semilla) throws Exception {
+        Random random = new Random(semilla);
+        FichaTecnicaDTO dto = new FichaTecnicaDTO();
+        for (Field field : CAMPOS) {
+            List<Object> valores = candidatos(field.getType());
+            field.set(dto, valores.get(random.nextInt(valores.size())));
+        }
+        return dto;
+    }
+
+    @Test
+    @DisplayName("Cada campo y cada valor debe mezclarse igual que la versión reflexiva")
+    void testMatrizPorCampo() throws Exception {
+        for (Field field : CAMPOS) {
+            for (Object valor : candidatos(field.getType())) {
+                FichaTecnicaDTO source = new FichaTecnicaDTO();
+                field.set(source, valor);
+
+                FichaTecnicaDTO esperado = mergeReflexivo(aleatorio(1), source);
+                FichaTecnicaDTO obtenido = FichaTecnicaPdfLikeMergeUtil.mergeLikePdf(aleatorio(1), source);
+
+                assertEquals(esperado, obtenido, () -> field.getName() + " = [" + valor + "]");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("DTOs aleatorios deben mezclarse igual que la versión reflexiva")
+    void testAleatorios() throws Exception {
+        for (long i = 0; i < 500; i++) {
+            FichaTecnicaDTO source = aleatorio(i * 2 + 1);
+            FichaTecnicaDTO esperado = mergeReflexivo(aleatorio(i * 2), source);
+            FichaTecnicaDTO obtenido = FichaTecnicaPdfLikeMergeUtil.mergeLikePdf(aleatorio(i * 2), source);
+
+            assertEquals(esperado, obtenido, "semilla " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Con target o source null debe devolver el otro")
+    void testNulos() {
+        FichaTecnicaDTO dto = new FichaTecnicaDTO();
+        assertSame(dto, FichaTecnicaPdfLikeMergeUtil.mergeLikePdf(null, dto));
+        assertSame(dto, FichaTecnicaPdfLikeMergeUtil.mergeLikePdf(dto, null));
+    }
+}
@@ -0,0 +1,166 @@
+package com.newbie.newbiecore.repository;
+
+import com.newbie.newbiecore.entity.AuditLog;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Consultas por cursor (timestamp, id) de AuditLog usando PostgreSQL local.
+ * Los registros van en 1999 para que el listado sin filtro solo vea los del
+ * test. @Transactional hace rollback automático después de cada test.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional
+class AuditLogRepositoryTest {
+
+    private static final LocalDateTime DESDE = LocalDateTime.of(1999, 3, 10, 10, 0);
+    private static final LocalDateTime HASTA = LocalDateTime.of(1999, 3, 10, 13, 0);
+    private static final int TAMANO_PAGINA = 2;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    private String uniqueId;
+    private AuditLog primero;
+    private AuditLog empateAnterior;
+    private AuditLog empatePosterior;
+    private AuditLog ultimo;
+    private AuditLog otro;
+
+    @BeforeEach
+    void setUp() {
+        uniqueId = UUID.randomUUID().toString().substring(0, 8);
+
+        // Fuera del rango: uno justo antes de desde y otro justo en hasta (exclusivo)
+        guardar(DESDE.minusSeconds(1), true);
+        guardar(HASTA, true);
+
+        primero = guardar(DESDE, true);
+        // Mismo timestamp: desempata el id, el guardado después va antes
+        empateAnterior = guardar(DESDE.plusHours(1), true);
+        empatePosterior = guardar(DESDE.plusHours(1), true);
+        otro = guardar(DESDE.plusMinutes(90), false);
+        ultimo = guardar(DESDE.plusHours(2), true);
+    }
+
+    @Test
+    @DisplayName("buscarPagina recorre el rango por cursor sin repetir ni saltar registros")
+    void testBuscarPagina() {
+        // Act
+        List<AuditLog> recorridos = recorrer((fecha, id, pagina) ->
+                auditLogRepository.buscarPagina(DESDE, HASTA, fecha, id, pagina));
+
+        // Assert
+        assertEquals(ids(ultimo, otro, empatePosterior, empateAnterior, primero), ids(recorridos));
+    }
+
+    @Test
+    @DisplayName("buscarPaginaPorTipoEntidad pagina solo los registros de ese tipo")
+    void testBuscarPaginaPorTipoEntidad() {
+        // Act
+        List<AuditLog> recorridos = recorrer((fecha, id, pagina) ->
+                auditLogRepository.buscarPaginaPorTipoEntidad("TIPO_" + uniqueId, DESDE, HASTA, fecha, id, pagina));
+
+        // Assert
+        assertEquals(ids(ultimo, empatePosterior, empateAnterior, primero), ids(recorridos));
+    }
+
+    @Test
+    @DisplayName("buscarPaginaPorUsuario pagina solo los registros de ese usuario")
+    void testBuscarPaginaPorUsuario() {
+        // Act
+        List<AuditLog> recorridos = recorrer((fecha, id, pagina) ->
+                auditLogRepository.buscarPaginaPorUsuario("usuario" + uniqueId, DESDE, HASTA, fecha, id, pagina));
+
+        // Assert
+        assertEquals(ids(ultimo, empatePosterior, empateAnterior, primero), ids(recorridos));
+    }
+
+    @Test
+    @DisplayName("buscarPaginaPorClave pagina solo los registros de esa clave")
+    void testBuscarPaginaPorClave() {
+        // Act
+        List<AuditLog> recorridos = recorrer((fecha, id, pagina) ->
+                auditLogRepository.buscarPaginaPorClave("CLAVE-" + uniqueId, DESDE, HASTA, fecha, id, pagina));
+
+        // Assert
+        assertEquals(ids(ultimo, empatePosterior, empateAnterior, primero), ids(recorridos));
+    }
+
+    @Test
+    @DisplayName("El cursor sobre un empate devuelve solo los de id menor con ese timestamp")
+    void testCursorEnEmpate() {
+        // Act
+        List<AuditLog> pagina = auditLogRepository.buscarPaginaPorClave("CLAVE-" + uniqueId, DESDE, HASTA,
+                empatePosterior.getTimestamp(), empatePosterior.getId(), PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(ids(empateAnterior, primero), ids(pagina));
+    }
+
+    /*
+     * =============================
+     * AUXILIARES
+     * =============================
+     */
+
+    @FunctionalInterface
+    private interface Consulta {
+        List<AuditLog> buscar(LocalDateTime cursorFecha, Long cursorId, Pageable pagina);
+    }
+
+    /**
+     * Recorre todas las páginas como lo hace AuditService: el cursor es el
+     * último registro de la página anterior.
+     */
+    private List<AuditLog> recorrer(Consulta consulta) {
+        List<AuditLog> todos = new ArrayList<>();
+        LocalDateTime cursorFecha = LocalDateTime.of(9999, 12, 31, 0, 0);
+        Long cursorId = Long.MAX_VALUE;
+        while (true) {
+            List<AuditLog> pagina = consulta.buscar(cursorFecha, cursorId, PageRequest.of(0, TAMANO_PAGINA));
+            assertTrue(pagina.size() <= TAMANO_PAGINA);
+            todos.addAll(pagina);
+            if (pagina.size() < TAMANO_PAGINA) {
+                return todos;
+            }
+            AuditLog ultimoDePagina = pagina.get(pagina.size() - 1);
+            cursorFecha = ultimoDePagina.getTimestamp();
+            cursorId = ultimoDePagina.getId();
+        }
+    }
+
+    private AuditLog guardar(LocalDateTime timestamp, boolean delTest) {
+        String sufijo = delTest ? uniqueId : "OTRO-" + uniqueId;
+        AuditLog log = new AuditLog();
+        log.setAction("UPDATE");
+        log.setEntityType("TIPO_" + sufijo);
+        log.setEntityKey("CLAVE-" + sufijo);
+        log.setUsername("usuario" + sufijo);
+        log.setTimestamp(timestamp);
+        return auditLogRepository.save(log);
+    }
+
+    private static List<Long> ids(AuditLog... logs) {
+        return ids(List.of(logs));
+    }
+
+    private static List<Long> ids(List<AuditLog> logs) {
+        return logs.stream().map(AuditLog::getId).toList();
+    }
+}
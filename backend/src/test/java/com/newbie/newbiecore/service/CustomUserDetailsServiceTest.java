@@ -0,0 +1,221 @@
+package com.newbie.newbiecore.service;
+
+import com.newbie.newbiecore.config.TestContainersConfig;
+import com.newbie.newbiecore.entity.Rol;
+import com.newbie.newbiecore.entity.Usuario;
+import com.newbie.newbiecore.repository.RolRepository;
+import com.newbie.newbiecore.repository.UsuarioRepository;
+import com.newbie.newbiecore.util.JwtUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Caché de UserDetails: los cambios de usuarios y roles deben verse en la
+ * siguiente petición, sin esperar al TTL.
+ */
+@SpringBootTest
+@Import(TestContainersConfig.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CustomUserDetailsServiceTest {
+
+    // Endpoint autenticado sin restricción de rol: 404 si pasa el filtro JWT, 401 si no
+    private static final String RUTA_AUTENTICADA = "/api/equipos/hardware/importaciones/no-existe";
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private RolService rolService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private RolRepository rolRepository;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private String uniqueId;
+    private Rol rol;
+    private Usuario usuario;
+    private final List<Rol> rolesCreados = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        uniqueId = UUID.randomUUID().toString().substring(0, 8);
+        rol = crearRol("ROLE_CACHE_" + uniqueId);
+        usuario = usuarioRepository.save(Usuario.builder()
+                .cedula("U" + uniqueId)
+                .nombre("Usuario Caché")
+                .correo("cache" + uniqueId + "@test.com")
+                .password("password")
+                .rol(rol)
+                .estado(true)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        usuarioRepository.deleteById(usuario.getCedula());
+        rolesCreados.forEach(r -> rolRepository.findById(r.getIdRol()).ifPresent(rolRepository::delete));
+        userDetailsService.invalidarTodos();
+    }
+
+    @Test
+    @DisplayName("desactivarUsuario rechaza el token del usuario en la siguiente petición")
+    void testDesactivarUsuarioRechazaToken() throws Exception {
+        // Arrange: el usuario queda en caché al usar su token
+        String token = tokenDe(usuario);
+        mockMvc.perform(get(RUTA_AUTENTICADA).header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+
+        // Act
+        usuarioService.desactivarUsuario(usuario.getCedula());
+
+        // Assert
+        assertFalse(userDetailsService.loadUserByUsername(usuario.getCorreo()).isEnabled());
+        mockMvc.perform(get(RUTA_AUTENTICADA).header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("actualizarUsuario con estado false rechaza el token en la siguiente petición")
+    void testActualizarUsuarioInactivoRechazaToken() throws Exception {
+        // Arrange
+        String token = tokenDe(usuario);
+        mockMvc.perform(get(RUTA_AUTENTICADA).header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+
+        // Act
+        usuarioService.actualizarUsuario(usuario.getCedula(), copia(usuario, rol, false));
+
+        // Assert
+        mockMvc.perform(get(RUTA_AUTENTICADA).header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("actualizarUsuario con otro rol cambia la autoridad en caché")
+    void testActualizarUsuarioCambiaRol() {
+        // Arrange
+        Rol otroRol = crearRol("ROLE_CACHE_OTRO_" + uniqueId);
+        assertEquals(List.of(rol.getNombre()), autoridades(userDetailsService.loadUserByUsername(usuario.getCorreo())));
+
+        // Act
+        usuarioService.actualizarUsuario(usuario.getCedula(), copia(usuario, otroRol, true));
+
+        // Assert
+        assertEquals(List.of(otroRol.getNombre()),
+                autoridades(userDetailsService.loadUserByUsername(usuario.getCorreo())));
+    }
+
+    @Test
+    @DisplayName("actualizarRol invalida la caché y la autoridad usa el nuevo nombre")
+    void testActualizarRolCambiaAutoridad() {
+        // Arrange
+        userDetailsService.loadUserByUsername(usuario.getCorreo());
+        String nuevoNombre = "ROLE_CACHE_RENOMBRADO_" + uniqueId;
+
+        // Act
+        rolService.actualizarRol(rol.getIdRol(), Rol.builder().nombre(nuevoNombre).descripcion("Renombrado").build());
+
+        // Assert
+        assertEquals(List.of(nuevoNombre), autoridades(userDetailsService.loadUserByUsername(usuario.getCorreo())));
+    }
+
+    @Test
+    @DisplayName("eliminarRol vacía la caché: la siguiente carga vuelve a la base de datos")
+    void testEliminarRolVaciaCache() {
+        // Arrange: segunda carga servida desde la caché
+        userDetailsService.loadUserByUsername(usuario.getCorreo());
+        double fallosAntes = fallos();
+        userDetailsService.loadUserByUsername(usuario.getCorreo());
+        assertEquals(fallosAntes, fallos());
+
+        Rol sinUsuarios = crearRol("ROLE_CACHE_BORRAR_" + uniqueId);
+
+        // Act
+        assertTrue(rolService.eliminarRol(sinUsuarios.getIdRol()));
+
+        // Assert
+        userDetailsService.loadUserByUsername(usuario.getCorreo());
+        assertEquals(fallosAntes + 1, fallos());
+    }
+
+    @Test
+    @DisplayName("Una carga que se solapa con una invalidación no guarda su resultado")
+    void testCargaSolapadaConInvalidacionNoSeGuarda() {
+        // Arrange: la invalidación llega mientras se consulta la base de datos
+        UsuarioRepository repositorio = mock(UsuarioRepository.class);
+        CustomUserDetailsService servicio = new CustomUserDetailsService(repositorio, new SimpleMeterRegistry(), 60000, 100);
+        when(repositorio.findByCorreo(usuario.getCorreo())).thenAnswer(invocacion -> {
+            servicio.invalidar(usuario.getCorreo());
+            return Optional.of(usuario);
+        });
+
+        // Act
+        servicio.loadUserByUsername(usuario.getCorreo());
+        servicio.loadUserByUsername(usuario.getCorreo());
+
+        // Assert: la segunda carga también fue a la base de datos
+        verify(repositorio, times(2)).findByCorreo(usuario.getCorreo());
+    }
+
+    private Rol crearRol(String nombre) {
+        Rol creado = rolRepository.save(Rol.builder().nombre(nombre).descripcion("Rol de prueba").build());
+        rolesCreados.add(creado);
+        return creado;
+    }
+
+    private String tokenDe(Usuario u) {
+        return jwtUtils.generateToken(userDetailsService.loadUserByUsername(u.getCorreo()));
+    }
+
+    private static Usuario copia(Usuario u, Rol rol, boolean estado) {
+        return Usuario.builder()
+                .cedula(u.getCedula())
+                .nombre(u.getNombre())
+                .correo(u.getCorreo())
+                .rol(rol)
+                .estado(estado)
+                .build();
+    }
+
+    private static List<String> autoridades(UserDetails userDetails) {
+        return userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+    }
+
+    private double fallos() {
+        return meterRegistry.counter("usuarios.cache.fallos").count();
+    }
+}
@@ -0,0 +1,282 @@
+package com.newbie.newbiecore.service;
+
+import com.newbie.newbiecore.config.TestContainersConfig;
+import com.newbie.newbiecore.dto.OrdenTrabajo.ActualizarEntregaRequest;
+import com.newbie.newbiecore.dto.OrdenTrabajo.CrearOrdenTrabajoRequest;
+import com.newbie.newbiecore.dto.dashboard.DashboardResumenDto;
+import com.newbie.newbiecore.entity.Equipo;
+import com.newbie.newbiecore.entity.Rol;
+import com.newbie.newbiecore.entity.Usuario;
+import com.newbie.newbiecore.repository.EquipoRepository;
+import com.newbie.newbiecore.repository.OrdenTrabajoRepository;
+import com.newbie.newbiecore.repository.RolRepository;
+import com.newbie.newbiecore.repository.UsuarioRepository;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la tabla acumulada del dashboard usando PostgreSQL local. Sin
+ * @Transactional: la caché se invalida después del commit y eso es parte de
+ * lo que se prueba.
+ */
+@SpringBootTest
+@Import(TestContainersConfig.class)
+@ActiveProfiles("test")
+class DashboardServiceTest {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private OrdenTrabajoService ordenTrabajoService;
+
+    @Autowired
+    private OrdenTrabajoRepository ordenTrabajoRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EquipoRepository equipoRepository;
+
+    @Autowired
+    private RolRepository rolRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private String tecnicoFicticio;
+    private Usuario tecnico;
+    private Usuario cliente;
+    private Equipo equipo;
+    private final List<Long> ordenesCreadas = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        String uniqueId = UUID.randomUUID().toString().substring(0, 8);
+        // Cédula sin fila en usuarios: sus filas en la tabla acumulada son solo de este test
+        tecnicoFicticio = "DASH-" + uniqueId;
+
+        Rol rolTecnico = rolRepository.findByNombre("ROLE_TECNICO")
+                .orElseGet(() -> rolRepository.save(Rol.builder()
+                        .nombre("ROLE_TECNICO")
+                        .descripcion("Técnico")
+                        .build()));
+
+        tecnico = usuarioRepository.save(Usuario.builder()
+                .cedula("T" + uniqueId)
+                .nombre("Técnico Dashboard")
+                .correo("tec" + uniqueId + "@test.com")
+                .password("password")
+                .rol(rolTecnico)
+                .estado(true)
+                .build());
+
+        cliente = usuarioRepository.save(Usuario.builder()
+                .cedula("C" + uniqueId)
+                .nombre("Cliente Dashboard")
+                .correo("cli" + uniqueId + "@test.com")
+                .password("password")
+                .estado(true)
+                .build());
+
+        equipo = equipoRepository.save(Equipo.builder()
+                .usuario(cliente)
+                .tecnico(tecnico)
+                .numeroSerie("SN-" + uniqueId)
+                .modelo("Laptop Test")
+                .marca("TestBrand")
+                .fechaRegistro(Instant.now())
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM dashboard_ordenes_diarias WHERE tecnico_cedula = ?", tecnicoFicticio);
+        ordenTrabajoRepository.deleteAllById(ordenesCreadas);
+        equipoRepository.delete(equipo);
+        usuarioRepository.delete(cliente);
+        usuarioRepository.delete(tecnico);
+        // Las órdenes borradas no descuentan de la tabla acumulada
+        dashboardService.reconstruir();
+    }
+
+    @Test
+    @DisplayName("Los ingresos y cambios de estado se acumulan con upsert por día, estado y técnico")
+    void testUpsertIncremental() {
+        // Arrange
+        Instant ingreso = Instant.parse("2001-02-03T15:00:00Z");
+
+        // Act
+        tx.executeWithoutResult(status -> {
+            dashboardService.registrarIngreso(ingreso, "PENDIENTE", tecnicoFicticio);
+            dashboardService.registrarIngreso(ingreso, "PENDIENTE", tecnicoFicticio);
+            dashboardService.registrarCambioEstado(ingreso, "PENDIENTE", "EN_REPARACION", tecnicoFicticio);
+            // Sin cambio de estado no se toca nada
+            dashboardService.registrarCambioEstado(ingreso, "EN_REPARACION", "EN_REPARACION", tecnicoFicticio);
+        });
+
+        // Assert
+        Map<String, Long> porEstado = new HashMap<>();
+        jdbcTemplate.query("SELECT fecha, estado, cantidad FROM dashboard_ordenes_diarias WHERE tecnico_cedula = ?",
+                rs -> {
+                    assertEquals(LocalDate.ofInstant(ingreso, ZoneId.systemDefault()), rs.getDate("fecha").toLocalDate());
+                    porEstado.put(rs.getString("estado"), rs.getLong("cantidad"));
+                },
+                tecnicoFicticio);
+        assertEquals(Map.of("PENDIENTE", 1L, "EN_REPARACION", 1L), porEstado);
+    }
+
+    @Test
+    @DisplayName("La caché del resumen se invalida al confirmar, no antes ni tras un rollback")
+    void testInvalidacionTrasCommit() {
+        // Arrange
+        DashboardResumenDto antes = dashboardService.obtenerResumen();
+
+        // Act & Assert: dentro de la transacción se sigue sirviendo la caché
+        tx.executeWithoutResult(status -> {
+            dashboardService.registrarIngreso(Instant.now(), "PENDIENTE", tecnicoFicticio);
+            assertSame(antes, dashboardService.obtenerResumen());
+        });
+
+        // Tras el commit se recalcula con la fila nueva
+        DashboardResumenDto despues = dashboardService.obtenerResumen();
+        assertNotSame(antes, despues);
+        assertEquals(antes.getTotalOrdenes() + 1, despues.getTotalOrdenes());
+        assertEquals(antes.getOrdenesHoy() + 1, despues.getOrdenesHoy());
+
+        // Un rollback no invalida ni deja la fila
+        tx.executeWithoutResult(status -> {
+            dashboardService.registrarIngreso(Instant.now(), "PENDIENTE", tecnicoFicticio);
+            status.setRollbackOnly();
+        });
+        assertSame(despues, dashboardService.obtenerResumen());
+        assertEquals(1L, jdbcTemplate.queryForObject(
+                "SELECT SUM(cantidad) FROM dashboard_ordenes_diarias WHERE tecnico_cedula = ?",
+                Long.class, tecnicoFicticio));
+    }
+
+    @Test
+    @DisplayName("Crear y cambiar de estado órdenes mantiene la tabla igual al agregado en vivo")
+    void testIncrementalCoincideConAgregadoEnVivo() {
+        // Arrange
+        dashboardService.reconstruir();
+
+        // Act
+        Long primera = crearOrden();
+        Long segunda = crearOrden();
+        ordenTrabajoService.actualizarEntrega(primera, cambiarEstado("EN_REPARACION"));
+        ordenTrabajoService.actualizarEntrega(segunda, cambiarEstado("LISTO"));
+
+        // Assert
+        assertEquals(agregadoEnVivo(), tablaAcumulada());
+    }
+
+    @Test
+    @DisplayName("reconstruir() corrige los desvíos y deja la tabla igual al agregado en vivo")
+    void testReconstruirCoincideConAgregadoEnVivo() {
+        // Arrange: desvío que no corresponde a ninguna orden
+        crearOrden();
+        jdbcTemplate.update("""
+                INSERT INTO dashboard_ordenes_diarias (fecha, estado, tecnico_cedula, cantidad)
+                VALUES (?, 'PENDIENTE', ?, 7)
+                """, Date.valueOf(LocalDate.of(2001, 2, 3)), tecnicoFicticio);
+        assertNotEquals(agregadoEnVivo(), tablaAcumulada());
+
+        // Act
+        dashboardService.reconstruir();
+
+        // Assert
+        assertEquals(agregadoEnVivo(), tablaAcumulada());
+        long ordenes = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM ordenes_trabajo WHERE estado IS NOT NULL", Long.class);
+        assertEquals(ordenes, dashboardService.obtenerResumen().getTotalOrdenes());
+    }
+
+    /*
+     * =============================
+     * AUXILIARES
+     * =============================
+     */
+
+    /** Conteo directo sobre ordenes_trabajo, con la misma zona horaria que el servicio. */
+    private Map<String, Long> agregadoEnVivo() {
+        Map<String, Long> filas = new TreeMap<>();
+        jdbcTemplate.query("""
+                SELECT (fecha_hora_ingreso AT TIME ZONE ?)::date AS fecha, estado,
+                       COALESCE(tecnico_cedula, '') AS tecnico, count(*) AS cantidad
+                FROM ordenes_trabajo
+                WHERE estado IS NOT NULL
+                GROUP BY 1, 2, 3
+                """,
+                rs -> {
+                    filas.put(clave(rs.getDate("fecha"), rs.getString("estado"), rs.getString("tecnico")),
+                            rs.getLong("cantidad"));
+                },
+                ZoneId.systemDefault().getId());
+        return filas;
+    }
+
+    private Map<String, Long> tablaAcumulada() {
+        Map<String, Long> filas = new TreeMap<>();
+        jdbcTemplate.query("SELECT fecha, estado, tecnico_cedula, cantidad FROM dashboard_ordenes_diarias WHERE cantidad <> 0",
+                rs -> {
+                    filas.put(clave(rs.getDate("fecha"), rs.getString("estado"), rs.getString("tecnico_cedula")),
+                            rs.getLong("cantidad"));
+                });
+        return filas;
+    }
+
+    private static String clave(Date fecha, String estado, String tecnico) {
+        return fecha + "|" + estado + "|" + tecnico;
+    }
+
+    private Long crearOrden() {
+        Authentication auth = new UsernamePasswordAuthenticationToken(
+                tecnico.getCorreo(), null,
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_TECNICO")));
+
+        CrearOrdenTrabajoRequest request = new CrearOrdenTrabajoRequest();
+        request.setClienteCedula(cliente.getCedula());
+        request.setEquipoId(equipo.getIdEquipo());
+        request.setMedioContacto("PRESENCIAL");
+        request.setProblemaReportado("Prueba de dashboard");
+        request.setTipoServicio("REPARACION");
+        request.setPrioridad("MEDIA");
+
+        Long ordenId = ordenTrabajoService.crearOrden(request, auth).ordenId();
+        ordenesCreadas.add(ordenId);
+        return ordenId;
+    }
+
+    private static ActualizarEntregaRequest cambiarEstado(String estado) {
+        return new ActualizarEntregaRequest(
+                null, null, estado, null,
+                null, null,
+                null, null, null, null, null, null, null,
+                null, null, null, null,
+                null, null);
+    }
+}
@@ -0,0 +1,173 @@
+package com.newbie.newbiecore.service;
+
+import com.newbie.newbiecore.config.TestContainersConfig;
+import com.newbie.newbiecore.dto.FichaTecnica.FichaTecnicaResumenDTO;
+import com.newbie.newbiecore.entity.FichaTecnica;
+import com.newbie.newbiecore.repository.FichaTecnicaRepository;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fichas técnicas con cabecera y tablas de sección, usando PostgreSQL local.
+ * La migración se prueba sobre tablas propias con el esquema anterior.
+ */
+@SpringBootTest
+@Import(TestContainersConfig.class)
+@ActiveProfiles("test")
+class FichaTecnicaSeccionesMigracionTest {
+
+    @Autowired
+    private FichaTecnicaRepository fichaTecnicaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String tabla;
+    private String tecnicoId;
+    private FichaTecnica ficha;
+
+    @BeforeEach
+    void setUp() {
+        String uniqueId = UUID.randomUUID().toString().substring(0, 8);
+        tabla = "fichas_tecnicas_test_" + uniqueId;
+        tecnicoId = "FT-" + uniqueId;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (ficha != null) {
+            fichaTecnicaRepository.deleteById(ficha.getId());
+        }
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + tabla + " CASCADE");
+        for (String seccion : List.of("hardware", "inspeccion", "software")) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + tabla + "_" + seccion);
+        }
+    }
+
+    @Test
+    @DisplayName("La cabecera de fichas_tecnicas ya no tiene columnas de sección")
+    void testCabeceraSinColumnasDeSeccion() {
+        // Act
+        List<String> cabecera = columnas(FichaTecnica.TABLA);
+
+        // Assert
+        assertEquals(List.of("equipo_id", "estado", "fecha_creacion", "id", "observaciones",
+                "orden_trabajo_id", "tecnico_id", "trabajo_realizado"), cabecera);
+        assertTrue(columnas(FichaTecnica.TABLA_HARDWARE).containsAll(List.of("ficha_id", "cpu_nombre", "hvci_estado")));
+        assertTrue(columnas(FichaTecnica.TABLA_INSPECCION).containsAll(List.of("ficha_id", "carcasa_estado", "wifi_funciona")));
+        assertTrue(columnas(FichaTecnica.TABLA_SOFTWARE).containsAll(List.of("ficha_id", "so_tipo", "office_version")));
+    }
+
+    @Test
+    @DisplayName("Guardar y cargar una ficha reparte y reúne los campos de todas las secciones")
+    void testGuardarYCargarFichaCompleta() {
+        // Arrange
+        ficha = fichaTecnicaRepository.save(FichaTecnica.builder()
+                .fechaCreacion(Instant.now())
+                .estado("BORRADOR")
+                .tecnicoId(tecnicoId)
+                .trabajoRealizado("Limpieza")
+                .cpuNombre("Intel i7")
+                .ramCapacidadGb(16)
+                .carcasaEstado("BUENO")
+                .soTipo("Windows")
+                .build());
+
+        // Act
+        FichaTecnica cargada = fichaTecnicaRepository.findById(ficha.getId()).orElseThrow();
+        List<FichaTecnicaResumenDTO> resumen = fichaTecnicaRepository.listarResumenPorTecnico(tecnicoId);
+
+        // Assert
+        assertEquals("Intel i7", cargada.getCpuNombre());
+        assertEquals(16, cargada.getRamCapacidadGb());
+        assertEquals("BUENO", cargada.getCarcasaEstado());
+        assertEquals("Windows", cargada.getSoTipo());
+        assertEquals("Limpieza", cargada.getTrabajoRealizado());
+        assertEquals(List.of(ficha.getId()), resumen.stream().map(FichaTecnicaResumenDTO::id).toList());
+        assertEquals(1, contar(FichaTecnica.TABLA_HARDWARE, ficha.getId()));
+        assertEquals(1, contar(FichaTecnica.TABLA_INSPECCION, ficha.getId()));
+        assertEquals(1, contar(FichaTecnica.TABLA_SOFTWARE, ficha.getId()));
+    }
+
+    @Test
+    @DisplayName("La migración copia las secciones con valores y quita las columnas de la cabecera")
+    void testMigracionTrasladaColumnas() {
+        // Arrange: cabecera ancha como la anterior y tablas de sección recién creadas por Hibernate
+        jdbcTemplate.execute("""
+                CREATE TABLE %1$s (
+                    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                    estado VARCHAR(20),
+                    cpu_nombre VARCHAR(255),
+                    ram_capacidad_gb INTEGER,
+                    carcasa_estado VARCHAR(255),
+                    so_tipo VARCHAR(255)
+                );
+                CREATE TABLE %1$s_hardware (
+                    ficha_id BIGINT PRIMARY KEY REFERENCES %1$s (id),
+                    cpu_nombre VARCHAR(255),
+                    ram_capacidad_gb INTEGER
+                );
+                CREATE TABLE %1$s_inspeccion (
+                    ficha_id BIGINT PRIMARY KEY REFERENCES %1$s (id),
+                    carcasa_estado VARCHAR(255)
+                );
+                CREATE TABLE %1$s_software (
+                    ficha_id BIGINT PRIMARY KEY REFERENCES %1$s (id),
+                    so_tipo VARCHAR(255)
+                )
+                """.formatted(tabla));
+        jdbcTemplate.update("INSERT INTO " + tabla + " VALUES (1, 'BORRADOR', 'Intel i7', 16, 'BUENO', NULL)");
+        jdbcTemplate.update("INSERT INTO " + tabla + " VALUES (2, 'CERRADA', NULL, NULL, NULL, 'Windows')");
+        jdbcTemplate.update("INSERT INTO " + tabla + " VALUES (3, 'BORRADOR', NULL, NULL, NULL, NULL)");
+        FichaTecnicaSeccionesMigracion migracion = new FichaTecnicaSeccionesMigracion(jdbcTemplate,
+                transactionManager, tabla, List.of(tabla + "_hardware", tabla + "_inspeccion", tabla + "_software"));
+
+        // Act: dos veces, la segunda no debe hacer nada
+        migracion.migrar();
+        migracion.migrar();
+
+        // Assert
+        assertEquals(List.of("estado", "id"), columnas(tabla));
+        assertEquals(3L, jdbcTemplate.queryForObject("SELECT count(*) FROM " + tabla, Long.class));
+        assertEquals(List.of(Map.of("ficha_id", 1L, "cpu_nombre", "Intel i7", "ram_capacidad_gb", 16)),
+                jdbcTemplate.queryForList("SELECT * FROM " + tabla + "_hardware"));
+        assertEquals(List.of(Map.of("ficha_id", 1L, "carcasa_estado", "BUENO")),
+                jdbcTemplate.queryForList("SELECT * FROM " + tabla + "_inspeccion"));
+        assertEquals(List.of(Map.of("ficha_id", 2L, "so_tipo", "Windows")),
+                jdbcTemplate.queryForList("SELECT * FROM " + tabla + "_software"));
+    }
+
+    /*
+     * =============================
+     * AUXILIARES
+     * =============================
+     */
+
+    private List<String> columnas(String nombre) {
+        return jdbcTemplate.queryForList("""
+                SELECT column_name FROM information_schema.columns
+                WHERE table_schema = current_schema() AND table_name = ?
+                ORDER BY column_name
+                """, String.class, nombre);
+    }
+
+    private long contar(String seccion, Long fichaId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + seccion + " WHERE ficha_id = ?",
+                Long.class, fichaId);
+    }
+}
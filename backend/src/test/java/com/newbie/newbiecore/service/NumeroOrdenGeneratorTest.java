@@ -0,0 +1,225 @@
+package com.newbie.newbiecore.service;
+
+import com.newbie.newbiecore.config.TestContainersConfig;
+import com.newbie.newbiecore.dto.OrdenTrabajo.CrearOrdenTrabajoRequest;
+import com.newbie.newbiecore.dto.OrdenTrabajo.OrdenTrabajoIngresoDto;
+import com.newbie.newbiecore.entity.Equipo;
+import com.newbie.newbiecore.entity.Rol;
+import com.newbie.newbiecore.entity.Usuario;
+import com.newbie.newbiecore.repository.EquipoRepository;
+import com.newbie.newbiecore.repository.OrdenTrabajoRepository;
+import com.newbie.newbiecore.repository.RolRepository;
+import com.newbie.newbiecore.repository.UsuarioRepository;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de concurrencia del generador de números de orden usando PostgreSQL local.
+ * Sin @Transactional: cada hilo crea su orden en su propia transacción, igual que
+ * varias peticiones simultáneas en recepción. Los datos se eliminan al final.
+ */
+@SpringBootTest
+@Import(TestContainersConfig.class)
+@ActiveProfiles("test")
+class NumeroOrdenGeneratorTest {
+
+    // Por debajo del tamaño del pool de conexiones (10): crearOrden también audita
+    private static final int HILOS_CREAR_ORDEN = 5;
+    private static final int ORDENES_POR_HILO = 40;
+    private static final int HILOS = 16;
+
+    @Autowired
+    private OrdenTrabajoService ordenTrabajoService;
+
+    @Autowired
+    private NumeroOrdenGenerator numeroOrdenGenerator;
+
+    @Autowired
+    private OrdenTrabajoRepository ordenTrabajoRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EquipoRepository equipoRepository;
+
+    @Autowired
+    private RolRepository rolRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Usuario tecnico;
+    private Usuario cliente;
+    private Equipo equipo;
+    private final List<Long> ordenesCreadas = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        String uniqueId = UUID.randomUUID().toString().substring(0, 8);
+
+        Rol rolTecnico = rolRepository.findByNombre("ROLE_TECNICO")
+                .orElseGet(() -> rolRepository.save(Rol.builder()
+                        .nombre("ROLE_TECNICO")
+                        .descripcion("Técnico")
+                        .build()));
+
+        tecnico = usuarioRepository.save(Usuario.builder()
+                .cedula("T" + uniqueId)
+                .nombre("Técnico Concurrencia")
+                .correo("tec" + uniqueId + "@test.com")
+                .password("password")
+                .rol(rolTecnico)
+                .estado(true)
+                .build());
+
+        cliente = usuarioRepository.save(Usuario.builder()
+                .cedula("C" + uniqueId)
+                .nombre("Cliente Concurrencia")
+                .correo("cli" + uniqueId + "@test.com")
+                .password("password")
+                .estado(true)
+                .build());
+
+        equipo = equipoRepository.save(Equipo.builder()
+                .usuario(cliente)
+                .tecnico(tecnico)
+                .numeroSerie("SN-" + uniqueId)
+                .modelo("Laptop Test")
+                .marca("TestBrand")
+                .fechaRegistro(Instant.now())
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ordenTrabajoRepository.deleteAllById(ordenesCreadas);
+        equipoRepository.delete(equipo);
+        usuarioRepository.delete(cliente);
+        usuarioRepository.delete(tecnico);
+    }
+
+    @Test
+    @DisplayName("crearOrden concurrente no debe repetir números de orden")
+    void testCrearOrdenConcurrenteNumerosUnicos() throws Exception {
+        // Arrange
+        Authentication auth = new UsernamePasswordAuthenticationToken(
+                tecnico.getCorreo(), null,
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_TECNICO")));
+
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS_CREAR_ORDEN);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<List<String>>> resultados = new ArrayList<>();
+
+        // Act
+        for (int h = 0; h < HILOS_CREAR_ORDEN; h++) {
+            resultados.add(executor.submit(() -> {
+                salida.await();
+                List<String> numeros = new ArrayList<>();
+                for (int i = 0; i < ORDENES_POR_HILO; i++) {
+                    OrdenTrabajoIngresoDto dto = ordenTrabajoService.crearOrden(crearRequest(), auth);
+                    ordenesCreadas.add(dto.ordenId());
+                    numeros.add(dto.numeroOrden());
+                }
+                return numeros;
+            }));
+        }
+        salida.countDown();
+
+        List<String> numeros = new ArrayList<>();
+        for (Future<List<String>> f : resultados) {
+            numeros.addAll(f.get(2, TimeUnit.MINUTES));
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(HILOS_CREAR_ORDEN * ORDENES_POR_HILO, numeros.size());
+        assertEquals(numeros.size(), new HashSet<>(numeros).size(), "Se generaron números de orden repetidos");
+        assertTrue(numeros.stream().allMatch(n -> n.matches("OT-\\d{5,}")));
+    }
+
+    @Test
+    @DisplayName("El generador debe entregar números únicos bajo concurrencia")
+    void testGeneradorConcurrenteSinRepetidos() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        Set<String> numeros = ConcurrentHashMap.newKeySet();
+        int total = HILOS * 500;
+        CountDownLatch fin = new CountDownLatch(total);
+
+        // Act
+        for (int i = 0; i < total; i++) {
+            executor.execute(() -> {
+                numeros.add(numeroOrdenGenerator.siguienteNumero());
+                fin.countDown();
+            });
+        }
+
+        // Assert
+        assertTrue(fin.await(1, TimeUnit.MINUTES));
+        executor.shutdown();
+        assertEquals(total, numeros.size());
+    }
+
+    @Test
+    @DisplayName("Si la primera orden hace rollback, la secuencia sigue existiendo")
+    void testRollbackPrimerUsoNoBorraSecuencia() {
+        // Arrange: secuencia propia, creada al iniciar el generador como hace Spring
+        String secuencia = "numero_orden_test_" + UUID.randomUUID().toString().substring(0, 8);
+        int bloque = 5;
+        NumeroOrdenGenerator generador = new NumeroOrdenGenerator(jdbcTemplate, bloque, secuencia);
+        try {
+            generador.asegurarSecuencia();
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+            // Act: el primer número se pide dentro de una transacción que se revierte
+            String primero = tx.execute(status -> {
+                status.setRollbackOnly();
+                return generador.siguienteNumero();
+            });
+            // Agotar el bloque para forzar otro nextval
+            List<String> siguientes = new ArrayList<>();
+            for (int i = 0; i < bloque * 2; i++) {
+                siguientes.add(generador.siguienteNumero());
+            }
+
+            // Assert
+            Integer existe = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM pg_class WHERE relkind = 'S' AND relname = ?", Integer.class, secuencia);
+            assertEquals(1, existe);
+            assertFalse(siguientes.contains(primero));
+            assertEquals(siguientes.size(), new HashSet<>(siguientes).size());
+        } finally {
+            jdbcTemplate.execute("DROP SEQUENCE IF EXISTS " + secuencia);
+        }
+    }
+
+    private CrearOrdenTrabajoRequest crearRequest() {
+        CrearOrdenTrabajoRequest request = new CrearOrdenTrabajoRequest();
+        request.setClienteCedula(cliente.getCedula());
+        request.setEquipoId(equipo.getIdEquipo());
+        request.setMedioContacto("PRESENCIAL");
+        request.setProblemaReportado("Prueba de concurrencia");
+        request.setTipoServicio("REPARACION");
+        request.setPrioridad("MEDIA");
+        return request;
+    }
+}
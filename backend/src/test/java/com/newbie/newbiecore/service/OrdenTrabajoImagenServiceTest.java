@@ -0,0 +1,46 @@
+package com.newbie.newbiecore.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrdenTrabajoImagenServiceTest {
+
+    @Test
+    @DisplayName("Debe quedarse solo con el nombre del archivo, sin carpetas")
+    void testNombreSeguroQuitaCarpetas() {
+        assertEquals("foto.jpg", OrdenTrabajoImagenService.nombreSeguro("fotos/2024/foto.jpg"));
+        assertEquals("foto.jpg", OrdenTrabajoImagenService.nombreSeguro("C:\\Users\\tec\\foto.jpg"));
+        assertEquals("foto.jpg", OrdenTrabajoImagenService.nombreSeguro("../../foto.jpg"));
+        assertEquals("foto.jpg", OrdenTrabajoImagenService.nombreSeguro("..\\..\\foto.jpg"));
+    }
+
+    @Test
+    @DisplayName("Debe reemplazar los caracteres no seguros y quitar los puntos iniciales")
+    void testNombreSeguroCaracteres() {
+        assertEquals("mi_foto__1_.png", OrdenTrabajoImagenService.nombreSeguro("mi foto (1).png"));
+        assertEquals("diagn_stico.jpg", OrdenTrabajoImagenService.nombreSeguro("diagnóstico.jpg"));
+        assertEquals("htaccess", OrdenTrabajoImagenService.nombreSeguro(".htaccess"));
+        assertEquals("imagen", OrdenTrabajoImagenService.nombreSeguro(".."));
+        assertEquals("imagen", OrdenTrabajoImagenService.nombreSeguro("fotos/.."));
+    }
+
+    @Test
+    @DisplayName("Un nombre vacío debe reemplazarse por uno genérico")
+    void testNombreSeguroVacio() {
+        assertEquals("imagen", OrdenTrabajoImagenService.nombreSeguro(null));
+        assertEquals("imagen", OrdenTrabajoImagenService.nombreSeguro(""));
+        assertEquals("imagen", OrdenTrabajoImagenService.nombreSeguro("carpeta/"));
+        assertEquals("___", OrdenTrabajoImagenService.nombreSeguro("   "));
+    }
+
+    @Test
+    @DisplayName("Un nombre demasiado largo debe recortarse conservando la extensión")
+    void testNombreSeguroLargo() {
+        String nombre = OrdenTrabajoImagenService.nombreSeguro("a".repeat(300) + ".jpeg");
+
+        assertEquals(150, nombre.length());
+        assertTrue(nombre.endsWith(".jpeg"));
+    }
+}
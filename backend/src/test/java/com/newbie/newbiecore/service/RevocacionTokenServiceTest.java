@@ -0,0 +1,214 @@
+package com.newbie.newbiecore.service;
+
+import com.newbie.newbiecore.config.TestContainersConfig;
+import com.newbie.newbiecore.repository.BlacklistedTokenRepository;
+import com.newbie.newbiecore.util.JwtUtils;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del índice de tokens revocados usando PostgreSQL local. Un "reinicio"
+ * u "otra instancia" es un RevocacionTokenService nuevo sobre la misma tabla.
+ */
+@SpringBootTest
+@Import(TestContainersConfig.class)
+@ActiveProfiles("test")
+class RevocacionTokenServiceTest {
+
+    @Autowired
+    private RevocacionTokenService revocacionTokenService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private BlacklistedTokenRepository blacklistedTokenRepository;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<String> tokensUsados = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        for (String token : tokensUsados) {
+            jdbcTemplate.update("DELETE FROM blacklisted_tokens WHERE token_digest = ?", huella(token));
+        }
+    }
+
+    @Test
+    @DisplayName("Un token revocado se rechaza y se guarda solo su huella")
+    void testRevocarGuardaHuella() {
+        // Arrange
+        String revocado = nuevoToken();
+        String vigente = nuevoToken();
+
+        // Act
+        revocacionTokenService.revocar(revocado, LocalDateTime.now().plusHours(1));
+
+        // Assert
+        assertTrue(revocacionTokenService.estaRevocado(revocado));
+        assertFalse(revocacionTokenService.estaRevocado(vigente));
+        assertTrue(blacklistedTokenRepository.existsByTokenDigest(huella(revocado)));
+        Integer columnasToken = jdbcTemplate.queryForObject("""
+                SELECT count(*) FROM information_schema.columns
+                WHERE table_name = 'blacklisted_tokens' AND column_name = 'token'
+                """, Integer.class);
+        assertEquals(0, columnasToken);
+    }
+
+    @Test
+    @DisplayName("Un token cerrado con logout sigue rechazado tras reiniciar")
+    void testLogoutSobreviveReinicio() {
+        // Arrange
+        String token = nuevoToken();
+        authService.logout(token);
+
+        // Act: instancia nueva, como tras un reinicio
+        RevocacionTokenService reiniciado = nuevaInstancia();
+        reiniciado.inicializar();
+
+        // Assert
+        assertTrue(reiniciado.estaRevocado(token));
+    }
+
+    @Test
+    @DisplayName("La sincronización incorpora las revocaciones de otra instancia")
+    void testSincronizacionEntreInstancias() {
+        // Arrange
+        RevocacionTokenService otraInstancia = nuevaInstancia();
+        otraInstancia.inicializar();
+        String token = nuevoToken();
+
+        // Act
+        revocacionTokenService.revocar(token, LocalDateTime.now().plusHours(1));
+
+        // Assert: la otra instancia lo ve en su próxima sincronización
+        assertFalse(otraInstancia.estaRevocado(token));
+        otraInstancia.sincronizar();
+        assertTrue(otraInstancia.estaRevocado(token));
+    }
+
+    @Test
+    @DisplayName("La purga elimina los expirados y mantiene rechazados los vigentes, también tras reiniciar")
+    void testPurgaConservaVigentes() {
+        // Arrange
+        String vigente = nuevoToken();
+        String expirado = nuevoToken();
+        authService.logout(vigente);
+        revocacionTokenService.revocar(expirado, LocalDateTime.now().minusMinutes(1));
+
+        // Act
+        revocacionTokenService.purgar();
+
+        // Assert
+        assertFalse(blacklistedTokenRepository.existsByTokenDigest(huella(expirado)));
+        assertFalse(revocacionTokenService.estaRevocado(expirado));
+        assertTrue(revocacionTokenService.estaRevocado(vigente));
+
+        RevocacionTokenService reiniciado = nuevaInstancia();
+        reiniciado.inicializar();
+        assertTrue(reiniciado.estaRevocado(vigente));
+    }
+
+    @Test
+    @DisplayName("Muchas revocaciones hacen crecer el filtro de Bloom sin perder ninguna")
+    void testFiltroCreceSinPerderTokens() {
+        // Arrange: capacidad inicial mínima para forzar reconstrucciones
+        RevocacionTokenService pequeno = new RevocacionTokenService(blacklistedTokenRepository, jdbcTemplate,
+                transactionManager, 4, "blacklisted_tokens");
+        List<String> revocados = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            String token = nuevoToken();
+            pequeno.revocar(token, LocalDateTime.now().plusHours(1));
+            revocados.add(token);
+        }
+
+        // Assert
+        revocados.forEach(token -> assertTrue(pequeno.estaRevocado(token)));
+        assertFalse(pequeno.estaRevocado(nuevoToken()));
+    }
+
+    @Test
+    @DisplayName("La migración sustituye la columna token por su huella")
+    void testMigracionColumnaToken() {
+        // Arrange: tabla con el esquema anterior (JWT completo en la columna token)
+        String tabla = "blacklisted_tokens_test_" + UUID.randomUUID().toString().substring(0, 8);
+        String token = nuevoToken();
+        jdbcTemplate.execute("CREATE TABLE " + tabla + """
+                 (id BIGSERIAL PRIMARY KEY,
+                  token VARCHAR(1000) NOT NULL UNIQUE,
+                  expiration_date TIMESTAMP NOT NULL,
+                  created_at TIMESTAMP NOT NULL)
+                """);
+        try {
+            jdbcTemplate.update("INSERT INTO " + tabla + " (token, expiration_date, created_at) VALUES (?, ?, ?)",
+                    token, LocalDateTime.now().plusHours(1), LocalDateTime.now());
+            RevocacionTokenService servicio = new RevocacionTokenService(blacklistedTokenRepository, jdbcTemplate,
+                    transactionManager, 100, tabla);
+
+            // Act: dos veces, la segunda no debe hacer nada
+            servicio.migrarTokensPlanos();
+            servicio.migrarTokensPlanos();
+
+            // Assert
+            List<String> columnas = jdbcTemplate.queryForList(
+                    "SELECT column_name FROM information_schema.columns WHERE table_name = ?", String.class, tabla);
+            assertFalse(columnas.contains("token"));
+            assertTrue(columnas.contains("token_digest"));
+            assertEquals(List.of(huella(token)),
+                    jdbcTemplate.queryForList("SELECT token_digest FROM " + tabla, String.class));
+            Integer unicas = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM pg_constraint WHERE conname = ?", Integer.class,
+                    "uk_" + tabla + "_token_digest");
+            assertEquals(1, unicas);
+        } finally {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + tabla);
+        }
+    }
+
+    private RevocacionTokenService nuevaInstancia() {
+        return new RevocacionTokenService(blacklistedTokenRepository, jdbcTemplate, transactionManager, 100,
+                "blacklisted_tokens");
+    }
+
+    private String nuevoToken() {
+        String token = jwtUtils.generateToken(
+                new User("revocacion-" + UUID.randomUUID() + "@test.com", "x", List.of()));
+        tokensUsados.add(token);
+        return token;
+    }
+
+    private static String huella(String token) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.newbie.newbiecore.service.cierre;
+
+import com.newbie.newbiecore.config.TestContainersConfig;
+import com.newbie.newbiecore.dto.OrdenTrabajo.ActualizarEntregaRequest;
+import com.newbie.newbiecore.dto.OrdenTrabajo.CrearOrdenTrabajoRequest;
+import com.newbie.newbiecore.entity.CierreOrdenTarea;
+import com.newbie.newbiecore.entity.Equipo;
+import com.newbie.newbiecore.entity.EstadoTareaCierre;
+import com.newbie.newbiecore.entity.EtapaCierre;
+import com.newbie.newbiecore.entity.Rol;
+import com.newbie.newbiecore.entity.Usuario;
+import com.newbie.newbiecore.repository.CierreOrdenTareaRepository;
+import com.newbie.newbiecore.repository.EquipoRepository;
+import com.newbie.newbiecore.repository.OrdenTrabajoRepository;
+import com.newbie.newbiecore.repository.RolRepository;
+import com.newbie.newbiecore.repository.UsuarioRepository;
+import com.newbie.newbiecore.service.OrdenTrabajoService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests de la cola de cierre de órdenes (outbox) y de su worker usando
+ * PostgreSQL local. Sin @Transactional: el worker trabaja en sus propias
+ * transacciones y hilos. El barrido periódico se espacia para que solo
+ * corra cuando el test lo pide; los datos se eliminan al final.
+ */
+@SpringBootTest(properties = {
+        "app.cierre.intervalo-ms=3600000",
+        "app.cierre.max-intentos=3",
+        "app.cierre.espera-base-segundos=30"
+})
+@Import(TestContainersConfig.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CierreOrdenWorkerTest {
+
+    private static final Duration ESPERA_BASE = Duration.ofSeconds(30);
+    private static final Duration TIEMPO_MAXIMO = Duration.ofSeconds(60);
+
+    @Autowired
+    private CierreOrdenWorker worker;
+
+    @Autowired
+    private CierreOrdenTareaService tareaService;
+
+    @Autowired
+    private CierreOrdenTareaRepository tareaRepository;
+
+    @Autowired
+    private OrdenTrabajoService ordenTrabajoService;
+
+    @Autowired
+    private OrdenTrabajoRepository ordenTrabajoRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EquipoRepository equipoRepository;
+
+    @Autowired
+    private RolRepository rolRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private TransactionTemplate tx;
+    private Usuario tecnico;
+    private Usuario cliente;
+    private Equipo equipo;
+    private final List<Long> ordenesUsadas = new ArrayList<>();
+    private final List<Long> ordenesCreadas = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        String uniqueId = UUID.randomUUID().toString().substring(0, 8);
+
+        Rol rolTecnico = rolRepository.findByNombre("ROLE_TECNICO")
+                .orElseGet(() -> rolRepository.save(Rol.builder()
+                        .nombre("ROLE_TECNICO")
+                        .descripcion("Técnico")
+                        .build()));
+
+        tecnico = usuarioRepository.save(Usuario.builder()
+                .cedula("T" + uniqueId)
+                .nombre("Técnico Cierre")
+                .correo("tec" + uniqueId + "@test.com")
+                .password("password")
+                .rol(rolTecnico)
+                .estado(true)
+                .build());
+
+        cliente = usuarioRepository.save(Usuario.builder()
+                .cedula("C" + uniqueId)
+                .nombre("Cliente Cierre")
+                .correo("cli" + uniqueId + "@test.com")
+                .password("password")
+                .estado(true)
+                .build());
+
+        equipo = equipoRepository.save(Equipo.builder()
+                .usuario(cliente)
+                .tecnico(tecnico)
+                .numeroSerie("SN-" + uniqueId)
+                .modelo("Laptop Test")
+                .marca("TestBrand")
+                .fechaRegistro(Instant.now())
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (Long ordenId : ordenesUsadas) {
+            tareaRepository.deleteAll(tareaRepository.findByOrdenTrabajoIdOrderBySecuenciaAscIdAsc(ordenId));
+        }
+        ordenTrabajoRepository.deleteAllById(ordenesCreadas);
+        equipoRepository.delete(equipo);
+        usuarioRepository.delete(cliente);
+        usuarioRepository.delete(tecnico);
+    }
+
+    @Test
+    @DisplayName("Cerrar la orden en actualizarEntrega encola las etapas y el worker empieza tras el commit")
+    void testActualizarEntregaEncolaEtapas() {
+        // Arrange
+        Long ordenId = crearOrden();
+
+        // Act
+        ordenTrabajoService.actualizarEntrega(ordenId, cerrarRequest());
+
+        // Assert
+        List<CierreOrdenTarea> tareas = esperarEstable(ordenId);
+        assertEquals(List.of(EtapaCierre.PDF_ORDEN, EtapaCierre.PDF_FICHAS, EtapaCierre.CORREO),
+                tareas.stream().map(CierreOrdenTarea::getEtapa).toList());
+        assertTrue(tareas.get(0).getIntentos() >= 1, "El worker no ejecutó la primera etapa tras el commit");
+    }
+
+    @Test
+    @DisplayName("Solo se reclama la primera etapa no completada de cada orden")
+    void testOrdenEstrictoDeEtapas() {
+        // Arrange
+        Long ordenId = ordenSinFila();
+        tx.executeWithoutResult(status -> tareaService.encolar(ordenId));
+        Map<EtapaCierre, CierreOrdenTarea> tareas = porEtapa(ordenId);
+
+        // Act & Assert: solo PDF_ORDEN es ejecutable
+        assertEquals(List.of(EtapaCierre.PDF_ORDEN), ejecutables(ordenId));
+
+        // Mientras PDF_ORDEN está en proceso, nada más de la orden es ejecutable
+        cambiarEstado(tareas.get(EtapaCierre.PDF_ORDEN), EstadoTareaCierre.EN_PROCESO);
+        assertEquals(List.of(), ejecutables(ordenId));
+
+        tareaService.marcarCompletada(tareas.get(EtapaCierre.PDF_ORDEN).getId());
+        assertEquals(List.of(EtapaCierre.PDF_FICHAS), ejecutables(ordenId));
+
+        tareaService.marcarCompletada(tareas.get(EtapaCierre.PDF_FICHAS).getId());
+        assertEquals(List.of(EtapaCierre.CORREO), ejecutables(ordenId));
+    }
+
+    @Test
+    @DisplayName("Una etapa fallida se reintenta con espera exponencial y al agotar intentos cancela las siguientes")
+    void testReintentoYFallidaCancelaSiguientes() {
+        // Arrange: sin orden en la tabla, PDF_ORDEN falla en cada intento
+        Long ordenId = ordenSinFila();
+        tx.executeWithoutResult(status -> tareaService.encolar(ordenId));
+
+        // Act & Assert: primer fallo, espera base
+        Instant antes = Instant.now();
+        worker.procesarPendientes();
+        CierreOrdenTarea primera = esperarEtapa(ordenId, EtapaCierre.PDF_ORDEN,
+                t -> t.getEstado() == EstadoTareaCierre.PENDIENTE && t.getIntentos() == 1);
+        assertNotNull(primera.getUltimoError());
+        assertEntre(primera.getProximoIntento(), antes.plus(ESPERA_BASE), Instant.now().plus(ESPERA_BASE));
+        assertEquals(List.of(), ejecutables(ordenId), "No debe reintentarse antes del próximo intento");
+
+        // Segundo fallo: la espera se duplica
+        adelantarReintento(primera);
+        antes = Instant.now();
+        worker.procesarPendientes();
+        CierreOrdenTarea segunda = esperarEtapa(ordenId, EtapaCierre.PDF_ORDEN,
+                t -> t.getEstado() == EstadoTareaCierre.PENDIENTE && t.getIntentos() == 2);
+        assertEntre(segunda.getProximoIntento(),
+                antes.plus(ESPERA_BASE.multipliedBy(2)), Instant.now().plus(ESPERA_BASE.multipliedBy(2)));
+
+        // Tercer fallo: agota max-intentos
+        adelantarReintento(segunda);
+        worker.procesarPendientes();
+        CierreOrdenTarea fallida = esperarEtapa(ordenId, EtapaCierre.PDF_ORDEN,
+                t -> t.getEstado() == EstadoTareaCierre.FALLIDA);
+        assertEquals(3, fallida.getIntentos());
+
+        Map<EtapaCierre, CierreOrdenTarea> tareas = porEtapa(ordenId);
+        for (EtapaCierre etapa : List.of(EtapaCierre.PDF_FICHAS, EtapaCierre.CORREO)) {
+            CierreOrdenTarea siguiente = tareas.get(etapa);
+            assertEquals(EstadoTareaCierre.FALLIDA, siguiente.getEstado(), etapa.name());
+            assertEquals(0, siguiente.getIntentos(), etapa.name());
+            assertEquals("No se ejecutó: falló la etapa PDF_ORDEN", siguiente.getUltimoError());
+        }
+        assertEquals(List.of(), ejecutables(ordenId));
+    }
+
+    @Test
+    @DisplayName("GET /api/ordenes/{id}/cierre-estado devuelve las etapas en orden")
+    void testEndpointCierreEstado() throws Exception {
+        // Arrange: se encola sin publicar el evento, así el worker no las toca
+        Long ordenId = crearOrden();
+        tx.executeWithoutResult(status -> tareaService.encolar(ordenId));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/ordenes/{id}/cierre-estado", ordenId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].etapa").value("PDF_ORDEN"))
+                .andExpect(jsonPath("$[1].etapa").value("PDF_FICHAS"))
+                .andExpect(jsonPath("$[2].etapa").value("CORREO"))
+                .andExpect(jsonPath("$[0].estado").value("PENDIENTE"))
+                .andExpect(jsonPath("$[0].intentos").value(0));
+    }
+
+    /*
+     * =============================
+     * AUXILIARES
+     * =============================
+     */
+
+    private Long crearOrden() {
+        Authentication auth = new UsernamePasswordAuthenticationToken(
+                tecnico.getCorreo(), null,
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_TECNICO")));
+
+        CrearOrdenTrabajoRequest request = new CrearOrdenTrabajoRequest();
+        request.setClienteCedula(cliente.getCedula());
+        request.setEquipoId(equipo.getIdEquipo());
+        request.setMedioContacto("PRESENCIAL");
+        request.setProblemaReportado("Prueba de cierre");
+        request.setTipoServicio("REPARACION");
+        request.setPrioridad("MEDIA");
+
+        Long ordenId = ordenTrabajoService.crearOrden(request, auth).ordenId();
+        ordenesCreadas.add(ordenId);
+        ordenesUsadas.add(ordenId);
+        return ordenId;
+    }
+
+    /** Id negativo: cierre_orden_tareas no tiene FK y ninguna orden real lo usa. */
+    private Long ordenSinFila() {
+        Long ordenId = -ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        ordenesUsadas.add(ordenId);
+        return ordenId;
+    }
+
+    private ActualizarEntregaRequest cerrarRequest() {
+        return new ActualizarEntregaRequest(
+                null, null, null, true,
+                "Diagnóstico de prueba", null,
+                null, null, null, null, null, null, null,
+                null, null, "Reparado", null,
+                null, null);
+    }
+
+    /** Etapas ejecutables de la orden según la consulta del worker, sin reclamarlas. */
+    private List<EtapaCierre> ejecutables(Long ordenId) {
+        return tx.execute(status -> {
+            status.setRollbackOnly();
+            Instant ahora = Instant.now();
+            return tareaRepository.bloquearEjecutables(ahora, ahora.minus(Duration.ofMinutes(10)), 1000)
+                    .stream()
+                    .filter(t -> t.getOrdenTrabajoId().equals(ordenId))
+                    .map(CierreOrdenTarea::getEtapa)
+                    .toList();
+        });
+    }
+
+    private Map<EtapaCierre, CierreOrdenTarea> porEtapa(Long ordenId) {
+        Map<EtapaCierre, CierreOrdenTarea> tareas = new EnumMap<>(EtapaCierre.class);
+        tareaRepository.findByOrdenTrabajoIdOrderBySecuenciaAscIdAsc(ordenId)
+                .forEach(t -> tareas.put(t.getEtapa(), t));
+        return tareas;
+    }
+
+    private void cambiarEstado(CierreOrdenTarea tarea, EstadoTareaCierre estado) {
+        CierreOrdenTarea actual = tareaRepository.findById(tarea.getId()).orElseThrow();
+        actual.setEstado(estado);
+        actual.setFechaActualizacion(Instant.now());
+        tareaRepository.save(actual);
+    }
+
+    private void adelantarReintento(CierreOrdenTarea tarea) {
+        CierreOrdenTarea actual = tareaRepository.findById(tarea.getId()).orElseThrow();
+        actual.setProximoIntento(Instant.now().minusSeconds(1));
+        tareaRepository.save(actual);
+    }
+
+    private CierreOrdenTarea esperarEtapa(Long ordenId, EtapaCierre etapa, Predicate<CierreOrdenTarea> condicion) {
+        return esperar(() -> porEtapa(ordenId).get(etapa), condicion);
+    }
+
+    /**
+     * Espera a que el worker deje la orden quieta: ninguna etapa en proceso ni
+     * lista para ejecutarse (pendiente, vencida y con las anteriores completadas).
+     */
+    private List<CierreOrdenTarea> esperarEstable(Long ordenId) {
+        return esperar(() -> tareaRepository.findByOrdenTrabajoIdOrderBySecuenciaAscIdAsc(ordenId),
+                tareas -> tareas.stream().noneMatch(t -> t.getEstado() == EstadoTareaCierre.EN_PROCESO)
+                        && ejecutables(ordenId).isEmpty());
+    }
+
+    private static <T> T esperar(Supplier<T> consulta, Predicate<T> condicion) {
+        Instant limite = Instant.now().plus(TIEMPO_MAXIMO);
+        T valor = consulta.get();
+        while (!condicion.test(valor)) {
+            if (Instant.now().isAfter(limite)) {
+                fail("Tiempo de espera agotado; último valor: " + valor);
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrumpido");
+            }
+            valor = consulta.get();
+        }
+        return valor;
+    }
+
+    private static void assertEntre(Instant valor, Instant desde, Instant hasta) {
+        assertFalse(valor.isBefore(desde.minusSeconds(1)), valor + " es anterior a " + desde);
+        assertFalse(valor.isAfter(hasta.plusSeconds(1)), valor + " es posterior a " + hasta);
+    }
+}
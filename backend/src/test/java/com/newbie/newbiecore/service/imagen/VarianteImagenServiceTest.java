@@ -0,0 +1,60 @@
+package com.newbie.newbiecore.service.imagen;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VarianteImagenServiceTest {
+
+    @Test
+    @DisplayName("La ruta de la variante debe ir en la subcarpeta y terminar en .jpg")
+    void testRutaVariante() {
+        assertEquals("/uploads/OT-00015/imagenes/INGRESO/miniaturas/abc-foto.jpg",
+                VarianteImagenService.rutaVariante("/uploads/OT-00015/imagenes/INGRESO/abc-foto.png",
+                        VarianteImagenService.CARPETA_MINIATURAS));
+        // Solo se reemplaza la última extensión
+        assertEquals("/uploads/OT-00015/imagenes/INGRESO/medianas/abc-foto.tar.jpg",
+                VarianteImagenService.rutaVariante("/uploads/OT-00015/imagenes/INGRESO/abc-foto.tar.gz",
+                        VarianteImagenService.CARPETA_MEDIANAS));
+        // Sin extensión
+        assertEquals("/uploads/OT-00015/imagenes/INGRESO/miniaturas/abc-foto.jpg",
+                VarianteImagenService.rutaVariante("/uploads/OT-00015/imagenes/INGRESO/abc-foto",
+                        VarianteImagenService.CARPETA_MINIATURAS));
+    }
+
+    @Test
+    @DisplayName("Escalar debe respetar la proporción con el lado mayor como límite")
+    void testEscalarHorizontalYVertical() {
+        BufferedImage horizontal = VarianteImagenService.escalar(imagen(4000, 3000), 320);
+        assertEquals(320, horizontal.getWidth());
+        assertEquals(240, horizontal.getHeight());
+
+        BufferedImage vertical = VarianteImagenService.escalar(imagen(3000, 4000), 1280);
+        assertEquals(960, vertical.getWidth());
+        assertEquals(1280, vertical.getHeight());
+
+        // Proporción extrema: el lado menor nunca queda en 0
+        BufferedImage tira = VarianteImagenService.escalar(imagen(5000, 3), 320);
+        assertEquals(320, tira.getWidth());
+        assertEquals(1, tira.getHeight());
+    }
+
+    @Test
+    @DisplayName("Una imagen ya pequeña no debe agrandarse, pero sí pasar a RGB")
+    void testEscalarImagenPequena() {
+        BufferedImage resultado = VarianteImagenService.escalar(imagen(200, 100), 320);
+
+        assertEquals(200, resultado.getWidth());
+        assertEquals(100, resultado.getHeight());
+        assertEquals(BufferedImage.TYPE_INT_RGB, resultado.getType());
+        // El fondo transparente queda blanco (JPEG no admite transparencia)
+        assertEquals(0xFFFFFF, resultado.getRGB(0, 0) & 0xFFFFFF);
+    }
+
+    private static BufferedImage imagen(int ancho, int alto) {
+        return new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_ARGB);
+    }
+}
@@ -0,0 +1,266 @@
+package com.newbie.newbiecore.service.importacion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newbie.newbiecore.config.TestContainersConfig;
+import com.newbie.newbiecore.dto.importacion.ImportacionHardwareDto;
+import com.newbie.newbiecore.dto.importacion.ResultadoArchivoDto;
+import com.newbie.newbiecore.entity.Equipo;
+import com.newbie.newbiecore.entity.Usuario;
+import com.newbie.newbiecore.repository.EquipoRepository;
+import com.newbie.newbiecore.repository.UsuarioRepository;
+import com.newbie.newbiecore.service.hardware.EquipoSnapshotCache;
+import com.newbie.newbiecore.service.hardware.InventarioHardwareService;
+import com.newbie.newbiecore.util.HwiXmlParser;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la importación masiva de informes HWiNFO usando PostgreSQL local.
+ * Cada informe se genera a partir de {@code informe-ejemplo.xml} cambiando su
+ * número de serie y hostname. Los equipos se eliminan al final.
+ */
+@SpringBootTest(properties = {
+        "app.equipos.importacion.max-mb-informe=1",
+        "app.equipos.importacion.lote=2"
+})
+@Import(TestContainersConfig.class)
+@ActiveProfiles("test")
+class ImportacionHardwareServiceTest {
+
+    private static final String INFORME = "/hwinfo/informe-ejemplo.xml";
+    private static final String SERIE_EJEMPLO = "CNFCW0023400AB";
+    private static final String HOSTNAME_EJEMPLO = "SRV-TALLER-01";
+
+    @Autowired
+    private ImportacionHardwareService importacionHardwareService;
+
+    @Autowired
+    private EquipoRepository equipoRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String uniqueId;
+    private String plantilla;
+    private Usuario cliente;
+    private final List<Equipo> equipos = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        uniqueId = UUID.randomUUID().toString().substring(0, 8).toUpperCase(Locale.ROOT);
+        try (InputStream in = getClass().getResourceAsStream(INFORME)) {
+            plantilla = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        cliente = usuarioRepository.save(Usuario.builder()
+                .cedula("I" + uniqueId)
+                .nombre("Cliente Importación")
+                .correo("imp" + uniqueId + "@test.com")
+                .password("password")
+                .estado(true)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        equipoRepository.deleteAll(equipos);
+        usuarioRepository.delete(cliente);
+    }
+
+    @Test
+    @DisplayName("Debe clasificar cada informe del lote y actualizar los equipos que coinciden")
+    void testClasificacionYActualizacion() throws Exception {
+        // Arrange
+        Equipo porSerie = crearEquipo("SN-A-" + uniqueId, "pc-a-" + uniqueId);
+        Equipo porHostname = crearEquipo("SN-B-" + uniqueId, "pc-b-" + uniqueId);
+        crearEquipo("SN-C-" + uniqueId, "pc-compartido-" + uniqueId);
+        crearEquipo("SN-D-" + uniqueId, "pc-compartido-" + uniqueId);
+
+        byte[] zip = zip(Map.of(
+                "serie.xml", informe("sn-a-" + uniqueId, "HOST-NUEVO-" + uniqueId),
+                "otra/serie-repetida.xml", informe("SN-A-" + uniqueId, "HOST-NUEVO-" + uniqueId),
+                "hostname.xml", informe("To Be Filled By O.E.M.", "PC-B-" + uniqueId),
+                "ambiguo.xml", informe("NO-EXISTE-1-" + uniqueId, "pc-compartido-" + uniqueId),
+                "grande.xml", new byte[1024 * 1024 + 1],
+                "__MACOSX/serie.xml", informe("SN-A-" + uniqueId, "x"),
+                "notas.txt", "no es un informe".getBytes(StandardCharsets.UTF_8)));
+
+        List<MockMultipartFile> archivos = List.of(
+                new MockMultipartFile("files", "lote.zip", "application/zip", zip),
+                new MockMultipartFile("files", "suelto.xml", "text/xml",
+                        informe("NO-EXISTE-2-" + uniqueId, "host-desconocido-" + uniqueId)),
+                new MockMultipartFile("files", "roto.xml", "text/xml",
+                        "<HWINFO><COMPUTER>".getBytes(StandardCharsets.UTF_8)),
+                new MockMultipartFile("files", "foto.png", "image/png", new byte[] { 1, 2, 3 }));
+
+        // Act
+        ImportacionHardwareDto inicial = importacionHardwareService.iniciar(new ArrayList<>(archivos));
+        ImportacionHardwareDto resultado = esperar(inicial.id());
+
+        // Assert: el ZIP aporta 4 informes + 1 demasiado grande (se omiten __MACOSX y .txt)
+        assertEquals(ImportacionHardwareDto.Estado.COMPLETADA, resultado.estado());
+        assertEquals(8, resultado.total());
+        assertEquals(8, resultado.procesados());
+
+        Map<String, ResultadoArchivoDto> porArchivo = resultado.archivos().stream()
+                .collect(Collectors.toMap(ResultadoArchivoDto::archivo, r -> r));
+
+        // Los dos informes del mismo equipo se leen en paralelo: uno actualiza y el otro es duplicado
+        Set<ResultadoArchivoDto.Estado> mismoEquipo = EnumSet.of(
+                porArchivo.get("lote.zip/serie.xml").estado(),
+                porArchivo.get("lote.zip/otra/serie-repetida.xml").estado());
+        assertEquals(EnumSet.of(ResultadoArchivoDto.Estado.ACTUALIZADO, ResultadoArchivoDto.Estado.DUPLICADO),
+                mismoEquipo);
+        assertEquals(porSerie.getIdEquipo(), porArchivo.get("lote.zip/serie.xml").equipoId());
+        assertEquals("numeroSerie", porArchivo.get("lote.zip/serie.xml").coincidencia());
+
+        ResultadoArchivoDto hostname = porArchivo.get("lote.zip/hostname.xml");
+        assertEquals(ResultadoArchivoDto.Estado.ACTUALIZADO, hostname.estado());
+        assertEquals(porHostname.getIdEquipo(), hostname.equipoId());
+        assertEquals("hostname", hostname.coincidencia());
+
+        ResultadoArchivoDto ambiguo = porArchivo.get("lote.zip/ambiguo.xml");
+        assertEquals(ResultadoArchivoDto.Estado.AMBIGUO, ambiguo.estado());
+        assertNull(ambiguo.equipoId());
+
+        assertEquals(ResultadoArchivoDto.Estado.ERROR, porArchivo.get("lote.zip/grande.xml").estado());
+        assertTrue(porArchivo.get("lote.zip/grande.xml").mensaje().contains("supera 1 MB"));
+        assertEquals(ResultadoArchivoDto.Estado.SIN_COINCIDENCIA, porArchivo.get("suelto.xml").estado());
+        assertEquals(ResultadoArchivoDto.Estado.ERROR, porArchivo.get("roto.xml").estado());
+        assertEquals(ResultadoArchivoDto.Estado.ERROR, porArchivo.get("foto.png").estado());
+        assertFalse(porArchivo.containsKey("lote.zip/notas.txt"));
+        assertFalse(porArchivo.containsKey("lote.zip/__MACOSX/serie.xml"));
+
+        // Assert: el UPDATE por lotes escribió los datos del informe
+        Map<String, Object> filaSerie = jdbcTemplate.queryForMap(
+                "SELECT hostname, sistema_operativo, hardware_json::text AS json FROM equipos WHERE id_equipo = ?",
+                porSerie.getIdEquipo());
+        assertEquals("HOST-NUEVO-" + uniqueId, filaSerie.get("hostname"));
+        assertTrue(((String) filaSerie.get("sistema_operativo")).startsWith("Microsoft Windows Server 2022"));
+        assertNotNull(filaSerie.get("json"));
+
+        Integer inventarios = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM equipo_hardware WHERE id_equipo IN (?, ?)", Integer.class,
+                porSerie.getIdEquipo(), porHostname.getIdEquipo());
+        assertEquals(2, inventarios);
+
+        assertEquals(0, importacionHardwareService.activas());
+    }
+
+    @Test
+    @DisplayName("Un lote sin informes XML debe rechazarse")
+    void testLoteSinInformes() {
+        List<org.springframework.web.multipart.MultipartFile> archivos = List.of(
+                new MockMultipartFile("files", "vacio.zip", "application/zip", zip(Map.of())));
+
+        assertThrows(IllegalArgumentException.class, () -> importacionHardwareService.iniciar(archivos));
+        assertThrows(IllegalArgumentException.class, () -> importacionHardwareService.iniciar(List.of()));
+    }
+
+    @Test
+    @DisplayName("Si el pool rechaza la importación no debe quedar registrada ni dejar temporales")
+    void testImportacionRechazada(@Autowired HwiXmlParser parser,
+            @Autowired ObjectMapper mapper,
+            @Autowired InventarioHardwareService inventarioHardwareService,
+            @Autowired EquipoSnapshotCache equipoSnapshotCache,
+            @Autowired PlatformTransactionManager transactionManager,
+            @Autowired @Qualifier("hardwareLecturaExecutor") ThreadPoolTaskExecutor lecturaExecutor)
+            throws IOException {
+        // Arrange: un pool ya detenido rechaza cualquier tarea
+        ThreadPoolTaskExecutor detenido = new ThreadPoolTaskExecutor();
+        detenido.initialize();
+        detenido.shutdown();
+        ImportacionHardwareService service = new ImportacionHardwareService(parser, mapper, jdbcTemplate,
+                inventarioHardwareService, equipoSnapshotCache, transactionManager,
+                lecturaExecutor, detenido, 500, 1, 50, 60);
+        long temporalesAntes = contarTemporales();
+
+        // Act & Assert
+        List<org.springframework.web.multipart.MultipartFile> archivos = List.of(
+                new MockMultipartFile("files", "a.xml", "text/xml", informe("X", "y")));
+        assertThrows(IllegalStateException.class, () -> service.iniciar(archivos));
+        assertEquals(0, service.activas());
+        assertEquals(temporalesAntes, contarTemporales());
+    }
+
+    private Equipo crearEquipo(String serie, String hostname) {
+        Equipo equipo = equipoRepository.save(Equipo.builder()
+                .usuario(cliente)
+                .tecnico(cliente)
+                .numeroSerie(serie)
+                .hostname(hostname)
+                .modelo("Modelo Test")
+                .marca("TestBrand")
+                .fechaRegistro(Instant.now())
+                .build());
+        equipos.add(equipo);
+        return equipo;
+    }
+
+    private byte[] informe(String serie, String hostname) {
+        return plantilla.replace(SERIE_EJEMPLO, serie)
+                .replace(HOSTNAME_EJEMPLO, hostname)
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] zip(Map<String, byte[]> entradas) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("otra/"));
+            zip.closeEntry();
+            for (Map.Entry<String, byte[]> e : new TreeMap<>(entradas).entrySet()) {
+                zip.putNextEntry(new ZipEntry(e.getKey()));
+                zip.write(e.getValue());
+                zip.closeEntry();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private ImportacionHardwareDto esperar(String id) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 60_000;
+        while (System.currentTimeMillis() < limite) {
+            ImportacionHardwareDto dto = importacionHardwareService.obtener(id).orElseThrow();
+            if (dto.fechaFin() != null) {
+                return dto;
+            }
+            Thread.sleep(50);
+        }
+        fail("La importación no terminó a tiempo");
+        return null;
+    }
+
+    private static long contarTemporales() throws IOException {
+        Path tmp = Path.of(System.getProperty("java.io.tmpdir"));
+        try (Stream<Path> archivos = Files.list(tmp)) {
+            return archivos.filter(p -> p.getFileName().toString().startsWith("hwinfo-importacion-")).count();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.newbie.newbiecore.service.pdf;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlantillaHtmlTest {
+
+    private record Linea(String descripcion, Integer cantidad) {
+    }
+
+    private record Documento(String cliente, String logo, Boolean urgente, List<Linea> lineas) {
+    }
+
+    public static class Solicitud {
+        public String numeroOrden;
+    }
+
+    private record Acta(Solicitud solicitud) {
+    }
+
+    @Test
+    @DisplayName("Debe escapar valores, aplicar filtros y dejar crudos los fragmentos {{{ }}}")
+    void testValores() {
+        PlantillaHtml<Documento> plantilla = PlantillaHtml.compilar("prueba",
+                "<h1>{{cliente}}</h1>{{{logo}}}<p>{{cliente|mayusculas}}</p>", Documento.class,
+                Map.of("mayusculas", v -> v.toString().toUpperCase()));
+
+        String html = plantilla.renderizar(new Documento("Ana <b> & 'Co'", "<img src='x' />", null, null));
+
+        assertEquals("<h1>Ana &lt;b&gt; &amp; &#39;Co&#39;</h1><img src='x' /><p>ANA &lt;B&gt; &amp; &#39;CO&#39;</p>",
+                html);
+    }
+
+    @Test
+    @DisplayName("Debe renderizar bloques condicionales, listas y campos anidados")
+    void testBloques() {
+        PlantillaHtml<Documento> plantilla = PlantillaHtml.compilar("prueba",
+                "{{#urgente}}URGENTE {{/urgente}}"
+                        + "{{#lineas}}[{{descripcion}} x{{cantidad}}]{{/lineas}}"
+                        + "{{^lineas}}sin líneas{{/lineas}}",
+                Documento.class, Map.of());
+
+        assertEquals("URGENTE [Pantalla x1][Teclado x2]", plantilla.renderizar(new Documento(null, null, true,
+                List.of(new Linea("Pantalla", 1), new Linea("Teclado", 2)))));
+        assertEquals("sin líneas", plantilla.renderizar(new Documento(null, null, false, List.of())));
+
+        PlantillaHtml<Acta> acta = PlantillaHtml.compilar("acta", "OT {{solicitud.numeroOrden}}", Acta.class,
+                Map.of());
+        Solicitud solicitud = new Solicitud();
+        solicitud.numeroOrden = "OT-00001";
+        assertEquals("OT OT-00001", acta.renderizar(new Acta(solicitud)));
+        assertEquals("OT ", acta.renderizar(new Acta(null)));
+    }
+
+    @Test
+    @DisplayName("Debe fallar al compilar si un campo, filtro o bloque no es válido")
+    void testErroresDeCompilacion() {
+        assertThrows(IllegalStateException.class,
+                () -> PlantillaHtml.compilar("prueba", "{{clienteNombre}}", Documento.class, Map.of()));
+        assertThrows(IllegalStateException.class,
+                () -> PlantillaHtml.compilar("prueba", "{{cliente|inexistente}}", Documento.class, Map.of()));
+        assertThrows(IllegalStateException.class,
+                () -> PlantillaHtml.compilar("prueba", "{{#urgente}}sin cierre", Documento.class, Map.of()));
+    }
+}
@@ -0,0 +1,124 @@
+package com.newbie.newbiecore.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newbie.newbiecore.entity.Equipo;
+import com.newbie.newbiecore.entity.FichaTecnica;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FichaTecnicaAutoFillHelperTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private Equipo equipo(Map<String, String> hardware) {
+        Equipo equipo = new Equipo();
+        equipo.setMarca("Dell");
+        equipo.setSistemaOperativo("");
+        equipo.setHardwareJson(hardware != null ? mapper.valueToTree(hardware) : null);
+        return equipo;
+    }
+
+    @Test
+    @DisplayName("Debe convertir y asignar los campos desde hardwareJson")
+    void testRellenar() {
+        FichaTecnica ficha = new FichaTecnica();
+
+        FichaTecnicaAutoFillHelper.rellenarDesdeHardwareJson(ficha, equipo(Map.of(
+                "Nombre del procesador", "Intel Core i7-12700",
+                "Número de núcleos de procesador", "12",
+                "Tamaño del módulo", "16 GBytes",
+                "Tarjeta grafica", "NVIDIA GeForce RTX 3060",
+                "Arranque seguro", "Activado",
+                "UEFI BIOS", "Capaz",
+                "Chip del módulo de plataforma segura (TPM)", "Present, version 2.0",
+                "Sistema operativo", "Microsoft Windows 11 Pro",
+                "Nombre del computadora", "PC-TALLER")));
+
+        assertEquals("Dell", ficha.getEquipoMarca());
+        assertEquals("Intel Core i7-12700", ficha.getCpuNombre());
+        assertEquals("Intel", ficha.getProcesadorMarca());
+        assertEquals(12, ficha.getCpuNucleos());
+        assertEquals(16, ficha.getRamCapacidadGb());
+        assertEquals("16 GBytes", ficha.getRamCapacidadFicha());
+        assertEquals("Dedicada", ficha.getGraficaTipo());
+        assertEquals(true, ficha.getBiosEsUefiCapaz());
+        assertEquals(true, ficha.getSecureBootActivo());
+        assertEquals(true, ficha.getTpmPresente());
+        assertEquals("2.0", ficha.getTpmVersion());
+        // El SO vacío del equipo no cuenta: se toma el del informe
+        assertEquals("Microsoft Windows 11 Pro", ficha.getSoDescripcion());
+        assertEquals("Windows", ficha.getSoTipo());
+        assertEquals("PC-TALLER", ficha.getEquipoNombre());
+    }
+
+    @Test
+    @DisplayName("No debe sobrescribir valores ya cargados")
+    void testSoloCamposVacios() {
+        FichaTecnica ficha = new FichaTecnica();
+        ficha.setCpuNombre("Manual");
+        ficha.setCpuNucleos(4);
+
+        FichaTecnicaAutoFillHelper.rellenarDesdeHardwareJson(ficha, equipo(Map.of(
+                "Nombre del procesador", "AMD Ryzen 5",
+                "Número de núcleos de procesador", "6",
+                "Velocidad del módulo", "sin dato")));
+
+        assertEquals("Manual", ficha.getCpuNombre());
+        assertEquals(4, ficha.getCpuNucleos());
+        assertEquals("AMD", ficha.getProcesadorMarca());
+        assertNull(ficha.getRamFrecuenciaMhz());
+        assertEquals("sin dato", ficha.getRamFrecuenciaFicha());
+    }
+
+    @Test
+    @DisplayName("Debe rellenar un lote con el equipo de cada ficha")
+    void testRellenarLote() {
+        FichaTecnica conEquipo = new FichaTecnica();
+        conEquipo.setEquipoId(1L);
+        FichaTecnica sinEquipo = new FichaTecnica();
+        sinEquipo.setEquipoId(2L);
+
+        FichaTecnicaAutoFillHelper.rellenarDesdeHardwareJson(List.of(conEquipo, sinEquipo),
+                Map.of(1L, equipo(null)));
+
+        assertEquals("Dell", conEquipo.getEquipoMarca());
+        assertNull(conEquipo.getCpuNombre());
+        assertNull(sinEquipo.getEquipoMarca());
+    }
+
+    @Test
+    @DisplayName("El snapshot debe rellenar igual que el hardwareJson, en varias fichas")
+    void testSnapshot() {
+        Equipo equipo = equipo(Map.of(
+                "Nombre del procesador", "AMD Ryzen 7 5800H",
+                "Número de núcleos de procesador", "8",
+                "Velocidad del módulo", "sin dato",
+                "Tarjeta grafica", "AMD Radeon Graphics",
+                "Arranque seguro", "Deshabilitado",
+                "Sistema operativo", "Ubuntu 22.04",
+                "Nombre del computadora", "LAB-01"));
+        FichaTecnicaAutoFillHelper.Snapshot snapshot = FichaTecnicaAutoFillHelper.extraer(equipo);
+
+        for (String cpuManual : new String[] { null, "Manual" }) {
+            FichaTecnica esperada = new FichaTecnica();
+            esperada.setCpuNombre(cpuManual);
+            FichaTecnicaAutoFillHelper.rellenarDesdeHardwareJson(esperada, equipo);
+
+            FichaTecnica obtenida = new FichaTecnica();
+            obtenida.setCpuNombre(cpuManual);
+            FichaTecnicaAutoFillHelper.rellenar(obtenida, snapshot);
+
+            assertEquals(esperada, obtenida);
+        }
+
+        FichaTecnica sinInforme = new FichaTecnica();
+        FichaTecnicaAutoFillHelper.rellenar(sinInforme, FichaTecnicaAutoFillHelper.extraer(equipo(null)));
+        assertEquals("Dell", sinInforme.getEquipoMarca());
+        assertNull(sinInforme.getCpuNombre());
+    }
+}
@@ -0,0 +1,96 @@
+package com.newbie.newbiecore.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HwiXmlParserTest {
+
+    private static final String INFORME = "/hwinfo/informe-ejemplo.xml";
+
+    private HwiXmlParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new HwiXmlParser(new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("Debe obtener byEntry, vista agrupada y snapshot en una sola lectura")
+    void testLeerInforme() throws Exception {
+        HwiXmlParser.Informe informe;
+        try (InputStream in = getClass().getResourceAsStream(INFORME)) {
+            informe = parser.leer(in);
+        }
+
+        // byEntry
+        assertEquals("SRV-TALLER-01", informe.byEntry().get("Nombre del computadora"));
+        assertEquals("Intel Xeon E-2314", informe.byEntry().get("Nombre del procesador"));
+        // La última propiedad con el mismo Entry gana
+        assertEquals("22123A801234", informe.byEntry().get("Número de serie de la unidad"));
+
+        // Snapshot
+        HwiXmlParser.HardwareSnapshot hw = informe.snapshot();
+        assertEquals("SRV-TALLER-01", hw.general.hostname);
+        assertEquals("Dell PowerEdge T150", hw.general.marca);
+        assertTrue(hw.general.uefi);
+        assertTrue(hw.general.secureBoot);
+        assertEquals("Intel Xeon E-2314", hw.cpu.nombre);
+        assertEquals("Dell Inc.", hw.mobo.fabricante);
+        assertEquals("Dell 0RTN2G", hw.mobo.modelo);
+        assertEquals("CNFCW0023400AB", hw.mobo.serie);
+        assertEquals("1.8.2", hw.bios.version);
+        assertEquals("TPM 2.0", hw.extras.get("TPM"));
+        assertEquals(1, hw.gpus.size());
+        assertEquals("16 MBytes", hw.gpus.get(0).vram);
+        assertEquals(2, hw.drives.size());
+        assertEquals("Samsung SSD 980 PRO 1TB", hw.drives.get(0).nombre);
+        assertEquals("476940", hw.drives.get(1).capacidad);
+
+        // Vista agrupada
+        Map<String, Object> agrupado = informe.agrupado();
+        assertEquals("32 GBytes", ((Map<?, ?>) agrupado.get("memory")).get("Tamaño total de memoria"));
+        Map<?, ?> drives = (Map<?, ?>) agrupado.get("drives");
+        assertEquals(List.of("ST2000NM000A", "Samsung SSD 980 PRO 1TB", "WD Blue SN570 500GB"),
+                List.copyOf(drives.keySet()));
+        assertTrue(((Map<?, ?>) agrupado.get("video")).containsKey("Matrox G200eW3"));
+    }
+
+    @Test
+    @DisplayName("Debe construir rutas legibles para cada propiedad")
+    void testCollectAllProperties() throws Exception {
+        List<HwiXmlParser.PropertyRow> filas;
+        try (InputStream in = getClass().getResourceAsStream(INFORME)) {
+            filas = parser.collectAllProperties(in);
+        }
+
+        HwiXmlParser.PropertyRow frecuencia = filas.stream()
+                .filter(f -> "Frecuencia original del procesador".equals(f.entry))
+                .findFirst().orElseThrow();
+        assertEquals("MHz", frecuencia.unit);
+        assertEquals("HWINFO(SRV-TALLER-01) > COMPUTER(SRV-TALLER-01) > CPU(Procesadores centrales)"
+                + " > SubNode(Intel Xeon E-2314) > Property#1", frecuencia.path);
+    }
+
+    @Test
+    @DisplayName("No debe resolver entidades externas")
+    void testSinEntidadesExternas() {
+        String xml = """
+                <?xml version="1.0"?>
+                <!DOCTYPE HWINFO [<!ENTITY x SYSTEM "file:///etc/passwd">]>
+                <HWINFO><COMPUTER><Property><Entry>a</Entry><Description>&x;</Description></Property></COMPUTER></HWINFO>
+                """;
+
+        assertThrows(RuntimeException.class,
+                () -> parser.collectByEntry(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))));
+    }
+}
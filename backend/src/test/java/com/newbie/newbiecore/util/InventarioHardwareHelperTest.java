@@ -0,0 +1,64 @@
+package com.newbie.newbiecore.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newbie.newbiecore.dto.hardware.InventarioHardwareDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventarioHardwareHelperTest {
+
+    @Test
+    @DisplayName("Debe normalizar el informe con capacidades en MB")
+    void testDesdeInforme() throws Exception {
+        HwiXmlParser.Informe informe;
+        try (InputStream in = getClass().getResourceAsStream("/hwinfo/informe-ejemplo.xml")) {
+            informe = new HwiXmlParser(new ObjectMapper()).leer(in);
+        }
+
+        InventarioHardwareDto hw = InventarioHardwareHelper.desde(informe.byEntry(), informe.snapshot());
+
+        assertEquals("Intel Xeon E-2314", hw.cpuNombre());
+        assertEquals(32L * 1024, hw.ramMb());
+        assertEquals("1.8.2", hw.biosVersion());
+        assertEquals(List.of(
+                new InventarioHardwareDto.Disco("Samsung SSD 980 PRO 1TB", "NVMe", 953869L, "S5GXNF0R123456"),
+                new InventarioHardwareDto.Disco("WD Blue SN570 500GB", "NVMe", 476940L, "22123A801234")),
+                hw.discos());
+        assertEquals(953869L + 476940L, hw.almacenamientoMb());
+        assertEquals(List.of(new InventarioHardwareDto.Gpu("Matrox G200eW3", 16L)), hw.gpus());
+    }
+
+    @Test
+    @DisplayName("Sin resumen debe usar solo las entradas del hardwareJson")
+    void testDesdeHardwareJson() {
+        InventarioHardwareDto hw = InventarioHardwareHelper.desde(Map.of(
+                "Nombre del procesador", "AMD Ryzen 5 5600G",
+                "Número de núcleos de procesador", "6",
+                "Tamaño total de memoria", "8 GBytes",
+                "Chipset de gráficos", "AMD Radeon Vega 7"), null);
+
+        assertEquals("AMD Ryzen 5 5600G", hw.cpuNombre());
+        assertEquals(6, hw.cpuNucleos());
+        assertEquals(8192L, hw.ramMb());
+        assertTrue(hw.discos().isEmpty());
+        assertNull(hw.almacenamientoMb());
+        assertEquals(List.of(new InventarioHardwareDto.Gpu("AMD Radeon Vega 7", null)), hw.gpus());
+    }
+
+    @Test
+    @DisplayName("Debe convertir los tamaños de HWiNFO a MB")
+    void testAMegabytes() {
+        assertEquals(16384L, InventarioHardwareHelper.aMegabytes("16 GBytes"));
+        assertEquals(476940L, InventarioHardwareHelper.aMegabytes("476940"));
+        assertEquals(1536L, InventarioHardwareHelper.aMegabytes("1,5 GB"));
+        assertEquals(2L * 1024 * 1024, InventarioHardwareHelper.aMegabytes("2 TBytes"));
+        assertNull(InventarioHardwareHelper.aMegabytes("Desconocido"));
+        assertNull(InventarioHardwareHelper.aMegabytes(null));
+    }
+}
@@ -0,0 +1,106 @@
+package com.newbie.newbiecore.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.newbie.newbiecore.config.DynamicJwtConfig;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilsTest {
+
+    private static final String SECRETO = "test-secret-key-for-testing-purposes-only-12345678901234567890";
+
+    private DynamicJwtConfig config;
+    private JwtUtils jwtUtils;
+    private UserDetails usuario;
+
+    @BeforeEach
+    void setUp() {
+        config = new DynamicJwtConfig();
+        ReflectionTestUtils.setField(config, "secret", SECRETO);
+        ReflectionTestUtils.setField(config, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(config, "refreshExpiration", 7_200_000L);
+        jwtUtils = new JwtUtils(config, 100);
+        usuario = new User("tecnico@newbie.com", "x", List.of());
+    }
+
+    @Test
+    @DisplayName("Debe verificar el token una vez y servir los claims desde la caché")
+    void testVerificarYCachear() {
+        String token = jwtUtils.generateToken(usuario);
+
+        Claims primera = jwtUtils.verificar(token);
+        Claims segunda = jwtUtils.verificar(token);
+
+        assertEquals("tecnico@newbie.com", primera.getSubject());
+        assertSame(primera, segunda);
+        assertTrue(jwtUtils.validateToken(token, usuario));
+        assertFalse(jwtUtils.validateToken(token, new User("otro@newbie.com", "x", List.of())));
+    }
+
+    @Test
+    @DisplayName("Debe rechazar tokens firmados con otro secreto")
+    void testFirmaInvalida() {
+        JwtUtils otro = new JwtUtils(configCon("otro-secreto-distinto-para-firmar-tokens-1234567890"), 100);
+        String ajeno = otro.generateToken(usuario);
+
+        assertThrows(JwtException.class, () -> jwtUtils.verificar(ajeno));
+        assertFalse(jwtUtils.validateRefreshToken(ajeno));
+    }
+
+    @Test
+    @DisplayName("Debe descartar la caché al refrescar la configuración")
+    void testInvalidarAlRefrescar() {
+        String token = jwtUtils.generateToken(usuario);
+        jwtUtils.verificar(token);
+
+        ReflectionTestUtils.setField(config, "secret", "secreto-rotado-tras-refresh-0123456789012345678901234");
+        jwtUtils.invalidarCache();
+
+        assertThrows(JwtException.class, () -> jwtUtils.verificar(token));
+        assertEquals("tecnico@newbie.com", jwtUtils.extractUsername(jwtUtils.generateToken(usuario)));
+    }
+
+    @Test
+    @DisplayName("Una firma publicada con el secreto anterior no debe seguir usándose")
+    void testFirmaObsoletaTrasRefresh() {
+        String token = jwtUtils.generateToken(usuario);
+        jwtUtils.verificar(token);
+
+        // Como si un hilo hubiera publicado la firma del secreto anterior después
+        // de la invalidación: el secreto cambia y no llega otra invalidación
+        ReflectionTestUtils.setField(config, "secret", "secreto-rotado-tras-refresh-0123456789012345678901234");
+
+        assertThrows(JwtException.class, () -> jwtUtils.verificar(token));
+        String nuevo = jwtUtils.generateToken(usuario);
+        assertEquals("tecnico@newbie.com", jwtUtils.verificar(nuevo).getSubject());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar tokens expirados")
+    void testTokenExpirado() {
+        ReflectionTestUtils.setField(config, "expiration", -1_000L);
+        String token = jwtUtils.generateToken(usuario);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtils.verificar(token));
+        assertFalse(jwtUtils.validateToken(token, usuario));
+    }
+
+    private static DynamicJwtConfig configCon(String secreto) {
+        DynamicJwtConfig c = new DynamicJwtConfig();
+        ReflectionTestUtils.setField(c, "secret", secreto);
+        ReflectionTestUtils.setField(c, "expiration", 3_600_000L);
+        return c;
+    }
+}
@@ -140,19 +140,11 @@ export default function FichaTecnicaForm() {
             // ✅ creada correctamente
             animateSuccess("Ficha técnica creada correctamente ✅");
 
-            // 🆕 obtenemos la última ficha para recuperar el ID real
+            // 🆕 el backend devuelve la ficha creada: tomamos su ID real
             try {
-                const listRes = await fetch(buildUrl(""), {
-                    headers: { Authorization: `Bearer ${token}` },
-                });
-                if (listRes.ok) {
-                    const list = await listRes.json();
-                    if (Array.isArray(list) && list.length > 0) {
-                        const last = list[list.length - 1];
-                        if (last?.id) {
-                            setFichaId(last.id);
-                        }
-                    }
+                const creada = await res.json();
+                if (creada?.id) {
+                    setFichaId(creada.id);
                 }
             } catch {
                 // si falla, solo no seteamos fichaId
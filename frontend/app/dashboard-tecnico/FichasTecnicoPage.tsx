@@ -229,6 +229,8 @@ const Section: React.FC<{
 
 export default function FichasTecnicasPage() {
     const [fichas, setFichas] = useState<FichaTecnicaDTO[]>([]);
+    const [siguienteCursor, setSiguienteCursor] = useState<string | null>(null);
+    const [cargandoMas, setCargandoMas] = useState(false);
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState<string | null>(null);
     const [showForm, setShowForm] = useState(false);
@@ -351,21 +353,42 @@ export default function FichasTecnicasPage() {
     };
 
     // ===== fetch =====
+    // El listado viene paginado por cursor: { fichas, siguienteCursor }
+    const fetchPagina = useCallback(async (cursor: string | null) => {
+        const params = cursor ? `?cursor=${encodeURIComponent(cursor)}` : "";
+        const res = await fetch(buildUrl(params), {
+            headers: token ? { Authorization: `Bearer ${token}` } : undefined,
+        });
+        if (!res.ok) throw new Error("Error al cargar fichas técnicas");
+        return (await res.json()) as { fichas: FichaTecnicaDTO[]; siguienteCursor: string | null };
+    }, [token]);
+
     const fetchFichas = useCallback(async () => {
         setLoading(true);
         try {
-            const res = await fetch(buildUrl(""), {
-                headers: token ? { Authorization: `Bearer ${token}` } : undefined,
-            });
-            if (!res.ok) throw new Error("Error al cargar fichas técnicas");
-            const data: FichaTecnicaDTO[] = await res.json();
-            setFichas(data);
+            const pagina = await fetchPagina(null);
+            setFichas(pagina.fichas);
+            setSiguienteCursor(pagina.siguienteCursor);
         } catch (e: any) {
             setError(e.message);
         } finally {
             setLoading(false);
         }
-    }, [token]);
+    }, [fetchPagina]);
+
+    const cargarMas = async () => {
+        if (!siguienteCursor) return;
+        setCargandoMas(true);
+        try {
+            const pagina = await fetchPagina(siguienteCursor);
+            setFichas((prev) => [...prev, ...pagina.fichas]);
+            setSiguienteCursor(pagina.siguienteCursor);
+        } catch (e: any) {
+            setError(e.message);
+        } finally {
+            setCargandoMas(false);
+        }
+    };
 
     useEffect(() => {
         fetchFichas();
@@ -488,6 +511,14 @@ export default function FichasTecnicasPage() {
                     ))}
                 </div>
             )}
+            {!loading && siguienteCursor && (
+                <div className="flex justify-center">
+                    <Button variant="outline" onClick={cargarMas} disabled={cargandoMas}>
+                        {cargandoMas && <Loader2 className="h-4 w-4 animate-spin mr-2" />}
+                        Cargar más
+                    </Button>
+                </div>
+            )}
 
             {/* === MODAL CREAR === */}
             {showForm && (
@@ -64,6 +64,8 @@ interface Usuario {
 interface ImagenDTO {
     id: number;
     ruta: string;
+    rutaMiniatura: string | null; // null mientras el backend genera las variantes
+    rutaMedia: string | null;
     categoria: string;
     descripcion: string | null;
     fechaSubida: string;
@@ -757,7 +759,9 @@ export default function OrdenesTrabajoPage() {
     const [imagenesNuevas, setImagenesNuevas] = useState<File[]>([]);
     const [categoriaImg, setCategoriaImg] = useState<string>("INGRESO");
 
-    const [selectedImg, setSelectedImg] = useState<string | null>(null);
+    const [selectedImg, setSelectedImg] = useState<ImagenDTO | null>(null);
+    // La vista ampliada carga la versión mediana; el original solo si se pide
+    const [verOriginal, setVerOriginal] = useState(false);
     const [imgFilterCategoria, setImgFilterCategoria] = useState<string>("");
 
     // === PASOS ===
@@ -1782,17 +1786,21 @@ export default function OrdenesTrabajoPage() {
                 return;
             }
 
-            const candidates = [
-                `${FICHAS_API_BASE}/orden/${ordenId}/equipo/${equipoId}`,
-                `${FICHAS_API_BASE}/ordenTrabajo/${ordenId}/equipo/${equipoId}`,
-                `${FICHAS_API_BASE}/orden/${ordenId}?equipoId=${equipoId}`,
-                `${FICHAS_API_BASE}?ordenTrabajoId=${ordenId}&equipoId=${equipoId}`,
-            ];
-
-            const raw = await tryFetchJson(candidates, token);
+            // El listado es paginado ({ fichas, siguienteCursor }) y solo trae la cabecera;
+            // se toma la más reciente y el detalle completo se pide por id
+            const pagina = await tryFetchJson(
+                [`${FICHAS_API_BASE}?ordenTrabajoId=${ordenId}&equipoId=${equipoId}&limite=1`],
+                token
+            );
+            const fichaId = (pagina as any)?.fichas?.[0]?.id;
+            if (!fichaId) {
+                setFichaError("No existe ficha técnica disponible para este caso.");
+                return;
+            }
 
+            const raw = await tryFetchJson([`${FICHAS_API_BASE}/${fichaId}`], token);
             if ((raw as any)?.__notFound) {
-                setFichaError("No se encontró ficha para esta OT/equipo (o el endpoint no existe).");
+                setFichaError("No se encontró la ficha seleccionada.");
                 return;
             }
 
@@ -2989,10 +2997,13 @@ export default function OrdenesTrabajoPage() {
                                                                                         <div
                                                                                             key={img.id}
                                                                                             className="group relative h-24 w-28 overflow-hidden rounded-lg border border-slate-200 bg-slate-100 cursor-pointer"
-                                                                                            onClick={() => setSelectedImg(img.ruta)}
+                                                                                            onClick={() => {
+                                                                                                setSelectedImg(img);
+                                                                                                setVerOriginal(false);
+                                                                                            }}
                                                                                         >
                                                                                             <SecureImage
-                                                                                                src={img.ruta}
+                                                                                                src={img.rutaMiniatura ?? img.ruta}
                                                                                                 alt={img.descripcion || "Imagen OT"}
                                                                                                 className="h-full w-full object-cover transition-transform group-hover:scale-110"
                                                                                             />
@@ -3260,8 +3271,17 @@ export default function OrdenesTrabajoPage() {
                                             <X className="h-4 w-4" />
                                         </button>
 
+                                        {selectedImg.rutaMedia && !verOriginal && (
+                                            <button
+                                                onClick={() => setVerOriginal(true)}
+                                                className="absolute left-2 top-2 rounded-full bg-black/70 px-3 py-1.5 text-xs font-medium text-white hover:bg-black/90 z-50"
+                                            >
+                                                Ver original
+                                            </button>
+                                        )}
+
                                         <SecureImage
-                                            src={selectedImg}
+                                            src={verOriginal || !selectedImg.rutaMedia ? selectedImg.ruta : selectedImg.rutaMedia}
                                             alt="Vista ampliada"
                                             className="max-h-[90vh] w-full rounded-md object-contain shadow-2xl"
                                         />
@@ -179,14 +179,14 @@ export const CrearFichaTecnicaModal: React.FC<CrearFichaTecnicaModalProps> = ({
             // Fallback: Si el backend no devolvió el ID claro, buscamos la última ficha de este OT
             if (!newId) {
                 await new Promise((r) => setTimeout(r, 800)); // Pequeña espera
-                const listRes = await fetch(`${API_BASE_URL}/api/fichas`, {
+                const listRes = await fetch(`${API_BASE_URL}/api/fichas?ordenTrabajoId=${ordenTrabajoId}`, {
                     headers: { Authorization: `Bearer ${token}` }
                 });
                 if (listRes.ok) {
-                    const allFichas = await listRes.json();
-                    if (Array.isArray(allFichas)) {
-                        // Filtramos por la OT actual
-                        const deEstaOrden = allFichas.filter((f: any) => Number(f.ordenTrabajoId) === Number(ordenTrabajoId));
+                    const pagina = await listRes.json();
+                    if (Array.isArray(pagina?.fichas)) {
+                        // El backend ya filtra por la OT actual
+                        const deEstaOrden = [...pagina.fichas];
                         // Ordenamos descendente por ID
                         deEstaOrden.sort((a: any, b: any) => b.id - a.id);
                         if (deEstaOrden.length > 0) newId = deEstaOrden[0].id;
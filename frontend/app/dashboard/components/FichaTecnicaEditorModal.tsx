@@ -911,10 +911,20 @@ export default function FichaTecnicaEditorModal({
 
       if (fichaRes.ok) {
         const fichasArray = await fichaRes.json();
-        const fichaEquipo = Array.isArray(fichasArray) && fichasArray.length > 0
+        const ultimaFicha = Array.isArray(fichasArray) && fichasArray.length > 0
           ? fichasArray[fichasArray.length - 1]
           : fichasArray;
 
+        // El listado solo trae la cabecera; el detalle completo se pide por id
+        const detalleRes = ultimaFicha && ultimaFicha.id
+          ? await fetch(`${FICHAS_API_BASE}/${ultimaFicha.id}`, {
+            headers: { Authorization: `Bearer ${token}` },
+          })
+          : null;
+        const fichaEquipo: FichaTecnicaDTO | null = detalleRes && detalleRes.ok
+          ? await detalleRes.json()
+          : null;
+
         if (fichaEquipo && fichaEquipo.id) {
           console.log("📋 Ficha anterior encontrada, completando campos faltantes...");
           // Autollenar los campos especificados que no se hayan llenado ya